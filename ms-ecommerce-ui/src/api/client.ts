@@ -23,13 +23,16 @@ export function setAuthToken(token: string | null) {
   localStorage.setItem(AUTH_TOKEN_KEY, token);
 }
 
-async function request<T>(
+const NEXT_CURSOR_HEADER = "X-Next-Cursor";
+const MAX_PAGE_SIZE = 200;
+
+async function send(
   base: string,
   path: string,
   method: HttpMethod = "GET",
   body?: unknown,
   options: RequestOptions = {}
-): Promise<T> {
+): Promise<Response> {
   let res: Response;
   const headers: Record<string, string> = {
     "Content-Type": "application/json",
@@ -72,13 +75,37 @@ async function request<T>(
     }
     throw new Error(message);
   }
+  return res;
+}
 
+async function request<T>(
+  base: string,
+  path: string,
+  method: HttpMethod = "GET",
+  body?: unknown,
+  options: RequestOptions = {}
+): Promise<T> {
+  const res = await send(base, path, method, body, options);
   if (res.status === 204) {
     return undefined as unknown as T;
   }
   return (await res.json()) as T;
 }
 
+// Listes paginees par curseur : les pages sont suivies (en-tete X-Next-Cursor) jusqu'a la derniere
+async function requestAllPages<T>(base: string, path: string): Promise<T[]> {
+  const items: T[] = [];
+  const separator = path.includes("?") ? "&" : "?";
+  let cursor: string | null = null;
+  do {
+    const query: string = `limit=${MAX_PAGE_SIZE}` + (cursor ? `&cursor=${encodeURIComponent(cursor)}` : "");
+    const res = await send(base, `${path}${separator}${query}`);
+    items.push(...((await res.json()) as T[]));
+    cursor = res.headers.get(NEXT_CURSOR_HEADER);
+  } while (cursor);
+  return items;
+}
+
 export const api = {
   auth: {
     login: (payload: { email: string; password: string }) =>
@@ -115,9 +142,9 @@ export const api = {
     deactivate: (id: number) => request<any>(MEMBERSHIP_API, `/api/v1/users/${id}/deactivate`, "PATCH")
   },
   orders: {
-    list: () => request<any[]>(ORDER_API, "/api/v1/orders"),
+    list: () => requestAllPages<any>(ORDER_API, "/api/v1/orders"),
     get: (id: number) => request<any>(ORDER_API, `/api/v1/orders/${id}`),
-    byStatus: (status: string) => request<any[]>(ORDER_API, `/api/v1/orders/status/${status}`),
+    byStatus: (status: string) => requestAllPages<any>(ORDER_API, `/api/v1/orders/status/${status}`),
     create: (payload: any) => request(ORDER_API, "/api/v1/orders", "POST", payload),
     updateStatus: (id: number, status: string) =>
       request(ORDER_API, `/api/v1/orders/${id}/status`, "PUT", { status }),
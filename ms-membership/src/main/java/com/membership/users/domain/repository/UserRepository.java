@@ -50,4 +50,23 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("SELECT COUNT(u) FROM User u WHERE u.active = true")
     long countActiveUsers();
+
+    /**
+     * Compte les utilisateurs et les utilisateurs actifs en une seule requete
+     */
+    @Query("""
+        SELECT COUNT(u) AS totalUsers,
+               COALESCE(SUM(CASE WHEN u.active = true THEN 1 ELSE 0 END), 0) AS activeUsers
+        FROM User u
+    """)
+    UserCounts countUsers();
+
+    /**
+     * Projection des compteurs d'utilisateurs
+     */
+    interface UserCounts {
+        long getTotalUsers();
+
+        long getActiveUsers();
+    }
 }
@@ -6,7 +6,8 @@ import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
-import com.membership.users.domain.repository.UserRepository;
+import com.membership.users.infrastructure.monitoring.PeriodicSnapshot;
+import com.membership.users.infrastructure.monitoring.UserStatsSnapshot;
 
 /**
  * Health Indicator personnalisé pour vérifier l'état de la base de données.
@@ -15,39 +16,34 @@ import com.membership.users.domain.repository.UserRepository;
  * - Fournit des détails utiles pour le debugging
  * - Gère les exceptions proprement
  * - Utilisé par /actuator/health
+ * - Lit l'instantané rafraîchi en arrière-plan : une sonde n'interroge jamais la base
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class DatabaseHealthIndicator implements HealthIndicator {
 
-    private final UserRepository userRepository;
+    private final UserStatsSnapshot userStatsSnapshot;
 
     @Override
     public Health health() {
-        try {
-            // Vérifie la connexion à la base de données
-            long userCount = userRepository.count();
-            long activeUserCount = userRepository.countActiveUsers();
-            
-            log.debug("Health check database - Total users: {}, Active users: {}", 
-                    userCount, activeUserCount);
-            
-            return Health.up()
-                    .withDetail("database", "PostgreSQL")
-                    .withDetail("status", "Connection OK")
-                    .withDetail("totalUsers", userCount)
-                    .withDetail("activeUsers", activeUserCount)
-                    .build();
-                    
-        } catch (Exception e) {
-            log.error("Health check database failed", e);
-            
-            return Health.down()
-                    .withDetail("database", "PostgreSQL")
-                    .withDetail("status", "Connection Failed")
-                    .withDetail("error", e.getMessage())
-                    .build();
+        PeriodicSnapshot<UserStatsSnapshot.UserStats> snapshot = userStatsSnapshot.snapshot();
+        Health.Builder builder = new Health.Builder()
+                .withDetail("database", "PostgreSQL");
+
+        // Le dernier rafraîchissement a échoué, n'a pas encore eu lieu ou est trop ancien
+        if (!snapshot.describe(builder)) {
+            return builder.build();
         }
+
+        UserStatsSnapshot.UserStats stats = snapshot.current().orElseThrow();
+        log.debug("Health check database - Total users: {}, Active users: {}",
+                stats.totalUsers(), stats.activeUsers());
+
+        return builder.up()
+                .withDetail("status", "Connection OK")
+                .withDetail("totalUsers", stats.totalUsers())
+                .withDetail("activeUsers", stats.activeUsers())
+                .build();
     }
 }
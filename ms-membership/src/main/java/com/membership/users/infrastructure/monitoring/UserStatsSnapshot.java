@@ -0,0 +1,45 @@
+package com.membership.users.infrastructure.monitoring;
+
+import com.membership.users.domain.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Instantane des compteurs d'utilisateurs lus par l'indicateur de sante de la base,
+ * relu periodiquement en une seule requete.
+ */
+@Component
+public class UserStatsSnapshot {
+
+    public record UserStats(long totalUsers, long activeUsers) {
+    }
+
+    private final UserRepository userRepository;
+    private final PeriodicSnapshot<UserStats> snapshot;
+
+    public UserStatsSnapshot(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${monitoring.snapshot.refresh-ms:15000}") long refreshMs) {
+        this.userRepository = userRepository;
+        this.snapshot = new PeriodicSnapshot<>("user-stats", this::load, Duration.ofMillis(refreshMs * 3), meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${monitoring.snapshot.refresh-ms:15000}")
+    public void refresh() {
+        snapshot.refresh();
+    }
+
+    public PeriodicSnapshot<UserStats> snapshot() {
+        return snapshot;
+    }
+
+    private UserStats load() {
+        UserRepository.UserCounts counts = userRepository.countUsers();
+        return new UserStats(counts.getTotalUsers(), counts.getActiveUsers());
+    }
+}
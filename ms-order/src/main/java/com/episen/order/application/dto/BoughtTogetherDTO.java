@@ -0,0 +1,18 @@
+package com.episen.order.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BoughtTogetherDTO {
+
+    private Long productId;
+
+    // Commandes (hors annulations) contenant les deux produits
+    private long orderCount;
+}
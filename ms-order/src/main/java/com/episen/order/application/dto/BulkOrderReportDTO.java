@@ -0,0 +1,28 @@
+package com.episen.order.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkOrderReportDTO {
+
+    private int received;
+    private int created;
+    private int rejected;
+
+    // Renseigne si la lecture du flux s'est arretee avant la fin du tableau
+    private String error;
+
+    @Builder.Default
+    private List<BulkOrderResultDTO> results = new ArrayList<>();
+}
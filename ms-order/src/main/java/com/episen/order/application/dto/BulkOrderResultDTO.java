@@ -0,0 +1,27 @@
+package com.episen.order.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkOrderResultDTO {
+
+    public enum Outcome {
+        CREATED,
+        REJECTED
+    }
+
+    // Position de la commande dans le tableau recu (a partir de 0)
+    private int index;
+
+    private Outcome outcome;
+    private Long orderId;
+    private String message;
+}
@@ -0,0 +1,24 @@
+package com.episen.order.application.dto;
+
+import com.episen.order.domain.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkStatusUpdateReportDTO {
+
+    private OrderStatus status;
+    private int updated;
+    private int rejected;
+
+    @Builder.Default
+    private List<BulkStatusUpdateResultDTO> results = new ArrayList<>();
+}
@@ -0,0 +1,41 @@
+package com.episen.order.application.dto;
+
+import com.episen.order.domain.enums.OrderStatus;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Transition de statut groupee : soit une liste d'identifiants, soit un filtre
+ * (statut courant, commandes passees avant une date).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkStatusUpdateRequest {
+
+    public static final int MAX_ORDERS = 1000;
+
+    @NotNull(message = "Le statut est obligatoire")
+    private OrderStatus status;
+
+    @Size(max = MAX_ORDERS, message = "La liste des identifiants ne peut pas depasser 1000 elements")
+    private List<@NotNull(message = "L'identifiant de commande est obligatoire") Long> ids;
+
+    // Filtre, utilise lorsque ids est absent
+    private OrderStatus currentStatus;
+    private LocalDateTime orderedBefore;
+
+    @Min(value = 1, message = "La limite doit etre au moins 1")
+    @Max(value = MAX_ORDERS, message = "La limite ne peut pas depasser 1000")
+    private Integer limit;
+}
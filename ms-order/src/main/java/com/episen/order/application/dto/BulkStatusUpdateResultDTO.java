@@ -0,0 +1,28 @@
+package com.episen.order.application.dto;
+
+import com.episen.order.domain.enums.OrderStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkStatusUpdateResultDTO {
+
+    public enum Outcome {
+        UPDATED,
+        NOT_FOUND,
+        NOT_MODIFIABLE
+    }
+
+    private Long orderId;
+    private Outcome outcome;
+
+    // Statut avant la transition (ou statut bloquant pour NOT_MODIFIABLE)
+    private OrderStatus previousStatus;
+}
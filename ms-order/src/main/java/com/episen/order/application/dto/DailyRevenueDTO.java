@@ -0,0 +1,26 @@
+package com.episen.order.application.dto;
+
+import com.episen.order.domain.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyRevenueDTO {
+
+    private LocalDate date;
+    private long orderCount;
+
+    // Chiffre d'affaires hors commandes annulees
+    private BigDecimal revenue;
+
+    private Map<OrderStatus, Long> ordersByStatus;
+}
@@ -0,0 +1,48 @@
+package com.episen.order.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Activite commerciale de l'instance sur les dernieres 1 minute, 5 minutes et 1 heure.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderActivityDTO {
+
+    private LocalDateTime capturedAt;
+
+    private List<WindowActivity> windows;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class WindowActivity {
+
+        // 1m, 5m ou 1h
+        private String window;
+
+        private long orders;
+
+        private double ordersPerSecond;
+
+        private BigDecimal revenue;
+
+        private long items;
+
+        private BigDecimal averageBasket;
+
+        private long cancelledOrders;
+
+        private BigDecimal cancelledRevenue;
+    }
+}
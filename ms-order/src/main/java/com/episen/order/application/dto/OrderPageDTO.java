@@ -0,0 +1,20 @@
+package com.episen.order.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderPageDTO<T> {
+
+    private List<T> content;
+
+    // Curseur de la page suivante, null s'il s'agit de la derniere page
+    private String nextCursor;
+}
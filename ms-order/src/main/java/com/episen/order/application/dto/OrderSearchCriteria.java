@@ -0,0 +1,35 @@
+package com.episen.order.application.dto;
+
+import com.episen.order.domain.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Criteres de la recherche de commandes, tous optionnels et combines par ET.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSearchCriteria {
+
+    private Long userId;
+    private Set<OrderStatus> statuses;
+
+    // Periode de commande [from, to[
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    // Montant total dans [minAmount, maxAmount]
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+
+    // Commandes contenant au moins une ligne de ce produit
+    private Long productId;
+}
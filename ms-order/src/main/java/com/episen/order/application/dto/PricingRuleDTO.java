@@ -0,0 +1,42 @@
+package com.episen.order.application.dto;
+
+import com.episen.order.domain.enums.Category;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Regle de prix appliquee au passage de commande. Les champs utilises dependent du type :
+ * CATEGORY_PERCENT_OFF (category, percentOff), BUY_N_GET_M (productId, buyQuantity,
+ * freeQuantity), BASKET_THRESHOLD (minAmount, percentOff et/ou amountOff).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PricingRuleDTO {
+
+    public enum Type {
+        CATEGORY_PERCENT_OFF,
+        BUY_N_GET_M,
+        BASKET_THRESHOLD
+    }
+
+    private Type type;
+
+    private Category category;
+
+    private Long productId;
+    private Integer buyQuantity;
+    private Integer freeQuantity;
+
+    // Montant de marchandise a atteindre, remises de lot et de categorie deduites
+    private BigDecimal minAmount;
+
+    // Pourcentage, deux decimales au plus (12.5 pour 12,5 %)
+    private BigDecimal percentOff;
+    private BigDecimal amountOff;
+}
@@ -0,0 +1,26 @@
+package com.episen.order.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Produits le plus souvent commandes avec un produit, tels que calcules
+ * lors du dernier rafraichissement.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductRecommendationsDTO {
+
+    private Long productId;
+
+    private LocalDateTime refreshedAt;
+
+    private List<BoughtTogetherDTO> products;
+}
@@ -0,0 +1,18 @@
+package com.episen.order.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReadModelRebuildReportDTO {
+
+    private int chunks;
+    private long refreshed;
+    private long removed;
+    private long durationMs;
+}
@@ -0,0 +1,21 @@
+package com.episen.order.application.dto;
+
+import com.episen.order.domain.enums.Category;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopProductDTO {
+
+    private Long productId;
+
+    // Categorie du produit lors de sa derniere vente, null si inconnue
+    private Category category;
+
+    private long unitsSold;
+}
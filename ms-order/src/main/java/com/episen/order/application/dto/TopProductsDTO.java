@@ -0,0 +1,30 @@
+package com.episen.order.application.dto;
+
+import com.episen.order.application.service.TopProductsService;
+import com.episen.order.domain.enums.Category;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Meilleures ventes d'une fenetre, toutes categories ou pour une categorie,
+ * telles que calculees lors du dernier rafraichissement.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopProductsDTO {
+
+    private TopProductsService.Window window;
+
+    private Category category;
+
+    private LocalDateTime refreshedAt;
+
+    private List<TopProductDTO> products;
+}
@@ -0,0 +1,348 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.BulkOrderReportDTO;
+import com.episen.order.application.dto.BulkOrderResultDTO;
+import com.episen.order.application.dto.OrderItemRequestDTO;
+import com.episen.order.application.dto.OrderRequestDTO;
+import com.episen.order.application.mapper.OrderItemMapper;
+import com.episen.order.application.mapper.OrderMapper;
+import com.episen.order.domain.entity.Order;
+import com.episen.order.domain.entity.OrderItem;
+import com.episen.order.domain.repository.OrderRepository;
+import com.episen.order.infrastructure.client.ProductClient;
+import com.episen.order.infrastructure.client.UserExistenceCache;
+import com.episen.order.infrastructure.concurrent.RemoteCallExecutor;
+import com.episen.order.infrastructure.concurrent.RemoteCallScope;
+import com.episen.order.infrastructure.monitoring.OrderActivityWindows;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Import en masse de commandes (partenaires B2B) : le tableau JSON est lu en flux et traite
+ * par lots. Pour chaque lot, utilisateurs et produits sont verifies en quelques appels, puis
+ * commandes, articles, reservations de stock et cumuls sont ecrits dans une seule transaction
+ * avec des INSERT regroupes. Chaque commande recoit un resultat individuel.
+ */
+@Slf4j
+@Service
+public class BulkOrderService {
+
+    private record PendingOrder(int index, OrderRequestDTO request) {
+    }
+
+    private record AcceptedOrder(int index, Order order, Map<Long, Integer> quantities) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final OrderRepository orderRepository;
+    private final OrderMapper orderMapper;
+    private final OrderItemMapper orderItemMapper;
+    private final UserExistenceCache userExistenceCache;
+    private final ProductClient productClient;
+    private final RemoteCallExecutor remoteCallExecutor;
+    private final StockEventPublisher stockEventPublisher;
+    private final SalesRollupService salesRollupService;
+    private final TopProductsService topProductsService;
+    private final ProductRecommendationService productRecommendationService;
+    private final OrderActivityWindows orderActivityWindows;
+    private final OrderReadModelService orderReadModelService;
+    private final OrderPricingService orderPricingService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final int maxOrders;
+
+    public BulkOrderService(
+            ObjectMapper objectMapper,
+            Validator validator,
+            OrderRepository orderRepository,
+            OrderMapper orderMapper,
+            OrderItemMapper orderItemMapper,
+            UserExistenceCache userExistenceCache,
+            ProductClient productClient,
+            RemoteCallExecutor remoteCallExecutor,
+            StockEventPublisher stockEventPublisher,
+            SalesRollupService salesRollupService,
+            TopProductsService topProductsService,
+            ProductRecommendationService productRecommendationService,
+            OrderActivityWindows orderActivityWindows,
+            OrderReadModelService orderReadModelService,
+            OrderPricingService orderPricingService,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${order.bulk.chunk-size:500}") int chunkSize,
+            @Value("${order.bulk.max-orders:100000}") int maxOrders) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.orderRepository = orderRepository;
+        this.orderMapper = orderMapper;
+        this.orderItemMapper = orderItemMapper;
+        this.userExistenceCache = userExistenceCache;
+        this.productClient = productClient;
+        this.remoteCallExecutor = remoteCallExecutor;
+        this.stockEventPublisher = stockEventPublisher;
+        this.salesRollupService = salesRollupService;
+        this.topProductsService = topProductsService;
+        this.productRecommendationService = productRecommendationService;
+        this.orderActivityWindows = orderActivityWindows;
+        this.orderReadModelService = orderReadModelService;
+        this.orderPricingService = orderPricingService;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.maxOrders = maxOrders;
+    }
+
+    /**
+     * Importe un tableau JSON de commandes. Les lots deja enregistres le restent si la lecture
+     * echoue en cours de flux ; l'erreur est alors indiquee dans le rapport.
+     *
+     * @param input corps de la requete, tableau JSON de {@link OrderRequestDTO}
+     * @return rapport avec un resultat par commande, dans l'ordre du tableau
+     * @throws IllegalArgumentException si le corps n'est pas un tableau JSON
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkOrderReportDTO ingest(InputStream input) throws IOException {
+        BulkOrderReportDTO report = BulkOrderReportDTO.builder().build();
+        // Quantites engagees par les lots precedents : le stock lu dans ms-product ne les reflete
+        // qu'apres livraison des reservations par le relais outbox
+        Map<Long, Integer> reservedStock = new HashMap<>();
+        List<PendingOrder> chunk = new ArrayList<>(chunkSize);
+
+        try (JsonParser parser = objectMapper.createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Le corps de la requete doit etre un tableau JSON de commandes");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    report.setError("Tableau JSON incomplet apres " + report.getReceived() + " element(s)");
+                    break;
+                }
+                if (report.getReceived() >= maxOrders) {
+                    report.setError("Limite de " + maxOrders + " commandes atteinte, elements suivants ignores");
+                    break;
+                }
+                JsonNode node = parser.readValueAsTree();
+                int index = report.getReceived();
+                report.setReceived(index + 1);
+
+                OrderRequestDTO request;
+                try {
+                    request = objectMapper.treeToValue(node, OrderRequestDTO.class);
+                } catch (JsonProcessingException e) {
+                    reject(report, index, "Commande illisible: " + e.getOriginalMessage());
+                    continue;
+                }
+                String violations = validate(request);
+                if (violations != null) {
+                    reject(report, index, violations);
+                    continue;
+                }
+
+                chunk.add(new PendingOrder(index, request));
+                if (chunk.size() == chunkSize) {
+                    processChunk(chunk, reservedStock, report);
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            report.setError("JSON invalide apres " + report.getReceived() + " element(s): " + e.getOriginalMessage());
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, reservedStock, report);
+        }
+
+        report.getResults().sort(Comparator.comparingInt(BulkOrderResultDTO::getIndex));
+        log.info("Import en masse termine: {} recue(s), {} creee(s), {} rejetee(s)",
+                report.getReceived(), report.getCreated(), report.getRejected());
+        return report;
+    }
+
+    private String validate(OrderRequestDTO request) {
+        Set<ConstraintViolation<OrderRequestDTO>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private void processChunk(List<PendingOrder> chunk, Map<Long, Integer> reservedStock, BulkOrderReportDTO report) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (PendingOrder pending : chunk) {
+            userIds.add(pending.request().getUserId());
+            pending.request().getItems().forEach(item -> productIds.add(item.getProductId()));
+        }
+
+        // Utilisateurs (cache local, appels paralleles) et produits (endpoint batch) verifies en une passe
+        Map<Long, Boolean> existingUsers = new HashMap<>();
+        Map<Long, ProductClient.ProductResponseDTO> products;
+        try (RemoteCallScope scope = remoteCallExecutor.openScope()) {
+            Map<Long, Supplier<Boolean>> userChecks = new HashMap<>();
+            for (Long userId : userIds) {
+                userChecks.put(userId, scope.fork(() -> userExistenceCache.userExists(userId)));
+            }
+            Supplier<Map<Long, ProductClient.ProductResponseDTO>> productLookup =
+                    scope.fork(() -> productClient.findProducts(productIds));
+            scope.join();
+            userChecks.forEach((userId, check) -> existingUsers.put(userId, check.get()));
+            products = productLookup.get();
+        } catch (RuntimeException e) {
+            log.warn("Verification d'un lot de {} commande(s) impossible: {}", chunk.size(), e.getMessage());
+            chunk.forEach(pending -> reject(report, pending.index(), "Verification impossible: " + e.getMessage()));
+            return;
+        }
+
+        Map<Long, Integer> chunkReserved = new HashMap<>();
+        List<AcceptedOrder> accepted = new ArrayList<>();
+        for (PendingOrder pending : chunk) {
+            String rejection = checkOrder(pending.request(), existingUsers, products, reservedStock, chunkReserved);
+            if (rejection != null) {
+                reject(report, pending.index(), rejection);
+                continue;
+            }
+            Order order;
+            try {
+                order = buildOrder(pending.request(), products);
+            } catch (IllegalArgumentException e) {
+                reject(report, pending.index(), e.getMessage());
+                continue;
+            }
+            Map<Long, Integer> quantities = sumQuantitiesByProduct(pending.request().getItems());
+            quantities.forEach((productId, quantity) -> chunkReserved.merge(productId, quantity, Integer::sum));
+            accepted.add(new AcceptedOrder(pending.index(), order, quantities));
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        List<Order> orders = accepted.stream().map(AcceptedOrder::order).collect(Collectors.toList());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                orderRepository.saveAll(orders);
+                stockEventPublisher.enqueueReservations(orders);
+                topProductsService.recordCreated(orders, products);
+                productRecommendationService.recordCreated(orders);
+                orderReadModelService.refresh(orders.stream().map(Order::getId).toList());
+                salesRollupService.recordCreated(orders);
+            });
+        } catch (RuntimeException e) {
+            log.error("Enregistrement d'un lot de {} commande(s) impossible", orders.size(), e);
+            accepted.forEach(order -> reject(report, order.index(), "Enregistrement impossible: " + e.getMessage()));
+            return;
+        }
+
+        chunkReserved.forEach((productId, quantity) -> reservedStock.merge(productId, quantity, Integer::sum));
+        orderActivityWindows.recordCreated(orders);
+        for (AcceptedOrder order : accepted) {
+            report.getResults().add(BulkOrderResultDTO.builder()
+                    .index(order.index())
+                    .outcome(BulkOrderResultDTO.Outcome.CREATED)
+                    .orderId(order.order().getId())
+                    .build());
+        }
+        report.setCreated(report.getCreated() + accepted.size());
+        countResults(BulkOrderResultDTO.Outcome.CREATED, accepted.size());
+        orders.stream()
+                .collect(Collectors.groupingBy(Order::getStatus, Collectors.counting()))
+                .forEach((status, count) -> Counter.builder("orders.created")
+                        .description("Nombre de commandes creees")
+                        .tag("status", status.name())
+                        .register(meterRegistry)
+                        .increment(count));
+        log.debug("Lot de {} commande(s) enregistre", accepted.size());
+    }
+
+    private String checkOrder(OrderRequestDTO request,
+                              Map<Long, Boolean> existingUsers,
+                              Map<Long, ProductClient.ProductResponseDTO> products,
+                              Map<Long, Integer> reservedStock,
+                              Map<Long, Integer> chunkReserved) {
+        if (!Boolean.TRUE.equals(existingUsers.get(request.getUserId()))) {
+            return "Utilisateur introuvable: " + request.getUserId();
+        }
+        for (Map.Entry<Long, Integer> line : sumQuantitiesByProduct(request.getItems()).entrySet()) {
+            ProductClient.ProductResponseDTO product = products.get(line.getKey());
+            if (product == null) {
+                return "Produit introuvable: " + line.getKey();
+            }
+            int available = product.getStock()
+                    - reservedStock.getOrDefault(line.getKey(), 0)
+                    - chunkReserved.getOrDefault(line.getKey(), 0);
+            if (available < line.getValue()) {
+                return "Stock insuffisant pour le produit: " + product.getName()
+                        + ". Stock disponible: " + Math.max(available, 0)
+                        + ", Quantite demandee: " + line.getValue();
+            }
+        }
+        return null;
+    }
+
+    private Order buildOrder(OrderRequestDTO request, Map<Long, ProductClient.ProductResponseDTO> products) {
+        List<OrderItem> items = new ArrayList<>();
+        for (OrderItemRequestDTO itemDto : request.getItems()) {
+            ProductClient.ProductResponseDTO product = products.get(itemDto.getProductId());
+            items.add(orderItemMapper.toEntity(itemDto, product.getName(), product.getPrice()));
+        }
+        Order order = orderMapper.toEntity(request, items);
+        orderPricingService.price(order, products);
+        return order;
+    }
+
+    private Map<Long, Integer> sumQuantitiesByProduct(List<OrderItemRequestDTO> items) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItemRequestDTO item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private void reject(BulkOrderReportDTO report, int index, String message) {
+        report.getResults().add(BulkOrderResultDTO.builder()
+                .index(index)
+                .outcome(BulkOrderResultDTO.Outcome.REJECTED)
+                .message(message)
+                .build());
+        report.setRejected(report.getRejected() + 1);
+        countResults(BulkOrderResultDTO.Outcome.REJECTED, 1);
+    }
+
+    private void countResults(BulkOrderResultDTO.Outcome outcome, int count) {
+        Counter.builder("orders.bulk.results")
+                .description("Commandes recues par l'import en masse, par resultat")
+                .tag("outcome", outcome.name())
+                .register(meterRegistry)
+                .increment(count);
+    }
+}
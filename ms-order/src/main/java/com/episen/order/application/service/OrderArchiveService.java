@@ -0,0 +1,128 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.ArchiveReportDTO;
+import com.episen.order.domain.entity.Order;
+import com.episen.order.domain.repository.OrderRepository;
+import com.episen.order.domain.repository.OrderViewRepository;
+import com.episen.order.infrastructure.archive.OrderArchive;
+import com.episen.order.infrastructure.persistence.AdvisoryLocks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Archivage des commandes terminees (DELIVERED, CANCELLED) passees depuis plus que la retention :
+ * par paquets d'identifiants croissants, les commandes sont ecrites dans un segment de l'archive
+ * puis supprimees de la base (articles et documents du modele de lecture compris) par lots.
+ *
+ * Une seule instance archive a la fois (verrou consultatif tenu pendant toute l'execution). Le
+ * segment est publie dans le catalogue commun avant toute suppression : une interruption entre
+ * les deux laisse la commande en base et dans l'archive, les lectures privilegient la base et
+ * l'execution suivante archive a nouveau puis supprime. Les agregats de ventes, classements et
+ * recommandations ne sont pas modifies : ils continuent de compter les commandes archivees.
+ *
+ * Seules la lecture par identifiant, l'historique d'un utilisateur et les produits references
+ * consultent l'archive ; les listes par statut ou completes, la recherche, l'export et la
+ * reconstruction du modele de lecture ne portent que sur les commandes en base.
+ */
+@Slf4j
+@Service
+public class OrderArchiveService {
+
+    static final String ARCHIVE_LOCK = "order_archive";
+
+    private final OrderRepository orderRepository;
+    private final OrderViewRepository orderViewRepository;
+    private final OrderArchive orderArchive;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final int retentionDays;
+    private final int segmentSize;
+    private final int deleteBatchSize;
+
+    public OrderArchiveService(
+            OrderRepository orderRepository,
+            OrderViewRepository orderViewRepository,
+            OrderArchive orderArchive,
+            TransactionTemplate transactionTemplate,
+            JdbcTemplate jdbcTemplate,
+            @Value("${order.archive.retention-days:365}") int retentionDays,
+            @Value("${order.archive.segment-size:10000}") int segmentSize,
+            @Value("${order.archive.delete-batch-size:500}") int deleteBatchSize) {
+        this.orderRepository = orderRepository;
+        this.orderViewRepository = orderViewRepository;
+        this.orderArchive = orderArchive;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionDays = retentionDays;
+        this.segmentSize = segmentSize;
+        this.deleteBatchSize = deleteBatchSize;
+    }
+
+    /**
+     * Archive les commandes terminees plus anciennes que la retention.
+     *
+     * @throws IllegalStateException si un archivage est deja en cours sur cette instance ou une autre
+     */
+    public ArchiveReportDTO archive() {
+        return tryArchive().orElseThrow(() -> new IllegalStateException("Un archivage des commandes est deja en cours"));
+    }
+
+    // Planifie sur chaque instance : celles qui trouvent le verrou pris n'archivent pas
+    @Scheduled(cron = "${order.archive.cron:0 0 4 * * *}")
+    public void scheduledArchive() {
+        if (tryArchive().isEmpty()) {
+            log.info("Archivage planifie ignore: deja en cours sur une autre instance");
+        }
+    }
+
+    private Optional<ArchiveReportDTO> tryArchive() {
+        return AdvisoryLocks.tryWithSessionLock(jdbcTemplate, ARCHIVE_LOCK,
+                () -> archiveBefore(LocalDateTime.now().minusDays(retentionDays)));
+    }
+
+    private ArchiveReportDTO archiveBefore(LocalDateTime orderedBefore) {
+        long start = System.currentTimeMillis();
+        int segments = 0;
+        long archived = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = orderRepository.findArchivableIds(orderedBefore, afterId, segmentSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            List<Order> orders = transactionTemplate.execute(status -> orderRepository.findAllWithItemsByIdIn(ids));
+            orderArchive.append(orders);
+            segments++;
+
+            List<Long> archivedIds = orders.stream().map(Order::getId).toList();
+            for (int from = 0; from < archivedIds.size(); from += deleteBatchSize) {
+                List<Long> batch = archivedIds.subList(from, Math.min(from + deleteBatchSize, archivedIds.size()));
+                archived += transactionTemplate.execute(status -> {
+                    orderRepository.deleteArchivedItems(batch, orderedBefore);
+                    orderViewRepository.deleteByOrderIdIn(batch);
+                    return orderRepository.deleteArchived(batch, orderedBefore);
+                });
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        if (segments > 0) {
+            log.info("Archivage des commandes anterieures au {}: {} commande(s) en {} segment(s), {} ms",
+                    orderedBefore.toLocalDate(), archived, segments, durationMs);
+        }
+        return ArchiveReportDTO.builder()
+                .segments(segments)
+                .archived(archived)
+                .durationMs(durationMs)
+                .build();
+    }
+}
@@ -0,0 +1,319 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.OrderItemResponseDTO;
+import com.episen.order.application.dto.OrderResponseDTO;
+import com.episen.order.domain.enums.OrderStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Export des commandes en flux (NDJSON ou CSV) lu depuis un curseur JDBC en avant seulement :
+ * la memoire consommee ne depend pas du nombre de commandes exportees.
+ */
+@Slf4j
+@Service
+public class OrderExportService {
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Format d'export non supporte: " + value);
+            }
+        }
+    }
+
+    private static final String CSV_HEADER = "order_id,user_id,order_date,status,total_amount,shipping_address,"
+            + "item_id,product_id,product_name,quantity,unit_price,subtotal";
+
+    private static final String BASE_QUERY = """
+            SELECT o.id, o.user_id, o.order_date, o.status, o.total_amount, o.shipping_address,
+                   o.created_at, o.updated_at,
+                   i.id AS item_id, i.product_id, i.product_name, i.quantity, i.unit_price, i.subtotal
+            FROM orders o
+            LEFT JOIN order_items i ON i.order_id = o.id AND i.order_date = o.order_date
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int fetchSize;
+
+    public OrderExportService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${order.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Prepare l'export ; les filtres sont valides immediatement, la lecture n'a lieu
+     * qu'a l'ecriture de la reponse.
+     *
+     * @param format format de sortie
+     * @param from   date de commande minimale incluse, optionnelle
+     * @param to     date de commande maximale exclue, optionnelle
+     * @param status statut des commandes, optionnel
+     * @return corps de reponse ecrit en flux
+     */
+    public StreamingResponseBody export(Format format, LocalDateTime from, LocalDateTime to, OrderStatus status) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("La date de debut doit etre anterieure a la date de fin");
+        }
+        return outputStream -> {
+            log.info("Export des commandes au format {} (from={}, to={}, status={})", format, from, to, status);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            ExportWriter exportWriter = format == Format.CSV ? new CsvExportWriter(writer) : new NdjsonExportWriter(writer);
+            // Le pilote PostgreSQL ne lit par lots (fetch size) qu'a l'interieur d'une transaction
+            readOnlyTransaction.executeWithoutResult(transaction -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(buildQuery(from, to, status),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                int index = 1;
+                if (from != null) {
+                    statement.setTimestamp(index++, Timestamp.valueOf(from));
+                }
+                if (to != null) {
+                    statement.setTimestamp(index++, Timestamp.valueOf(to));
+                }
+                if (status != null) {
+                    statement.setString(index, status.name());
+                }
+                return statement;
+            }, exportWriter));
+            exportWriter.finish();
+            writer.flush();
+            Counter.builder("orders.exported")
+                    .description("Nombre de commandes exportees")
+                    .tag("format", format.name())
+                    .register(meterRegistry)
+                    .increment(exportWriter.exportedOrders());
+        };
+    }
+
+    private String buildQuery(LocalDateTime from, LocalDateTime to, OrderStatus status) {
+        List<String> conditions = new ArrayList<>();
+        if (from != null) {
+            conditions.add("o.order_date >= ?");
+        }
+        if (to != null) {
+            conditions.add("o.order_date < ?");
+        }
+        if (status != null) {
+            conditions.add("o.status = ?");
+        }
+        String where = conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + "\n";
+        return BASE_QUERY + where + "ORDER BY o.id, i.id";
+    }
+
+    /**
+     * Ecrit les lignes (une par article) au fil de la lecture du curseur.
+     */
+    private abstract static class ExportWriter implements RowCallbackHandler {
+
+        protected final Writer writer;
+        private long exportedOrders;
+        private Long currentOrderId;
+
+        ExportWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                long orderId = rs.getLong("id");
+                if (currentOrderId == null || currentOrderId != orderId) {
+                    endOrder();
+                    currentOrderId = orderId;
+                    exportedOrders++;
+                    startOrder(rs);
+                }
+                long itemId = rs.getLong("item_id");
+                addItem(rs, rs.wasNull() ? null : itemId);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            endOrder();
+        }
+
+        long exportedOrders() {
+            return exportedOrders;
+        }
+
+        protected abstract void startOrder(ResultSet rs) throws SQLException, IOException;
+
+        protected abstract void addItem(ResultSet rs, Long itemId) throws SQLException, IOException;
+
+        protected abstract void endOrder() throws IOException;
+    }
+
+    /**
+     * Une ligne JSON par commande, articles inclus ; seule la commande courante est gardee en memoire.
+     */
+    private class NdjsonExportWriter extends ExportWriter {
+
+        private final SequenceWriter sequenceWriter;
+        private OrderResponseDTO currentOrder;
+
+        NdjsonExportWriter(Writer writer) throws IOException {
+            super(writer);
+            this.sequenceWriter = objectMapper.writer().withRootValueSeparator("\n").writeValues(writer);
+        }
+
+        @Override
+        protected void startOrder(ResultSet rs) throws SQLException {
+            currentOrder = OrderResponseDTO.builder()
+                    .id(rs.getLong("id"))
+                    .userId(rs.getLong("user_id"))
+                    .orderDate(toLocalDateTime(rs.getTimestamp("order_date")))
+                    .status(OrderStatus.valueOf(rs.getString("status")))
+                    .totalAmount(rs.getBigDecimal("total_amount"))
+                    .shippingAddress(rs.getString("shipping_address"))
+                    .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                    .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+                    .items(new ArrayList<>())
+                    .build();
+        }
+
+        @Override
+        protected void addItem(ResultSet rs, Long itemId) throws SQLException {
+            if (itemId == null) {
+                return;
+            }
+            currentOrder.getItems().add(OrderItemResponseDTO.builder()
+                    .id(itemId)
+                    .productId(rs.getLong("product_id"))
+                    .productName(rs.getString("product_name"))
+                    .quantity(rs.getInt("quantity"))
+                    .unitPrice(rs.getBigDecimal("unit_price"))
+                    .subtotal(rs.getBigDecimal("subtotal"))
+                    .build());
+        }
+
+        @Override
+        protected void endOrder() throws IOException {
+            if (currentOrder != null) {
+                sequenceWriter.write(currentOrder);
+                currentOrder = null;
+            }
+        }
+
+        @Override
+        void finish() throws IOException {
+            super.finish();
+            sequenceWriter.flush();
+            if (exportedOrders() > 0) {
+                writer.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Une ligne CSV par article, les colonnes de la commande etant repetees.
+     */
+    private static class CsvExportWriter extends ExportWriter {
+
+        private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+        private String orderColumns;
+
+        CsvExportWriter(Writer writer) throws IOException {
+            super(writer);
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        protected void startOrder(ResultSet rs) throws SQLException {
+            orderColumns = String.join(",",
+                    String.valueOf(rs.getLong("id")),
+                    String.valueOf(rs.getLong("user_id")),
+                    String.valueOf(toLocalDateTime(rs.getTimestamp("order_date"))),
+                    rs.getString("status"),
+                    rs.getBigDecimal("total_amount").toPlainString(),
+                    escape(rs.getString("shipping_address")));
+        }
+
+        @Override
+        protected void addItem(ResultSet rs, Long itemId) throws SQLException, IOException {
+            writer.write(orderColumns);
+            if (itemId == null) {
+                writer.write(",,,,,,\n");
+                return;
+            }
+            writer.write(',');
+            writer.write(String.join(",",
+                    String.valueOf(itemId),
+                    String.valueOf(rs.getLong("product_id")),
+                    escape(rs.getString("product_name")),
+                    String.valueOf(rs.getInt("quantity")),
+                    rs.getBigDecimal("unit_price").toPlainString(),
+                    rs.getBigDecimal("subtotal").toPlainString()));
+            writer.write('\n');
+        }
+
+        @Override
+        protected void endOrder() {
+            orderColumns = null;
+        }
+
+        // Texte libre : une valeur commencant par =, +, -, @, une tabulation ou un retour chariot serait
+        // evaluee comme formule par un tableur ; elle est prefixee d'une apostrophe et mise entre guillemets
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+                return "\"'" + value.replace("\"", "\"\"") + "\"";
+            }
+            if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+                return "\"" + value.replace("\"", "\"\"") + "\"";
+            }
+            return value;
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,273 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.OrderRequestDTO;
+import com.episen.order.application.dto.OrderResponseDTO;
+import com.episen.order.domain.entity.IdempotencyRecord;
+import com.episen.order.domain.enums.IdempotencyStatus;
+import com.episen.order.domain.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Function;
+
+/**
+ * Creation de commande idempotente (en-tete Idempotency-Key) : la premiere requete reserve la cle
+ * et s'execute, la reponse est enregistree dans la transaction qui cree la commande. Un doublon
+ * concurrent attend la fin de l'execution en cours au lieu de la relancer, un reessai ulterieur
+ * rejoue la reponse enregistree.
+ *
+ * Chaque execution porte un jeton et un bail prolonge tant qu'elle s'execute. Si le bail expire
+ * (instance arretee), un reessai reprend la cle avec son propre jeton ; l'execution depossedee ne
+ * peut plus completer la cle et sa transaction est annulee, si bien qu'une seule commande est validee.
+ */
+@Slf4j
+@Service
+public class OrderIdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final long MIN_POLL_INTERVAL_MS = 25;
+    private static final long MAX_POLL_INTERVAL_MS = 500;
+
+    /**
+     * Cle reservee par l'execution courante, transmise a {@link OrderService#createOrder(OrderRequestDTO, Claim)}.
+     *
+     * @param owner client a l'origine de la requete
+     * @param key   valeur de l'en-tete Idempotency-Key
+     * @param token execution titulaire du bail
+     */
+    public record Claim(String owner, String key, String token) {
+    }
+
+    /**
+     * Reponse de la creation, executee ou rejouee.
+     */
+    public record Result(OrderResponseDTO order, boolean replayed) {
+    }
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final TaskScheduler taskScheduler;
+    private final long ttlHours;
+    private final long leaseSeconds;
+    private final long waitTimeoutMs;
+
+    public OrderIdempotencyService(
+            IdempotencyRecordRepository idempotencyRecordRepository,
+            ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            TaskScheduler taskScheduler,
+            @Value("${order.idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${order.idempotency.lease-seconds:30}") long leaseSeconds,
+            @Value("${order.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.taskScheduler = taskScheduler;
+        this.ttlHours = ttlHours;
+        this.leaseSeconds = leaseSeconds;
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    /**
+     * Execute la creation une seule fois par cle et par client.
+     *
+     * @param owner   client a l'origine de la requete (sujet du jeton)
+     * @param key     valeur de l'en-tete Idempotency-Key
+     * @param request corps de la requete, compare a celui de la premiere execution
+     * @param action  creation de la commande, qui doit completer la cle dans sa transaction
+     * @return reponse executee ou rejouee
+     * @throws IllegalArgumentException si la cle est invalide ou deja utilisee pour une autre requete
+     * @throws IllegalStateException    si l'execution en cours ne se termine pas dans le delai d'attente
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Result execute(String owner, String key, OrderRequestDTO request, Function<Claim, OrderResponseDTO> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("L'en-tete Idempotency-Key doit contenir entre 1 et "
+                    + MAX_KEY_LENGTH + " caracteres");
+        }
+        String requestHash = hash(request);
+        Claim claim = new Claim(owner, key, UUID.randomUUID().toString());
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        long pollInterval = MIN_POLL_INTERVAL_MS;
+        boolean waited = false;
+
+        while (true) {
+            if (tryClaim(claim, requestHash)) {
+                return executeClaimed(claim, action, waited);
+            }
+
+            Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findByOwnerAndIdempotencyKey(owner, key);
+            if (existing.isPresent()) {
+                IdempotencyRecord record = existing.get();
+                if (!record.getRequestHash().equals(requestHash)) {
+                    count("conflict", waited);
+                    throw new IllegalArgumentException("La cle d'idempotence " + key
+                            + " a deja ete utilisee pour une autre requete");
+                }
+                if (record.getStatus() == IdempotencyStatus.COMPLETED) {
+                    count("replayed", waited);
+                    log.info("Reponse rejouee pour la cle d'idempotence {}", key);
+                    return new Result(readResponse(record), true);
+                }
+                if (tryTakeOver(claim, requestHash)) {
+                    log.warn("Reprise de la cle d'idempotence {} apres expiration du bail", key);
+                    return executeClaimed(claim, action, waited);
+                }
+            }
+            // Sinon la cle vient d'etre liberee ou purgee : nouvelle tentative de reservation
+
+            if (System.currentTimeMillis() >= deadline) {
+                count("timeout", waited);
+                throw new IllegalStateException("Une requete avec la cle d'idempotence " + key
+                        + " est toujours en cours, reessayez plus tard");
+            }
+            waited = true;
+            sleep(pollInterval);
+            pollInterval = Math.min(MAX_POLL_INTERVAL_MS, pollInterval * 2);
+        }
+    }
+
+    /**
+     * Enregistre la reponse de la creation dans la transaction de la commande : la commande
+     * et la reponse rejouee sont validees ensemble.
+     *
+     * @param claim    cle reservee
+     * @param response commande creee
+     * @throws IllegalStateException si l'execution ne detient plus le bail : la transaction de la
+     *                               commande doit etre annulee, un reessai a repris la cle
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordResponse(Claim claim, OrderResponseDTO response) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Reponse non serialisable pour la cle " + claim.key(), e);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int completed = idempotencyRecordRepository.complete(claim.owner(), claim.key(), claim.token(),
+                HttpStatus.CREATED.value(), body, now.plusHours(ttlHours), now);
+        if (completed == 0) {
+            count("lease_lost", false);
+            throw new IllegalStateException("Le bail de la cle d'idempotence " + claim.key()
+                    + " a expire ou a ete repris, la creation est abandonnee");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.idempotency.cleanup-interval-ms:600000}")
+    public void purgeExpired() {
+        Integer deleted = transactionTemplate.execute(status ->
+                idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.info("{} cle(s) d'idempotence expiree(s) supprimee(s)", deleted);
+        }
+    }
+
+    private Result executeClaimed(Claim claim, Function<Claim, OrderResponseDTO> action, boolean waited) {
+        // Bail prolonge au tiers de sa duree tant que la creation s'execute
+        Duration renewalInterval = Duration.ofSeconds(leaseSeconds).dividedBy(3);
+        ScheduledFuture<?> leaseRenewal = taskScheduler.scheduleAtFixedRate(() -> renewLease(claim),
+                Instant.now().plus(renewalInterval), renewalInterval);
+        OrderResponseDTO response;
+        try {
+            response = action.apply(claim);
+        } catch (RuntimeException e) {
+            // Echec avant validation de la commande : la cle est liberee pour le prochain reessai,
+            // sauf si une autre execution l'a reprise entre-temps
+            transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.release(
+                    claim.owner(), claim.key(), claim.token(), LocalDateTime.now()));
+            throw e;
+        } finally {
+            leaseRenewal.cancel(false);
+        }
+        count("executed", waited);
+        return new Result(response, false);
+    }
+
+    private void renewLease(Claim claim) {
+        try {
+            Integer renewed = transactionTemplate.execute(status -> idempotencyRecordRepository.renewLease(
+                    claim.owner(), claim.key(), claim.token(), LocalDateTime.now().plusSeconds(leaseSeconds)));
+            if (renewed == null || renewed == 0) {
+                // Cle completee par cette execution ou reprise par une autre : recordResponse tranchera
+                log.debug("Bail de la cle d'idempotence {} non prolonge", claim.key());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Prolongation du bail de la cle d'idempotence {} impossible: {}", claim.key(), e.getMessage());
+        }
+    }
+
+    private boolean tryClaim(Claim claim, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> idempotencyRecordRepository.claim(
+                claim.owner(), claim.key(), requestHash, claim.token(), now.plusSeconds(leaseSeconds), now.plusHours(ttlHours)));
+        return claimed != null && claimed > 0;
+    }
+
+    private boolean tryTakeOver(Claim claim, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer taken = transactionTemplate.execute(status -> idempotencyRecordRepository.takeOverExpiredLease(
+                claim.owner(), claim.key(), requestHash, claim.token(), now.plusSeconds(leaseSeconds), now));
+        return taken != null && taken > 0;
+    }
+
+    private OrderResponseDTO readResponse(IdempotencyRecord record) {
+        try {
+            return objectMapper.readValue(record.getResponseBody(), OrderResponseDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Reponse enregistree illisible pour la cle " + record.getIdempotencyKey(), e);
+        }
+    }
+
+    private String hash(OrderRequestDTO request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Empreinte de la requete impossible a calculer", e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Attente de la requete en cours interrompue", e);
+        }
+    }
+
+    private void count(String outcome, boolean waited) {
+        Counter.builder("orders.idempotency.requests")
+                .description("Creations de commande avec cle d'idempotence, par issue")
+                .tag("outcome", outcome)
+                .tag("waited", String.valueOf(waited))
+                .register(meterRegistry)
+                .increment();
+    }
+}
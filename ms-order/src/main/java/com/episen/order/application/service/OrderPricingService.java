@@ -0,0 +1,166 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.PricingRuleDTO;
+import com.episen.order.domain.entity.Order;
+import com.episen.order.domain.entity.OrderItem;
+import com.episen.order.domain.enums.Category;
+import com.episen.order.domain.pricing.PricingBasket;
+import com.episen.order.domain.pricing.PricingRuleSet;
+import com.episen.order.infrastructure.client.ProductClient;
+import com.episen.order.infrastructure.config.OrderPricingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tarification des commandes : sous-totaux des articles et total, promotions comprises.
+ * Le calcul se fait en centimes sur un panier de tableaux primitifs dimensionne a la commande ;
+ * le jeu de regles compile est remplace d'un bloc, une commande est donc toujours tarifee avec
+ * un seul jeu de regles.
+ *
+ * Les regles de order.pricing.rules (version 0) valent jusqu'a la premiere version publiee,
+ * diffusee a toutes les instances par PricingRuleService.
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(OrderPricingProperties.class)
+public class OrderPricingService {
+
+    // Centimes : meme echelle que les colonnes monetaires numeric(14, 2)
+    private static final int MINOR_UNIT_SCALE = 2;
+
+    private record ActiveRules(long version, List<PricingRuleDTO> definitions, PricingRuleSet ruleSet) {
+    }
+
+    private volatile ActiveRules activeRules;
+
+    public OrderPricingService(OrderPricingProperties properties) {
+        this.activeRules = compile(0, properties.rules());
+        log.info("{} regle(s) de prix active(s)", activeRules.definitions().size());
+    }
+
+    /**
+     * Calcule le sous-total de chaque article et le total de la commande. Sans regle applicable,
+     * chaque sous-total vaut exactement prix unitaire x quantite.
+     *
+     * @param products produits de la commande par identifiant, pour leur categorie
+     * @throws IllegalArgumentException si un prix a plus de deux decimales ou si un montant est hors limites
+     */
+    public void price(Order order, Map<Long, ProductClient.ProductResponseDTO> products) {
+        List<OrderItem> items = order.getItems();
+        if (items == null || items.isEmpty()) {
+            order.setTotalAmount(BigDecimal.ZERO);
+            return;
+        }
+
+        PricingRuleSet ruleSet = activeRules.ruleSet();
+        // Panier propre a l'appel : aucun etat partage entre threads (virtuels compris)
+        PricingBasket basket = new PricingBasket(items.size());
+        try {
+            for (int i = 0; i < items.size(); i++) {
+                OrderItem item = items.get(i);
+                Category category = ruleSet.usesCategories() ? categoryOf(products.get(item.getProductId())) : null;
+                if (item.getQuantity() != null && item.getUnitPrice() != null) {
+                    basket.add(item.getProductId(), category, item.getQuantity(), toMinorUnits(item.getUnitPrice()));
+                } else {
+                    basket.add(item.getProductId(), category, 0, 0);
+                }
+            }
+            ruleSet.price(basket);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Montants de la commande non calculables en centimes", e);
+        }
+
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setSubtotal(BigDecimal.valueOf(basket.lineTotal(i), MINOR_UNIT_SCALE));
+        }
+        order.setTotalAmount(BigDecimal.valueOf(basket.total(), MINOR_UNIT_SCALE));
+    }
+
+    public List<PricingRuleDTO> getRules() {
+        return activeRules.definitions();
+    }
+
+    public long getRulesVersion() {
+        return activeRules.version();
+    }
+
+    /**
+     * Verifie que les regles se compilent, sans les activer.
+     *
+     * @throws IllegalArgumentException si une regle est incomplete, invalide ou en doublon
+     */
+    public void validateRules(List<PricingRuleDTO> rules) {
+        compile(0, rules);
+    }
+
+    /**
+     * Active une version publiee des regles de prix ; les commandes en cours de tarification
+     * terminent avec l'ancien jeu. Une version anterieure ou egale a la version active est ignoree.
+     *
+     * @return true si la version a ete activee
+     * @throws IllegalArgumentException si une regle est incomplete, invalide ou en doublon
+     */
+    public synchronized boolean activateRules(long version, List<PricingRuleDTO> rules) {
+        if (version <= activeRules.version()) {
+            return false;
+        }
+        ActiveRules compiled = compile(version, rules);
+        activeRules = compiled;
+        log.info("Regles de prix version {} activees : {} regle(s)", version, compiled.definitions().size());
+        return true;
+    }
+
+    private static ActiveRules compile(long version, List<PricingRuleDTO> rules) {
+        PricingRuleSet.Builder builder = PricingRuleSet.builder();
+        try {
+            for (PricingRuleDTO rule : rules) {
+                if (rule == null || rule.getType() == null) {
+                    throw new IllegalArgumentException("Le type de la regle de prix est obligatoire");
+                }
+                switch (rule.getType()) {
+                    case CATEGORY_PERCENT_OFF -> builder.categoryPercentOff(
+                            rule.getCategory(),
+                            toBasisPoints(required(rule.getPercentOff(), "percentOff", rule)));
+                    case BUY_N_GET_M -> builder.buyNGetM(
+                            required(rule.getProductId(), "productId", rule),
+                            required(rule.getBuyQuantity(), "buyQuantity", rule),
+                            required(rule.getFreeQuantity(), "freeQuantity", rule));
+                    case BASKET_THRESHOLD -> builder.basketThreshold(
+                            toMinorUnits(required(rule.getMinAmount(), "minAmount", rule)),
+                            rule.getPercentOff() == null ? 0 : toBasisPoints(rule.getPercentOff()),
+                            rule.getAmountOff() == null ? 0 : toMinorUnits(rule.getAmountOff()));
+                }
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Montants et pourcentages des regles de prix : deux decimales au plus", e);
+        }
+        return new ActiveRules(version, List.copyOf(rules), builder.build());
+    }
+
+    private static <T> T required(T value, String field, PricingRuleDTO rule) {
+        if (value == null) {
+            throw new IllegalArgumentException("Le champ " + field + " est obligatoire pour une regle " + rule.getType());
+        }
+        return value;
+    }
+
+    private static Category categoryOf(ProductClient.ProductResponseDTO product) {
+        return product == null ? null : Category.fromName(product.getCategory());
+    }
+
+    // Exact : un montant a plus de deux decimales leve une ArithmeticException
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount.movePointRight(MINOR_UNIT_SCALE).longValueExact();
+    }
+
+    // 12.5 % -> 1250 points de base
+    private static int toBasisPoints(BigDecimal percent) {
+        return percent.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().intValueExact();
+    }
+}
@@ -0,0 +1,146 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.OrderResponseDTO;
+import com.episen.order.application.dto.ReadModelRebuildReportDTO;
+import com.episen.order.domain.repository.OrderRepository;
+import com.episen.order.domain.repository.OrderViewRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Modele de lecture des commandes (table order_views) : le document JSON de chaque commande est
+ * regenere dans la transaction qui la cree ou la modifie, les lectures par identifiant, par
+ * utilisateur et par statut le renvoient tel quel sans charger les entites. La table orders fait foi :
+ * une commande sans document (modele pas encore construit) est lue depuis les entites.
+ */
+@Slf4j
+@Service
+public class OrderReadModelService {
+
+    private final OrderViewRepository orderViewRepository;
+    private final OrderRepository orderRepository;
+    private final ObjectReader documentReader;
+    private final TransactionTemplate transactionTemplate;
+    private final int rebuildChunkSize;
+    private final int rebuildParallelism;
+
+    public OrderReadModelService(
+            OrderViewRepository orderViewRepository,
+            OrderRepository orderRepository,
+            ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate,
+            @Value("${order.read-model.rebuild-chunk-size:1000}") int rebuildChunkSize,
+            @Value("${order.read-model.rebuild-parallelism:4}") int rebuildParallelism) {
+        this.orderViewRepository = orderViewRepository;
+        this.orderRepository = orderRepository;
+        this.documentReader = objectMapper.readerFor(OrderResponseDTO.class);
+        this.transactionTemplate = transactionTemplate;
+        this.rebuildChunkSize = rebuildChunkSize;
+        this.rebuildParallelism = rebuildParallelism;
+    }
+
+    /**
+     * Regenere le document des commandes dans la transaction courante. Les modifications en attente
+     * sont d'abord envoyees en base : le document est construit a partir des tables sources.
+     *
+     * @param orderIds commandes creees ou modifiees
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refresh(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        orderRepository.flush();
+        orderViewRepository.refresh(orderIds);
+    }
+
+    public OrderResponseDTO toDto(String document) {
+        try {
+            return documentReader.readValue(document);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Document de commande illisible", e);
+        }
+    }
+
+    /**
+     * Regenere tout le modele de lecture a partir des tables sources, par tranches d'identifiants
+     * traitees en parallele, chacune dans sa propre transaction. Les documents des commandes
+     * disparues sont supprimes.
+     *
+     * @return nombre de tranches, de documents regeneres et supprimes
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReadModelRebuildReportDTO rebuild() {
+        long start = System.currentTimeMillis();
+        long maxOrderId = orderViewRepository.findMaxOrderId();
+
+        List<CompletableFuture<ChunkResult>> chunks = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(rebuildParallelism)) {
+            for (long fromId = 0; fromId <= maxOrderId; fromId += rebuildChunkSize) {
+                long from = fromId;
+                long to = fromId + rebuildChunkSize - 1;
+                chunks.add(CompletableFuture.supplyAsync(() -> rebuildChunk(from, to), executor));
+            }
+        }
+
+        long refreshed = 0;
+        long removed = 0;
+        for (CompletableFuture<ChunkResult> chunk : chunks) {
+            ChunkResult result = chunk.join();
+            refreshed += result.refreshed();
+            removed += result.removed();
+        }
+        // Documents au-dela de la derniere commande (commandes supprimees depuis)
+        removed += transactionTemplate.execute(status ->
+                orderViewRepository.deleteOrphansInRange(maxOrderId + 1, Long.MAX_VALUE));
+
+        long durationMs = System.currentTimeMillis() - start;
+        log.info("Modele de lecture des commandes reconstruit: {} document(s) en {} tranche(s), {} supprime(s), {} ms",
+                refreshed, chunks.size(), removed, durationMs);
+        return ReadModelRebuildReportDTO.builder()
+                .chunks(chunks.size())
+                .refreshed(refreshed)
+                .removed(removed)
+                .durationMs(durationMs)
+                .build();
+    }
+
+    /**
+     * Construit le modele de lecture lorsque la table est vide
+     * (premier deploiement, donnees de test chargees par data.sql).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (orderViewRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    private ChunkResult rebuildChunk(long fromId, long toId) {
+        return transactionTemplate.execute(status -> {
+            orderViewRepository.lockOrdersInRange(fromId, toId);
+            return new ChunkResult(
+                    orderViewRepository.refreshRange(fromId, toId),
+                    orderViewRepository.deleteOrphansInRange(fromId, toId));
+        });
+    }
+
+    private record ChunkResult(long refreshed, long removed) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.OrderSearchCriteria;
+import com.episen.order.domain.enums.OrderStatus;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Requete SQL de la recherche de commandes. Seules des formes exploitables par les index sont
+ * emises : egalites et intervalles sur des colonnes indexees (et sur order_date, la cle de
+ * partitionnement), comparaison de ligne (cle de tri, id) pour reprendre apres le curseur,
+ * sous-requete sur l'index (product_id, order_id) pour le filtre produit. Sans utilisateur, plusieurs statuts donnent
+ * une branche par statut, chacune lue dans l'ordre de l'index (status, cle de tri, id) et
+ * limitee, puis fusionnees : jamais de tri de toutes les commandes des statuts demandes.
+ */
+record OrderSearchQuery(String sql, List<Object> args) {
+
+    static OrderSearchQuery build(OrderSearchCriteria criteria, OrderSearchService.Sort sort,
+                                  Object afterKey, Long afterId, int limit) {
+        List<OrderStatus> statuses = criteria.getStatuses() == null || criteria.getStatuses().isEmpty()
+                ? List.of()
+                : new ArrayList<>(EnumSet.copyOf(criteria.getStatuses()));
+        List<Object> args = new ArrayList<>();
+
+        if (statuses.size() < 2 || criteria.getUserId() != null) {
+            // Un utilisateur a peu de commandes : l'index (user_id, order_date, id) suffit, statuts filtres ensuite
+            String sql = branch(criteria, statuses, sort, afterKey, afterId, limit, args);
+            return new OrderSearchQuery(sql, Collections.unmodifiableList(args));
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT id, sort_key FROM (\n");
+        for (int i = 0; i < statuses.size(); i++) {
+            if (i > 0) {
+                sql.append("UNION ALL\n");
+            }
+            sql.append('(').append(branch(criteria, List.of(statuses.get(i)), sort, afterKey, afterId, limit, args)).append(")\n");
+        }
+        String direction = sort.isDescending() ? " DESC" : " ASC";
+        sql.append(") branches\nORDER BY sort_key").append(direction).append(", id").append(direction).append("\nLIMIT ?");
+        args.add(limit);
+        return new OrderSearchQuery(sql.toString(), Collections.unmodifiableList(args));
+    }
+
+    private static String branch(OrderSearchCriteria criteria, List<OrderStatus> statuses, OrderSearchService.Sort sort,
+                                 Object afterKey, Long afterId, int limit, List<Object> args) {
+        String sortColumn = "o." + sort.getColumn();
+        List<String> conditions = new ArrayList<>();
+        if (criteria.getUserId() != null) {
+            conditions.add("o.user_id = ?");
+            args.add(criteria.getUserId());
+        }
+        if (statuses.size() == 1) {
+            conditions.add("o.status = ?");
+            args.add(statuses.get(0).name());
+        } else if (!statuses.isEmpty()) {
+            conditions.add("o.status IN (" + String.join(", ", Collections.nCopies(statuses.size(), "?")) + ")");
+            statuses.forEach(status -> args.add(status.name()));
+        }
+        if (criteria.getFrom() != null) {
+            conditions.add("o.order_date >= ?");
+            args.add(Timestamp.valueOf(criteria.getFrom()));
+        }
+        if (criteria.getTo() != null) {
+            conditions.add("o.order_date < ?");
+            args.add(Timestamp.valueOf(criteria.getTo()));
+        }
+        if (criteria.getMinAmount() != null) {
+            conditions.add("o.total_amount >= ?");
+            args.add(criteria.getMinAmount());
+        }
+        if (criteria.getMaxAmount() != null) {
+            conditions.add("o.total_amount <= ?");
+            args.add(criteria.getMaxAmount());
+        }
+        if (criteria.getProductId() != null) {
+            // Tables co-partitionnees : la periode demandee elague aussi les partitions des articles
+            StringBuilder items = new StringBuilder(
+                    "(o.id, o.order_date) IN (SELECT i.order_id, i.order_date FROM order_items i WHERE i.product_id = ?");
+            args.add(criteria.getProductId());
+            if (criteria.getFrom() != null) {
+                items.append(" AND i.order_date >= ?");
+                args.add(Timestamp.valueOf(criteria.getFrom()));
+            }
+            if (criteria.getTo() != null) {
+                items.append(" AND i.order_date < ?");
+                args.add(Timestamp.valueOf(criteria.getTo()));
+            }
+            conditions.add(items.append(')').toString());
+        }
+        if (afterId != null) {
+            String comparison = sort.isDescending() ? "<" : ">";
+            if (sort.getColumn().equals("order_date")) {
+                // Borne simple en plus de la comparaison de ligne, seule exploitable pour elaguer les partitions
+                conditions.add(sortColumn + " " + comparison + "= ?");
+                args.add(afterKey);
+            }
+            conditions.add("(" + sortColumn + ", o.id) " + comparison + " (?, ?)");
+            args.add(afterKey);
+            args.add(afterId);
+        }
+
+        String direction = sort.isDescending() ? " DESC" : " ASC";
+        String where = conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + "\n";
+        args.add(limit);
+        return "SELECT o.id, " + sortColumn + " AS sort_key FROM orders o\n"
+                + where
+                + "ORDER BY " + sortColumn + direction + ", o.id" + direction + "\n"
+                + "LIMIT ?";
+    }
+}
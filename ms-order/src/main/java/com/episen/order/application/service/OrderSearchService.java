@@ -0,0 +1,165 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.OrderPageDTO;
+import com.episen.order.application.dto.OrderResponseDTO;
+import com.episen.order.application.dto.OrderSearchCriteria;
+import com.episen.order.application.dto.OrderSearchCursor;
+import com.episen.order.application.dto.OrderSummaryDTO;
+import com.episen.order.domain.repository.OrderRepository;
+import com.episen.order.domain.repository.OrderViewRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Recherche multicritere des commandes (utilisateur, statuts, periode, montant, produit) avec
+ * pagination par curseur. Comme les listes, la recherche se fait en deux phases : identifiants
+ * de la page via les index (OrderSearchQuery), puis chargement des documents du modele de
+ * lecture ou des resumes en une seule requete.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class OrderSearchService {
+
+    public enum Sort {
+        DATE_DESC("order_date", true),
+        DATE_ASC("order_date", false),
+        AMOUNT_DESC("total_amount", true),
+        AMOUNT_ASC("total_amount", false);
+
+        private final String column;
+        private final boolean descending;
+
+        Sort(String column, boolean descending) {
+            this.column = column;
+            this.descending = descending;
+        }
+
+        public static Sort parse(String value) {
+            try {
+                return Sort.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Tri non supporte: " + value);
+            }
+        }
+
+        String getColumn() {
+            return column;
+        }
+
+        boolean isDescending() {
+            return descending;
+        }
+
+        private boolean byDate() {
+            return "order_date".equals(column);
+        }
+
+        // Cle de tri exacte de la ligne, conservee telle quelle dans le curseur
+        private String keyOf(ResultSet rs) throws SQLException {
+            return byDate()
+                    ? rs.getTimestamp("sort_key").toLocalDateTime().toString()
+                    : rs.getBigDecimal("sort_key").toPlainString();
+        }
+
+        private Object parseKey(String key) {
+            try {
+                return byDate() ? Timestamp.valueOf(LocalDateTime.parse(key)) : new BigDecimal(key);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Curseur de pagination invalide", e);
+            }
+        }
+    }
+
+    private record SearchHit(long id, String key) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderRepository orderRepository;
+    private final OrderViewRepository orderViewRepository;
+    private final OrderReadModelService orderReadModelService;
+
+    public OrderPageDTO<OrderResponseDTO> search(OrderSearchCriteria criteria, Sort sort, String cursor, int limit) {
+        return search(criteria, sort, cursor, limit, this::loadDocuments, OrderResponseDTO::getId);
+    }
+
+    public OrderPageDTO<OrderSummaryDTO> searchSummaries(OrderSearchCriteria criteria, Sort sort, String cursor, int limit) {
+        return search(criteria, sort, cursor, limit, orderRepository::findSummariesByIdIn, OrderSummaryDTO::getId);
+    }
+
+    private <T> OrderPageDTO<T> search(OrderSearchCriteria criteria, Sort sort, String cursor, int limit,
+                                       Function<List<Long>, List<T>> loader, Function<T, Long> idOf) {
+        validate(criteria, limit);
+        Object afterKey = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            OrderSearchCursor after = OrderSearchCursor.decode(cursor);
+            if (!sort.name().equals(after.sort())) {
+                throw new IllegalArgumentException("Le curseur ne correspond pas au tri demande");
+            }
+            afterKey = sort.parseKey(after.key());
+            afterId = after.id();
+        }
+
+        // Une commande de plus que demande pour savoir s'il existe une page suivante
+        OrderSearchQuery query = OrderSearchQuery.build(criteria, sort, afterKey, afterId, limit + 1);
+        log.debug("Recherche de commandes: {} {}", query.sql(), query.args());
+        List<SearchHit> hits = jdbcTemplate.query(query.sql(),
+                (rs, rowNum) -> new SearchHit(rs.getLong("id"), sort.keyOf(rs)), query.args().toArray());
+        boolean hasNext = hits.size() > limit;
+        List<SearchHit> pageHits = hasNext ? hits.subList(0, limit) : hits;
+        if (pageHits.isEmpty()) {
+            return OrderPageDTO.<T>builder().content(List.of()).build();
+        }
+
+        List<Long> ids = pageHits.stream().map(SearchHit::id).collect(Collectors.toList());
+        Map<Long, T> byId = loader.apply(ids).stream()
+                .collect(Collectors.toMap(idOf, Function.identity()));
+        List<T> content = ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        SearchHit last = pageHits.get(pageHits.size() - 1);
+        return OrderPageDTO.<T>builder()
+                .content(content)
+                .nextCursor(hasNext ? new OrderSearchCursor(sort.name(), last.key(), last.id()).encode() : null)
+                .build();
+    }
+
+    private List<OrderResponseDTO> loadDocuments(List<Long> ids) {
+        return orderViewRepository.findDocumentsByOrderIdIn(ids).stream()
+                .map(document -> orderReadModelService.toDto(document.getDocument()))
+                .collect(Collectors.toList());
+    }
+
+    private static void validate(OrderSearchCriteria criteria, int limit) {
+        if (limit < 1 || limit > OrderService.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("La taille de page doit etre comprise entre 1 et " + OrderService.MAX_PAGE_SIZE);
+        }
+        if (criteria.getFrom() != null && criteria.getTo() != null && !criteria.getFrom().isBefore(criteria.getTo())) {
+            throw new IllegalArgumentException("La date de debut doit etre anterieure a la date de fin");
+        }
+        if (criteria.getMinAmount() != null && criteria.getMaxAmount() != null
+                && criteria.getMinAmount().compareTo(criteria.getMaxAmount()) > 0) {
+            throw new IllegalArgumentException("Le montant minimal doit etre inferieur ou egal au montant maximal");
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package com.episen.order.application.service;
 
+import com.episen.order.application.dto.BulkStatusUpdateReportDTO;
+import com.episen.order.application.dto.BulkStatusUpdateRequest;
+import com.episen.order.application.dto.BulkStatusUpdateResultDTO;
 import com.episen.order.application.dto.OrderItemRequestDTO;
+import com.episen.order.application.dto.OrderCursor;
+import com.episen.order.application.dto.OrderPageDTO;
 import com.episen.order.application.dto.OrderRequestDTO;
 import com.episen.order.application.dto.OrderResponseDTO;
+import com.episen.order.application.dto.OrderStatusEventDTO;
+import com.episen.order.application.dto.OrderSummaryDTO;
 import com.episen.order.application.mapper.OrderItemMapper;
 import com.episen.order.application.mapper.OrderMapper;
 import com.episen.order.domain.entity.Order;
@@ -10,20 +17,41 @@ import com.episen.order.domain.entity.OrderItem;
 import com.episen.order.domain.enums.OrderStatus;
 import com.episen.order.domain.repository.OrderItemRepository;
 import com.episen.order.domain.repository.OrderRepository;
-import com.episen.order.infrastructure.client.MembershipClient;
+import com.episen.order.domain.repository.OrderViewRepository;
+import com.episen.order.infrastructure.archive.OrderArchive;
 import com.episen.order.infrastructure.client.ProductClient;
+import com.episen.order.infrastructure.client.UserExistenceCache;
+import com.episen.order.infrastructure.concurrent.RemoteCallExecutor;
+import com.episen.order.infrastructure.concurrent.RemoteCallScope;
 import com.episen.order.infrastructure.exception.ResourceNotFoundException;
+import com.episen.order.infrastructure.monitoring.OrderActivityWindows;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -33,55 +61,100 @@ import java.util.stream.Collectors;
 @Validated
 public class OrderService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_PRODUCT_ID_PAGE_SIZE = 10_000;
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
+    private final OrderViewRepository orderViewRepository;
+    private final OrderReadModelService orderReadModelService;
+    private final OrderPricingService orderPricingService;
     private final OrderMapper orderMapper;
     private final OrderItemMapper orderItemMapper;
-    private final MembershipClient membershipClient;
+    private final UserExistenceCache userExistenceCache;
     private final ProductClient productClient;
+    private final RemoteCallExecutor remoteCallExecutor;
+    private final StockEventPublisher stockEventPublisher;
+    private final SalesRollupService salesRollupService;
+    private final TopProductsService topProductsService;
+    private final ProductRecommendationService productRecommendationService;
+    private final OrderActivityWindows orderActivityWindows;
+    private final OrderArchive orderArchive;
+    private final OrderIdempotencyService orderIdempotencyService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
     private final MeterRegistry meterRegistry;
 
-    public List<OrderResponseDTO> getAllOrders() {
-        log.debug("Recuperation de toutes les commandes");
-        List<Order> orders = orderRepository.findAllWithItems();
-        return orders.stream()
-                .map(orderMapper::toDto)
-                .collect(Collectors.toList());
+    public OrderPageDTO<OrderResponseDTO> getAllOrders(String cursor, int limit) {
+        log.debug("Recuperation d'une page de commandes (limit={})", limit);
+        return loadDocumentPage(cursor, limit, allOrdersKeyset());
+    }
+
+    public OrderPageDTO<OrderSummaryDTO> getAllOrderSummaries(String cursor, int limit) {
+        log.debug("Recuperation d'une page de resumes de commandes (limit={})", limit);
+        return loadPage(cursor, limit, allOrdersKeyset(), orderRepository::findSummariesByIdIn, OrderService::summaryCursorOf);
     }
 
     public OrderResponseDTO getOrderById(Long id) {
         log.debug("Recuperation de la commande avec id: {}", id);
-        Order order = orderRepository.findByIdWithItems(id)
+        // Document du modele de lecture ; les entites ne sont chargees que s'il n'a pas encore ete construit,
+        // l'archive n'est consultee que pour une commande absente de la base
+        return orderViewRepository.findDocumentByOrderId(id)
+                .map(orderReadModelService::toDto)
+                .or(() -> orderRepository.findByIdWithItems(id).map(orderMapper::toDto))
+                .or(() -> orderArchive.findOrder(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
-        return orderMapper.toDto(order);
     }
 
-    @Transactional
+    // Les appels distants se font hors transaction ; seule l'ecriture de la commande et de son
+    // evenement de reservation est transactionnelle
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public OrderResponseDTO createOrder(@Valid OrderRequestDTO dto) {
+        return createOrder(dto, null);
+    }
+
+    /**
+     * Cree la commande ; si une cle d'idempotence a ete reservee, la reponse est enregistree
+     * dans la meme transaction que la commande.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OrderResponseDTO createOrder(@Valid OrderRequestDTO dto, OrderIdempotencyService.Claim idempotencyClaim) {
         log.debug("Creation d'une nouvelle commande pour l'utilisateur: {}", dto.getUserId());
 
-        // Verifier que l'utilisateur existe
-        if (!membershipClient.userExists(dto.getUserId())) {
+        // Verifier l'utilisateur et recuperer tous les produits en parallele
+        List<Long> productIds = dto.getItems().stream()
+                .map(OrderItemRequestDTO::getProductId)
+                .collect(Collectors.toList());
+        boolean userExists;
+        Map<Long, ProductClient.ProductResponseDTO> products;
+        try (RemoteCallScope scope = remoteCallExecutor.openScope()) {
+            Supplier<Boolean> userCheck = scope.fork(() -> userExistenceCache.userExists(dto.getUserId()));
+            Supplier<Map<Long, ProductClient.ProductResponseDTO>> productLookup =
+                    scope.fork(() -> productClient.getProducts(productIds));
+            scope.join();
+            userExists = userCheck.get();
+            products = productLookup.get();
+        }
+        if (!userExists) {
             throw new ResourceNotFoundException("User", "id", dto.getUserId());
         }
 
-        // Verifier chaque produit et construire les OrderItems
-        List<OrderItem> orderItems = new ArrayList<>();
-        for (OrderItemRequestDTO itemDto : dto.getItems()) {
-            ProductClient.ProductResponseDTO product = productClient.getProduct(itemDto.getProductId());
-
-            // Log de debug pour voir ce que retourne le ProductClient
-            log.debug("Produit recupere: id={}, name={}, price={}, stock={}",
-                    product.getId(), product.getName(), product.getPrice(), product.getStock());
-
-            // Verifier le stock
-            if (product.getStock() < itemDto.getQuantity()) {
+        // Verifier le stock sur la quantite cumulee par produit (lignes en doublon fusionnees)
+        Map<Long, Integer> requestedQuantities = sumQuantitiesByProduct(dto.getItems());
+        requestedQuantities.forEach((productId, quantity) -> {
+            ProductClient.ProductResponseDTO product = products.get(productId);
+            if (product.getStock() < quantity) {
                 throw new IllegalStateException(
                         "Stock insuffisant pour le produit: " + product.getName() +
                                 ". Stock disponible: " + product.getStock() +
-                                ", Quantite demandee: " + itemDto.getQuantity());
+                                ", Quantite demandee: " + quantity);
             }
+        });
 
+        // Construire les OrderItems
+        List<OrderItem> orderItems = new ArrayList<>();
+        for (OrderItemRequestDTO itemDto : dto.getItems()) {
+            ProductClient.ProductResponseDTO product = products.get(itemDto.getProductId());
             OrderItem orderItem = orderItemMapper.toEntity(itemDto, product.getName(), product.getPrice());
             log.debug("OrderItem cree: productId={}, quantity={}, unitPrice={}",
                     orderItem.getProductId(), orderItem.getQuantity(), orderItem.getUnitPrice());
@@ -91,23 +164,34 @@ public class OrderService {
         // Creer la commande
         Order order = orderMapper.toEntity(dto, orderItems);
 
-        // Calculer le total AVANT de sauvegarder
-        order.calculateTotal();
+        // Calculer les sous-totaux et le total, promotions comprises, AVANT de sauvegarder
+        orderPricingService.price(order, products);
         log.debug("Total calcule pour la commande: {}", order.getTotalAmount());
 
-        // Sauvegarder (cascade sur items)
-        Order savedOrder = orderRepository.save(order);
-
-        // Deduire le stock pour chaque produit
-        for (OrderItem item : savedOrder.getItems()) {
-            productClient.updateStock(item.getProductId(), -item.getQuantity());
-        }
+        // Sauvegarder (cascade sur items) et enregistrer la reservation de stock dans l'outbox,
+        // livree ensuite a ms-product par le relais
+        OrderResponseDTO created = transactionTemplate.execute(status -> {
+            Order saved = orderRepository.save(order);
+            stockEventPublisher.enqueueReservation(saved, requestedQuantities);
+            topProductsService.recordCreated(saved, products);
+            productRecommendationService.recordCreated(saved);
+            orderReadModelService.refresh(List.of(saved.getId()));
+            OrderResponseDTO response = orderMapper.toDto(saved);
+            if (idempotencyClaim != null) {
+                orderIdempotencyService.recordResponse(idempotencyClaim, response);
+            }
+            // En dernier : la ligne du cumul du jour, commune a toutes les creations, reste verrouillee
+            // jusqu'a la validation
+            salesRollupService.recordCreated(saved);
+            return response;
+        });
 
         // Incrementer les metriques
-        incrementOrderCounter(savedOrder.getStatus());
+        incrementOrderCounter(order.getStatus());
+        orderActivityWindows.recordCreated(order);
 
-        log.info("Commande creee avec succes. ID: {}, Montant total: {}", savedOrder.getId(), savedOrder.getTotalAmount());
-        return orderMapper.toDto(savedOrder);
+        log.info("Commande creee avec succes. ID: {}, Montant total: {}", created.getId(), created.getTotalAmount());
+        return created;
     }
 
     @Transactional
@@ -117,13 +201,109 @@ public class OrderService {
         Order order = findOrderOrThrow(id);
         validateOrderCanBeModified(order);
 
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(newStatus);
         Order updated = orderRepository.save(order);
+        if (newStatus == OrderStatus.CANCELLED) {
+            stockEventPublisher.enqueueRelease(updated);
+            topProductsService.recordCancelled(updated);
+            productRecommendationService.recordCancelled(updated);
+            AfterCommit.run(() -> orderActivityWindows.recordCancelled(updated.getTotalAmount()));
+        }
+        orderReadModelService.refresh(List.of(updated.getId()));
+        salesRollupService.recordStatusChange(updated, previousStatus);
+        publishStatusChange(updated.getId(), updated.getUserId(), previousStatus, newStatus);
 
         log.info("Statut de la commande {} mis a jour vers {}", id, newStatus);
         return orderMapper.toDto(updated);
     }
 
+    /**
+     * Applique la semantique de updateOrderStatus a un lot de commandes (identifiants ou filtre)
+     * par une instruction UPDATE ensembliste : les commandes DELIVERED ou CANCELLED sont ignorees
+     * et signalees dans le rapport.
+     */
+    @Transactional
+    public BulkStatusUpdateReportDTO bulkUpdateStatus(@Valid BulkStatusUpdateRequest request) {
+        OrderStatus newStatus = request.getStatus();
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        if (byIds == (request.getCurrentStatus() != null)) {
+            throw new IllegalArgumentException("Indiquer soit une liste d'identifiants, soit le statut courant des commandes a modifier");
+        }
+
+        List<OrderRepository.StatusTransition> transitions;
+        if (byIds) {
+            transitions = orderRepository.transitionStatusByIds(new LinkedHashSet<>(request.getIds()), newStatus.name());
+        } else {
+            LocalDateTime orderedBefore = request.getOrderedBefore() != null ? request.getOrderedBefore() : LocalDateTime.now();
+            int limit = request.getLimit() != null ? request.getLimit() : BulkStatusUpdateRequest.MAX_ORDERS;
+            transitions = orderRepository.transitionStatusByFilter(
+                    request.getCurrentStatus().name(), orderedBefore, limit, newStatus.name());
+        }
+
+        List<Long> updatedIds = transitions.stream().map(OrderRepository.StatusTransition::getId).toList();
+        if (newStatus == OrderStatus.CANCELLED && !transitions.isEmpty()) {
+            List<Order> cancelled = orderRepository.findAllWithItemsByIdIn(updatedIds);
+            stockEventPublisher.enqueueReleases(cancelled);
+            topProductsService.recordCancelled(cancelled);
+            productRecommendationService.recordCancelled(cancelled);
+        }
+        orderReadModelService.refresh(updatedIds);
+        salesRollupService.recordStatusChanges(transitions, newStatus);
+
+        if (newStatus == OrderStatus.CANCELLED) {
+            AfterCommit.run(() -> transitions.forEach(transition ->
+                    orderActivityWindows.recordCancelled(transition.getTotalAmount())));
+        }
+        transitions.forEach(transition -> publishStatusChange(transition.getId(), transition.getUserId(),
+                OrderStatus.valueOf(transition.getPreviousStatus()), newStatus));
+
+        Map<Long, BulkStatusUpdateResultDTO> results = new LinkedHashMap<>();
+        if (byIds) {
+            request.getIds().forEach(id -> results.put(id, null));
+        }
+        for (OrderRepository.StatusTransition transition : transitions) {
+            results.put(transition.getId(), BulkStatusUpdateResultDTO.builder()
+                    .orderId(transition.getId())
+                    .outcome(BulkStatusUpdateResultDTO.Outcome.UPDATED)
+                    .previousStatus(OrderStatus.valueOf(transition.getPreviousStatus()))
+                    .build());
+        }
+
+        // Identifiants non modifies : commande terminee ou inexistante (requete uniquement en cas d'echec)
+        List<Long> unchanged = results.entrySet().stream()
+                .filter(entry -> entry.getValue() == null)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (!unchanged.isEmpty()) {
+            for (OrderRepository.OrderStatusView view : orderRepository.findStatusesByIdIn(unchanged)) {
+                results.put(view.getId(), BulkStatusUpdateResultDTO.builder()
+                        .orderId(view.getId())
+                        .outcome(BulkStatusUpdateResultDTO.Outcome.NOT_MODIFIABLE)
+                        .previousStatus(view.getStatus())
+                        .build());
+            }
+            unchanged.stream()
+                    .filter(id -> results.get(id) == null)
+                    .forEach(id -> results.put(id, BulkStatusUpdateResultDTO.builder()
+                            .orderId(id)
+                            .outcome(BulkStatusUpdateResultDTO.Outcome.NOT_FOUND)
+                            .build()));
+        }
+
+        int rejected = results.size() - transitions.size();
+        incrementBulkStatusCounter(newStatus, "updated", transitions.size());
+        incrementBulkStatusCounter(newStatus, "rejected", rejected);
+        log.info("Transition groupee vers {}: {} commande(s) mise(s) a jour, {} rejetee(s)",
+                newStatus, transitions.size(), rejected);
+        return BulkStatusUpdateReportDTO.builder()
+                .status(newStatus)
+                .updated(transitions.size())
+                .rejected(rejected)
+                .results(new ArrayList<>(results.values()))
+                .build();
+    }
+
     @Transactional
     public void cancelOrder(Long id) {
         log.debug("Annulation de la commande {}", id);
@@ -131,34 +311,233 @@ public class OrderService {
         Order order = findOrderOrThrow(id);
         validateOrderCanBeModified(order);
 
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(OrderStatus.CANCELLED);
         orderRepository.save(order);
+        stockEventPublisher.enqueueRelease(order);
+        topProductsService.recordCancelled(order);
+        productRecommendationService.recordCancelled(order);
+        AfterCommit.run(() -> orderActivityWindows.recordCancelled(order.getTotalAmount()));
+        orderReadModelService.refresh(List.of(order.getId()));
+        salesRollupService.recordStatusChange(order, previousStatus);
+        publishStatusChange(order.getId(), order.getUserId(), previousStatus, OrderStatus.CANCELLED);
 
         log.info("Commande {} annulee", id);
     }
 
-    public List<OrderResponseDTO> getOrdersByUserId(Long userId) {
+    public OrderPageDTO<OrderResponseDTO> getOrdersByUserId(Long userId, String cursor, int limit) {
         log.debug("Recuperation des commandes pour l'utilisateur: {}", userId);
-        List<Order> orders = orderRepository.findByUserId(userId);
-        return orders.stream()
-                .map(orderMapper::toDto)
-                .collect(Collectors.toList());
+        if (!orderArchive.containsUser(userId)) {
+            return loadDocumentPage(cursor, limit, userOrdersKeyset(userId));
+        }
+        List<KeyedRow<OrderResponseDTO>> hot = loadDocuments(fetchKeysetRows(cursor, limit, userOrdersKeyset(userId)));
+        return mergeArchivedPage(userId, cursor, limit, hot, Function.identity());
+    }
+
+    public OrderPageDTO<OrderSummaryDTO> getOrderSummariesByUserId(Long userId, String cursor, int limit) {
+        log.debug("Recuperation des resumes de commandes pour l'utilisateur: {}", userId);
+        if (!orderArchive.containsUser(userId)) {
+            return loadPage(cursor, limit, userOrdersKeyset(userId), orderRepository::findSummariesByIdIn, OrderService::summaryCursorOf);
+        }
+        List<Long> ids = fetchKeysetRows(cursor, limit, userOrdersKeyset(userId));
+        List<KeyedRow<OrderSummaryDTO>> hot = ids.isEmpty() ? List.of()
+                : orderRepository.findSummariesByIdIn(ids).stream()
+                .map(summary -> new KeyedRow<>(summaryCursorOf(summary), summary))
+                .toList();
+        return mergeArchivedPage(userId, cursor, limit, hot, OrderService::toSummary);
     }
 
-    public List<OrderResponseDTO> getOrdersByStatus(OrderStatus status) {
+    public OrderPageDTO<OrderResponseDTO> getOrdersByStatus(OrderStatus status, String cursor, int limit) {
         log.debug("Recuperation des commandes avec le statut: {}", status);
-        List<Order> orders = orderRepository.findByStatusWithItems(status);
-        return orders.stream()
-                .map(orderMapper::toDto)
-                .collect(Collectors.toList());
+        return loadDocumentPage(cursor, limit, statusOrdersKeyset(status));
+    }
+
+    public OrderPageDTO<OrderSummaryDTO> getOrderSummariesByStatus(OrderStatus status, String cursor, int limit) {
+        log.debug("Recuperation des resumes de commandes avec le statut: {}", status);
+        return loadPage(cursor, limit, statusOrdersKeyset(status), orderRepository::findSummariesByIdIn, OrderService::summaryCursorOf);
     }
 
     public boolean isProductInAnyOrder(Long productId) {
-        return orderItemRepository.existsByProductId(productId);
+        return orderItemRepository.existsByProductId(productId) || orderArchive.containsProduct(productId);
+    }
+
+    /**
+     * Produits presents dans au moins une ligne de commande, archives compris, par identifiants croissants.
+     *
+     * @param afterProductId dernier identifiant de la page precedente (exclu), 0 pour la premiere page
+     * @param limit          taille de la page ; une page incomplete est la derniere
+     */
+    public List<Long> getReferencedProductIds(long afterProductId, int limit) {
+        if (limit < 1 || limit > MAX_PRODUCT_ID_PAGE_SIZE) {
+            throw new IllegalArgumentException("La taille de page doit etre comprise entre 1 et " + MAX_PRODUCT_ID_PAGE_SIZE);
+        }
+        TreeSet<Long> productIds = new TreeSet<>(
+                orderItemRepository.findDistinctProductIdsAfter(afterProductId, PageRequest.ofSize(limit)));
+        orderArchive.productIds().stream()
+                .filter(productId -> productId > afterProductId)
+                .limit(limit)
+                .forEach(productIds::add);
+        return productIds.stream().limit(limit).toList();
     }
 
+    // Pagination en deux phases : identifiants de la page via l'index (orderDate, id), puis
+    // chargement du contenu de la page (resumes) en une seule requete
+    private <T> OrderPageDTO<T> loadPage(String cursor, int limit, KeysetQuery<Long> keyset,
+                                         Function<List<Long>, List<T>> loader,
+                                         Function<T, OrderCursor> cursorOf) {
+        List<Long> ids = fetchKeysetRows(cursor, limit, keyset);
+        boolean hasNext = ids.size() > limit;
+        List<Long> pageIds = hasNext ? ids.subList(0, limit) : ids;
+        if (pageIds.isEmpty()) {
+            return OrderPageDTO.<T>builder().content(List.of()).build();
+        }
+
+        Map<Long, T> byId = loader.apply(pageIds).stream()
+                .collect(Collectors.toMap(element -> cursorOf.apply(element).id(), Function.identity()));
+        List<T> content = pageIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        String nextCursor = hasNext && !content.isEmpty()
+                ? cursorOf.apply(content.get(content.size() - 1)).encode()
+                : null;
+        return OrderPageDTO.<T>builder()
+                .content(content)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    // Commandes completes : identifiants de la page via l'index des commandes (la table orders fait foi),
+    // puis documents du modele de lecture ; le curseur reprend la date exacte de la commande
+    // (le document est tronque a la seconde)
+    private OrderPageDTO<OrderResponseDTO> loadDocumentPage(String cursor, int limit, KeysetQuery<Long> keyset) {
+        List<Long> ids = fetchKeysetRows(cursor, limit, keyset);
+        boolean hasNext = ids.size() > limit;
+        List<KeyedRow<OrderResponseDTO>> rows = loadDocuments(hasNext ? ids.subList(0, limit) : ids);
+
+        return OrderPageDTO.<OrderResponseDTO>builder()
+                .content(rows.stream().map(KeyedRow::value).collect(Collectors.toList()))
+                .nextCursor(hasNext && !rows.isEmpty() ? rows.get(rows.size() - 1).key().encode() : null)
+                .build();
+    }
+
+    // Documents des commandes dans l'ordre des identifiants ; comme pour getOrderById, une commande
+    // dont le document n'est pas (encore) construit est chargee depuis les entites
+    private List<KeyedRow<OrderResponseDTO>> loadDocuments(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, KeyedRow<OrderResponseDTO>> byId = new HashMap<>();
+        for (OrderViewRepository.OrderDocument row : orderViewRepository.findDocumentsByOrderIdIn(ids)) {
+            byId.put(row.getOrderId(), new KeyedRow<>(new OrderCursor(row.getOrderDate(), row.getOrderId()),
+                    orderReadModelService.toDto(row.getDocument())));
+        }
+        List<Long> missing = ids.stream().filter(id -> !byId.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            log.warn("{} commande(s) absente(s) du modele de lecture, chargee(s) depuis les entites", missing.size());
+            incrementReadModelFallbackCounter(missing.size());
+            for (Order order : orderRepository.findAllWithItemsByIdIn(missing)) {
+                byId.put(order.getId(), new KeyedRow<>(new OrderCursor(order.getOrderDate(), order.getId()),
+                        orderMapper.toDto(order)));
+            }
+        }
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // Page d'un utilisateur dont une partie des commandes est archivee : les lignes de la base
+    // (limit + 1 au plus) et celles de l'archive apres le curseur sont fusionnees dans l'ordre
+    // (orderDate, id) decroissant ; une commande presente des deux cotes est lue depuis la base
+    private <T> OrderPageDTO<T> mergeArchivedPage(Long userId, String cursor, int limit, List<KeyedRow<T>> hot,
+                                                  Function<OrderResponseDTO, T> fromArchive) {
+        OrderCursor after = cursor == null || cursor.isBlank() ? null : OrderCursor.decode(cursor);
+        Map<Long, KeyedRow<T>> byId = new LinkedHashMap<>();
+        hot.forEach(row -> byId.put(row.key().id(), row));
+        for (OrderResponseDTO order : orderArchive.findByUserId(userId, after, limit + 1)) {
+            byId.putIfAbsent(order.getId(), new KeyedRow<>(new OrderCursor(order.getOrderDate(), order.getId()),
+                    fromArchive.apply(order)));
+        }
+
+        List<KeyedRow<T>> rows = new ArrayList<>(byId.values());
+        rows.sort(Comparator.comparing((KeyedRow<T> row) -> row.key().orderDate())
+                .thenComparing(row -> row.key().id())
+                .reversed());
+        boolean hasNext = rows.size() > limit;
+        List<KeyedRow<T>> pageRows = hasNext ? rows.subList(0, limit) : rows;
+        return OrderPageDTO.<T>builder()
+                .content(pageRows.stream().map(KeyedRow::value).collect(Collectors.toList()))
+                .nextCursor(hasNext ? pageRows.get(pageRows.size() - 1).key().encode() : null)
+                .build();
+    }
+
+    private static OrderSummaryDTO toSummary(OrderResponseDTO order) {
+        return OrderSummaryDTO.builder()
+                .id(order.getId())
+                .userId(order.getUserId())
+                .orderDate(order.getOrderDate())
+                .status(order.getStatus())
+                .totalAmount(order.getTotalAmount())
+                .itemCount((long) order.getItems().size())
+                .build();
+    }
+
+    private <R> List<R> fetchKeysetRows(String cursor, int limit, KeysetQuery<R> keyset) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("La taille de page doit etre comprise entre 1 et " + MAX_PAGE_SIZE);
+        }
+
+        // Une commande de plus que demande pour savoir s'il existe une page suivante
+        Pageable pageable = PageRequest.ofSize(limit + 1);
+        return cursor == null || cursor.isBlank()
+                ? keyset.firstPage().apply(pageable)
+                : keyset.pageAfter().apply(OrderCursor.decode(cursor), pageable);
+    }
+
+    private KeysetQuery<Long> allOrdersKeyset() {
+        return new KeysetQuery<>(
+                orderRepository::findFirstPageIds,
+                (after, pageable) -> orderRepository.findPageIdsAfter(after.orderDate(), after.id(), pageable));
+    }
+
+    private KeysetQuery<Long> userOrdersKeyset(Long userId) {
+        return new KeysetQuery<>(
+                pageable -> orderRepository.findFirstPageIdsByUserId(userId, pageable),
+                (after, pageable) -> orderRepository.findPageIdsByUserIdAfter(userId, after.orderDate(), after.id(), pageable));
+    }
+
+    private KeysetQuery<Long> statusOrdersKeyset(OrderStatus status) {
+        return new KeysetQuery<>(
+                pageable -> orderRepository.findFirstPageIdsByStatus(status, pageable),
+                (after, pageable) -> orderRepository.findPageIdsByStatusAfter(status, after.orderDate(), after.id(), pageable));
+    }
+
+    private static OrderCursor summaryCursorOf(OrderSummaryDTO summary) {
+        return new OrderCursor(summary.getOrderDate(), summary.getId());
+    }
+
+    // Requetes d'une liste d'identifiants : premiere page et page suivant un curseur
+    private record KeysetQuery<R>(Function<Pageable, List<R>> firstPage,
+                                  BiFunction<OrderCursor, Pageable, List<R>> pageAfter) {
+    }
+
+    // Element de page et sa position exacte, pour fusionner base et archive
+    private record KeyedRow<T>(OrderCursor key, T value) {
+    }
+
+    private Map<Long, Integer> sumQuantitiesByProduct(List<OrderItemRequestDTO> items) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemRequestDTO item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    // Avec ses articles : la reponse et la liberation du stock les parcourent
     private Order findOrderOrThrow(Long id) {
-        return orderRepository.findById(id)
+        return orderRepository.findByIdWithItems(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
     }
 
@@ -169,6 +548,39 @@ public class OrderService {
         }
     }
 
+    // Diffuse apres validation de la transaction (OrderStatusBroadcaster)
+    private void publishStatusChange(Long orderId, Long userId, OrderStatus previousStatus, OrderStatus newStatus) {
+        if (previousStatus == newStatus) {
+            return;
+        }
+        eventPublisher.publishEvent(OrderStatusEventDTO.builder()
+                .orderId(orderId)
+                .userId(userId)
+                .previousStatus(previousStatus)
+                .status(newStatus)
+                .changedAt(LocalDateTime.now())
+                .build());
+    }
+
+    private void incrementBulkStatusCounter(OrderStatus status, String outcome, int count) {
+        if (count == 0) {
+            return;
+        }
+        Counter.builder("orders.bulk.status_updates")
+                .description("Commandes traitees par les transitions de statut groupees")
+                .tag("status", status.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment(count);
+    }
+
+    private void incrementReadModelFallbackCounter(int count) {
+        Counter.builder("orders.read_model.fallback")
+                .description("Commandes listees sans document dans le modele de lecture")
+                .register(meterRegistry)
+                .increment(count);
+    }
+
     private void incrementOrderCounter(OrderStatus status) {
         Counter.builder("orders.created")
                 .description("Nombre de commandes creees")
@@ -0,0 +1,86 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.PricingRuleDTO;
+import com.episen.order.domain.entity.PricingRuleVersion;
+import com.episen.order.domain.repository.PricingRuleVersionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Publication des regles de prix : chaque jeu publie est enregistre comme une nouvelle version
+ * (table pricing_rule_versions), active sur l'instance qui le recoit apres validation, puis
+ * adopte par les autres instances a leur prochaine verification de la derniere version.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PricingRuleService {
+
+    private static final TypeReference<List<PricingRuleDTO>> RULES_TYPE = new TypeReference<>() {
+    };
+
+    private final PricingRuleVersionRepository pricingRuleVersionRepository;
+    private final OrderPricingService orderPricingService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Enregistre une nouvelle version des regles de prix et l'active apres validation de la transaction.
+     *
+     * @param publishedBy sujet du jeton de l'administrateur
+     * @throws IllegalArgumentException si une regle est incomplete, invalide ou en doublon
+     */
+    @Transactional
+    public List<PricingRuleDTO> publish(List<PricingRuleDTO> rules, String publishedBy) {
+        List<PricingRuleDTO> definitions = rules == null ? List.of() : rules;
+        orderPricingService.validateRules(definitions);
+        PricingRuleVersion version = pricingRuleVersionRepository.save(PricingRuleVersion.builder()
+                .rules(write(definitions))
+                .publishedBy(publishedBy)
+                .publishedAt(LocalDateTime.now())
+                .build());
+        log.info("Regles de prix version {} publiees par {}", version.getId(), publishedBy);
+        AfterCommit.run(() -> orderPricingService.activateRules(version.getId(), definitions));
+        return definitions;
+    }
+
+    /**
+     * Active la derniere version publiee si elle est plus recente que celle de l'instance.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${order.pricing.refresh-interval-ms:10000}")
+    public void refresh() {
+        long latest = pricingRuleVersionRepository.findLatestVersion();
+        if (latest <= orderPricingService.getRulesVersion()) {
+            return;
+        }
+        pricingRuleVersionRepository.findById(latest).ifPresent(version ->
+                orderPricingService.activateRules(version.getId(), read(version.getRules())));
+    }
+
+    private String write(List<PricingRuleDTO> rules) {
+        try {
+            return objectMapper.writeValueAsString(rules);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Regles de prix non serialisables", e);
+        }
+    }
+
+    private List<PricingRuleDTO> read(String rules) {
+        try {
+            return objectMapper.readValue(rules, RULES_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Regles de prix illisibles", e);
+        }
+    }
+}
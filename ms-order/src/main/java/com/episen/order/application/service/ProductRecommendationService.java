@@ -0,0 +1,367 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.BoughtTogetherDTO;
+import com.episen.order.application.dto.ProductRecommendationsDTO;
+import com.episen.order.domain.entity.Order;
+import com.episen.order.domain.entity.OrderItem;
+import com.episen.order.domain.entity.ProductPairCount;
+import com.episen.order.domain.repository.ProductPairCountRepository;
+import com.episen.order.infrastructure.persistence.AdvisoryLocks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Produits frequemment achetes ensemble : matrice creuse de co-occurrence des produits dans les
+ * commandes non annulees, indexee par paire de produits (deux identifiants sur 32 bits ranges dans
+ * un long). La matrice est mise a jour a la validation des creations et annulations de commandes,
+ * videe periodiquement dans product_pair_counts ; les voisins de chaque produit sont recalcules a
+ * chaque vidage et les lectures ne font que les decouper.
+ *
+ * Les compteurs sont propres a l'instance entre deux vidages. Au demarrage ils sont relus depuis
+ * la table, construite une fois a partir des commandes (tranches d'identifiants en parallele)
+ * lorsqu'elle est vide. La construction est reservee a une instance par un verrou consultatif et
+ * bornee au plus grand identifiant de commande lu sous ce verrou ; les commandes validees avant
+ * la fin du chargement ne sont comptees qu'au-dela de cette borne.
+ */
+@Slf4j
+@Service
+public class ProductRecommendationService {
+
+    public static final int MAX_LIMIT = 50;
+
+    static final String BACKFILL_LOCK = "product_pair_counts_backfill";
+
+    private static final long MAX_PACKED_ID = 0xFFFF_FFFFL;
+
+    // Panier d'une commande validee avant la fin du chargement
+    private record PendingBasket(Long orderId, long[] productIds, int sign) {
+    }
+
+    private record Neighbors(LocalDateTime refreshedAt, Map<Long, List<BoughtTogetherDTO>> byProduct) {
+    }
+
+    // Commandes contenant une paire et part non encore ecrite en base
+    private static final class PairCount {
+        final AtomicLong orders = new AtomicLong();
+        final AtomicLong unflushed = new AtomicLong();
+
+        void add(long delta) {
+            orders.addAndGet(delta);
+            unflushed.addAndGet(delta);
+        }
+    }
+
+    private final ProductPairCountRepository pairCountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int neighborsPerProduct;
+    private final int maxBasketProducts;
+    private final int backfillChunkSize;
+    private final int backfillParallelism;
+
+    private final ConcurrentHashMap<Long, PairCount> pairs = new ConcurrentHashMap<>();
+    private volatile Neighbors neighbors = new Neighbors(null, Map.of());
+
+    // Paniers valides avant la fin du chargement ; modifies sous pendingLock
+    private final List<PendingBasket> pending = new ArrayList<>();
+    private final Object pendingLock = new Object();
+    private boolean loaded;
+
+    public ProductRecommendationService(
+            ProductPairCountRepository pairCountRepository,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${order.recommendations.neighbors:20}") int neighborsPerProduct,
+            @Value("${order.recommendations.max-basket-products:50}") int maxBasketProducts,
+            @Value("${order.recommendations.backfill-chunk-size:5000}") int backfillChunkSize,
+            @Value("${order.recommendations.backfill-parallelism:4}") int backfillParallelism) {
+        if (neighborsPerProduct < 1 || maxBasketProducts < 2) {
+            throw new IllegalArgumentException(
+                    "order.recommendations.neighbors doit etre positif et max-basket-products au moins 2");
+        }
+        this.pairCountRepository = pairCountRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.neighborsPerProduct = neighborsPerProduct;
+        this.maxBasketProducts = maxBasketProducts;
+        this.backfillChunkSize = backfillChunkSize;
+        this.backfillParallelism = backfillParallelism;
+    }
+
+    /**
+     * Compte les paires de produits d'une commande creee, a la validation de la transaction en cours.
+     */
+    public void recordCreated(Order order) {
+        recordCreated(List.of(order));
+    }
+
+    public void recordCreated(Collection<Order> orders) {
+        AfterCommit.run(() -> orders.forEach(order -> applyOrDefer(order, 1)));
+    }
+
+    /**
+     * Retire les paires de produits d'une commande annulee (articles charges), a la validation
+     * de la transaction en cours.
+     */
+    public void recordCancelled(Order order) {
+        recordCancelled(List.of(order));
+    }
+
+    public void recordCancelled(Collection<Order> orders) {
+        AfterCommit.run(() -> orders.forEach(order -> applyOrDefer(order, -1)));
+    }
+
+    /**
+     * Produits le plus souvent commandes avec un produit, du dernier rafraichissement,
+     * par nombre de commandes communes decroissant.
+     *
+     * @throws IllegalArgumentException si la limite n'est pas comprise entre 1 et MAX_LIMIT
+     */
+    public ProductRecommendationsDTO getBoughtTogether(Long productId, int limit) {
+        int maxLimit = Math.min(MAX_LIMIT, neighborsPerProduct);
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("La limite doit etre comprise entre 1 et " + maxLimit);
+        }
+        Neighbors current = neighbors;
+        List<BoughtTogetherDTO> ranking = current.byProduct().getOrDefault(productId, List.of());
+        return ProductRecommendationsDTO.builder()
+                .productId(productId)
+                .refreshedAt(current.refreshedAt())
+                .products(ranking.subList(0, Math.min(limit, ranking.size())))
+                .build();
+    }
+
+    /**
+     * Vide les compteurs en base puis recalcule les voisins de chaque produit.
+     */
+    @Scheduled(fixedDelayString = "${order.recommendations.refresh-interval-ms:60000}")
+    public void refresh() {
+        flush();
+        refreshNeighbors();
+    }
+
+    /**
+     * Charge la matrice depuis la table, ou la construit a partir des commandes lorsque la table
+     * est vide (premier deploiement, donnees de test chargees par data.sql), puis compte les
+     * commandes validees pendant le chargement.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        // Les autres instances attendent la fin de la construction puis trouvent la table remplie
+        Long backfilledUpTo = transactionTemplate.execute(status -> {
+            AdvisoryLocks.lockForTransaction(jdbcTemplate, BACKFILL_LOCK);
+            if (pairCountRepository.count() > 0) {
+                return null;
+            }
+            long maxOrderId = pairCountRepository.findMaxOrderId();
+            backfill(maxOrderId);
+            List<Object[]> counts = new ArrayList<>(pairs.size());
+            pairs.forEach((key, count) -> counts.add(new Object[]{low(key), high(key), count.orders.get()}));
+            jdbcTemplate.batchUpdate(ProductPairCountRepository.ADD_ORDERS, counts);
+            return maxOrderId;
+        });
+        if (backfilledUpTo == null) {
+            for (ProductPairCount count : pairCountRepository.findAll()) {
+                pairs.computeIfAbsent(pairKey(count.getLowProductId(), count.getHighProductId()), key -> new PairCount())
+                        .orders.addAndGet(count.getOrderCount());
+            }
+        }
+
+        List<PendingBasket> received;
+        synchronized (pendingLock) {
+            loaded = true;
+            received = List.copyOf(pending);
+            pending.clear();
+        }
+        // Commandes anterieures a la borne : deja comptees par la construction
+        received.stream()
+                .filter(basket -> backfilledUpTo == null || basket.orderId() == null || basket.orderId() > backfilledUpTo)
+                .forEach(basket -> apply(basket.productIds(), basket.sign()));
+        refreshNeighbors();
+    }
+
+    // Parcourt les articles des commandes jusqu'a la borne par tranches d'identifiants traitees en
+    // parallele ; chaque tranche compte ses paires localement avant de les ajouter a la matrice.
+    // Les compteurs construits sont ecrits par l'appelant, ils ne sont pas a vider
+    private void backfill(long maxOrderId) {
+        long start = System.currentTimeMillis();
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(backfillParallelism)) {
+            for (long fromId = 0; fromId <= maxOrderId; fromId += backfillChunkSize) {
+                long from = fromId;
+                long to = Math.min(fromId + backfillChunkSize - 1, maxOrderId);
+                chunks.add(CompletableFuture.runAsync(() -> backfillChunk(from, to), executor));
+            }
+        }
+        chunks.forEach(CompletableFuture::join);
+        log.info("Matrice de co-occurrence des produits construite: {} paire(s) en {} tranche(s), {} ms",
+                pairs.size(), chunks.size(), System.currentTimeMillis() - start);
+    }
+
+    private void backfillChunk(long fromId, long toId) {
+        List<ProductPairCountRepository.BasketLine> lines = pairCountRepository.findBasketLines(fromId, toId);
+        Map<Long, long[]> chunkCounts = new HashMap<>();
+        PairConsumer chunkCounter = (key, delta) -> chunkCounts.computeIfAbsent(key, k -> new long[1])[0] += delta;
+        List<Long> basket = new ArrayList<>();
+        Long currentOrderId = null;
+        for (ProductPairCountRepository.BasketLine line : lines) {
+            if (!line.getOrderId().equals(currentOrderId)) {
+                countPairs(distinctSorted(basket), chunkCounter, 1);
+                basket.clear();
+                currentOrderId = line.getOrderId();
+            }
+            basket.add(line.getProductId());
+        }
+        countPairs(distinctSorted(basket), chunkCounter, 1);
+        chunkCounts.forEach((key, count) -> pairs.computeIfAbsent(key, k -> new PairCount()).orders.addAndGet(count[0]));
+    }
+
+    // Voisins de chaque produit : tas minimum borne par produit, alimente par chaque paire dans les deux sens
+    void refreshNeighbors() {
+        Comparator<BoughtTogetherDTO> ascending = Comparator.comparingLong(BoughtTogetherDTO::getOrderCount)
+                .thenComparing(BoughtTogetherDTO::getProductId, Comparator.reverseOrder());
+        Map<Long, PriorityQueue<BoughtTogetherDTO>> heaps = new HashMap<>();
+        pairs.forEach((key, count) -> {
+            long orders = count.orders.get();
+            if (orders <= 0) {
+                return;
+            }
+            offer(heaps, ascending, low(key), new BoughtTogetherDTO(high(key), orders));
+            offer(heaps, ascending, high(key), new BoughtTogetherDTO(low(key), orders));
+        });
+
+        Map<Long, List<BoughtTogetherDTO>> byProduct = new HashMap<>(heaps.size());
+        heaps.forEach((productId, heap) -> {
+            List<BoughtTogetherDTO> ranking = new ArrayList<>(heap);
+            ranking.sort(ascending.reversed());
+            byProduct.put(productId, List.copyOf(ranking));
+        });
+        neighbors = new Neighbors(LocalDateTime.now(), byProduct);
+    }
+
+    private void offer(Map<Long, PriorityQueue<BoughtTogetherDTO>> heaps, Comparator<BoughtTogetherDTO> ascending,
+                       long productId, BoughtTogetherDTO neighbor) {
+        PriorityQueue<BoughtTogetherDTO> heap = heaps.computeIfAbsent(productId,
+                id -> new PriorityQueue<>(neighborsPerProduct + 1, ascending));
+        heap.offer(neighbor);
+        if (heap.size() > neighborsPerProduct) {
+            heap.poll();
+        }
+    }
+
+    // Ecrit les deltas accumules depuis le dernier vidage ; en cas d'echec ils sont rendus aux compteurs
+    private void flush() {
+        List<Object[]> deltas = new ArrayList<>();
+        List<PairCount> flushed = new ArrayList<>();
+        pairs.forEach((key, count) -> {
+            long delta = count.unflushed.getAndSet(0);
+            if (delta != 0) {
+                deltas.add(new Object[]{low(key), high(key), delta});
+                flushed.add(count);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(ProductPairCountRepository.ADD_ORDERS, deltas));
+        } catch (RuntimeException e) {
+            for (int i = 0; i < flushed.size(); i++) {
+                flushed.get(i).unflushed.addAndGet((long) deltas.get(i)[2]);
+            }
+            log.warn("Ecriture de la matrice de co-occurrence impossible, nouvel essai au prochain vidage: {}", e.getMessage());
+        }
+    }
+
+    // Avant la fin du chargement, le panier est mis en attente : ses paires pourraient deja
+    // figurer dans la table relue
+    private void applyOrDefer(Order order, int sign) {
+        long[] productIds = productIds(order);
+        synchronized (pendingLock) {
+            if (!loaded) {
+                pending.add(new PendingBasket(order.getId(), productIds, sign));
+                return;
+            }
+        }
+        apply(productIds, sign);
+    }
+
+    private void apply(long[] productIds, int sign) {
+        countPairs(productIds, (key, delta) -> pairs.computeIfAbsent(key, k -> new PairCount()).add(delta), sign);
+    }
+
+    private interface PairConsumer {
+        void accept(long key, long delta);
+    }
+
+    // Paires (i < j) d'un panier trie sans doublon ; les paniers trop grands sont ignores
+    private void countPairs(long[] productIds, PairConsumer consumer, long delta) {
+        if (productIds.length < 2) {
+            return;
+        }
+        if (productIds.length > maxBasketProducts) {
+            log.debug("Panier de {} produits ignore par la matrice de co-occurrence", productIds.length);
+            return;
+        }
+        for (int i = 0; i < productIds.length - 1; i++) {
+            for (int j = i + 1; j < productIds.length; j++) {
+                consumer.accept(pairKey(productIds[i], productIds[j]), delta);
+            }
+        }
+    }
+
+    private static long[] productIds(Order order) {
+        if (order.getItems() == null) {
+            return new long[0];
+        }
+        List<Long> ids = new ArrayList<>(order.getItems().size());
+        for (OrderItem item : order.getItems()) {
+            ids.add(item.getProductId());
+        }
+        return distinctSorted(ids);
+    }
+
+    // Identifiants hors de la plage representable sur 32 bits ecartes
+    private static long[] distinctSorted(List<Long> productIds) {
+        return productIds.stream()
+                .filter(id -> id != null && id >= 0 && id <= MAX_PACKED_ID)
+                .mapToLong(Long::longValue)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    static long pairKey(long lowProductId, long highProductId) {
+        return lowProductId << 32 | highProductId;
+    }
+
+    static long low(long pairKey) {
+        return pairKey >>> 32;
+    }
+
+    static long high(long pairKey) {
+        return pairKey & MAX_PACKED_ID;
+    }
+}
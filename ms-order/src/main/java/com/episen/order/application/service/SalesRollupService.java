@@ -0,0 +1,169 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.DailyRevenueDTO;
+import com.episen.order.domain.entity.DailySalesRollup;
+import com.episen.order.domain.entity.Order;
+import com.episen.order.domain.enums.OrderStatus;
+import com.episen.order.domain.repository.DailySalesRollupRepository;
+import com.episen.order.domain.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Cumuls journaliers des ventes par statut, maintenus de facon incrementale dans la transaction
+ * qui cree ou modifie la commande. Les metriques et l'historique du chiffre d'affaires
+ * lisent ces cumuls plutot que la table des commandes.
+ *
+ * Une ligne (jour, statut) est partagee par toutes les commandes du jour : sa mise a jour la
+ * verrouille jusqu'a la validation. Les appelants l'effectuent en dernier dans leur transaction
+ * pour que les creations concurrentes ne s'y attendent que le temps du commit.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class SalesRollupService {
+
+    public static final int MAX_HISTORY_DAYS = 366;
+
+    private final DailySalesRollupRepository rollupRepository;
+
+    public void recordCreated(Order order) {
+        rollupRepository.addToRollup(salesDate(order), order.getStatus().name(), 1, order.getTotalAmount());
+    }
+
+    /**
+     * Cumule un lot de commandes creees (import en masse) : une mise a jour par jour et par statut
+     * au lieu d'une par commande.
+     */
+    public void recordCreated(Collection<Order> orders) {
+        Map<DailySalesRollup.Key, DailySalesRollup> deltas = new HashMap<>();
+        for (Order order : orders) {
+            addDelta(deltas, salesDate(order), order.getStatus(), 1, order.getTotalAmount());
+        }
+        applyDeltas(deltas);
+    }
+
+    public void recordStatusChange(Order order, OrderStatus previousStatus) {
+        if (previousStatus == order.getStatus()) {
+            return;
+        }
+        LocalDate salesDate = salesDate(order);
+        rollupRepository.addToRollup(salesDate, previousStatus.name(), -1, order.getTotalAmount().negate());
+        rollupRepository.addToRollup(salesDate, order.getStatus().name(), 1, order.getTotalAmount());
+    }
+
+    /**
+     * Cumule une transition de statut groupee : les commandes sont retirees de leur ancien statut
+     * et ajoutees au nouveau, une mise a jour par jour et par statut.
+     */
+    public void recordStatusChanges(Collection<OrderRepository.StatusTransition> transitions, OrderStatus newStatus) {
+        Map<DailySalesRollup.Key, DailySalesRollup> deltas = new HashMap<>();
+        for (OrderRepository.StatusTransition transition : transitions) {
+            OrderStatus previousStatus = OrderStatus.valueOf(transition.getPreviousStatus());
+            if (previousStatus == newStatus) {
+                continue;
+            }
+            LocalDate salesDate = transition.getOrderDate().toLocalDate();
+            addDelta(deltas, salesDate, previousStatus, -1, transition.getTotalAmount().negate());
+            addDelta(deltas, salesDate, newStatus, 1, transition.getTotalAmount());
+        }
+        applyDeltas(deltas);
+    }
+
+    /**
+     * Historique journalier sur [from, to], jours sans commande inclus.
+     *
+     * @param from premier jour inclus
+     * @param to   dernier jour inclus
+     * @return une entree par jour, par date croissante
+     */
+    @Transactional(readOnly = true)
+    public List<DailyRevenueDTO> getRevenueHistory(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("La date de debut doit etre anterieure ou egale a la date de fin");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_HISTORY_DAYS) {
+            throw new IllegalArgumentException("La periode ne peut pas depasser " + MAX_HISTORY_DAYS + " jours");
+        }
+
+        Map<LocalDate, List<DailySalesRollup>> rollupsByDay = new TreeMap<>();
+        for (DailySalesRollup rollup : rollupRepository.findBySalesDateBetweenOrderBySalesDateAsc(from, to)) {
+            rollupsByDay.computeIfAbsent(rollup.getSalesDate(), day -> new ArrayList<>()).add(rollup);
+        }
+
+        List<DailyRevenueDTO> history = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            long orderCount = 0;
+            BigDecimal revenue = BigDecimal.ZERO;
+            Map<OrderStatus, Long> ordersByStatus = new EnumMap<>(OrderStatus.class);
+            for (DailySalesRollup rollup : rollupsByDay.getOrDefault(day, List.of())) {
+                orderCount += rollup.getOrderCount();
+                ordersByStatus.put(rollup.getStatus(), rollup.getOrderCount());
+                if (rollup.getStatus() != OrderStatus.CANCELLED) {
+                    revenue = revenue.add(rollup.getTotalAmount());
+                }
+            }
+            history.add(DailyRevenueDTO.builder()
+                    .date(day)
+                    .orderCount(orderCount)
+                    .revenue(revenue)
+                    .ordersByStatus(ordersByStatus)
+                    .build());
+        }
+        return history;
+    }
+
+    /**
+     * Reconstruit les cumuls a partir des commandes lorsque la table est vide
+     * (premier deploiement, donnees de test chargees par data.sql).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (rollupRepository.count() == 0) {
+            int rows = rollupRepository.rebuildFromOrders();
+            log.info("Cumuls journaliers des ventes reconstruits ({} lignes)", rows);
+        }
+    }
+
+    private static void addDelta(Map<DailySalesRollup.Key, DailySalesRollup> deltas, LocalDate salesDate,
+                                 OrderStatus status, long orderCount, BigDecimal amount) {
+        DailySalesRollup delta = deltas.computeIfAbsent(new DailySalesRollup.Key(salesDate, status),
+                key -> DailySalesRollup.builder()
+                        .salesDate(key.getSalesDate())
+                        .status(key.getStatus())
+                        .orderCount(0)
+                        .totalAmount(BigDecimal.ZERO)
+                        .build());
+        delta.setOrderCount(delta.getOrderCount() + orderCount);
+        delta.setTotalAmount(delta.getTotalAmount().add(amount));
+    }
+
+    private void applyDeltas(Map<DailySalesRollup.Key, DailySalesRollup> deltas) {
+        deltas.values().stream()
+                .filter(delta -> delta.getOrderCount() != 0 || delta.getTotalAmount().signum() != 0)
+                .forEach(delta -> rollupRepository.addToRollup(delta.getSalesDate(), delta.getStatus().name(),
+                        delta.getOrderCount(), delta.getTotalAmount()));
+    }
+
+    private static LocalDate salesDate(Order order) {
+        return order.getOrderDate().toLocalDate();
+    }
+}
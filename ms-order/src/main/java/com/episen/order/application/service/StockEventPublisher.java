@@ -0,0 +1,173 @@
+package com.episen.order.application.service;
+
+import com.episen.order.domain.entity.Order;
+import com.episen.order.domain.entity.OrderItem;
+import com.episen.order.domain.entity.OutboxEvent;
+import com.episen.order.domain.enums.OutboxEventType;
+import com.episen.order.domain.repository.OutboxEventRepository;
+import com.episen.order.infrastructure.client.ProductClient;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Ecrit les operations de stock dans la table outbox, dans la transaction de la commande.
+ * La livraison a ms-product est assuree ensuite par StockOutboxRelay.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class StockEventPublisher {
+
+    private static final String INSERT_EVENT_SQL = """
+            INSERT INTO outbox_events (event_key, aggregate_id, type, payload, status, attempts, next_attempt_at, created_at)
+            VALUES (?, ?, ?, ?, 'PENDING', 0, ?, ?)
+            """;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    public void enqueueReservation(Order order, Map<Long, Integer> quantitiesByProduct) {
+        String eventKey = UUID.randomUUID().toString();
+        enqueue(order.getId(), OutboxEventType.STOCK_RESERVE, eventKey, ProductClient.StockOperationRequest.builder()
+                .operationId(eventKey)
+                .type("RESERVE")
+                .lines(toLines(quantitiesByProduct))
+                .build());
+    }
+
+    /**
+     * Reservations d'un lot de commandes (import en masse), inserees en un seul batch JDBC :
+     * l'identifiant IDENTITY de la table outbox, qui garantit l'ordre de livraison par commande,
+     * empeche Hibernate de regrouper les insertions.
+     *
+     * @param orders commandes enregistrees, identifiants attribues
+     */
+    public void enqueueReservations(List<Order> orders) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            String eventKey = UUID.randomUUID().toString();
+            rows.add(eventRow(order.getId(), OutboxEventType.STOCK_RESERVE, eventKey, now,
+                    ProductClient.StockOperationRequest.builder()
+                            .operationId(eventKey)
+                            .type("RESERVE")
+                            .lines(toLines(quantitiesOf(order)))
+                            .build()));
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, rows);
+    }
+
+    /**
+     * Restitutions d'un lot de commandes annulees (transition groupee) : reservations lues
+     * en une requete et evenements inseres en un seul batch JDBC.
+     *
+     * @param orders commandes annulees, articles charges
+     */
+    public void enqueueReleases(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Map<Long, String> reservationKeys = new HashMap<>();
+        outboxEventRepository.findByAggregateIdInAndTypeOrderByIdAsc(
+                        orders.stream().map(Order::getId).toList(), OutboxEventType.STOCK_RESERVE)
+                .forEach(reservation -> reservationKeys.putIfAbsent(reservation.getAggregateId(), reservation.getEventKey()));
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (Order order : orders) {
+            String reservationKey = reservationKeys.get(order.getId());
+            if (reservationKey == null) {
+                log.debug("Aucune reservation de stock pour la commande {}, rien a restituer", order.getId());
+                continue;
+            }
+            String eventKey = UUID.randomUUID().toString();
+            rows.add(eventRow(order.getId(), OutboxEventType.STOCK_RELEASE, eventKey, now,
+                    ProductClient.StockOperationRequest.builder()
+                            .operationId(eventKey)
+                            .type("RELEASE")
+                            .reservationId(reservationKey)
+                            .lines(toLines(quantitiesOf(order)))
+                            .build()));
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, rows);
+        }
+    }
+
+    public void enqueueRelease(Order order) {
+        Optional<OutboxEvent> reservation = outboxEventRepository
+                .findFirstByAggregateIdAndTypeOrderByIdAsc(order.getId(), OutboxEventType.STOCK_RESERVE);
+        if (reservation.isEmpty()) {
+            log.debug("Aucune reservation de stock pour la commande {}, rien a restituer", order.getId());
+            return;
+        }
+
+        Map<Long, Integer> quantities = quantitiesOf(order);
+
+        String eventKey = UUID.randomUUID().toString();
+        enqueue(order.getId(), OutboxEventType.STOCK_RELEASE, eventKey, ProductClient.StockOperationRequest.builder()
+                .operationId(eventKey)
+                .type("RELEASE")
+                .reservationId(reservation.get().getEventKey())
+                .lines(toLines(quantities))
+                .build());
+    }
+
+    private void enqueue(Long orderId, OutboxEventType type, String eventKey,
+                         ProductClient.StockOperationRequest operation) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .eventKey(eventKey)
+                .aggregateId(orderId)
+                .type(type)
+                .payload(serialize(operation))
+                .build());
+    }
+
+    private Object[] eventRow(Long orderId, OutboxEventType type, String eventKey, Timestamp now,
+                              ProductClient.StockOperationRequest operation) {
+        return new Object[]{eventKey, orderId, type.name(), serialize(operation), now, now};
+    }
+
+    private static Map<Long, Integer> quantitiesOf(Order order) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : order.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private String serialize(ProductClient.StockOperationRequest operation) {
+        try {
+            return objectMapper.writeValueAsString(operation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Impossible de serialiser l'operation de stock", e);
+        }
+    }
+
+    private List<ProductClient.StockReservationLine> toLines(Map<Long, Integer> quantitiesByProduct) {
+        List<ProductClient.StockReservationLine> lines = new ArrayList<>();
+        quantitiesByProduct.forEach((productId, quantity) -> lines.add(ProductClient.StockReservationLine.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .build()));
+        return lines;
+    }
+}
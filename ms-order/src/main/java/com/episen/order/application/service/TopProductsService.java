@@ -0,0 +1,443 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.TopProductDTO;
+import com.episen.order.application.dto.TopProductsDTO;
+import com.episen.order.domain.entity.Order;
+import com.episen.order.domain.entity.OrderItem;
+import com.episen.order.domain.entity.ProductSales;
+import com.episen.order.domain.entity.ProductSalesHourly;
+import com.episen.order.domain.enums.Category;
+import com.episen.order.domain.repository.ProductSalesRepository;
+import com.episen.order.infrastructure.client.ProductClient;
+import com.episen.order.infrastructure.persistence.AdvisoryLocks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Meilleures ventes par produit, globales et par categorie, depuis l'origine et sur des fenetres
+ * glissantes. Les unites vendues sont cumulees en memoire a la validation des creations et
+ * annulations de commandes, puis videes periodiquement dans product_sales et product_sales_hourly ;
+ * le classement est recalcule a chaque vidage et les lectures ne font que le decouper.
+ *
+ * Les compteurs sont propres a l'instance entre deux vidages ; au demarrage ils sont relus depuis
+ * les tables, reconstruites a partir des commandes seulement si elles sont vides (une seule instance
+ * reconstruit, sous verrou consultatif). Les commandes validees avant la fin du chargement sont mises
+ * en attente puis comptees, sauf celles deja couvertes par la reconstruction.
+ */
+@Slf4j
+@Service
+public class TopProductsService {
+
+    public static final int MAX_LIMIT = 100;
+
+    /**
+     * Fenetres du classement ; les fenetres glissantes avancent d'heure en heure
+     * (heure de la commande).
+     */
+    public enum Window {
+        ALL_TIME(0),
+        LAST_24_HOURS(24),
+        LAST_7_DAYS(7 * 24),
+        LAST_30_DAYS(30 * 24);
+
+        private final int hours;
+
+        Window(int hours) {
+            this.hours = hours;
+        }
+
+        public int getHours() {
+            return hours;
+        }
+
+        boolean isSliding() {
+            return hours > 0;
+        }
+    }
+
+    // Duree de conservation des heures : celle de la plus longue fenetre glissante
+    static final int RETENTION_HOURS = Window.LAST_30_DAYS.getHours();
+
+    static final String REBUILD_LOCK = "product_sales_rebuild";
+
+    private record Leaderboard(LocalDateTime refreshedAt, List<TopProductDTO> overall,
+                               Map<Category, List<TopProductDTO>> byCategory) {
+    }
+
+    // Unites vendues d'un produit et part non encore ecrite en base
+    private static final class Tally {
+        final AtomicLong units = new AtomicLong();
+        final AtomicLong unflushed = new AtomicLong();
+        volatile Category category;
+
+        void add(long delta) {
+            units.addAndGet(delta);
+            unflushed.addAndGet(delta);
+        }
+    }
+
+    private final ProductSalesRepository productSalesRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int leaderboardSize;
+
+    private final ConcurrentHashMap<Long, Tally> allTime = new ConcurrentHashMap<>();
+    // Heure (epoch, en heures) -> unites par produit ; modifie sous windowLock
+    private final ConcurrentSkipListMap<Long, ConcurrentHashMap<Long, Tally>> hourly = new ConcurrentSkipListMap<>();
+    // Totaux par produit de chaque fenetre glissante et premiere heure couverte ; modifies sous windowLock
+    private final Map<Window, ConcurrentHashMap<Long, AtomicLong>> windowTotals = new EnumMap<>(Window.class);
+    private final Map<Window, Long> windowStarts = new EnumMap<>(Window.class);
+    private final Object windowLock = new Object();
+
+    // Commandes validees avant la fin du chargement ; modifiees sous pendingLock
+    private record PendingOrder(Order order, Map<Long, ProductClient.ProductResponseDTO> products, int sign) {
+    }
+
+    private final List<PendingOrder> pending = new ArrayList<>();
+    private final Object pendingLock = new Object();
+    private boolean loaded;
+
+    private volatile Map<Window, Leaderboard> leaderboards = Map.of();
+
+    public TopProductsService(
+            ProductSalesRepository productSalesRepository,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${order.top-products.size:100}") int leaderboardSize) {
+        if (leaderboardSize < 1) {
+            throw new IllegalArgumentException("order.top-products.size doit etre positif");
+        }
+        this.productSalesRepository = productSalesRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.leaderboardSize = leaderboardSize;
+        long currentHour = currentHour();
+        for (Window window : Window.values()) {
+            if (window.isSliding()) {
+                windowTotals.put(window, new ConcurrentHashMap<>());
+                windowStarts.put(window, currentHour - window.getHours() + 1);
+            }
+        }
+    }
+
+    /**
+     * Compte les unites d'une commande creee, a la validation de la transaction en cours.
+     *
+     * @param products produits de la commande par identifiant, pour leur categorie
+     */
+    public void recordCreated(Order order, Map<Long, ProductClient.ProductResponseDTO> products) {
+        recordCreated(List.of(order), products);
+    }
+
+    public void recordCreated(Collection<Order> orders, Map<Long, ProductClient.ProductResponseDTO> products) {
+        AfterCommit.run(() -> orders.forEach(order -> applyOrDefer(order, products, 1)));
+    }
+
+    /**
+     * Retire les unites d'une commande annulee (articles charges), a la validation
+     * de la transaction en cours.
+     */
+    public void recordCancelled(Order order) {
+        recordCancelled(List.of(order));
+    }
+
+    public void recordCancelled(Collection<Order> orders) {
+        AfterCommit.run(() -> orders.forEach(order -> applyOrDefer(order, Map.of(), -1)));
+    }
+
+    /**
+     * Meilleures ventes du dernier rafraichissement, par unites vendues decroissantes.
+     *
+     * @param category categorie des produits, null pour toutes
+     * @throws IllegalArgumentException si la limite n'est pas comprise entre 1 et MAX_LIMIT
+     */
+    public TopProductsDTO getTopProducts(Window window, Category category, int limit) {
+        if (limit < 1 || limit > Math.min(MAX_LIMIT, leaderboardSize)) {
+            throw new IllegalArgumentException(
+                    "La limite doit etre comprise entre 1 et " + Math.min(MAX_LIMIT, leaderboardSize));
+        }
+        Leaderboard leaderboard = leaderboards.get(window);
+        List<TopProductDTO> ranking = leaderboard == null ? List.of()
+                : category == null ? leaderboard.overall()
+                : leaderboard.byCategory().getOrDefault(category, List.of());
+        return TopProductsDTO.builder()
+                .window(window)
+                .category(category)
+                .refreshedAt(leaderboard == null ? null : leaderboard.refreshedAt())
+                .products(ranking.subList(0, Math.min(limit, ranking.size())))
+                .build();
+    }
+
+    /**
+     * Vide les compteurs en base puis recalcule le classement.
+     */
+    @Scheduled(fixedDelayString = "${order.top-products.refresh-interval-ms:10000}")
+    public void refresh() {
+        flush();
+        refreshLeaderboards();
+    }
+
+    /**
+     * Charge les compteurs depuis les tables, reconstruites a partir des commandes lorsqu'elles
+     * sont vides (premier deploiement, donnees de test chargees par data.sql), puis compte les
+     * commandes validees pendant le chargement.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDateTime retainedFrom = toDateTime(currentHour() - RETENTION_HOURS + 1);
+        // Les autres instances attendent la fin de la reconstruction puis trouvent les tables remplies
+        Long rebuiltUpTo = transactionTemplate.execute(status -> {
+            AdvisoryLocks.lockForTransaction(jdbcTemplate, REBUILD_LOCK);
+            if (productSalesRepository.count() > 0) {
+                return null;
+            }
+            long maxOrderId = productSalesRepository.findMaxOrderId();
+            int products = productSalesRepository.rebuildFromOrders(maxOrderId);
+            productSalesRepository.deleteAllHourly();
+            int hours = productSalesRepository.rebuildHourlyFromOrders(retainedFrom, maxOrderId);
+            log.info("Ventes par produit reconstruites jusqu'a la commande {} ({} produits, {} lignes horaires)",
+                    maxOrderId, products, hours);
+            return maxOrderId;
+        });
+
+        for (ProductSales sales : productSalesRepository.findAll()) {
+            Tally tally = allTime.computeIfAbsent(sales.getProductId(), id -> new Tally());
+            tally.units.addAndGet(sales.getUnits());
+            if (tally.category == null) {
+                tally.category = Category.fromName(sales.getCategory());
+            }
+        }
+        synchronized (windowLock) {
+            for (ProductSalesHourly sales : productSalesRepository.findHourlyFrom(retainedFrom)) {
+                long hour = toEpochHour(sales.getSalesHour());
+                hourly.computeIfAbsent(hour, h -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(sales.getProductId(), id -> new Tally())
+                        .units.addAndGet(sales.getUnits());
+                addToWindows(hour, sales.getProductId(), sales.getUnits());
+            }
+        }
+
+        List<PendingOrder> received;
+        synchronized (pendingLock) {
+            loaded = true;
+            received = List.copyOf(pending);
+            pending.clear();
+        }
+        // Commandes anterieures a la borne : deja comptees par la reconstruction
+        received.stream()
+                .filter(deferred -> rebuiltUpTo == null || deferred.order().getId() == null
+                        || deferred.order().getId() > rebuiltUpTo)
+                .forEach(deferred -> apply(deferred.order(), deferred.products(), deferred.sign()));
+        refreshLeaderboards();
+    }
+
+    // Recalcule le classement de chaque fenetre apres avoir fait glisser les fenetres a l'heure courante
+    void refreshLeaderboards() {
+        long currentHour = currentHour();
+        synchronized (windowLock) {
+            slideWindows(currentHour);
+        }
+
+        Map<Window, Leaderboard> refreshed = new EnumMap<>(Window.class);
+        LocalDateTime refreshedAt = LocalDateTime.now();
+        Map<Long, Long> units = new HashMap<>(allTime.size());
+        allTime.forEach((productId, tally) -> units.put(productId, tally.units.get()));
+        refreshed.put(Window.ALL_TIME, rank(units, refreshedAt));
+        windowTotals.forEach((window, totals) -> {
+            Map<Long, Long> windowUnits = new HashMap<>(totals.size());
+            totals.forEach((productId, total) -> windowUnits.put(productId, total.get()));
+            refreshed.put(window, rank(windowUnits, refreshedAt));
+        });
+        leaderboards = refreshed;
+    }
+
+    // Avant la fin du chargement, la commande est mise en attente : ses unites pourraient deja
+    // figurer dans les tables relues
+    private void applyOrDefer(Order order, Map<Long, ProductClient.ProductResponseDTO> products, int sign) {
+        synchronized (pendingLock) {
+            if (!loaded) {
+                pending.add(new PendingOrder(order, products, sign));
+                return;
+            }
+        }
+        apply(order, products, sign);
+    }
+
+    private void apply(Order order, Map<Long, ProductClient.ProductResponseDTO> products, int sign) {
+        if (order.getItems() == null) {
+            return;
+        }
+        long hour = toEpochHour(order.getOrderDate() != null ? order.getOrderDate() : LocalDateTime.now());
+        for (OrderItem item : order.getItems()) {
+            if (item.getProductId() == null || item.getQuantity() == null) {
+                continue;
+            }
+            long delta = (long) sign * item.getQuantity();
+            Tally tally = allTime.computeIfAbsent(item.getProductId(), id -> new Tally());
+            ProductClient.ProductResponseDTO product = products.get(item.getProductId());
+            Category category = product == null ? null : Category.fromName(product.getCategory());
+            if (category != null) {
+                tally.category = category;
+            }
+            tally.add(delta);
+
+            synchronized (windowLock) {
+                // Heure deja sortie de la plus longue fenetre : seul le cumul global est concerne
+                if (hour < currentHour() - RETENTION_HOURS + 1) {
+                    continue;
+                }
+                hourly.computeIfAbsent(hour, h -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(item.getProductId(), id -> new Tally())
+                        .add(delta);
+                addToWindows(hour, item.getProductId(), delta);
+            }
+        }
+    }
+
+    private void addToWindows(long hour, Long productId, long delta) {
+        windowTotals.forEach((window, totals) -> {
+            if (hour >= windowStarts.get(window)) {
+                totals.computeIfAbsent(productId, id -> new AtomicLong()).addAndGet(delta);
+            }
+        });
+    }
+
+    // Retire des totaux les heures sorties de chaque fenetre, puis les heures sorties de toutes
+    private void slideWindows(long currentHour) {
+        windowTotals.forEach((window, totals) -> {
+            long start = currentHour - window.getHours() + 1;
+            long previousStart = windowStarts.get(window);
+            if (start <= previousStart) {
+                return;
+            }
+            hourly.subMap(previousStart, start).values().forEach(bucket -> bucket.forEach((productId, tally) -> {
+                AtomicLong total = totals.get(productId);
+                if (total != null && total.addAndGet(-tally.units.get()) == 0) {
+                    totals.remove(productId);
+                }
+            }));
+            windowStarts.put(window, start);
+        });
+        // Heures expirees : leurs deltas ont ete vides en base juste avant
+        hourly.headMap(currentHour - RETENTION_HOURS + 1).clear();
+    }
+
+    private Leaderboard rank(Map<Long, Long> units, LocalDateTime refreshedAt) {
+        Comparator<TopProductDTO> ascending = Comparator.comparingLong(TopProductDTO::getUnitsSold)
+                .thenComparing(TopProductDTO::getProductId, Comparator.reverseOrder());
+        PriorityQueue<TopProductDTO> overall = new PriorityQueue<>(leaderboardSize + 1, ascending);
+        Map<Category, PriorityQueue<TopProductDTO>> byCategory = new EnumMap<>(Category.class);
+        units.forEach((productId, sold) -> {
+            if (sold <= 0) {
+                return;
+            }
+            Tally tally = allTime.get(productId);
+            TopProductDTO entry = TopProductDTO.builder()
+                    .productId(productId)
+                    .category(tally == null ? null : tally.category)
+                    .unitsSold(sold)
+                    .build();
+            offer(overall, entry);
+            if (entry.getCategory() != null) {
+                offer(byCategory.computeIfAbsent(entry.getCategory(),
+                        category -> new PriorityQueue<>(leaderboardSize + 1, ascending)), entry);
+            }
+        });
+
+        Map<Category, List<TopProductDTO>> categoryRankings = new EnumMap<>(Category.class);
+        byCategory.forEach((category, heap) -> categoryRankings.put(category, descending(heap, ascending)));
+        return new Leaderboard(refreshedAt, descending(overall, ascending), categoryRankings);
+    }
+
+    // Tas minimum borne : le plus petit element est evince au-dela de la taille du classement
+    private void offer(PriorityQueue<TopProductDTO> heap, TopProductDTO entry) {
+        heap.offer(entry);
+        if (heap.size() > leaderboardSize) {
+            heap.poll();
+        }
+    }
+
+    private static List<TopProductDTO> descending(PriorityQueue<TopProductDTO> heap, Comparator<TopProductDTO> ascending) {
+        List<TopProductDTO> ranking = new ArrayList<>(heap);
+        ranking.sort(ascending.reversed());
+        return List.copyOf(ranking);
+    }
+
+    // Ecrit les deltas accumules depuis le dernier vidage ; en cas d'echec ils sont rendus aux compteurs
+    private void flush() {
+        List<Object[]> productDeltas = new ArrayList<>();
+        List<Tally> productTallies = new ArrayList<>();
+        allTime.forEach((productId, tally) -> {
+            long delta = tally.unflushed.getAndSet(0);
+            if (delta != 0) {
+                Category category = tally.category;
+                productDeltas.add(new Object[]{productId, category == null ? null : category.name(), delta});
+                productTallies.add(tally);
+            }
+        });
+        List<Object[]> hourlyDeltas = new ArrayList<>();
+        List<Tally> hourlyTallies = new ArrayList<>();
+        hourly.forEach((hour, bucket) -> bucket.forEach((productId, tally) -> {
+            long delta = tally.unflushed.getAndSet(0);
+            if (delta != 0) {
+                hourlyDeltas.add(new Object[]{Timestamp.valueOf(toDateTime(hour)), productId, delta});
+                hourlyTallies.add(tally);
+            }
+        }));
+        LocalDateTime expiredBefore = toDateTime(currentHour() - RETENTION_HOURS + 1);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!productDeltas.isEmpty()) {
+                    jdbcTemplate.batchUpdate(ProductSalesRepository.ADD_UNITS, productDeltas);
+                }
+                if (!hourlyDeltas.isEmpty()) {
+                    jdbcTemplate.batchUpdate(ProductSalesRepository.ADD_HOURLY_UNITS, hourlyDeltas);
+                }
+                productSalesRepository.deleteHourlyBefore(expiredBefore);
+            });
+        } catch (RuntimeException e) {
+            for (int i = 0; i < productTallies.size(); i++) {
+                productTallies.get(i).unflushed.addAndGet((long) productDeltas.get(i)[2]);
+            }
+            for (int i = 0; i < hourlyTallies.size(); i++) {
+                hourlyTallies.get(i).unflushed.addAndGet((long) hourlyDeltas.get(i)[2]);
+            }
+            log.warn("Ecriture des ventes par produit impossible, nouvel essai au prochain vidage: {}", e.getMessage());
+        }
+    }
+
+    private static long currentHour() {
+        return toEpochHour(LocalDateTime.now());
+    }
+
+    private static long toEpochHour(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / 3600;
+    }
+
+    private static LocalDateTime toDateTime(long epochHour) {
+        return LocalDateTime.ofEpochSecond(epochHour * 3600, 0, ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+    }
+}
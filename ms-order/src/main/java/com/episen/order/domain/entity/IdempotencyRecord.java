@@ -0,0 +1,71 @@
+package com.episen.order.domain.entity;
+
+import com.episen.order.domain.enums.IdempotencyStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cle d'idempotence d'une creation de commande : reservee avant l'execution, puis completee
+ * avec la reponse dans la transaction qui cree la commande, afin de la rejouer aux reessais.
+ */
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_owner_key", columnNames = {"owner", "idempotency_key"}),
+        indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expiresAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Sujet du jeton JWT : une meme cle envoyee par deux clients designe deux requetes distinctes
+    @Column(nullable = false, length = 255)
+    private String owner;
+
+    @Column(name = "idempotency_key", nullable = false, length = 255)
+    private String idempotencyKey;
+
+    // Empreinte SHA-256 du corps de la requete, pour refuser la reutilisation d'une cle
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private IdempotencyStatus status;
+
+    private Integer responseStatus;
+
+    @Column(columnDefinition = "text")
+    private String responseBody;
+
+    // Bail de l'execution en cours ; au-dela, une autre requete peut reprendre la cle
+    private LocalDateTime lockedUntil;
+
+    // Execution titulaire du bail : seule elle peut prolonger, completer ou liberer la cle
+    @Column(length = 36)
+    private String executionToken;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -10,9 +10,12 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
@@ -24,32 +27,43 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.PartitionKey;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
+// Table partitionnee par mois sur order_date : partitions, cle primaire (id, order_date) et index
+// sont definis dans schema.sql, pas par Hibernate
 @Entity
 @Table(name = "orders")
+@NamedEntityGraph(name = Order.WITH_ITEMS, attributeNodes = @NamedAttributeNode("items"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Order {
 
+    // Plan de chargement des lectures qui parcourent les articles (OrderMapper#toDto)
+    public static final String WITH_ITEMS = "Order.withItems";
+
+    // Sequence a allocation groupee : les identifiants sont connus avant l'insertion,
+    // ce qui permet a Hibernate de regrouper les INSERT par lots
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "L'ID utilisateur est obligatoire")
     @Column(nullable = false)
     private Long userId;
 
+    // Cle de partitionnement : ajoutee par Hibernate aux UPDATE et DELETE pour ne viser qu'une partition
+    @PartitionKey
     @Builder.Default
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private LocalDateTime orderDate = LocalDateTime.now();
 
     @NotNull(message = "Le statut est obligatoire")
@@ -90,26 +104,4 @@ public class Order {
         items.remove(item);
         item.setOrder(null);
     }
-
-    // Méthode publique pour calculer le total (appelée depuis le service)
-    public void calculateTotal() {
-        if (items != null && !items.isEmpty()) {
-            // D'abord calculer le subtotal de chaque item
-            items.forEach(item -> {
-                if (item.getQuantity() != null && item.getUnitPrice() != null) {
-                    item.setSubtotal(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
-                } else {
-                    item.setSubtotal(BigDecimal.ZERO);
-                }
-            });
-
-            // Ensuite calculer le total
-            this.totalAmount = items.stream()
-                    .map(OrderItem::getSubtotal)
-                    .filter(Objects::nonNull)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-        } else {
-            this.totalAmount = BigDecimal.ZERO;
-        }
-    }
 }
@@ -0,0 +1,48 @@
+package com.episen.order.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Segment de l'archive des commandes publie pour toutes les instances. Le contenu est le fichier
+ * du segment ; chaque instance le copie dans son repertoire local avant de le lire. Un segment
+ * n'est jamais modifie : un archivage rejoue sur la meme plage remplace la ligne par une nouvelle.
+ */
+@Entity
+@Table(name = "order_archive_segments")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderArchiveSegment {
+
+    // Croissant : le plus grand identifiant sert de version du catalogue
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private long minOrderId;
+
+    @Column(nullable = false)
+    private long maxOrderId;
+
+    @Column(nullable = false)
+    private int orderCount;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] content;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime publishedAt;
+}
@@ -2,7 +2,9 @@ package com.episen.order.domain.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.ConstraintMode;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -10,6 +12,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
@@ -20,9 +23,13 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.PartitionKey;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
+// Co-partitionnee avec orders sur order_date (schema.sql) ; pas de cle etrangere vers la table
+// partitionnee, les articles ne sont ecrits qu'en cascade depuis Order
 @Entity
 @Table(name = "order_items")
 @Data
@@ -31,12 +38,14 @@ import java.math.BigDecimal;
 @Builder
 public class OrderItem {
 
+    // Meme allocation groupee que Order
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "order_id", nullable = false)
+    @JoinColumn(name = "order_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     @ToString.Exclude
     private Order order;
 
@@ -61,6 +70,18 @@ public class OrderItem {
     @Column(nullable = false, precision = 14, scale = 2)
     private BigDecimal subtotal;
 
-    // Le calcul du subtotal est maintenant fait dans Order.calculateTotal()
+    // Date de la commande, cle de partitionnement recopiee a l'insertion
+    @PartitionKey
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime orderDate;
+
+    @PrePersist
+    void copyOrderDate() {
+        if (order != null) {
+            orderDate = order.getOrderDate();
+        }
+    }
+
+    // Le subtotal (remises comprises) est calcule par OrderPricingService
     // pour garantir que le total de la commande soit correct
 }
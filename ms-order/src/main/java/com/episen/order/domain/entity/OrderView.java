@@ -0,0 +1,54 @@
+package com.episen.order.domain.entity;
+
+import com.episen.order.domain.enums.OrderStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Modele de lecture des commandes : une ligne par commande, articles compris, sous la forme
+ * du document JSON renvoye par l'API. Ecrit uniquement par OrderViewRepository#refresh,
+ * dans la transaction qui modifie la commande.
+ */
+@Entity
+@Table(name = "order_views", indexes = {
+        @Index(name = "idx_order_views_order_date_id", columnList = "orderDate, orderId"),
+        @Index(name = "idx_order_views_status_order_date_id", columnList = "status, orderDate, orderId"),
+        @Index(name = "idx_order_views_user_order_date_id", columnList = "userId, orderDate, orderId")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderView {
+
+    @Id
+    private Long orderId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderStatus status;
+
+    // Date exacte de la commande : cle du curseur de pagination (le document est tronque a la seconde)
+    @Column(nullable = false)
+    private LocalDateTime orderDate;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false, columnDefinition = "jsonb")
+    private String document;
+}
@@ -0,0 +1,114 @@
+package com.episen.order.domain.entity;
+
+import com.episen.order.domain.enums.OutboxEventStatus;
+import com.episen.order.domain.enums.OutboxEventType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evenement a livrer a un autre service, ecrit dans la meme transaction que la commande.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_status_next_attempt", columnList = "status, nextAttemptAt"),
+        @Index(name = "idx_outbox_aggregate", columnList = "aggregateId")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Identifiant unique transmis au destinataire pour dedoublonner les livraisons
+    @Column(nullable = false, unique = true, length = 64)
+    private String eventKey;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxEventType type;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    @Column(nullable = false, length = 20)
+    private OutboxEventStatus status = OutboxEventStatus.PENDING;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    @Column(length = 500)
+    private String lastError;
+
+    // Relais en cours de livraison (IN_FLIGHT) ; son bail expire a nextAttemptAt
+    @Column(length = 36)
+    private String claimToken;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    public void claim(String token, LocalDateTime leaseExpiresAt) {
+        this.status = OutboxEventStatus.IN_FLIGHT;
+        this.claimToken = token;
+        this.nextAttemptAt = leaseExpiresAt;
+    }
+
+    public boolean isClaimedBy(String token) {
+        return status == OutboxEventStatus.IN_FLIGHT && token.equals(claimToken);
+    }
+
+    public void markSent() {
+        this.status = OutboxEventStatus.SENT;
+        this.sentAt = LocalDateTime.now();
+        this.lastError = null;
+        this.claimToken = null;
+    }
+
+    public void markFailed(String error) {
+        this.status = OutboxEventStatus.FAILED;
+        this.lastError = truncate(error);
+        this.claimToken = null;
+    }
+
+    public void scheduleRetry(String error, LocalDateTime nextAttempt) {
+        this.status = OutboxEventStatus.PENDING;
+        this.attempts++;
+        this.lastError = truncate(error);
+        this.nextAttemptAt = nextAttempt;
+        this.claimToken = null;
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > 500 ? error.substring(0, 500) : error;
+    }
+}
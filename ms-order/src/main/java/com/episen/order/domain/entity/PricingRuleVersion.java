@@ -0,0 +1,43 @@
+package com.episen.order.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Jeu de regles de prix publie par l'API. Les versions ne sont jamais modifiees : la plus recente
+ * est le jeu actif de toutes les instances, les precedentes servent d'historique.
+ */
+@Entity
+@Table(name = "pricing_rule_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PricingRuleVersion {
+
+    // Numero de version, croissant
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Regles au format JSON (liste de PricingRuleDTO)
+    @Column(nullable = false, columnDefinition = "text")
+    private String rules;
+
+    // Sujet du jeton de l'administrateur
+    @Column(nullable = false, length = 255)
+    private String publishedBy;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime publishedAt;
+}
@@ -0,0 +1,46 @@
+package com.episen.order.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Nombre de commandes (hors annulations) contenant a la fois deux produits ; chaque paire
+ * est stockee une seule fois, identifiant le plus petit en premier.
+ */
+@Entity
+@Table(name = "product_pair_counts")
+@IdClass(ProductPairCount.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductPairCount {
+
+    @Id
+    @Column(nullable = false)
+    private Long lowProductId;
+
+    @Id
+    @Column(nullable = false)
+    private Long highProductId;
+
+    @Column(nullable = false)
+    private long orderCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long lowProductId;
+        private Long highProductId;
+    }
+}
@@ -0,0 +1,33 @@
+package com.episen.order.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Unites vendues d'un produit depuis l'origine (commandes annulees deduites), alimentees
+ * par les vidages periodiques de TopProductsService.
+ */
+@Entity
+@Table(name = "product_sales")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSales {
+
+    @Id
+    private Long productId;
+
+    // Categorie lors de la derniere vente, null si inconnue
+    @Column(length = 30)
+    private String category;
+
+    @Column(nullable = false)
+    private long units;
+}
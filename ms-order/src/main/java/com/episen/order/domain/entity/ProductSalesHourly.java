@@ -0,0 +1,47 @@
+package com.episen.order.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Unites vendues d'un produit sur une heure (date de commande), conservees le temps
+ * de la plus longue fenetre glissante des meilleures ventes.
+ */
+@Entity
+@Table(name = "product_sales_hourly")
+@IdClass(ProductSalesHourly.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSalesHourly {
+
+    @Id
+    @Column(nullable = false)
+    private LocalDateTime salesHour;
+
+    @Id
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDateTime salesHour;
+        private Long productId;
+    }
+}
@@ -0,0 +1,25 @@
+package com.episen.order.domain.enums;
+
+/**
+ * Categories de produit de ms-product, utilisees par les regles de prix.
+ */
+public enum Category {
+    ELECTRONICS,
+    BOOKS,
+    FOOD,
+    OTHER;
+
+    private static final Category[] VALUES = values();
+
+    // Categorie recue de ms-product ; null si absente ou inconnue de ce service
+    public static Category fromName(String name) {
+        if (name != null) {
+            for (Category category : VALUES) {
+                if (category.name().equals(name)) {
+                    return category;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,6 @@
+package com.episen.order.domain.enums;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
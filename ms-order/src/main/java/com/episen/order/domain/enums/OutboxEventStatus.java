@@ -0,0 +1,8 @@
+package com.episen.order.domain.enums;
+
+public enum OutboxEventStatus {
+    PENDING,
+    IN_FLIGHT,
+    SENT,
+    FAILED
+}
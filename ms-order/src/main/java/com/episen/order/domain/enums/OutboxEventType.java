@@ -0,0 +1,6 @@
+package com.episen.order.domain.enums;
+
+public enum OutboxEventType {
+    STOCK_RESERVE,
+    STOCK_RELEASE
+}
@@ -0,0 +1,77 @@
+package com.episen.order.domain.pricing;
+
+import com.episen.order.domain.enums.Category;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Panier a tarifer sous forme de tableaux primitifs, montants en unites mineures (centimes).
+ * Reutilisable d'une commande a l'autre : une fois dimensionne, le calcul n'alloue plus rien.
+ * Non partageable entre threads.
+ */
+public final class PricingBasket {
+
+    private static final int NO_CATEGORY = -1;
+
+    long[] productIds;
+    int[] categories;
+    int[] quantities;
+    long[] unitPrices;
+    long[] lineTotals;
+    int size;
+    long total;
+
+    public PricingBasket(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        productIds = new long[capacity];
+        categories = new int[capacity];
+        quantities = new int[capacity];
+        unitPrices = new long[capacity];
+        lineTotals = new long[capacity];
+    }
+
+    public void clear() {
+        size = 0;
+        total = 0;
+    }
+
+    /**
+     * @param category  categorie du produit, null si inconnue (aucune remise de categorie)
+     * @param unitPrice prix unitaire en centimes
+     */
+    public void add(long productId, Category category, int quantity, long unitPrice) {
+        if (size == productIds.length) {
+            grow();
+        }
+        productIds[size] = productId;
+        categories[size] = category == null ? NO_CATEGORY : category.ordinal();
+        quantities[size] = quantity;
+        unitPrices[size] = unitPrice;
+        lineTotals[size] = 0;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Montant de la ligne apres remises, en centimes
+    public long lineTotal(int index) {
+        return lineTotals[Objects.checkIndex(index, size)];
+    }
+
+    // Somme des lignes, en centimes
+    public long total() {
+        return total;
+    }
+
+    private void grow() {
+        int capacity = productIds.length * 2;
+        productIds = Arrays.copyOf(productIds, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        unitPrices = Arrays.copyOf(unitPrices, capacity);
+        lineTotals = Arrays.copyOf(lineTotals, capacity);
+    }
+}
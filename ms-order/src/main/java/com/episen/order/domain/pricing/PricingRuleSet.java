@@ -0,0 +1,230 @@
+package com.episen.order.domain.pricing;
+
+import com.episen.order.domain.enums.Category;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Jeu de regles de prix compile en tableaux primitifs, immuable : il est partage sans verrou
+ * entre les threads et remplace d'un bloc. Montants en centimes, pourcentages en points de base.
+ *
+ * Ordre d'application sur un panier : lots (N achetes, M offerts) par produit, remise de
+ * categorie sur chaque ligne, puis remise du palier de panier le plus eleve atteint, repartie
+ * sur les lignes au prorata afin que le total reste la somme des lignes.
+ */
+public final class PricingRuleSet {
+
+    public static final int BASIS_POINTS = 10_000;
+
+    public static final PricingRuleSet EMPTY = builder().build();
+
+    private final int[] categoryBasisPoints;
+    private final long[] bundleProductIds;
+    private final int[] bundleBuyQuantities;
+    private final int[] bundleFreeQuantities;
+    // Paliers tries par montant minimum croissant
+    private final long[] thresholdMinAmounts;
+    private final int[] thresholdBasisPoints;
+    private final long[] thresholdAmountsOff;
+    private final boolean categoryDiscounts;
+    private final boolean empty;
+
+    private PricingRuleSet(Builder builder) {
+        categoryBasisPoints = builder.categoryBasisPoints.clone();
+        bundleProductIds = builder.bundles.stream().mapToLong(Bundle::productId).toArray();
+        bundleBuyQuantities = builder.bundles.stream().mapToInt(Bundle::buyQuantity).toArray();
+        bundleFreeQuantities = builder.bundles.stream().mapToInt(Bundle::freeQuantity).toArray();
+        List<Threshold> thresholds = builder.thresholds.stream()
+                .sorted(Comparator.comparingLong(Threshold::minAmount))
+                .toList();
+        thresholdMinAmounts = thresholds.stream().mapToLong(Threshold::minAmount).toArray();
+        thresholdBasisPoints = thresholds.stream().mapToInt(Threshold::basisPoints).toArray();
+        thresholdAmountsOff = thresholds.stream().mapToLong(Threshold::amountOff).toArray();
+        boolean hasCategoryDiscount = false;
+        for (int basisPoints : categoryBasisPoints) {
+            hasCategoryDiscount |= basisPoints > 0;
+        }
+        categoryDiscounts = hasCategoryDiscount;
+        empty = !hasCategoryDiscount && bundleProductIds.length == 0 && thresholdMinAmounts.length == 0;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    // Faux si aucune regle ne depend de la categorie : inutile alors de la renseigner dans le panier
+    public boolean usesCategories() {
+        return categoryDiscounts;
+    }
+
+    /**
+     * Calcule le montant de chaque ligne et le total du panier. Sans regle, chaque ligne vaut
+     * exactement prix unitaire x quantite.
+     *
+     * @throws ArithmeticException si un montant depasse la capacite d'un long
+     */
+    public void price(PricingBasket basket) {
+        int size = basket.size;
+        long[] lineTotals = basket.lineTotals;
+        for (int i = 0; i < size; i++) {
+            lineTotals[i] = Math.multiplyExact(basket.unitPrices[i], basket.quantities[i]);
+        }
+        if (!empty) {
+            applyBundles(basket);
+            if (categoryDiscounts) {
+                applyCategoryDiscounts(basket);
+            }
+            applyBasketThreshold(basket);
+        }
+        basket.total = sum(lineTotals, size);
+    }
+
+    private void applyBundles(PricingBasket basket) {
+        for (int r = 0; r < bundleProductIds.length; r++) {
+            long productId = bundleProductIds[r];
+            long units = 0;
+            for (int i = 0; i < basket.size; i++) {
+                if (basket.productIds[i] == productId) {
+                    units += basket.quantities[i];
+                }
+            }
+            // Les unites offertes sont prises sur les premieres lignes du produit
+            long freeUnits = units / (bundleBuyQuantities[r] + bundleFreeQuantities[r]) * bundleFreeQuantities[r];
+            for (int i = 0; i < basket.size && freeUnits > 0; i++) {
+                if (basket.productIds[i] == productId) {
+                    long taken = Math.min(freeUnits, basket.quantities[i]);
+                    basket.lineTotals[i] -= taken * basket.unitPrices[i];
+                    freeUnits -= taken;
+                }
+            }
+        }
+    }
+
+    private void applyCategoryDiscounts(PricingBasket basket) {
+        for (int i = 0; i < basket.size; i++) {
+            int category = basket.categories[i];
+            if (category >= 0 && categoryBasisPoints[category] > 0) {
+                basket.lineTotals[i] -= percentOf(basket.lineTotals[i], categoryBasisPoints[category]);
+            }
+        }
+    }
+
+    private void applyBasketThreshold(PricingBasket basket) {
+        long merchandise = sum(basket.lineTotals, basket.size);
+        int reached = -1;
+        for (int t = 0; t < thresholdMinAmounts.length && thresholdMinAmounts[t] <= merchandise; t++) {
+            reached = t;
+        }
+        if (reached < 0 || merchandise == 0) {
+            return;
+        }
+        long discount = Math.min(merchandise,
+                percentOf(merchandise, thresholdBasisPoints[reached]) + thresholdAmountsOff[reached]);
+        if (discount == 0) {
+            return;
+        }
+
+        // Parts au prorata arrondies a l'inferieur ; les centimes restants vont, un par ligne,
+        // aux lignes dont la part avait ete arrondie
+        long remaining = discount;
+        for (int i = 0; i < basket.size; i++) {
+            remaining -= Math.multiplyExact(basket.lineTotals[i], discount) / merchandise;
+        }
+        for (int i = 0; i < basket.size; i++) {
+            long weighted = Math.multiplyExact(basket.lineTotals[i], discount);
+            long share = weighted / merchandise;
+            if (remaining > 0 && weighted % merchandise != 0) {
+                share++;
+                remaining--;
+            }
+            basket.lineTotals[i] -= share;
+        }
+    }
+
+    // Arrondi au centime le plus proche, demi superieur
+    private static long percentOf(long amount, int basisPoints) {
+        return (Math.multiplyExact(amount, basisPoints) + BASIS_POINTS / 2) / BASIS_POINTS;
+    }
+
+    private static long sum(long[] values, int size) {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum = Math.addExact(sum, values[i]);
+        }
+        return sum;
+    }
+
+    private record Bundle(long productId, int buyQuantity, int freeQuantity) {
+    }
+
+    private record Threshold(long minAmount, int basisPoints, long amountOff) {
+    }
+
+    /**
+     * Compilation des regles ; chaque regle invalide ou en doublon est refusee
+     * par une IllegalArgumentException.
+     */
+    public static final class Builder {
+
+        private final int[] categoryBasisPoints = new int[Category.values().length];
+        private final List<Bundle> bundles = new ArrayList<>();
+        private final List<Threshold> thresholds = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder categoryPercentOff(Category category, int basisPoints) {
+            if (category == null) {
+                throw new IllegalArgumentException("La categorie de la remise est obligatoire");
+            }
+            requireBasisPoints(basisPoints, false);
+            if (categoryBasisPoints[category.ordinal()] > 0) {
+                throw new IllegalArgumentException("Plusieurs remises pour la categorie " + category);
+            }
+            categoryBasisPoints[category.ordinal()] = basisPoints;
+            return this;
+        }
+
+        public Builder buyNGetM(long productId, int buyQuantity, int freeQuantity) {
+            if (buyQuantity < 1 || freeQuantity < 1) {
+                throw new IllegalArgumentException("Les quantites achetee et offerte doivent etre au moins 1");
+            }
+            if (bundles.stream().anyMatch(bundle -> bundle.productId() == productId)) {
+                throw new IllegalArgumentException("Plusieurs lots pour le produit " + productId);
+            }
+            bundles.add(new Bundle(productId, buyQuantity, freeQuantity));
+            return this;
+        }
+
+        public Builder basketThreshold(long minAmount, int basisPoints, long amountOff) {
+            if (minAmount <= 0) {
+                throw new IllegalArgumentException("Le montant minimum du palier doit etre positif");
+            }
+            requireBasisPoints(basisPoints, true);
+            if (amountOff < 0 || (basisPoints == 0 && amountOff == 0)) {
+                throw new IllegalArgumentException("Le palier doit accorder un pourcentage ou un montant de remise");
+            }
+            if (thresholds.stream().anyMatch(threshold -> threshold.minAmount() == minAmount)) {
+                throw new IllegalArgumentException("Plusieurs paliers pour le meme montant minimum");
+            }
+            thresholds.add(new Threshold(minAmount, basisPoints, amountOff));
+            return this;
+        }
+
+        public PricingRuleSet build() {
+            return new PricingRuleSet(this);
+        }
+
+        private static void requireBasisPoints(int basisPoints, boolean zeroAllowed) {
+            if (basisPoints > BASIS_POINTS || basisPoints < 0 || (!zeroAllowed && basisPoints == 0)) {
+                throw new IllegalArgumentException("Le pourcentage de remise doit etre compris entre 0 et 100");
+            }
+        }
+    }
+}
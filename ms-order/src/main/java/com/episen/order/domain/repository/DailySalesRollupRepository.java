@@ -0,0 +1,60 @@
+package com.episen.order.domain.repository;
+
+import com.episen.order.domain.entity.DailySalesRollup;
+import com.episen.order.domain.enums.OrderStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, DailySalesRollup.Key> {
+
+    // Ajout atomique au cumul (delta negatif pour retirer une commande de son ancien statut)
+    @Modifying
+    @Query(value = """
+            INSERT INTO daily_sales_rollups (sales_date, status, order_count, total_amount)
+            VALUES (:salesDate, :status, :orderCount, :amount)
+            ON CONFLICT (sales_date, status) DO UPDATE
+            SET order_count = daily_sales_rollups.order_count + EXCLUDED.order_count,
+                total_amount = daily_sales_rollups.total_amount + EXCLUDED.total_amount
+            """, nativeQuery = true)
+    void addToRollup(LocalDate salesDate, String status, long orderCount, BigDecimal amount);
+
+    // Reconstruction complete a partir des commandes (table vide au demarrage, donnees de test)
+    @Modifying
+    @Query(value = """
+            INSERT INTO daily_sales_rollups (sales_date, status, order_count, total_amount)
+            SELECT CAST(o.order_date AS date), o.status, COUNT(*), SUM(o.total_amount)
+            FROM orders o
+            GROUP BY CAST(o.order_date AS date), o.status
+            """, nativeQuery = true)
+    int rebuildFromOrders();
+
+    // Totaux par statut (tous jours confondus) et pour une journee, en une seule agregation
+    @Query("""
+            SELECT r.status AS status,
+                   SUM(r.orderCount) AS orderCount,
+                   SUM(CASE WHEN r.salesDate = :day THEN r.orderCount ELSE 0 END) AS dayOrderCount,
+                   SUM(CASE WHEN r.salesDate = :day THEN r.totalAmount ELSE 0 END) AS dayAmount
+            FROM DailySalesRollup r
+            GROUP BY r.status
+            """)
+    List<StatusTotals> sumByStatus(LocalDate day);
+
+    List<DailySalesRollup> findBySalesDateBetweenOrderBySalesDateAsc(LocalDate from, LocalDate to);
+
+    interface StatusTotals {
+        OrderStatus getStatus();
+
+        Long getOrderCount();
+
+        Long getDayOrderCount();
+
+        BigDecimal getDayAmount();
+    }
+}
@@ -0,0 +1,95 @@
+package com.episen.order.domain.repository;
+
+import com.episen.order.domain.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByOwnerAndIdempotencyKey(String owner, String idempotencyKey);
+
+    // Reserve la cle pour l'execution :token ; 0 si elle existe deja (execution en cours ou terminee)
+    @Modifying
+    @Query(value = """
+            INSERT INTO idempotency_keys (owner, idempotency_key, request_hash, status, execution_token, locked_until,
+                                          expires_at, created_at)
+            VALUES (:owner, :key, :requestHash, 'IN_PROGRESS', :token, :lockedUntil, :expiresAt, CURRENT_TIMESTAMP)
+            ON CONFLICT (owner, idempotency_key) DO NOTHING
+            """, nativeQuery = true)
+    int claim(@Param("owner") String owner,
+              @Param("key") String key,
+              @Param("requestHash") String requestHash,
+              @Param("token") String token,
+              @Param("lockedUntil") LocalDateTime lockedUntil,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Reprend pour l'execution :token une cle dont le bail a expire (instance arretee ou bloquee en cours de traitement)
+    @Modifying
+    @Query("""
+            UPDATE IdempotencyRecord r SET r.executionToken = :token, r.lockedUntil = :lockedUntil
+            WHERE r.owner = :owner AND r.idempotencyKey = :key AND r.requestHash = :requestHash
+              AND r.status = com.episen.order.domain.enums.IdempotencyStatus.IN_PROGRESS
+              AND r.lockedUntil < :now
+            """)
+    int takeOverExpiredLease(@Param("owner") String owner,
+                             @Param("key") String key,
+                             @Param("requestHash") String requestHash,
+                             @Param("token") String token,
+                             @Param("lockedUntil") LocalDateTime lockedUntil,
+                             @Param("now") LocalDateTime now);
+
+    // Prolonge le bail tant que l'execution :token le detient ; 0 si la cle a ete reprise ou completee
+    @Modifying
+    @Query("""
+            UPDATE IdempotencyRecord r SET r.lockedUntil = :lockedUntil
+            WHERE r.owner = :owner AND r.idempotencyKey = :key AND r.executionToken = :token
+              AND r.status = com.episen.order.domain.enums.IdempotencyStatus.IN_PROGRESS
+            """)
+    int renewLease(@Param("owner") String owner,
+                   @Param("key") String key,
+                   @Param("token") String token,
+                   @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    // Complete la cle si l'execution :token detient toujours un bail valide ; 0 sinon
+    @Modifying
+    @Query("""
+            UPDATE IdempotencyRecord r
+            SET r.status = com.episen.order.domain.enums.IdempotencyStatus.COMPLETED,
+                r.responseStatus = :responseStatus, r.responseBody = :responseBody,
+                r.executionToken = null, r.lockedUntil = null, r.expiresAt = :expiresAt
+            WHERE r.owner = :owner AND r.idempotencyKey = :key AND r.executionToken = :token
+              AND r.status = com.episen.order.domain.enums.IdempotencyStatus.IN_PROGRESS
+              AND r.lockedUntil >= :now
+            """)
+    int complete(@Param("owner") String owner,
+                 @Param("key") String key,
+                 @Param("token") String token,
+                 @Param("responseStatus") int responseStatus,
+                 @Param("responseBody") String responseBody,
+                 @Param("expiresAt") LocalDateTime expiresAt,
+                 @Param("now") LocalDateTime now);
+
+    // Libere une cle dont l'execution :token a echoue, pour qu'un reessai puisse la rejouer
+    @Modifying
+    @Query("""
+            DELETE FROM IdempotencyRecord r
+            WHERE r.owner = :owner AND r.idempotencyKey = :key AND r.executionToken = :token
+              AND r.status = com.episen.order.domain.enums.IdempotencyStatus.IN_PROGRESS
+              AND r.lockedUntil >= :now
+            """)
+    int release(@Param("owner") String owner,
+                @Param("key") String key,
+                @Param("token") String token,
+                @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,26 @@
+package com.episen.order.domain.repository;
+
+import com.episen.order.domain.entity.OrderArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderArchiveSegmentRepository extends JpaRepository<OrderArchiveSegment, Long> {
+
+    // Version du catalogue : dernier segment publie, 0 si aucun
+    @Query("SELECT COALESCE(MAX(s.id), 0) FROM OrderArchiveSegment s")
+    long findLatestId();
+
+    // Segments publies, sans leur contenu
+    @Query("SELECT s.id FROM OrderArchiveSegment s ORDER BY s.id")
+    List<Long> findAllIds();
+
+    // Segment de la meme plage ecrit par un archivage interrompu avant suppression
+    @Modifying
+    @Query("DELETE FROM OrderArchiveSegment s WHERE s.minOrderId = :minOrderId AND s.maxOrderId = :maxOrderId")
+    int deleteByRange(long minOrderId, long maxOrderId);
+}
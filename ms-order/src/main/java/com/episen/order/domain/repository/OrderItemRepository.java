@@ -1,7 +1,9 @@
 package com.episen.order.domain.repository;
 
 import com.episen.order.domain.entity.OrderItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +16,9 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     boolean existsByProductId(Long productId);
 
     List<OrderItem> findByProductId(Long productId);
+
+    // Produits presents dans au moins une ligne, par pages d'identifiants croissants, pour la reprise
+    // de l'index de ms-product
+    @Query("SELECT DISTINCT i.productId FROM OrderItem i WHERE i.productId > :afterProductId ORDER BY i.productId")
+    List<Long> findDistinctProductIdsAfter(long afterProductId, Pageable pageable);
 }
@@ -1,42 +1,158 @@
 package com.episen.order.domain.repository;
 
+import com.episen.order.application.dto.OrderSummaryDTO;
 import com.episen.order.domain.entity.Order;
 import com.episen.order.domain.enums.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    // Listes d'entites : articles charges dans la meme requete, jamais a la demande
+    @EntityGraph(Order.WITH_ITEMS)
     List<Order> findByUserId(Long userId);
 
+    @EntityGraph(Order.WITH_ITEMS)
     List<Order> findByStatus(OrderStatus status);
 
+    @EntityGraph(Order.WITH_ITEMS)
     List<Order> findByOrderDateBetween(LocalDateTime start, LocalDateTime end);
 
     long countByStatus(OrderStatus status);
 
-    @Query("SELECT COUNT(o) FROM Order o WHERE CAST(o.orderDate AS LocalDate) = CURRENT_DATE")
-    long countTodayOrders();
-
-    @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE CAST(o.orderDate AS LocalDate) = CURRENT_DATE")
-    BigDecimal sumTodayOrderAmounts();
-
-    // Fetch all orders with their items in a single query to avoid N+1 problem
-    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items")
-    List<Order> findAllWithItems();
-
     // Fetch a single order with its items
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id = :id")
     Optional<Order> findByIdWithItems(Long id);
 
-    // Fetch orders by status with their items
-    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.status = :status")
-    List<Order> findByStatusWithItems(OrderStatus status);
+    // Pagination par curseur (keyset) sur (orderDate, id), du plus recent au plus ancien :
+    // premiere phase, seuls les identifiants de la page sont lus via l'index. La borne
+    // orderDate <= :orderDate est explicite pour que le planificateur elague les partitions
+    @Query("SELECT o.id FROM Order o ORDER BY o.orderDate DESC, o.id DESC")
+    List<Long> findFirstPageIds(Pageable pageable);
+
+    @Query("""
+            SELECT o.id FROM Order o
+            WHERE o.orderDate <= :orderDate AND (o.orderDate < :orderDate OR o.id < :id)
+            ORDER BY o.orderDate DESC, o.id DESC
+            """)
+    List<Long> findPageIdsAfter(LocalDateTime orderDate, Long id, Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status ORDER BY o.orderDate DESC, o.id DESC")
+    List<Long> findFirstPageIdsByStatus(OrderStatus status, Pageable pageable);
+
+    @Query("""
+            SELECT o.id FROM Order o
+            WHERE o.status = :status
+              AND o.orderDate <= :orderDate AND (o.orderDate < :orderDate OR o.id < :id)
+            ORDER BY o.orderDate DESC, o.id DESC
+            """)
+    List<Long> findPageIdsByStatusAfter(OrderStatus status, LocalDateTime orderDate, Long id, Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.userId = :userId ORDER BY o.orderDate DESC, o.id DESC")
+    List<Long> findFirstPageIdsByUserId(Long userId, Pageable pageable);
+
+    @Query("""
+            SELECT o.id FROM Order o
+            WHERE o.userId = :userId
+              AND o.orderDate <= :orderDate AND (o.orderDate < :orderDate OR o.id < :id)
+            ORDER BY o.orderDate DESC, o.id DESC
+            """)
+    List<Long> findPageIdsByUserIdAfter(Long userId, LocalDateTime orderDate, Long id, Pageable pageable);
+
+    // Seconde phase : chargement des commandes de la page avec leurs articles en une requete
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id IN :ids")
+    List<Order> findAllWithItemsByIdIn(Collection<Long> ids);
+
+    // Seconde phase des listes resumees : projection sans chargement des articles ni des entites
+    @Query("""
+            SELECT new com.episen.order.application.dto.OrderSummaryDTO(
+                o.id, o.userId, o.orderDate, o.status, o.totalAmount,
+                (SELECT COUNT(i) FROM OrderItem i WHERE i.order = o AND i.orderDate = o.orderDate))
+            FROM Order o WHERE o.id IN :ids
+            """)
+    List<OrderSummaryDTO> findSummariesByIdIn(Collection<Long> ids);
+
+    // Transition ensembliste : verrouille les commandes encore modifiables parmi les identifiants,
+    // les met a jour et renvoie leur statut precedent, en un seul aller-retour
+    @Query(value = """
+            WITH target AS (
+                SELECT id, order_date, status FROM orders
+                WHERE id IN (:ids) AND status NOT IN ('DELIVERED', 'CANCELLED')
+                FOR UPDATE)
+            UPDATE orders o SET status = :status, updated_at = CURRENT_TIMESTAMP
+            FROM target t
+            WHERE o.id = t.id AND o.order_date = t.order_date
+            RETURNING o.id AS id, o.user_id AS userId, t.status AS previousStatus, o.order_date AS orderDate, o.total_amount AS totalAmount
+            """, nativeQuery = true)
+    List<StatusTransition> transitionStatusByIds(Collection<Long> ids, String status);
+
+    // Meme transition pour les commandes d'un statut passees avant une date, par identifiant croissant
+    @Query(value = """
+            WITH target AS (
+                SELECT id, order_date, status FROM orders
+                WHERE status = :currentStatus AND status NOT IN ('DELIVERED', 'CANCELLED')
+                  AND order_date < :orderedBefore
+                ORDER BY id
+                LIMIT :limit
+                FOR UPDATE)
+            UPDATE orders o SET status = :status, updated_at = CURRENT_TIMESTAMP
+            FROM target t
+            WHERE o.id = t.id AND o.order_date = t.order_date AND o.order_date < :orderedBefore
+            RETURNING o.id AS id, o.user_id AS userId, t.status AS previousStatus, o.order_date AS orderDate, o.total_amount AS totalAmount
+            """, nativeQuery = true)
+    List<StatusTransition> transitionStatusByFilter(String currentStatus, LocalDateTime orderedBefore, int limit, String status);
+
+    // Commandes terminees passees avant une date (archivage), par identifiant croissant
+    @Query(value = """
+            SELECT id FROM orders
+            WHERE status IN ('DELIVERED', 'CANCELLED') AND order_date < :orderedBefore AND id > :afterId
+            ORDER BY id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Long> findArchivableIds(LocalDateTime orderedBefore, long afterId, int limit);
+
+    // Suppression des commandes archivees ; le filtre sur order_date restreint aux partitions concernees
+    @Modifying
+    @Query(value = "DELETE FROM order_items WHERE order_id IN (:ids) AND order_date < :orderedBefore", nativeQuery = true)
+    int deleteArchivedItems(Collection<Long> ids, LocalDateTime orderedBefore);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM orders
+            WHERE id IN (:ids) AND order_date < :orderedBefore AND status IN ('DELIVERED', 'CANCELLED')
+            """, nativeQuery = true)
+    int deleteArchived(Collection<Long> ids, LocalDateTime orderedBefore);
+
+    // Statuts des identifiants non modifies, pour distinguer commande introuvable et non modifiable
+    @Query("SELECT o.id AS id, o.status AS status FROM Order o WHERE o.id IN :ids")
+    List<OrderStatusView> findStatusesByIdIn(Collection<Long> ids);
+
+    interface StatusTransition {
+        Long getId();
+
+        Long getUserId();
+
+        String getPreviousStatus();
+
+        LocalDateTime getOrderDate();
+
+        BigDecimal getTotalAmount();
+    }
+
+    interface OrderStatusView {
+        Long getId();
+
+        OrderStatus getStatus();
+    }
 }
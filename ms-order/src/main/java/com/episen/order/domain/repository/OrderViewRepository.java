@@ -0,0 +1,102 @@
+package com.episen.order.domain.repository;
+
+import com.episen.order.domain.entity.OrderView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderViewRepository extends JpaRepository<OrderView, Long> {
+
+    // Unique definition du document : memes champs que OrderResponseDTO, dates ISO a la seconde
+    String REFRESH_SELECT = """
+            INSERT INTO order_views (order_id, user_id, status, order_date, document)
+            SELECT o.id, o.user_id, o.status, o.order_date,
+                   jsonb_build_object(
+                       'id', o.id,
+                       'userId', o.user_id,
+                       'orderDate', date_trunc('second', o.order_date),
+                       'status', o.status,
+                       'totalAmount', o.total_amount,
+                       'shippingAddress', o.shipping_address,
+                       'items', COALESCE(jsonb_agg(jsonb_build_object(
+                                   'id', i.id,
+                                   'productId', i.product_id,
+                                   'productName', i.product_name,
+                                   'quantity', i.quantity,
+                                   'unitPrice', i.unit_price,
+                                   'subtotal', i.subtotal) ORDER BY i.id) FILTER (WHERE i.id IS NOT NULL),
+                                CAST('[]' AS jsonb)),
+                       'createdAt', date_trunc('second', o.created_at),
+                       'updatedAt', date_trunc('second', o.updated_at))
+            FROM orders o
+            LEFT JOIN order_items i ON i.order_id = o.id AND i.order_date = o.order_date
+            """;
+
+    String REFRESH_UPSERT = """
+            GROUP BY o.id
+            ON CONFLICT (order_id) DO UPDATE
+            SET user_id = EXCLUDED.user_id,
+                status = EXCLUDED.status,
+                order_date = EXCLUDED.order_date,
+                document = EXCLUDED.document
+            """;
+
+    // Regenere le document des commandes (a appeler apres flush des entites modifiees)
+    @Modifying
+    @Query(value = REFRESH_SELECT + "WHERE o.id IN (:orderIds)\n" + REFRESH_UPSERT, nativeQuery = true)
+    int refresh(Collection<Long> orderIds);
+
+    // Reconstruction par tranche : les commandes sont d'abord verrouillees en partage, la regeneration
+    // voit alors toutes les ecritures validees et aucune ecriture concurrente ne peut s'intercaler
+    @Query(value = "SELECT id FROM orders WHERE id BETWEEN :fromId AND :toId FOR SHARE", nativeQuery = true)
+    List<Long> lockOrdersInRange(long fromId, long toId);
+
+    @Modifying
+    @Query(value = REFRESH_SELECT + "WHERE o.id BETWEEN :fromId AND :toId\n" + REFRESH_UPSERT, nativeQuery = true)
+    int refreshRange(long fromId, long toId);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM order_views v
+            WHERE v.order_id BETWEEN :fromId AND :toId
+              AND NOT EXISTS (SELECT 1 FROM orders o WHERE o.id = v.order_id)
+            """, nativeQuery = true)
+    int deleteOrphansInRange(long fromId, long toId);
+
+    // Documents des commandes archivees
+    @Modifying
+    @Query(value = "DELETE FROM order_views WHERE order_id IN (:orderIds)", nativeQuery = true)
+    int deleteByOrderIdIn(Collection<Long> orderIds);
+
+    // Documents des commandes d'une partition detachee
+    @Modifying
+    @Query(value = "DELETE FROM order_views WHERE order_date >= :from AND order_date < :to", nativeQuery = true)
+    int deleteByOrderDateRange(LocalDateTime from, LocalDateTime to);
+
+    @Query(value = "SELECT COALESCE(MAX(id), 0) FROM orders", nativeQuery = true)
+    long findMaxOrderId();
+
+    @Query("SELECT v.document FROM OrderView v WHERE v.orderId = :orderId")
+    Optional<String> findDocumentByOrderId(Long orderId);
+
+    @Query("""
+            SELECT v.orderId AS orderId, v.orderDate AS orderDate, v.document AS document FROM OrderView v
+            WHERE v.orderId IN :orderIds
+            """)
+    List<OrderDocument> findDocumentsByOrderIdIn(Collection<Long> orderIds);
+
+    interface OrderDocument {
+        Long getOrderId();
+
+        LocalDateTime getOrderDate();
+
+        String getDocument();
+    }
+}
@@ -0,0 +1,43 @@
+package com.episen.order.domain.repository;
+
+import com.episen.order.domain.entity.OutboxEvent;
+import com.episen.order.domain.enums.OutboxEventType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Prochains evenements dus (ou en livraison dont le bail a expire), verrouilles pour ce relais ;
+    // un evenement attend que les evenements precedents de la meme commande soient livres afin de
+    // conserver l'ordre
+    @Query(value = """
+            SELECT * FROM outbox_events e
+            WHERE e.status IN ('PENDING', 'IN_FLIGHT')
+              AND e.next_attempt_at <= CURRENT_TIMESTAMP
+              AND NOT EXISTS (
+                  SELECT 1 FROM outbox_events p
+                  WHERE p.aggregate_id = e.aggregate_id AND p.id < e.id AND p.status IN ('PENDING', 'IN_FLIGHT'))
+            ORDER BY e.id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("limit") int limit);
+
+    // Evenements d'un lot livre, verrouilles pour enregistrer le resultat de la livraison
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM OutboxEvent e WHERE e.id IN :ids ORDER BY e.id")
+    List<OutboxEvent> lockByIdIn(@Param("ids") Collection<Long> ids);
+
+    Optional<OutboxEvent> findFirstByAggregateIdAndTypeOrderByIdAsc(Long aggregateId, OutboxEventType type);
+
+    List<OutboxEvent> findByAggregateIdInAndTypeOrderByIdAsc(Collection<Long> aggregateIds, OutboxEventType type);
+}
@@ -0,0 +1,14 @@
+package com.episen.order.domain.repository;
+
+import com.episen.order.domain.entity.PricingRuleVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PricingRuleVersionRepository extends JpaRepository<PricingRuleVersion, Long> {
+
+    // Derniere version publiee, 0 si aucune (regles de la configuration)
+    @Query("SELECT COALESCE(MAX(v.id), 0) FROM PricingRuleVersion v")
+    long findLatestVersion();
+}
@@ -0,0 +1,38 @@
+package com.episen.order.domain.repository;
+
+import com.episen.order.domain.entity.ProductPairCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductPairCountRepository extends JpaRepository<ProductPairCount, ProductPairCount.Key> {
+
+    // Ajout des deltas vides par lot (JdbcTemplate#batchUpdate) : low_product_id, high_product_id, order_count
+    String ADD_ORDERS = """
+            INSERT INTO product_pair_counts (low_product_id, high_product_id, order_count) VALUES (?, ?, ?)
+            ON CONFLICT (low_product_id, high_product_id) DO UPDATE
+            SET order_count = product_pair_counts.order_count + EXCLUDED.order_count
+            """;
+
+    @Query(value = "SELECT COALESCE(MAX(id), 0) FROM orders", nativeQuery = true)
+    long findMaxOrderId();
+
+    // Articles des commandes non annulees d'une tranche d'identifiants, regroupes par commande
+    @Query(value = """
+            SELECT i.order_id AS orderId, i.product_id AS productId
+            FROM order_items i
+            JOIN orders o ON o.id = i.order_id AND o.order_date = i.order_date
+            WHERE o.status <> 'CANCELLED' AND o.id BETWEEN :fromId AND :toId AND i.order_id BETWEEN :fromId AND :toId
+            ORDER BY i.order_id
+            """, nativeQuery = true)
+    List<BasketLine> findBasketLines(long fromId, long toId);
+
+    interface BasketLine {
+        Long getOrderId();
+
+        Long getProductId();
+    }
+}
@@ -0,0 +1,68 @@
+package com.episen.order.domain.repository;
+
+import com.episen.order.domain.entity.ProductSales;
+import com.episen.order.domain.entity.ProductSalesHourly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductSalesRepository extends JpaRepository<ProductSales, Long> {
+
+    // Ajout des deltas vides par lot (JdbcTemplate#batchUpdate) : product_id, category, units
+    String ADD_UNITS = """
+            INSERT INTO product_sales (product_id, category, units) VALUES (?, ?, ?)
+            ON CONFLICT (product_id) DO UPDATE
+            SET units = product_sales.units + EXCLUDED.units,
+                category = COALESCE(EXCLUDED.category, product_sales.category)
+            """;
+
+    // sales_hour, product_id, units
+    String ADD_HOURLY_UNITS = """
+            INSERT INTO product_sales_hourly (sales_hour, product_id, units) VALUES (?, ?, ?)
+            ON CONFLICT (sales_hour, product_id) DO UPDATE
+            SET units = product_sales_hourly.units + EXCLUDED.units
+            """;
+
+    @Query("SELECT h FROM ProductSalesHourly h WHERE h.salesHour >= :from")
+    List<ProductSalesHourly> findHourlyFrom(LocalDateTime from);
+
+    @Modifying
+    @Query("DELETE FROM ProductSalesHourly h WHERE h.salesHour < :before")
+    int deleteHourlyBefore(LocalDateTime before);
+
+    @Modifying
+    @Query("DELETE FROM ProductSalesHourly h")
+    int deleteAllHourly();
+
+    @Query(value = "SELECT COALESCE(MAX(id), 0) FROM orders", nativeQuery = true)
+    long findMaxOrderId();
+
+    // Reconstruction a partir des commandes jusqu'a maxOrderId (table vide au demarrage) ; categories
+    // inconnues jusqu'a la prochaine vente de chaque produit
+    @Modifying
+    @Query(value = """
+            INSERT INTO product_sales (product_id, units)
+            SELECT i.product_id, SUM(i.quantity)
+            FROM order_items i
+            JOIN orders o ON o.id = i.order_id AND o.order_date = i.order_date
+            WHERE o.status <> 'CANCELLED' AND o.id <= :maxOrderId
+            GROUP BY i.product_id
+            """, nativeQuery = true)
+    int rebuildFromOrders(long maxOrderId);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO product_sales_hourly (sales_hour, product_id, units)
+            SELECT date_trunc('hour', o.order_date), i.product_id, SUM(i.quantity)
+            FROM order_items i
+            JOIN orders o ON o.id = i.order_id AND o.order_date = i.order_date
+            WHERE o.status <> 'CANCELLED' AND o.order_date >= :from AND i.order_date >= :from AND o.id <= :maxOrderId
+            GROUP BY date_trunc('hour', o.order_date), i.product_id
+            """, nativeQuery = true)
+    int rebuildHourlyFromOrders(LocalDateTime from, long maxOrderId);
+}
@@ -0,0 +1,234 @@
+package com.episen.order.infrastructure.archive;
+
+import com.episen.order.application.dto.OrderCursor;
+import com.episen.order.application.dto.OrderResponseDTO;
+import com.episen.order.domain.entity.Order;
+import com.episen.order.domain.entity.OrderArchiveSegment;
+import com.episen.order.domain.repository.OrderArchiveSegmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Archive des commandes froides : segments immuables (voir {@link OrderSegment}) publies dans la
+ * table order_archive_segments, commune a toutes les instances, et consultes par leur index avant
+ * toute decompression. Chaque instance copie les segments du catalogue dans un repertoire local
+ * (volume order_archive en conteneur), qui ne sert que de cache.
+ *
+ * Chaque lecture compare d'abord la version du catalogue (dernier segment publie) a celle deja
+ * copiee : un segment publie est lisible par toutes les instances des sa validation, avant que
+ * l'archivage ne supprime les commandes de la base.
+ */
+@Slf4j
+@Component
+public class OrderArchive {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    private static final Comparator<OrderResponseDTO> NEWEST_FIRST = Comparator
+            .comparing(OrderResponseDTO::getOrderDate, Comparator.reverseOrder())
+            .thenComparing(OrderResponseDTO::getId, Comparator.reverseOrder());
+
+    private final Path directory;
+    private final OrderArchiveSegmentRepository segmentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Object syncLock = new Object();
+
+    // Segments copies, par identifiant du catalogue ; remplaces en bloc sous syncLock
+    private volatile Map<Long, OrderSegment> segments = Map.of();
+    private volatile long syncedVersion;
+
+    public OrderArchive(
+            @Value("${order.archive.directory:./order-archive}") Path directory,
+            OrderArchiveSegmentRepository segmentRepository,
+            TransactionTemplate transactionTemplate) {
+        this.directory = directory;
+        this.segmentRepository = segmentRepository;
+        this.transactionTemplate = transactionTemplate;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Repertoire de l'archive de commandes inaccessible: " + directory, e);
+        }
+    }
+
+    /**
+     * Ecrit un segment avec les commandes (articles charges) et le publie dans le catalogue. Au retour,
+     * le segment est lisible par toutes les instances.
+     *
+     * @return identifiant du segment dans le catalogue
+     */
+    public long append(List<Order> orders) {
+        if (orders.isEmpty()) {
+            throw new IllegalArgumentException("Aucune commande a archiver");
+        }
+        long minId = orders.stream().mapToLong(Order::getId).min().orElseThrow();
+        long maxId = orders.stream().mapToLong(Order::getId).max().orElseThrow();
+        Path temporary = directory.resolve("orders-" + minId + "-" + maxId + OrderSegment.EXTENSION + ".tmp");
+        try {
+            Files.deleteIfExists(temporary);
+            OrderSegment.write(temporary, orders);
+            byte[] content = Files.readAllBytes(temporary);
+            // Meme plage deja publiee par un archivage interrompu avant suppression : le nouveau segment la remplace
+            OrderArchiveSegment published = transactionTemplate.execute(status -> {
+                segmentRepository.deleteByRange(minId, maxId);
+                return segmentRepository.save(OrderArchiveSegment.builder()
+                        .minOrderId(minId)
+                        .maxOrderId(maxId)
+                        .orderCount(orders.size())
+                        .content(content)
+                        .publishedAt(LocalDateTime.now())
+                        .build());
+            });
+            Files.move(temporary, segmentFile(published.getId()), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            sync();
+            return published.getId();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ecriture du segment d'archive impossible: " + temporary, e);
+        }
+    }
+
+    public Optional<OrderResponseDTO> findOrder(long orderId) {
+        try {
+            for (OrderSegment segment : sync()) {
+                Optional<OrderResponseDTO> order = segment.find(orderId);
+                if (order.isPresent()) {
+                    return order;
+                }
+            }
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean containsUser(long userId) {
+        return sync().stream().anyMatch(segment -> segment.containsUser(userId));
+    }
+
+    /**
+     * Commandes archivees d'un utilisateur, de la plus recente a la plus ancienne.
+     *
+     * @param after position exclue (derniere commande de la page precedente), null pour la premiere page
+     */
+    public List<OrderResponseDTO> findByUserId(long userId, OrderCursor after, int limit) {
+        // Une commande de deux segments (archivage rejoue) n'est renvoyee qu'une fois
+        Map<Long, OrderResponseDTO> byId = new LinkedHashMap<>();
+        try {
+            for (OrderSegment segment : sync()) {
+                for (OrderResponseDTO order : segment.findByUser(userId)) {
+                    if (after == null || isBefore(order, after)) {
+                        byId.putIfAbsent(order.getId(), order);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<OrderResponseDTO> orders = new ArrayList<>(byId.values());
+        orders.sort(NEWEST_FIRST);
+        return orders.size() > limit ? orders.subList(0, limit) : orders;
+    }
+
+    public boolean containsProduct(long productId) {
+        return sync().stream().anyMatch(segment -> segment.containsProduct(productId));
+    }
+
+    public List<Long> productIds() {
+        TreeSet<Long> productIds = new TreeSet<>();
+        for (OrderSegment segment : sync()) {
+            for (long productId : segment.productIds()) {
+                productIds.add(productId);
+            }
+        }
+        return new ArrayList<>(productIds);
+    }
+
+    // Copie les segments publies depuis la derniere lecture et retire ceux remplaces ; une seule
+    // requete sur la cle primaire lorsque le catalogue n'a pas change
+    private List<OrderSegment> sync() {
+        if (segmentRepository.findLatestId() == syncedVersion) {
+            return List.copyOf(segments.values());
+        }
+        synchronized (syncLock) {
+            List<Long> ids = segmentRepository.findAllIds();
+            Map<Long, OrderSegment> current = segments;
+            Map<Long, OrderSegment> synced = new LinkedHashMap<>();
+            try {
+                for (Long id : ids) {
+                    OrderSegment segment = current.containsKey(id) ? current.get(id) : copy(id);
+                    if (segment != null) {
+                        synced.put(id, segment);
+                    }
+                }
+                removeStaleFiles(synced.keySet());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Copie de l'archive de commandes impossible dans " + directory, e);
+            }
+            int added = (int) synced.keySet().stream().filter(id -> !current.containsKey(id)).count();
+            segments = synced;
+            syncedVersion = ids.isEmpty() ? 0 : ids.get(ids.size() - 1);
+            if (added > 0) {
+                log.info("Archive de commandes: {} segment(s) copie(s), {} segment(s), {} commande(s)", added,
+                        synced.size(), synced.values().stream().mapToLong(OrderSegment::orderCount).sum());
+            }
+            return List.copyOf(synced.values());
+        }
+    }
+
+    // Segment deja present dans le cache (ecrit par cette instance ou avant un redemarrage) ou lu
+    // depuis le catalogue ; null s'il vient d'etre remplace
+    private OrderSegment copy(long id) throws IOException {
+        Path file = segmentFile(id);
+        if (!Files.exists(file)) {
+            Optional<OrderArchiveSegment> published = segmentRepository.findById(id);
+            if (published.isEmpty()) {
+                return null;
+            }
+            Path temporary = directory.resolve(file.getFileName() + ".tmp");
+            Files.write(temporary, published.get().getContent());
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return OrderSegment.open(file);
+    }
+
+    private void removeStaleFiles(Set<Long> published) throws IOException {
+        Set<Path> kept = new HashSet<>();
+        published.forEach(id -> kept.add(segmentFile(id)));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + OrderSegment.EXTENSION)) {
+            for (Path file : files) {
+                if (!kept.contains(file)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private Path segmentFile(long id) {
+        return directory.resolve(SEGMENT_PREFIX + id + OrderSegment.EXTENSION);
+    }
+
+    private static boolean isBefore(OrderResponseDTO order, OrderCursor after) {
+        int byDate = order.getOrderDate().compareTo(after.orderDate());
+        return byDate < 0 || (byDate == 0 && order.getId() < after.id());
+    }
+}
@@ -0,0 +1,447 @@
+package com.episen.order.infrastructure.archive;
+
+import com.episen.order.application.dto.OrderItemResponseDTO;
+import com.episen.order.application.dto.OrderResponseDTO;
+import com.episen.order.domain.entity.Order;
+import com.episen.order.domain.entity.OrderItem;
+import com.episen.order.domain.enums.OrderStatus;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Segment d'archive de commandes : fichier immuable, une colonne compressee (deflate) par champ,
+ * commandes triees par identifiant et articles a plat dans le meme ordre. Le pied de fichier,
+ * non compresse, porte la position de chaque colonne et un index creux : bornes des identifiants
+ * de commande, utilisateurs et produits presents (tries). Le fichier est lu par projection memoire ;
+ * une recherche ne decompresse que les colonnes utiles.
+ *
+ * Format : MAGIC | colonnes | pied (index) | position du pied (long) | MAGIC
+ */
+final class OrderSegment {
+
+    static final String EXTENSION = ".seg";
+
+    private static final int MAGIC = 0x4F534731; // "OSG1"
+    private static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES;
+    private static final int MINOR_UNIT_SCALE = 2;
+
+    private enum Column {
+        ORDER_ID, USER_ID, ORDER_DATE, STATUS, TOTAL_AMOUNT, SHIPPING_ADDRESS, CREATED_AT, UPDATED_AT, ITEM_COUNT,
+        ITEM_ID, ITEM_PRODUCT_ID, ITEM_PRODUCT_NAME, ITEM_QUANTITY, ITEM_UNIT_PRICE, ITEM_SUBTOTAL
+    }
+
+    private record ColumnBlock(long offset, int length, int rawLength) {
+    }
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final ColumnBlock[] columns;
+    private final int orderCount;
+    private final long minOrderId;
+    private final long maxOrderId;
+    private final long[] userIds;
+    private final long[] productIds;
+
+    private OrderSegment(Path file, MappedByteBuffer buffer, ColumnBlock[] columns, int orderCount,
+                         long minOrderId, long maxOrderId, long[] userIds, long[] productIds) {
+        this.file = file;
+        this.buffer = buffer;
+        this.columns = columns;
+        this.orderCount = orderCount;
+        this.minOrderId = minOrderId;
+        this.maxOrderId = maxOrderId;
+        this.userIds = userIds;
+        this.productIds = productIds;
+    }
+
+    /**
+     * Ecrit les commandes (articles charges) dans un nouveau fichier.
+     *
+     * @throws ArithmeticException si un montant a plus de deux decimales
+     */
+    static void write(Path file, List<Order> orders) throws IOException {
+        List<Order> sorted = orders.stream().sorted(Comparator.comparing(Order::getId)).toList();
+        List<OrderItem> items = sorted.stream().flatMap(order -> order.getItems().stream()).toList();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             CountingOutputStream counting = new CountingOutputStream(new BufferedOutputStream(
+                     Channels.newOutputStream(channel)));
+             DataOutputStream out = new DataOutputStream(counting)) {
+            out.writeInt(MAGIC);
+            List<ColumnBlock> blocks = new ArrayList<>();
+            for (Column column : Column.values()) {
+                byte[] raw = encode(column, sorted, items);
+                byte[] compressed = compress(raw);
+                blocks.add(new ColumnBlock(counting.count, compressed.length, raw.length));
+                out.write(compressed);
+            }
+
+            long footerOffset = counting.count;
+            for (ColumnBlock block : blocks) {
+                out.writeLong(block.offset());
+                out.writeInt(block.length());
+                out.writeInt(block.rawLength());
+            }
+            out.writeInt(sorted.size());
+            out.writeLong(sorted.isEmpty() ? 0 : sorted.get(0).getId());
+            out.writeLong(sorted.isEmpty() ? 0 : sorted.get(sorted.size() - 1).getId());
+            writeLongs(out, sorted.stream().mapToLong(Order::getUserId).distinct().sorted().toArray());
+            writeLongs(out, items.stream().mapToLong(OrderItem::getProductId).distinct().sorted().toArray());
+            out.writeLong(footerOffset);
+            out.writeInt(MAGIC);
+            out.flush();
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Projette un segment en memoire et lit son index.
+     *
+     * @throws IOException si le fichier n'est pas un segment complet
+     */
+    static OrderSegment open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int size = buffer.capacity();
+        if (size < Integer.BYTES + TRAILER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(size - Integer.BYTES) != MAGIC) {
+            throw new IOException("Segment d'archive invalide ou incomplet: " + file);
+        }
+        long footerOffset = buffer.getLong(size - TRAILER_BYTES);
+        DataInputStream footer = new DataInputStream(new ByteArrayInputStream(
+                bytes(buffer, footerOffset, (int) (size - TRAILER_BYTES - footerOffset))));
+        ColumnBlock[] columns = new ColumnBlock[Column.values().length];
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = new ColumnBlock(footer.readLong(), footer.readInt(), footer.readInt());
+        }
+        int orderCount = footer.readInt();
+        long minOrderId = footer.readLong();
+        long maxOrderId = footer.readLong();
+        return new OrderSegment(file, buffer, columns, orderCount, minOrderId, maxOrderId,
+                readLongs(footer), readLongs(footer));
+    }
+
+    Path file() {
+        return file;
+    }
+
+    int orderCount() {
+        return orderCount;
+    }
+
+    boolean coversOrder(long orderId) {
+        return orderId >= minOrderId && orderId <= maxOrderId;
+    }
+
+    boolean containsUser(long userId) {
+        return Arrays.binarySearch(userIds, userId) >= 0;
+    }
+
+    boolean containsProduct(long productId) {
+        return Arrays.binarySearch(productIds, productId) >= 0;
+    }
+
+    long[] productIds() {
+        return productIds;
+    }
+
+    Optional<OrderResponseDTO> find(long orderId) throws IOException {
+        if (!coversOrder(orderId)) {
+            return Optional.empty();
+        }
+        int row = Arrays.binarySearch(readDeltaLongs(Column.ORDER_ID), orderId);
+        return row < 0 ? Optional.empty() : Optional.of(materialize(new int[]{row}).get(0));
+    }
+
+    List<OrderResponseDTO> findByUser(long userId) throws IOException {
+        if (!containsUser(userId)) {
+            return List.of();
+        }
+        long[] users = readLongs(Column.USER_ID);
+        int[] rows = new int[users.length];
+        int hits = 0;
+        for (int row = 0; row < users.length; row++) {
+            if (users[row] == userId) {
+                rows[hits++] = row;
+            }
+        }
+        return materialize(Arrays.copyOf(rows, hits));
+    }
+
+    // Construit les commandes des lignes demandees (croissantes) a partir de toutes les colonnes
+    private List<OrderResponseDTO> materialize(int[] rows) throws IOException {
+        long[] ids = readDeltaLongs(Column.ORDER_ID);
+        long[] users = readLongs(Column.USER_ID);
+        long[] orderDates = readDeltaLongs(Column.ORDER_DATE);
+        String[] statuses = readStrings(Column.STATUS);
+        long[] totals = readLongs(Column.TOTAL_AMOUNT);
+        String[] addresses = readStrings(Column.SHIPPING_ADDRESS);
+        long[] createdAt = readDeltaLongs(Column.CREATED_AT);
+        long[] updatedAt = readDeltaLongs(Column.UPDATED_AT);
+        int[] itemCounts = readInts(Column.ITEM_COUNT);
+        long[] itemIds = readLongs(Column.ITEM_ID);
+        long[] itemProductIds = readLongs(Column.ITEM_PRODUCT_ID);
+        String[] itemProductNames = readStrings(Column.ITEM_PRODUCT_NAME);
+        int[] itemQuantities = readInts(Column.ITEM_QUANTITY);
+        long[] itemUnitPrices = readLongs(Column.ITEM_UNIT_PRICE);
+        long[] itemSubtotals = readLongs(Column.ITEM_SUBTOTAL);
+
+        int[] itemStarts = new int[itemCounts.length + 1];
+        for (int row = 0; row < itemCounts.length; row++) {
+            itemStarts[row + 1] = itemStarts[row] + itemCounts[row];
+        }
+
+        List<OrderResponseDTO> orders = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            List<OrderItemResponseDTO> items = new ArrayList<>(itemCounts[row]);
+            for (int i = itemStarts[row]; i < itemStarts[row + 1]; i++) {
+                items.add(OrderItemResponseDTO.builder()
+                        .id(itemIds[i])
+                        .productId(itemProductIds[i])
+                        .productName(itemProductNames[i])
+                        .quantity(itemQuantities[i])
+                        .unitPrice(BigDecimal.valueOf(itemUnitPrices[i], MINOR_UNIT_SCALE))
+                        .subtotal(BigDecimal.valueOf(itemSubtotals[i], MINOR_UNIT_SCALE))
+                        .build());
+            }
+            orders.add(OrderResponseDTO.builder()
+                    .id(ids[row])
+                    .userId(users[row])
+                    .orderDate(fromMicros(orderDates[row]))
+                    .status(OrderStatus.valueOf(statuses[row]))
+                    .totalAmount(BigDecimal.valueOf(totals[row], MINOR_UNIT_SCALE))
+                    .shippingAddress(addresses[row])
+                    .items(items)
+                    .createdAt(fromMicros(createdAt[row]))
+                    .updatedAt(fromMicros(updatedAt[row]))
+                    .build());
+        }
+        return orders;
+    }
+
+    private static byte[] encode(Column column, List<Order> orders, List<OrderItem> items) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(raw);
+        out.writeInt(column.ordinal() < Column.ITEM_ID.ordinal() ? orders.size() : items.size());
+        long previous = 0;
+        switch (column) {
+            // Identifiants et dates tries ou presque : ecarts successifs, mieux compresses
+            case ORDER_ID, ORDER_DATE, CREATED_AT, UPDATED_AT -> {
+                for (Order order : orders) {
+                    long value = switch (column) {
+                        case ORDER_ID -> order.getId();
+                        case ORDER_DATE -> toMicros(order.getOrderDate());
+                        case CREATED_AT -> toMicros(order.getCreatedAt());
+                        default -> toMicros(order.getUpdatedAt());
+                    };
+                    out.writeLong(value - previous);
+                    previous = value;
+                }
+            }
+            case USER_ID -> {
+                for (Order order : orders) {
+                    out.writeLong(order.getUserId());
+                }
+            }
+            case STATUS -> {
+                for (Order order : orders) {
+                    out.writeUTF(order.getStatus().name());
+                }
+            }
+            case TOTAL_AMOUNT -> {
+                for (Order order : orders) {
+                    out.writeLong(toMinorUnits(order.getTotalAmount()));
+                }
+            }
+            case SHIPPING_ADDRESS -> {
+                for (Order order : orders) {
+                    out.writeUTF(nullToEmpty(order.getShippingAddress()));
+                }
+            }
+            case ITEM_COUNT -> {
+                for (Order order : orders) {
+                    out.writeInt(order.getItems().size());
+                }
+            }
+            case ITEM_ID, ITEM_PRODUCT_ID, ITEM_UNIT_PRICE, ITEM_SUBTOTAL -> {
+                for (OrderItem item : items) {
+                    out.writeLong(switch (column) {
+                        case ITEM_ID -> item.getId();
+                        case ITEM_PRODUCT_ID -> item.getProductId();
+                        case ITEM_UNIT_PRICE -> toMinorUnits(item.getUnitPrice());
+                        default -> toMinorUnits(item.getSubtotal());
+                    });
+                }
+            }
+            case ITEM_PRODUCT_NAME -> {
+                for (OrderItem item : items) {
+                    out.writeUTF(nullToEmpty(item.getProductName()));
+                }
+            }
+            case ITEM_QUANTITY -> {
+                for (OrderItem item : items) {
+                    out.writeInt(item.getQuantity());
+                }
+            }
+        }
+        out.flush();
+        return raw.toByteArray();
+    }
+
+    private DataInputStream column(Column column) throws IOException {
+        ColumnBlock block = columns[column.ordinal()];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(buffer.slice((int) block.offset(), block.length()));
+            byte[] raw = new byte[block.rawLength()];
+            int inflated = 0;
+            while (inflated < raw.length && !inflater.finished()) {
+                inflated += inflater.inflate(raw, inflated, raw.length - inflated);
+            }
+            if (inflated != raw.length) {
+                throw new IOException("Colonne " + column + " tronquee dans " + file);
+            }
+            return new DataInputStream(new ByteArrayInputStream(raw));
+        } catch (DataFormatException e) {
+            throw new IOException("Colonne " + column + " illisible dans " + file, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private long[] readLongs(Column column) throws IOException {
+        DataInputStream in = column(column);
+        long[] values = new long[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readLong();
+        }
+        return values;
+    }
+
+    private long[] readDeltaLongs(Column column) throws IOException {
+        long[] values = readLongs(column);
+        for (int i = 1; i < values.length; i++) {
+            values[i] += values[i - 1];
+        }
+        return values;
+    }
+
+    private int[] readInts(Column column) throws IOException {
+        DataInputStream in = column(column);
+        int[] values = new int[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    private String[] readStrings(Column column) throws IOException {
+        DataInputStream in = column(column);
+        String[] values = new String[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readUTF();
+        }
+        return values;
+    }
+
+    private static byte[] compress(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] bytes(ByteBuffer buffer, long offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get((int) offset, bytes);
+        return bytes;
+    }
+
+    private static void writeLongs(DataOutputStream out, long[] values) throws IOException {
+        out.writeInt(values.length);
+        for (long value : values) {
+            out.writeLong(value);
+        }
+    }
+
+    private static long[] readLongs(DataInputStream in) throws IOException {
+        long[] values = new long[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readLong();
+        }
+        return values;
+    }
+
+    // Exact : un montant a plus de deux decimales leve une ArithmeticException
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount.movePointRight(MINOR_UNIT_SCALE).longValueExact();
+    }
+
+    private static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    // Position courante dans le fichier, pour l'adresse de chaque colonne
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package com.episen.order.infrastructure.client;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -24,9 +23,9 @@ public class MembershipClient {
     private final String membershipServiceUrl;
 
     public MembershipClient(
-            RestTemplateBuilder restTemplateBuilder,
+            PooledRestTemplateFactory restTemplateFactory,
             @Value("${membership.service.url:http://localhost:8081}") String membershipServiceUrl) {
-        this.restTemplate = restTemplateBuilder.build();
+        this.restTemplate = restTemplateFactory.create("ms-membership");
         this.membershipServiceUrl = membershipServiceUrl;
     }
 
@@ -0,0 +1,83 @@
+package com.episen.order.infrastructure.client;
+
+import com.episen.order.infrastructure.config.HttpClientProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Construit les RestTemplate des clients inter-services sur un pool de connexions
+ * keep-alive dedie a chaque service cible, avec timeouts et metriques du pool.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PooledRestTemplateFactory {
+
+    private final RestTemplateBuilder restTemplateBuilder;
+    private final HttpClientProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final List<CloseableHttpClient> httpClients = new CopyOnWriteArrayList<>();
+
+    public RestTemplate create(String serviceName) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.maxTotal())
+                .setMaxConnPerRoute(properties.maxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.connectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.readTimeout()))
+                        .setValidateAfterInactivity(TimeValue.of(properties.validateAfterInactivity()))
+                        .build())
+                .build();
+
+        // Jauges httpcomponents.httpclient.pool.* (leased, pending, available) taguees par service cible
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, serviceName).bindTo(meterRegistry);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(properties.connectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(properties.readTimeout()))
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(properties.keepAlive()))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.idleEviction()))
+                .build();
+        httpClients.add(httpClient);
+
+        return restTemplateBuilder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+    }
+
+    @PreDestroy
+    public void close() {
+        for (CloseableHttpClient httpClient : httpClients) {
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                log.warn("Erreur lors de la fermeture du client HTTP", e);
+            }
+        }
+    }
+}
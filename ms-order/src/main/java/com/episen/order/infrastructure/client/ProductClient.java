@@ -1,11 +1,13 @@
 package com.episen.order.infrastructure.client;
 
 import com.episen.order.infrastructure.exception.ResourceNotFoundException;
+import com.episen.order.infrastructure.security.ServiceTokenProvider;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -18,18 +20,30 @@ import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Component
 public class ProductClient {
 
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final RestTemplate restTemplate;
     private final String productServiceUrl;
+    private final ServiceTokenProvider serviceTokenProvider;
 
     public ProductClient(
-            RestTemplateBuilder restTemplateBuilder,
+            PooledRestTemplateFactory restTemplateFactory,
+            ServiceTokenProvider serviceTokenProvider,
             @Value("${product.service.url:http://localhost:8082}") String productServiceUrl) {
-        this.restTemplate = restTemplateBuilder.build();
+        this.restTemplate = restTemplateFactory.create("ms-product");
+        this.serviceTokenProvider = serviceTokenProvider;
         this.productServiceUrl = productServiceUrl;
     }
 
@@ -51,35 +65,84 @@ public class ProductClient {
         }
     }
 
-    public boolean isProductAvailable(Long productId, Integer requiredQuantity) {
-        ProductResponseDTO product = getProduct(productId);
-        return product != null && product.getStock() >= requiredQuantity;
+    /**
+     * Recupere en un seul appel tous les produits d'une commande, doublons fusionnes.
+     *
+     * @throws ResourceNotFoundException si l'un des produits n'existe pas
+     */
+    public Map<Long, ProductResponseDTO> getProducts(Collection<Long> productIds) {
+        Set<Long> distinctIds = new LinkedHashSet<>(productIds);
+        Map<Long, ProductResponseDTO> products = findProducts(distinctIds);
+        for (Long productId : distinctIds) {
+            if (!products.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product", "id", productId);
+            }
+        }
+        return products;
     }
 
-    public void updateStock(Long productId, Integer quantityChange) {
-        ProductResponseDTO product = getProduct(productId);
+    /**
+     * Recupere les produits existants parmi les identifiants fournis, par lots de
+     * {@value #MAX_BATCH_SIZE} (limite de l'endpoint batch) ; les identifiants inconnus sont absents du resultat.
+     */
+    public Map<Long, ProductResponseDTO> findProducts(Collection<Long> productIds) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(productIds));
+        String url = productServiceUrl + "/api/v1/products/batch";
+        Map<Long, ProductResponseDTO> products = new HashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += MAX_BATCH_SIZE) {
+            List<Long> batch = distinctIds.subList(from, Math.min(from + MAX_BATCH_SIZE, distinctIds.size()));
+            ProductBatchRequest request = ProductBatchRequest.builder()
+                    .ids(new ArrayList<>(batch))
+                    .build();
+
+            ProductResponseDTO[] body;
+            try {
+                body = restTemplate.exchange(
+                        url,
+                        HttpMethod.POST,
+                        new HttpEntity<>(request, buildAuthHeaders()),
+                        ProductResponseDTO[].class
+                ).getBody();
+            } catch (RestClientException e) {
+                log.error("Erreur lors de l'appel groupe au service Product pour productIds {}", batch, e);
+                throw new IllegalStateException("Impossible de recuperer les produits", e);
+            }
 
-        Integer newStock = product.getStock() + quantityChange;
-        if (newStock < 0) {
-            throw new IllegalStateException("Stock insuffisant pour le produit " + productId);
+            if (body != null) {
+                for (ProductResponseDTO product : body) {
+                    products.put(product.getId(), product);
+                }
+            }
         }
+        return products;
+    }
+
+    public boolean isProductAvailable(Long productId, Integer requiredQuantity) {
+        ProductResponseDTO product = getProduct(productId);
+        return product != null && product.getStock() >= requiredQuantity;
+    }
 
-        String url = productServiceUrl + "/api/v1/products/{id}/stock";
-        StockUpdateRequest request = StockUpdateRequest.builder()
-                .stock(newStock)
+    /**
+     * Livre un lot d'operations de stock idempotentes a ms-product et retourne le resultat de chacune.
+     * Appele hors requete utilisateur : authentifie avec le jeton de service.
+     */
+    public List<StockOperationResult> applyStockOperations(List<StockOperationRequest> operations) {
+        String url = productServiceUrl + "/api/v1/products/stock/operations";
+        StockOperationBatchRequest request = StockOperationBatchRequest.builder()
+                .operations(operations)
                 .build();
 
         try {
-            restTemplate.exchange(
+            StockOperationResult[] results = restTemplate.exchange(
                     url,
-                    HttpMethod.PATCH,
-                    new HttpEntity<>(request, buildAuthHeaders()),
-                    ProductResponseDTO.class,
-                    productId
-            );
+                    HttpMethod.POST,
+                    new HttpEntity<>(request, buildServiceAuthHeaders()),
+                    StockOperationResult[].class
+            ).getBody();
+            return results != null ? List.of(results) : List.of();
         } catch (RestClientException e) {
-            log.error("Erreur lors de la mise a jour du stock pour productId {}", productId, e);
-            throw new IllegalStateException("Impossible de mettre a jour le stock", e);
+            log.error("Erreur lors de la livraison de {} operation(s) de stock", operations.size(), e);
+            throw new IllegalStateException("Impossible de livrer les operations de stock", e);
         }
     }
 
@@ -92,6 +155,15 @@ public class ProductClient {
         return headers;
     }
 
+    private HttpHeaders buildServiceAuthHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        String token = serviceTokenProvider.getToken();
+        if (token != null) {
+            headers.setBearerAuth(token);
+        }
+        return headers;
+    }
+
     private String resolveBearerToken() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication instanceof JwtAuthenticationToken jwtAuthentication) {
@@ -107,11 +179,46 @@ public class ProductClient {
         private BigDecimal price;
         private Integer stock;
         private Boolean active;
+        // Nom de la categorie (enum de ms-product), lu sans echec si ms-product en ajoute une
+        private String category;
     }
 
     @Data
     @Builder
-    public static class StockUpdateRequest {
-        private Integer stock;
+    public static class ProductBatchRequest {
+        private List<Long> ids;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StockReservationLine {
+        private Long productId;
+        private Integer quantity;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StockOperationRequest {
+        private String operationId;
+        private String type;
+        private String reservationId;
+        private List<StockReservationLine> lines;
+    }
+
+    @Data
+    @Builder
+    public static class StockOperationBatchRequest {
+        private List<StockOperationRequest> operations;
+    }
+
+    @Data
+    public static class StockOperationResult {
+        private String operationId;
+        private String outcome;
+        private String message;
     }
 }
@@ -0,0 +1,71 @@
+package com.episen.order.infrastructure.client;
+
+import com.episen.order.infrastructure.concurrent.RemoteCallExecutor;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Cache local de l'existence des utilisateurs devant MembershipClient.
+ * Les reponses positives et negatives ont des TTL distincts, les chargements
+ * concurrents d'un meme ID partagent un seul appel distant et les erreurs ne sont pas mises en cache.
+ */
+@Component
+public class UserExistenceCache {
+
+    private final AsyncLoadingCache<Long, Boolean> cache;
+
+    public UserExistenceCache(
+            MembershipClient membershipClient,
+            RemoteCallExecutor remoteCallExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${order.user-cache.max-size:10000}") long maxSize,
+            @Value("${order.user-cache.positive-ttl-seconds:600}") long positiveTtlSeconds,
+            @Value("${order.user-cache.negative-ttl-seconds:30}") long negativeTtlSeconds) {
+        long positiveTtlNanos = Duration.ofSeconds(positiveTtlSeconds).toNanos();
+        long negativeTtlNanos = Duration.ofSeconds(negativeTtlSeconds).toNanos();
+
+        // Le chargement est soumis depuis le thread appelant : l'executor propage son SecurityContext
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Long, Boolean>() {
+                    @Override
+                    public long expireAfterCreate(Long userId, Boolean exists, long currentTime) {
+                        return exists ? positiveTtlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long userId, Boolean exists, long currentTime, long currentDuration) {
+                        return expireAfterCreate(userId, exists, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long userId, Boolean exists, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .executor(remoteCallExecutor.executor())
+                .recordStats()
+                .buildAsync(membershipClient::userExists);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users.exists");
+    }
+
+    public boolean userExists(Long userId) {
+        try {
+            return cache.get(userId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.episen.order.infrastructure.concurrent;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Execute les appels inter-services independants en parallele sur des threads virtuels.
+ * Le SecurityContext de l'appelant est propage aux taches pour que les clients
+ * puissent relayer le jeton JWT.
+ */
+@Component
+public class RemoteCallExecutor {
+
+    private final ExecutorService executor;
+    private final Duration timeout;
+
+    public RemoteCallExecutor(@Value("${order.remote-calls.timeout-ms:5000}") long timeoutMs) {
+        this.executor = new DelegatingSecurityContextExecutorService(Executors.newVirtualThreadPerTaskExecutor());
+        this.timeout = Duration.ofMillis(timeoutMs);
+    }
+
+    /**
+     * Ouvre un scope dont toutes les taches partagent le meme delai global.
+     */
+    public RemoteCallScope openScope() {
+        return new RemoteCallScope(executor, timeout);
+    }
+
+    /**
+     * Executor sous-jacent, pour les composants qui gerent eux-memes leurs taches asynchrones.
+     */
+    public Executor executor() {
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
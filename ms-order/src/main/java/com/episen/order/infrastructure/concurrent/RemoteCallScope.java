@@ -0,0 +1,91 @@
+package com.episen.order.infrastructure.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Scope d'appels paralleles : des qu'une tache echoue ou que le delai commun expire,
+ * les taches soeurs sont annulees et l'erreur est relancee dans le thread appelant.
+ * Meme semantique que StructuredTaskScope.ShutdownOnFailure, qui reste en preview en Java 21.
+ */
+public class RemoteCallScope implements AutoCloseable {
+
+    private final CompletionService<Object> completionService;
+    private final List<Future<Object>> futures = new ArrayList<>();
+    private final long deadlineNanos;
+
+    RemoteCallScope(ExecutorService executor, Duration timeout) {
+        this.completionService = new ExecutorCompletionService<>(executor);
+        this.deadlineNanos = System.nanoTime() + timeout.toNanos();
+    }
+
+    /**
+     * Lance une tache dans le scope. Le resultat n'est lisible qu'apres {@link #join()}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Supplier<T> fork(Callable<T> task) {
+        Future<Object> future = completionService.submit((Callable<Object>) task);
+        futures.add(future);
+        return () -> {
+            if (!future.isDone()) {
+                throw new IllegalStateException("Le scope n'a pas ete joint");
+            }
+            try {
+                return (T) future.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    /**
+     * Attend la fin de toutes les taches, ou la premiere erreur, dans la limite du delai commun.
+     */
+    public void join() {
+        for (int remaining = futures.size(); remaining > 0; remaining--) {
+            Future<Object> completed;
+            try {
+                completed = completionService.poll(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelAll();
+                throw new IllegalStateException("Appels distants interrompus", e);
+            }
+            if (completed == null) {
+                cancelAll();
+                throw new IllegalStateException("Delai depasse lors des appels aux services distants");
+            }
+            try {
+                completed.get();
+            } catch (ExecutionException e) {
+                cancelAll();
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException("Echec d'un appel distant", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelAll();
+                throw new IllegalStateException("Appels distants interrompus", e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+    }
+
+    private void cancelAll() {
+        futures.forEach(future -> future.cancel(true));
+    }
+}
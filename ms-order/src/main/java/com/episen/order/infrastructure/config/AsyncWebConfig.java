@@ -0,0 +1,58 @@
+package com.episen.order.infrastructure.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Les reponses en flux (export des commandes) s'ecrivent sur des threads virtuels : un export
+ * long n'occupe ni un thread Tomcat ni un thread du pool d'execution partage.
+ *
+ * Seules les requetes marquees par {@link #allowLongRunning(HttpServletRequest)} recoivent le delai
+ * d'export ; les autres requetes asynchrones gardent le delai par defaut du conteneur.
+ */
+@Configuration
+public class AsyncWebConfig implements WebMvcConfigurer {
+
+    private static final String LONG_RUNNING_ATTRIBUTE = AsyncWebConfig.class.getName() + ".LONG_RUNNING";
+
+    private final Duration exportTimeout;
+
+    public AsyncWebConfig(@Value("${order.export.timeout:30m}") Duration exportTimeout) {
+        this.exportTimeout = exportTimeout;
+    }
+
+    /**
+     * Marque la requete courante comme un flux long (export) avant de retourner le corps en flux.
+     */
+    public static void allowLongRunning(HttpServletRequest request) {
+        request.setAttribute(LONG_RUNNING_ATTRIBUTE, Boolean.TRUE);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("mvc-async-");
+        executor.setVirtualThreads(true);
+        configurer.setTaskExecutor(executor);
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            // Appele avant le demarrage du traitement asynchrone, quand le delai peut encore etre change
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                if (request instanceof AsyncWebRequest asyncRequest
+                        && Boolean.TRUE.equals(request.getAttribute(LONG_RUNNING_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST))) {
+                    asyncRequest.setTimeout(exportTimeout.toMillis());
+                }
+            }
+        });
+    }
+}
@@ -1,43 +1,61 @@
 package com.episen.order.infrastructure.config;
 
 import com.episen.order.domain.enums.OrderStatus;
-import com.episen.order.domain.repository.OrderRepository;
+import com.episen.order.infrastructure.monitoring.OrderActivityWindows;
+import com.episen.order.infrastructure.monitoring.OrderStatsSnapshot;
+import com.episen.order.infrastructure.monitoring.PeriodicSnapshot;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-
 @Component
 @RequiredArgsConstructor
 public class OrderMetricsConfig {
 
     private final MeterRegistry meterRegistry;
-    private final OrderRepository orderRepository;
+    private final OrderStatsSnapshot orderStatsSnapshot;
+    private final OrderActivityWindows orderActivityWindows;
 
     @PostConstruct
     public void registerGauges() {
+        // Les gauges lisent l'instantane rafraichi en arriere-plan : un scrape n'interroge jamais la base
+        PeriodicSnapshot<OrderStatsSnapshot.OrderStats> snapshot = orderStatsSnapshot.snapshot();
+
         // Gauge: Total amount of today's orders
         meterRegistry.gauge("orders.today.total_amount",
-                orderRepository,
-                repo -> {
-                    BigDecimal total = repo.sumTodayOrderAmounts();
-                    return total != null ? total.doubleValue() : 0.0;
-                });
+                snapshot,
+                s -> s.gaugeValue(stats -> stats.todayAmount().doubleValue()));
 
         // Gauge: Count of today's orders
         meterRegistry.gauge("orders.today.count",
-                orderRepository,
-                OrderRepository::countTodayOrders);
+                snapshot,
+                s -> s.gaugeValue(OrderStatsSnapshot.OrderStats::todayCount));
 
         // Gauges for each status count
         for (OrderStatus status : OrderStatus.values()) {
             meterRegistry.gauge("orders.count.by_status",
                     Tags.of("status", status.name()),
-                    orderRepository,
-                    repo -> repo.countByStatus(status));
+                    snapshot,
+                    s -> s.gaugeValue(stats -> stats.countFor(status)));
+        }
+
+        // Gauges par fenetre glissante (1m, 5m, 1h), calculees en memoire a chaque scrape
+        for (OrderActivityWindows.Window window : OrderActivityWindows.Window.values()) {
+            Tags tags = Tags.of("window", window.getLabel());
+            meterRegistry.gauge("orders.window.count", tags, orderActivityWindows,
+                    activity -> activity.stats(window).orders());
+            meterRegistry.gauge("orders.window.rate", tags, orderActivityWindows,
+                    activity -> activity.stats(window).ordersPerSecond());
+            meterRegistry.gauge("orders.window.revenue", tags, orderActivityWindows,
+                    activity -> activity.stats(window).revenue().doubleValue());
+            meterRegistry.gauge("orders.window.items", tags, orderActivityWindows,
+                    activity -> activity.stats(window).items());
+            meterRegistry.gauge("orders.window.average_basket", tags, orderActivityWindows,
+                    activity -> activity.stats(window).averageBasket().doubleValue());
+            meterRegistry.gauge("orders.window.cancelled", tags, orderActivityWindows,
+                    activity -> activity.stats(window).cancelledOrders());
         }
     }
 }
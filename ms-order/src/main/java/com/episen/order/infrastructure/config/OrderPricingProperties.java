@@ -0,0 +1,13 @@
+package com.episen.order.infrastructure.config;
+
+import com.episen.order.application.dto.PricingRuleDTO;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+// Regles de prix actives au demarrage (order.pricing.rules[n].type, ...)
+@ConfigurationProperties(prefix = "order.pricing")
+public record OrderPricingProperties(
+        @DefaultValue List<PricingRuleDTO> rules) {
+}
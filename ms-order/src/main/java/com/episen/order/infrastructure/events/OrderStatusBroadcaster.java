@@ -0,0 +1,288 @@
+package com.episen.order.infrastructure.events;
+
+import com.episen.order.application.dto.OrderStatusEventDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Diffusion des changements de statut aux abonnes SSE. La publication ne fait que deposer
+ * l'evenement dans la file bornee de chaque abonne ; l'ecriture sur la connexion se fait sur
+ * un thread virtuel, uniquement lorsqu'il y a quelque chose a envoyer. Un abonne dont la file
+ * deborde est deconnecte et reprendra grace a Last-Event-ID.
+ *
+ * L'historique de reprise est propre a l'instance : les identifiants d'evenement portent
+ * l'epoque de demarrage, et un client qui se reconnecte a une autre instance (ou apres
+ * un redemarrage) recoit un evenement "reset" l'invitant a recharger ses commandes.
+ */
+@Slf4j
+@Component
+public class OrderStatusBroadcaster {
+
+    static final String STATUS_EVENT = "order-status";
+    static final String RESET_EVENT = "reset";
+
+    private record SequencedEvent(long id, OrderStatusEventDTO payload) {
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Deque<SequencedEvent> history = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService deliveryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter evictedCounter;
+    private final Counter publishedCounter;
+    private final int historySize;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final int maxSubscribers;
+    private long lastSequence;
+
+    public OrderStatusBroadcaster(
+            MeterRegistry meterRegistry,
+            @Value("${order.events.history-size:1000}") int historySize,
+            @Value("${order.events.buffer-size:256}") int bufferSize,
+            @Value("${order.events.timeout-ms:1800000}") long timeoutMs,
+            @Value("${order.events.max-subscribers:10000}") int maxSubscribers) {
+        this.historySize = historySize;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.evictedCounter = Counter.builder("orders.events.evicted")
+                .description("Abonnes SSE deconnectes car trop lents a consommer")
+                .register(meterRegistry);
+        this.publishedCounter = Counter.builder("orders.events.published")
+                .description("Changements de statut diffuses")
+                .register(meterRegistry);
+        Gauge.builder("orders.events.subscribers", subscribers, Set::size)
+                .description("Abonnes SSE connectes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ouvre un flux filtre par utilisateur et/ou commande (tous les changements si aucun filtre).
+     * Le controle d'acces (utilisateur autorise a suivre ces commandes) incombe a l'appelant.
+     *
+     * @param userId      utilisateur des commandes suivies, optionnel
+     * @param orderId     commande suivie, optionnelle
+     * @param lastEventId dernier evenement recu avant la deconnexion, optionnel
+     * @return emetteur SSE, sans thread associe tant qu'aucun evenement n'est a envoyer
+     * @throws IllegalStateException si le nombre maximal d'abonnes est atteint
+     */
+    public SseEmitter subscribe(Long userId, Long orderId, String lastEventId) {
+        Long resumeAfter = parseLastEventId(lastEventId);
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Nombre maximal d'abonnes au flux des commandes atteint");
+        }
+
+        SseEmitter emitter = createEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, userId, orderId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        // Inscription et reprise sous le meme verrou que la publication : ni trou ni doublon
+        synchronized (history) {
+            if (resumeAfter != null) {
+                long oldestAvailable = history.isEmpty() ? lastSequence + 1 : history.peekFirst().id();
+                if (resumeAfter < oldestAvailable - 1 || resumeAfter > lastSequence) {
+                    subscriber.offer(Delivery.reset(eventId(lastSequence)));
+                } else {
+                    for (SequencedEvent event : history) {
+                        if (event.id() > resumeAfter && subscriber.matches(event.payload())
+                                && !subscriber.offer(Delivery.of(eventId(event.id()), event.payload()))) {
+                            subscriber.offer(Delivery.reset(eventId(lastSequence)));
+                            break;
+                        }
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChanged(OrderStatusEventDTO event) {
+        List<Subscriber> slowSubscribers = new ArrayList<>();
+        synchronized (history) {
+            SequencedEvent sequenced = new SequencedEvent(++lastSequence, event);
+            history.addLast(sequenced);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.matches(event) && !subscriber.offer(Delivery.of(eventId(sequenced.id()), event))) {
+                    slowSubscribers.add(subscriber);
+                }
+            }
+        }
+        publishedCounter.increment();
+        slowSubscribers.forEach(this::evict);
+    }
+
+    // Commentaire periodique : garde les connexions ouvertes derriere les proxys et detecte les clients partis
+    @Scheduled(fixedDelayString = "${order.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(Delivery.HEARTBEAT)) {
+                evict(subscriber);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        deliveryExecutor.shutdownNow();
+    }
+
+    // Point d'extension des tests : emetteur qui enregistre les evenements envoyes
+    SseEmitter createEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private void evict(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.close();
+            evictedCounter.increment();
+            log.debug("Abonne SSE deconnecte (file de {} evenements pleine)", bufferSize);
+        }
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    // -1 si l'identifiant vient d'une autre instance, d'avant un redemarrage ou est illisible : reprise impossible
+    private Long parseLastEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        String prefix = epoch + "-";
+        if (!lastEventId.startsWith(prefix)) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * Element de la file d'un abonne, converti en evenement SSE au moment de l'envoi :
+     * un SseEventBuilder ne peut pas etre partage entre plusieurs emetteurs.
+     */
+    private record Delivery(String id, String name, Object data) {
+
+        static final Delivery HEARTBEAT = new Delivery(null, null, null);
+
+        static Delivery of(String id, OrderStatusEventDTO payload) {
+            return new Delivery(id, STATUS_EVENT, payload);
+        }
+
+        // Historique insuffisant pour reprendre : le client doit recharger ses commandes
+        static Delivery reset(String currentId) {
+            return new Delivery(currentId, RESET_EVENT, "{}");
+        }
+
+        SseEmitter.SseEventBuilder toEvent() {
+            if (this == HEARTBEAT) {
+                return SseEmitter.event().comment("keep-alive");
+            }
+            return SseEmitter.event()
+                    .id(id)
+                    .name(name)
+                    .data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Long userId;
+        private final Long orderId;
+        private final BlockingQueue<Delivery> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Long userId, Long orderId) {
+            this.emitter = emitter;
+            this.userId = userId;
+            this.orderId = orderId;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        boolean matches(OrderStatusEventDTO event) {
+            return (userId == null || userId.equals(event.getUserId()))
+                    && (orderId == null || orderId.equals(event.getOrderId()));
+        }
+
+        // Non bloquant : false si la file est pleine
+        boolean offer(Delivery delivery) {
+            if (closed) {
+                return true;
+            }
+            if (!queue.offer(delivery)) {
+                return false;
+            }
+            scheduleDrain();
+            return true;
+        }
+
+        void close() {
+            closed = true;
+            queue.clear();
+            // complete() attend la fin d'un envoi en cours : jamais sur le thread qui publie
+            deliveryExecutor.execute(emitter::complete);
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                deliveryExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Delivery delivery;
+                while (!closed && (delivery = queue.poll()) != null) {
+                    emitter.send(delivery.toEvent());
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Connexion fermee par le client : le conteneur notifie l'emetteur, il suffit de desinscrire
+                closed = true;
+                subscribers.remove(this);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.episen.order.infrastructure.monitoring;
+
+import com.episen.order.application.dto.OrderActivityDTO;
+import com.episen.order.domain.entity.Order;
+import com.episen.order.domain.entity.OrderItem;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Activite commerciale des dernieres secondes, sans acces a la base : anneau d'une heure de
+ * seaux d'une seconde (commandes, chiffre d'affaires en centimes, articles, annulations),
+ * alimente a la validation des creations et annulations. L'enregistrement ne prend aucun verrou :
+ * le seau d'une seconde revolue est remplace par compare-and-set, les compteurs sont des LongAdder.
+ *
+ * Les valeurs sont propres a l'instance et repartent de zero au redemarrage.
+ */
+@Component
+public class OrderActivityWindows {
+
+    /**
+     * Fenetres glissantes exposees (jauges et GET /api/v1/orders/analytics/activity).
+     */
+    public enum Window {
+        ONE_MINUTE("1m", 60),
+        FIVE_MINUTES("5m", 300),
+        ONE_HOUR("1h", 3600);
+
+        private final String label;
+        private final int seconds;
+
+        Window(String label, int seconds) {
+            this.label = label;
+            this.seconds = seconds;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public int getSeconds() {
+            return seconds;
+        }
+    }
+
+    public record WindowStats(Window window, long orders, long revenueCents, long items,
+                              long cancelledOrders, long cancelledRevenueCents) {
+
+        public double ordersPerSecond() {
+            return (double) orders / window.getSeconds();
+        }
+
+        public BigDecimal revenue() {
+            return BigDecimal.valueOf(revenueCents, MINOR_UNIT_SCALE);
+        }
+
+        public BigDecimal cancelledRevenue() {
+            return BigDecimal.valueOf(cancelledRevenueCents, MINOR_UNIT_SCALE);
+        }
+
+        // Panier moyen des commandes creees sur la fenetre, zero sans commande
+        public BigDecimal averageBasket() {
+            return orders == 0 ? BigDecimal.ZERO.setScale(MINOR_UNIT_SCALE)
+                    : BigDecimal.valueOf(revenueCents, MINOR_UNIT_SCALE)
+                    .divide(BigDecimal.valueOf(orders), MINOR_UNIT_SCALE, RoundingMode.HALF_UP);
+        }
+    }
+
+    private static final int MINOR_UNIT_SCALE = 2;
+    private static final int CAPACITY = Window.ONE_HOUR.getSeconds();
+
+    private static final class Bucket {
+        final long second;
+        final LongAdder orders = new LongAdder();
+        final LongAdder revenueCents = new LongAdder();
+        final LongAdder items = new LongAdder();
+        final LongAdder cancelledOrders = new LongAdder();
+        final LongAdder cancelledRevenueCents = new LongAdder();
+
+        Bucket(long second) {
+            this.second = second;
+        }
+    }
+
+    private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(CAPACITY);
+
+    public void recordCreated(Order order) {
+        long items = 0;
+        if (order.getItems() != null) {
+            for (OrderItem item : order.getItems()) {
+                items += item.getQuantity() != null ? item.getQuantity() : 0;
+            }
+        }
+        Bucket bucket = currentBucket();
+        bucket.orders.increment();
+        bucket.revenueCents.add(toMinorUnits(order.getTotalAmount()));
+        bucket.items.add(items);
+    }
+
+    public void recordCreated(Collection<Order> orders) {
+        orders.forEach(this::recordCreated);
+    }
+
+    public void recordCancelled(BigDecimal totalAmount) {
+        Bucket bucket = currentBucket();
+        bucket.cancelledOrders.increment();
+        bucket.cancelledRevenueCents.add(toMinorUnits(totalAmount));
+    }
+
+    /**
+     * Cumuls des secondes de la fenetre, seconde en cours comprise.
+     */
+    public WindowStats stats(Window window) {
+        long now = currentSecond();
+        long from = now - window.getSeconds() + 1;
+        long orders = 0;
+        long revenueCents = 0;
+        long items = 0;
+        long cancelledOrders = 0;
+        long cancelledRevenueCents = 0;
+        for (long second = from; second <= now; second++) {
+            Bucket bucket = buckets.get(index(second));
+            if (bucket == null || bucket.second != second) {
+                continue;
+            }
+            orders += bucket.orders.sum();
+            revenueCents += bucket.revenueCents.sum();
+            items += bucket.items.sum();
+            cancelledOrders += bucket.cancelledOrders.sum();
+            cancelledRevenueCents += bucket.cancelledRevenueCents.sum();
+        }
+        return new WindowStats(window, orders, revenueCents, items, cancelledOrders, cancelledRevenueCents);
+    }
+
+    public OrderActivityDTO report() {
+        return OrderActivityDTO.builder()
+                .capturedAt(LocalDateTime.now())
+                .windows(Arrays.stream(Window.values())
+                        .map(this::stats)
+                        .map(stats -> OrderActivityDTO.WindowActivity.builder()
+                                .window(stats.window().getLabel())
+                                .orders(stats.orders())
+                                .ordersPerSecond(stats.ordersPerSecond())
+                                .revenue(stats.revenue())
+                                .items(stats.items())
+                                .averageBasket(stats.averageBasket())
+                                .cancelledOrders(stats.cancelledOrders())
+                                .cancelledRevenue(stats.cancelledRevenue())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    // Seau de la seconde courante ; celui d'une seconde revolue est remplace, le premier remplacant l'emporte
+    private Bucket currentBucket() {
+        long second = currentSecond();
+        int index = index(second);
+        while (true) {
+            Bucket bucket = buckets.get(index);
+            if (bucket != null && bucket.second == second) {
+                return bucket;
+            }
+            if (bucket != null && bucket.second > second) {
+                // Enregistrement retarde de plus d'une heure : hors de toutes les fenetres
+                return new Bucket(second);
+            }
+            Bucket fresh = new Bucket(second);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private static long currentSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private static int index(long second) {
+        return (int) Math.floorMod(second, CAPACITY);
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(MINOR_UNIT_SCALE).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+}
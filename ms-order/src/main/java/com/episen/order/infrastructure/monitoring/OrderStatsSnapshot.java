@@ -0,0 +1,61 @@
+package com.episen.order.infrastructure.monitoring;
+
+import com.episen.order.domain.enums.OrderStatus;
+import com.episen.order.domain.repository.DailySalesRollupRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Instantane des compteurs de commandes exposes en metriques, relu periodiquement
+ * a partir des cumuls journaliers.
+ */
+@Component
+public class OrderStatsSnapshot {
+
+    public record OrderStats(long todayCount, BigDecimal todayAmount, Map<OrderStatus, Long> countByStatus) {
+
+        public long countFor(OrderStatus status) {
+            return countByStatus.getOrDefault(status, 0L);
+        }
+    }
+
+    private final DailySalesRollupRepository rollupRepository;
+    private final PeriodicSnapshot<OrderStats> snapshot;
+
+    public OrderStatsSnapshot(
+            DailySalesRollupRepository rollupRepository,
+            MeterRegistry meterRegistry,
+            @Value("${monitoring.snapshot.refresh-ms:15000}") long refreshMs) {
+        this.rollupRepository = rollupRepository;
+        this.snapshot = new PeriodicSnapshot<>("order-stats", this::load, Duration.ofMillis(refreshMs * 3), meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${monitoring.snapshot.refresh-ms:15000}")
+    public void refresh() {
+        snapshot.refresh();
+    }
+
+    public PeriodicSnapshot<OrderStats> snapshot() {
+        return snapshot;
+    }
+
+    private OrderStats load() {
+        long todayCount = 0;
+        BigDecimal todayAmount = BigDecimal.ZERO;
+        Map<OrderStatus, Long> countByStatus = new EnumMap<>(OrderStatus.class);
+        for (DailySalesRollupRepository.StatusTotals totals : rollupRepository.sumByStatus(LocalDate.now())) {
+            countByStatus.put(totals.getStatus(), totals.getOrderCount());
+            todayCount += totals.getDayOrderCount();
+            todayAmount = todayAmount.add(totals.getDayAmount());
+        }
+        return new OrderStats(todayCount, todayAmount, countByStatus);
+    }
+}
@@ -0,0 +1,221 @@
+package com.episen.order.infrastructure.outbox;
+
+import com.episen.order.application.dto.OrderStatusEventDTO;
+import com.episen.order.application.service.OrderReadModelService;
+import com.episen.order.application.service.AfterCommit;
+import com.episen.order.application.service.ProductRecommendationService;
+import com.episen.order.application.service.SalesRollupService;
+import com.episen.order.application.service.TopProductsService;
+import com.episen.order.domain.entity.OutboxEvent;
+import com.episen.order.domain.enums.OrderStatus;
+import com.episen.order.domain.enums.OutboxEventType;
+import com.episen.order.domain.repository.OrderRepository;
+import com.episen.order.domain.repository.OutboxEventRepository;
+import com.episen.order.infrastructure.client.ProductClient;
+import com.episen.order.infrastructure.monitoring.OrderActivityWindows;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Relais de la table outbox vers ms-product : livre les reservations et restitutions de stock
+ * par lots, avec reessais a delai croissant. ms-product dedoublonne par identifiant d'operation,
+ * une livraison repetee est donc sans effet.
+ *
+ * Un lot est reserve dans une transaction courte (IN_FLIGHT, bail), livre hors transaction, puis
+ * son resultat est enregistre dans une seconde transaction : l'appel HTTP ne retient ni connexion
+ * ni verrou. Un lot dont le bail expire (relais arrete pendant l'appel) est repris par un autre
+ * relais ; le resultat tardif du premier est alors ignore.
+ */
+@Slf4j
+@Component
+public class StockOutboxRelay {
+
+    private static final long MAX_BACKOFF_SECONDS = 300;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderRepository orderRepository;
+    private final ProductClient productClient;
+    private final SalesRollupService salesRollupService;
+    private final TopProductsService topProductsService;
+    private final ProductRecommendationService productRecommendationService;
+    private final OrderActivityWindows orderActivityWindows;
+    private final OrderReadModelService orderReadModelService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final long leaseSeconds;
+
+    public StockOutboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            OrderRepository orderRepository,
+            ProductClient productClient,
+            SalesRollupService salesRollupService,
+            TopProductsService topProductsService,
+            ProductRecommendationService productRecommendationService,
+            OrderActivityWindows orderActivityWindows,
+            OrderReadModelService orderReadModelService,
+            ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${order.outbox.batch-size:50}") int batchSize,
+            @Value("${order.outbox.lease-seconds:60}") long leaseSeconds) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.orderRepository = orderRepository;
+        this.productClient = productClient;
+        this.salesRollupService = salesRollupService;
+        this.topProductsService = topProductsService;
+        this.productRecommendationService = productRecommendationService;
+        this.orderActivityWindows = orderActivityWindows;
+        this.orderReadModelService = orderReadModelService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        // Enchaine les lots tant qu'ils sont pleins et livres sans erreur
+        while (deliverNextBatch()) {
+            log.debug("Lot outbox plein livre, traitement du lot suivant");
+        }
+    }
+
+    boolean deliverNextBatch() {
+        String claimToken = UUID.randomUUID().toString();
+        List<OutboxEvent> events = transactionTemplate.execute(status -> claimNextBatch(claimToken));
+        if (events == null || events.isEmpty()) {
+            return false;
+        }
+
+        // Un payload illisible est mis en echec sans bloquer la livraison des autres evenements
+        Map<Long, ProductClient.StockOperationRequest> operations = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            try {
+                operations.put(event.getId(), objectMapper.readValue(event.getPayload(), ProductClient.StockOperationRequest.class));
+            } catch (JsonProcessingException e) {
+                log.error("Payload outbox illisible pour l'evenement {}, evenement mis en echec", event.getId(), e);
+            }
+        }
+
+        List<ProductClient.StockOperationResult> results = List.of();
+        String deliveryError = null;
+        if (!operations.isEmpty()) {
+            try {
+                results = productClient.applyStockOperations(new ArrayList<>(operations.values()));
+            } catch (RuntimeException e) {
+                log.warn("Livraison de {} evenement(s) outbox echouee, nouvel essai programme: {}", operations.size(), e.getMessage());
+                deliveryError = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            }
+        }
+
+        Map<String, ProductClient.StockOperationResult> resultsByKey = results.stream()
+                .collect(Collectors.toMap(ProductClient.StockOperationResult::getOperationId, Function.identity(), (first, second) -> first));
+        String error = deliveryError;
+        transactionTemplate.executeWithoutResult(status ->
+                recordOutcomes(events.stream().map(OutboxEvent::getId).toList(), claimToken, operations.keySet(), resultsByKey, error));
+        return error == null && events.size() == batchSize;
+    }
+
+    private List<OutboxEvent> claimNextBatch(String claimToken) {
+        List<OutboxEvent> events = outboxEventRepository.lockNextBatch(batchSize);
+        LocalDateTime leaseExpiresAt = LocalDateTime.now().plusSeconds(leaseSeconds);
+        events.forEach(event -> event.claim(claimToken, leaseExpiresAt));
+        return events;
+    }
+
+    private void recordOutcomes(List<Long> eventIds, String claimToken, Set<Long> readable,
+                                Map<String, ProductClient.StockOperationResult> resultsByKey, String deliveryError) {
+        for (OutboxEvent event : outboxEventRepository.lockByIdIn(eventIds)) {
+            if (!event.isClaimedBy(claimToken)) {
+                // Bail expire pendant l'appel : l'evenement a ete repris par un autre relais
+                log.warn("Bail de l'evenement outbox {} expire pendant la livraison, resultat ignore", event.getId());
+                continue;
+            }
+            if (!readable.contains(event.getId())) {
+                event.markFailed("Payload illisible");
+                countDelivery(event.getType(), "invalid");
+                continue;
+            }
+            if (deliveryError != null) {
+                scheduleRetry(event, deliveryError);
+                continue;
+            }
+            ProductClient.StockOperationResult result = resultsByKey.get(event.getEventKey());
+            if (result == null) {
+                scheduleRetry(event, "Aucun resultat retourne par ms-product");
+            } else if ("REJECTED".equals(result.getOutcome())) {
+                reject(event, result.getMessage());
+            } else {
+                event.markSent();
+                countDelivery(event.getType(), "sent");
+            }
+        }
+    }
+
+    private void reject(OutboxEvent event, String reason) {
+        event.markFailed(reason);
+        countDelivery(event.getType(), "rejected");
+        log.warn("Operation de stock {} refusee pour la commande {}: {}", event.getType(), event.getAggregateId(), reason);
+
+        // Reservation impossible (stock epuise entre la validation et la livraison) : la commande est annulee
+        if (event.getType() == OutboxEventType.STOCK_RESERVE) {
+            orderRepository.findByIdWithItems(event.getAggregateId())
+                    .filter(order -> order.getStatus() != OrderStatus.CANCELLED)
+                    .ifPresent(order -> {
+                        OrderStatus previousStatus = order.getStatus();
+                        order.setStatus(OrderStatus.CANCELLED);
+                        salesRollupService.recordStatusChange(order, previousStatus);
+                        topProductsService.recordCancelled(order);
+                        productRecommendationService.recordCancelled(order);
+                        AfterCommit.run(() -> orderActivityWindows.recordCancelled(order.getTotalAmount()));
+                        orderReadModelService.refresh(List.of(order.getId()));
+                        eventPublisher.publishEvent(OrderStatusEventDTO.builder()
+                                .orderId(order.getId())
+                                .userId(order.getUserId())
+                                .previousStatus(previousStatus)
+                                .status(OrderStatus.CANCELLED)
+                                .changedAt(LocalDateTime.now())
+                                .build());
+                    });
+        }
+    }
+
+    private void scheduleRetry(OutboxEvent event, String error) {
+        long backoffSeconds = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(event.getAttempts(), 16));
+        event.scheduleRetry(error, LocalDateTime.now().plusSeconds(backoffSeconds));
+        countDelivery(event.getType(), "retry");
+    }
+
+    private void countDelivery(OutboxEventType type, String outcome) {
+        Counter.builder("orders.outbox.deliveries")
+                .description("Livraisons d'evenements outbox vers ms-product")
+                .tag("type", type.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
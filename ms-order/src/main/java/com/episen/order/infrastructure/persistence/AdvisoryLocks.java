@@ -0,0 +1,56 @@
+package com.episen.order.infrastructure.persistence;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Verrous consultatifs PostgreSQL partages par toutes les instances, identifies par un nom.
+ */
+public final class AdvisoryLocks {
+
+    private AdvisoryLocks() {
+    }
+
+    /**
+     * Attend puis prend le verrou, libere a la fin de la transaction en cours (a appeler dans une transaction).
+     */
+    public static void lockForTransaction(JdbcTemplate jdbcTemplate, String name) {
+        jdbcTemplate.queryForObject("SELECT 1 FROM pg_advisory_xact_lock(hashtext(?))", Integer.class, name);
+    }
+
+    /**
+     * Execute l'action si le verrou est libre, sans attendre. Le verrou est tenu par une connexion
+     * reservee pendant toute l'action, qui peut ouvrir ses propres transactions ; il est libere a la
+     * fin de l'action ou a la perte de la connexion (arret de l'instance).
+     *
+     * @return resultat de l'action, vide si une autre session tient le verrou
+     */
+    public static <T> Optional<T> tryWithSessionLock(JdbcTemplate jdbcTemplate, String name, Supplier<T> action) {
+        return jdbcTemplate.execute((ConnectionCallback<Optional<T>>) connection -> {
+            if (!call(connection, "SELECT pg_try_advisory_lock(hashtext(?))", name)) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(action.get());
+            } finally {
+                call(connection, "SELECT pg_advisory_unlock(hashtext(?))", name);
+            }
+        });
+    }
+
+    private static boolean call(Connection connection, String sql, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, name);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.episen.order.infrastructure.persistence;
+
+import com.episen.order.domain.repository.OrderViewRepository;
+import com.episen.order.infrastructure.exception.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Partitions mensuelles de orders et order_items (fonctions definies dans schema.sql) :
+ * les partitions des mois a venir sont creees a l'avance, un mois revolu peut etre detache.
+ */
+@Slf4j
+@Component
+public class OrderPartitionMaintenance {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderViewRepository orderViewRepository;
+    private final int monthsAhead;
+
+    public OrderPartitionMaintenance(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            OrderViewRepository orderViewRepository,
+            @Value("${order.partitions.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.orderViewRepository = orderViewRepository;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${order.partitions.cron:0 0 3 * * *}")
+    public void createUpcomingPartitions() {
+        LocalDate currentMonth = YearMonth.now().atDay(1);
+        Integer created = jdbcTemplate.queryForObject("SELECT ensure_order_partitions(?, ?)", Integer.class,
+                currentMonth, currentMonth.plusMonths(monthsAhead + 1L));
+        if (created != null && created > 0) {
+            log.info("{} partition(s) mensuelle(s) de commandes creee(s)", created);
+        }
+    }
+
+    /**
+     * Detache les partitions d'un mois revolu, sans lecture ni copie des lignes. Les tables
+     * detachees restent en base (archivage ou suppression) ; les documents du modele de lecture
+     * de ce mois sont supprimes dans la meme transaction.
+     *
+     * @param month mois a detacher, anterieur au mois courant
+     * @return tables detachees
+     * @throws IllegalArgumentException  si le mois n'est pas revolu
+     * @throws ResourceNotFoundException si le mois n'a pas de partition attachee
+     */
+    public List<String> detachMonth(YearMonth month) {
+        if (!month.isBefore(YearMonth.now())) {
+            throw new IllegalArgumentException("Seul un mois revolu peut etre detache: " + month);
+        }
+        String suffix = String.format("%04d%02d", month.getYear(), month.getMonthValue());
+        transactionTemplate.executeWithoutResult(status -> {
+            Boolean detached = jdbcTemplate.queryForObject("SELECT detach_order_partitions(?)", Boolean.class, month.atDay(1));
+            if (!Boolean.TRUE.equals(detached)) {
+                throw new ResourceNotFoundException("Partition", "month", month);
+            }
+            orderViewRepository.deleteByOrderDateRange(month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+        });
+        log.info("Partitions de commandes du mois {} detachees", month);
+        return List.of("orders_p" + suffix, "order_items_p" + suffix);
+    }
+}
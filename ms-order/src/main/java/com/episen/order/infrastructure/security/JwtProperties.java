@@ -1,7 +1,10 @@
 package com.episen.order.infrastructure.security;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
 @ConfigurationProperties(prefix = "jwt")
-public record JwtProperties(String publicKeyPath) {
+public record JwtProperties(String publicKeyPath,
+                            String servicePrivateKeyPath,
+                            @DefaultValue("300") long serviceTokenExpirationSeconds) {
 }
@@ -2,11 +2,18 @@ package com.episen.order.infrastructure.security;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 @Configuration
 public class SecurityConfig {
@@ -18,6 +25,8 @@ public class SecurityConfig {
             "/swagger-ui.html"
     };
 
+    private static final String EVENTS_ENDPOINT = "/api/v1/orders/events";
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -27,10 +36,38 @@ public class SecurityConfig {
                 .exceptionHandling(ex -> ex.authenticationEntryPoint(new JwtAuthenticationEntryPoint()))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(PUBLIC_ENDPOINTS).permitAll()
+                        // Reprise de l'index des references de ms-product (jeton de l'administrateur transmis)
+                        .requestMatchers(HttpMethod.GET, "/api/v1/orders/products/referenced").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/v1/orders/read-model/rebuild").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/v1/orders/partitions/*/detach").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/v1/orders/archive/run").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.PUT, "/api/v1/orders/pricing/rules").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
-                .oauth2ResourceServer(oauth2 -> oauth2.jwt(Customizer.withDefaults()));
+                .oauth2ResourceServer(oauth2 -> oauth2
+                        .bearerTokenResolver(bearerTokenResolver())
+                        .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())));
 
         return http.build();
     }
+
+    // En-tete Authorization partout ; le flux SSE accepte aussi ?access_token=, seul moyen pour un EventSource
+    // de navigateur de s'authentifier
+    private BearerTokenResolver bearerTokenResolver() {
+        DefaultBearerTokenResolver headerOnly = new DefaultBearerTokenResolver();
+        DefaultBearerTokenResolver headerOrQuery = new DefaultBearerTokenResolver();
+        headerOrQuery.setAllowUriQueryParameter(true);
+        RequestMatcher events = PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.GET, EVENTS_ENDPOINT);
+        return request -> events.matches(request) ? headerOrQuery.resolve(request) : headerOnly.resolve(request);
+    }
+
+    // Autorites lues dans le claim "roles" (ROLE_USER, ROLE_ADMIN, ROLE_SERVICE), deja prefixees
+    private JwtAuthenticationConverter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter authorities = new JwtGrantedAuthoritiesConverter();
+        authorities.setAuthoritiesClaimName("roles");
+        authorities.setAuthorityPrefix("");
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(authorities);
+        return converter;
+    }
 }
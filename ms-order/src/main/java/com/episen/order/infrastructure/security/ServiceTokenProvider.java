@@ -0,0 +1,53 @@
+package com.episen.order.infrastructure.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Fournit un jeton JWT de service pour les appels inter-services emis hors requete utilisateur
+ * (relais outbox, taches planifiees). Le jeton est mis en cache et renouvele avant expiration.
+ */
+@Slf4j
+@Component
+public class ServiceTokenProvider {
+
+    private static final long RENEWAL_MARGIN_SECONDS = 30;
+
+    private final JwtEncoder jwtEncoder;
+    private final long expirationSeconds;
+    private volatile Jwt currentToken;
+
+    public ServiceTokenProvider(ObjectProvider<JwtEncoder> jwtEncoder, JwtProperties properties) {
+        this.jwtEncoder = jwtEncoder.getIfAvailable();
+        this.expirationSeconds = properties.serviceTokenExpirationSeconds();
+        if (this.jwtEncoder == null) {
+            log.warn("jwt.service-private-key-path non configure : les appels de service partiront sans jeton");
+        }
+    }
+
+    public synchronized String getToken() {
+        if (jwtEncoder == null) {
+            return null;
+        }
+        Instant now = Instant.now();
+        if (currentToken == null || currentToken.getExpiresAt().minusSeconds(RENEWAL_MARGIN_SECONDS).isBefore(now)) {
+            JwtClaimsSet claims = JwtClaimsSet.builder()
+                    .issuer("ms-order")
+                    .issuedAt(now)
+                    .expiresAt(now.plusSeconds(expirationSeconds))
+                    .subject("ms-order")
+                    .claim("roles", List.of("ROLE_SERVICE"))
+                    .build();
+            currentToken = jwtEncoder.encode(JwtEncoderParameters.from(claims));
+        }
+        return currentToken.getTokenValue();
+    }
+}
@@ -1,31 +1,79 @@
 package com.episen.order.infrastructure.web.controller;
 
+import com.episen.order.application.dto.ArchiveReportDTO;
+import com.episen.order.application.dto.BulkOrderReportDTO;
+import com.episen.order.application.dto.BulkStatusUpdateReportDTO;
+import com.episen.order.application.dto.BulkStatusUpdateRequest;
+import com.episen.order.application.dto.DailyRevenueDTO;
+import com.episen.order.application.dto.OrderActivityDTO;
+import com.episen.order.application.dto.OrderPageDTO;
 import com.episen.order.application.dto.OrderRequestDTO;
 import com.episen.order.application.dto.OrderResponseDTO;
+import com.episen.order.application.dto.OrderSearchCriteria;
 import com.episen.order.application.dto.OrderStatusUpdateRequest;
+import com.episen.order.application.dto.PricingRuleDTO;
+import com.episen.order.application.dto.ProductRecommendationsDTO;
+import com.episen.order.application.dto.ReadModelRebuildReportDTO;
+import com.episen.order.application.dto.TopProductsDTO;
+import com.episen.order.application.service.BulkOrderService;
+import com.episen.order.application.service.OrderArchiveService;
+import com.episen.order.application.service.OrderExportService;
+import com.episen.order.application.service.OrderIdempotencyService;
+import com.episen.order.application.service.OrderPricingService;
+import com.episen.order.application.service.OrderReadModelService;
+import com.episen.order.application.service.OrderSearchService;
 import com.episen.order.application.service.OrderService;
+import com.episen.order.application.service.PricingRuleService;
+import com.episen.order.application.service.ProductRecommendationService;
+import com.episen.order.application.service.SalesRollupService;
+import com.episen.order.application.service.TopProductsService;
+import com.episen.order.domain.enums.Category;
 import com.episen.order.domain.enums.OrderStatus;
+import com.episen.order.infrastructure.config.AsyncWebConfig;
+import com.episen.order.infrastructure.events.OrderStatusBroadcaster;
+import com.episen.order.infrastructure.monitoring.OrderActivityWindows;
+import com.episen.order.infrastructure.persistence.OrderPartitionMaintenance;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/orders")
@@ -33,16 +81,165 @@ import java.util.List;
 @Tag(name = "Orders", description = "Operations de gestion des commandes")
 public class OrderController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String DEFAULT_PAGE_SIZE = "50";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final BulkOrderService bulkOrderService;
+    private final OrderIdempotencyService orderIdempotencyService;
+    private final OrderReadModelService orderReadModelService;
+    private final OrderSearchService orderSearchService;
+    private final SalesRollupService salesRollupService;
+    private final TopProductsService topProductsService;
+    private final ProductRecommendationService productRecommendationService;
+    private final OrderActivityWindows orderActivityWindows;
+    private final OrderStatusBroadcaster orderStatusBroadcaster;
+    private final OrderPartitionMaintenance orderPartitionMaintenance;
+    private final OrderArchiveService orderArchiveService;
+    private final OrderPricingService orderPricingService;
+    private final PricingRuleService pricingRuleService;
 
     @GetMapping
-    @Operation(summary = "Lister toutes les commandes", description = "Recupere la liste de toutes les commandes")
+    @Operation(summary = "Lister toutes les commandes", description = "Recupere une page de commandes, de la plus recente a la plus ancienne ; le curseur de la page suivante est renvoye dans l'en-tete X-Next-Cursor. Les commandes archivees n'y figurent pas")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Liste des commandes recuperee avec succes"),
+            @ApiResponse(responseCode = "400", description = "Representation, curseur ou taille de page invalide")
+    })
+    public ResponseEntity<List<?>> getAllOrders(
+            @Parameter(description = "Representation: full (defaut) ou summary (sans articles)") @RequestParam(defaultValue = "full") String view,
+            @Parameter(description = "Curseur de la page suivante") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Nombre de commandes par page (max 200)") @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        return toPageResponse(isSummaryView(view)
+                ? orderService.getAllOrderSummaries(cursor, limit)
+                : orderService.getAllOrders(cursor, limit));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Rechercher des commandes", description = "Combine utilisateur, statuts, periode [from, to[, montant [minAmount, maxAmount] et produit ; tri par date ou montant, curseur suivant dans l'en-tete X-Next-Cursor. Les commandes archivees n'y figurent pas")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Commandes correspondantes recuperees avec succes"),
+            @ApiResponse(responseCode = "400", description = "Criteres, tri, representation, curseur ou taille de page invalide")
+    })
+    public ResponseEntity<List<?>> searchOrders(
+            @Parameter(description = "ID de l'utilisateur") @RequestParam(required = false) Long userId,
+            @Parameter(description = "Statuts acceptes (parametre repetable)") @RequestParam(name = "status", required = false) Set<OrderStatus> statuses,
+            @Parameter(description = "Date de commande minimale (incluse)") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Date de commande maximale (exclue)") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Montant total minimal (inclus)") @RequestParam(required = false) BigDecimal minAmount,
+            @Parameter(description = "Montant total maximal (inclus)") @RequestParam(required = false) BigDecimal maxAmount,
+            @Parameter(description = "ID d'un produit present dans la commande") @RequestParam(required = false) Long productId,
+            @Parameter(description = "Tri: date_desc (defaut), date_asc, amount_desc ou amount_asc") @RequestParam(defaultValue = "date_desc") String sort,
+            @Parameter(description = "Representation: full (defaut) ou summary (sans articles)") @RequestParam(defaultValue = "full") String view,
+            @Parameter(description = "Curseur de la page suivante") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Nombre de commandes par page (max 200)") @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        OrderSearchCriteria criteria = OrderSearchCriteria.builder()
+                .userId(userId)
+                .statuses(statuses)
+                .from(from)
+                .to(to)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .productId(productId)
+                .build();
+        OrderSearchService.Sort searchSort = OrderSearchService.Sort.parse(sort);
+        return toPageResponse(isSummaryView(view)
+                ? orderSearchService.searchSummaries(criteria, searchSort, cursor, limit)
+                : orderSearchService.search(criteria, searchSort, cursor, limit));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Exporter les commandes", description = "Exporte les commandes en flux NDJSON (une commande par ligne) ou CSV (un article par ligne), filtrees par periode [from, to[ et statut. Les commandes archivees n'y figurent pas")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export en cours de transfert"),
+            @ApiResponse(responseCode = "400", description = "Format ou filtres invalides")
+    })
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @Parameter(description = "Format d'export: ndjson ou csv") @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Date de commande minimale (incluse)") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Date de commande maximale (exclue)") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Statut des commandes") @RequestParam(required = false) OrderStatus status,
+            HttpServletRequest request) {
+        OrderExportService.Format exportFormat = OrderExportService.Format.parse(format);
+        StreamingResponseBody body = orderExportService.export(exportFormat, from, to, status);
+        AsyncWebConfig.allowLongRunning(request);
+        MediaType mediaType = exportFormat == OrderExportService.Format.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON;
+        String fileName = "orders." + (exportFormat == OrderExportService.Format.CSV ? "csv" : "ndjson");
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Suivre les changements de statut", description = "Flux Server-Sent Events des changements de statut (evenements order-status), filtre par utilisateur et/ou commande ; reprise avec l'en-tete Last-Event-ID, evenement reset si l'historique ne permet pas de reprendre. Un utilisateur ne recoit que ses propres commandes, le role ADMIN peut suivre toutes les commandes. Un EventSource de navigateur, qui ne peut pas envoyer d'en-tete Authorization, passe le jeton dans le parametre access_token")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Flux ouvert"),
+            @ApiResponse(responseCode = "403", description = "Commandes d'un autre utilisateur"),
+            @ApiResponse(responseCode = "409", description = "Nombre maximal d'abonnes atteint")
+    })
+    public SseEmitter streamStatusChanges(
+            @Parameter(description = "ID de l'utilisateur dont suivre les commandes (celui du jeton par defaut, hors ADMIN)") @RequestParam(required = false) Long userId,
+            @Parameter(description = "ID de la commande a suivre") @RequestParam(required = false) Long orderId,
+            @Parameter(description = "Dernier evenement recu") @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            JwtAuthenticationToken authentication) {
+        return orderStatusBroadcaster.subscribe(subscriptionUserId(authentication, userId), orderId, lastEventId);
+    }
+
+    @GetMapping("/revenue")
+    @Operation(summary = "Historique du chiffre d'affaires", description = "Nombre de commandes et chiffre d'affaires (hors annulations) par jour sur [from, to], 30 derniers jours par defaut")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Historique recupere avec succes"),
+            @ApiResponse(responseCode = "400", description = "Periode invalide")
+    })
+    public ResponseEntity<List<DailyRevenueDTO>> getRevenueHistory(
+            @Parameter(description = "Premier jour inclus") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Dernier jour inclus") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        return ResponseEntity.ok(salesRollupService.getRevenueHistory(start, end));
+    }
+
+    @GetMapping("/analytics/top-products")
+    @Operation(summary = "Meilleures ventes", description = "Produits les plus vendus en unites (hors annulations), toutes categories ou pour une categorie, depuis l'origine ou sur les dernieres 24 heures, 7 ou 30 jours ; classement rafraichi periodiquement")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Liste des commandes recuperee avec succes")
+            @ApiResponse(responseCode = "200", description = "Classement recupere avec succes"),
+            @ApiResponse(responseCode = "400", description = "Fenetre, categorie ou limite invalide")
     })
-    public ResponseEntity<List<OrderResponseDTO>> getAllOrders() {
-        List<OrderResponseDTO> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<TopProductsDTO> getTopProducts(
+            @Parameter(description = "Fenetre: ALL_TIME (defaut), LAST_24_HOURS, LAST_7_DAYS ou LAST_30_DAYS") @RequestParam(defaultValue = "ALL_TIME") TopProductsService.Window window,
+            @Parameter(description = "Categorie des produits (toutes par defaut)") @RequestParam(required = false) Category category,
+            @Parameter(description = "Nombre de produits (max 100)") @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(topProductsService.getTopProducts(window, category, limit));
+    }
+
+    @GetMapping("/analytics/activity")
+    @Operation(summary = "Activite commerciale en temps reel", description = "Commandes, debit, chiffre d'affaires, articles, panier moyen et annulations de cette instance sur les dernieres 1 minute, 5 minutes et 1 heure, calcules en memoire a la seconde pres")
+    @ApiResponse(responseCode = "200", description = "Activite recuperee avec succes")
+    public ResponseEntity<OrderActivityDTO> getActivity() {
+        return ResponseEntity.ok(orderActivityWindows.report());
+    }
+
+    @GetMapping("/analytics/products/{productId}/bought-together")
+    @Operation(summary = "Produits frequemment achetes ensemble", description = "Produits le plus souvent presents dans les memes commandes (hors annulations) qu'un produit, par nombre de commandes communes ; calcul rafraichi periodiquement")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Recommandations recuperees avec succes"),
+            @ApiResponse(responseCode = "400", description = "Limite invalide")
+    })
+    public ResponseEntity<ProductRecommendationsDTO> getBoughtTogether(
+            @Parameter(description = "ID du produit") @PathVariable Long productId,
+            @Parameter(description = "Nombre de produits (max 20)") @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(productRecommendationService.getBoughtTogether(productId, limit));
     }
 
     @GetMapping("/{id}")
@@ -58,21 +255,47 @@ public class OrderController {
     }
 
     @PostMapping
-    @Operation(summary = "Creer une nouvelle commande", description = "Cree une nouvelle commande avec verification user/produits et deduction stock")
+    @Operation(summary = "Creer une nouvelle commande", description = "Cree une nouvelle commande avec verification user/produits et deduction stock ; avec l'en-tete Idempotency-Key, un reessai rejoue la reponse de la premiere execution")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "201", description = "Commande creee avec succes"),
-            @ApiResponse(responseCode = "400", description = "Donnees invalides"),
+            @ApiResponse(responseCode = "201", description = "Commande creee avec succes (ou reponse rejouee, en-tete Idempotent-Replayed)"),
+            @ApiResponse(responseCode = "400", description = "Donnees invalides ou cle d'idempotence reutilisee pour une autre requete"),
             @ApiResponse(responseCode = "404", description = "Utilisateur ou produit non trouve"),
-            @ApiResponse(responseCode = "409", description = "Stock insuffisant")
+            @ApiResponse(responseCode = "409", description = "Stock insuffisant ou requete de meme cle toujours en cours")
     })
-    public ResponseEntity<OrderResponseDTO> createOrder(@Valid @RequestBody OrderRequestDTO orderRequestDTO) {
-        OrderResponseDTO created = orderService.createOrder(orderRequestDTO);
+    public ResponseEntity<OrderResponseDTO> createOrder(
+            @Parameter(description = "Cle d'idempotence choisie par le client") @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody OrderRequestDTO orderRequestDTO,
+            Principal principal) {
+        OrderResponseDTO created;
+        boolean replayed = false;
+        if (idempotencyKey == null) {
+            created = orderService.createOrder(orderRequestDTO);
+        } else {
+            OrderIdempotencyService.Result result = orderIdempotencyService.execute(principal.getName(), idempotencyKey,
+                    orderRequestDTO, claim -> orderService.createOrder(orderRequestDTO, claim));
+            created = result.order();
+            replayed = result.replayed();
+        }
         URI location = ServletUriComponentsBuilder
                 .fromCurrentRequest()
                 .path("/{id}")
                 .buildAndExpand(created.getId())
                 .toUri();
-        return ResponseEntity.created(location).body(created);
+        ResponseEntity.BodyBuilder response = ResponseEntity.created(location);
+        if (replayed) {
+            response.header(IDEMPOTENT_REPLAYED_HEADER, "true");
+        }
+        return response.body(created);
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Importer des commandes en masse", description = "Lit en flux un tableau JSON de commandes et les enregistre par lots ; renvoie un resultat par commande (index dans le tableau, identifiant cree ou motif de rejet)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import traite, voir le resultat de chaque commande"),
+            @ApiResponse(responseCode = "400", description = "Le corps n'est pas un tableau JSON")
+    })
+    public ResponseEntity<BulkOrderReportDTO> createOrdersInBulk(InputStream body) throws IOException {
+        return ResponseEntity.ok(bulkOrderService.ingest(body));
     }
 
     @PutMapping("/{id}/status")
@@ -90,6 +313,71 @@ public class OrderController {
         return ResponseEntity.ok(updated);
     }
 
+    @PutMapping("/status")
+    @Operation(summary = "Mettre a jour le statut de plusieurs commandes", description = "Change le statut d'une liste de commandes (ids) ou des commandes d'un statut donne (currentStatus, orderedBefore, limit) en une seule instruction ; les commandes DELIVERED ou CANCELLED sont signalees sans etre modifiees")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transition appliquee, voir le resultat par commande"),
+            @ApiResponse(responseCode = "400", description = "Requete invalide (ni identifiants ni filtre, ou les deux)")
+    })
+    public ResponseEntity<BulkStatusUpdateReportDTO> updateOrderStatuses(@Valid @RequestBody BulkStatusUpdateRequest request) {
+        return ResponseEntity.ok(orderService.bulkUpdateStatus(request));
+    }
+
+    @PostMapping("/read-model/rebuild")
+    @Operation(summary = "Reconstruire le modele de lecture", description = "Regenere les documents des commandes servis par les lectures, par tranches d'identifiants traitees en parallele. Les commandes archivees n'ont pas de document")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Modele de lecture reconstruit"),
+            @ApiResponse(responseCode = "403", description = "Role ADMIN requis")
+    })
+    public ResponseEntity<ReadModelRebuildReportDTO> rebuildReadModel() {
+        return ResponseEntity.ok(orderReadModelService.rebuild());
+    }
+
+    @PostMapping("/partitions/{month}/detach")
+    @Operation(summary = "Detacher les partitions d'un mois", description = "Detache de orders et order_items les partitions d'un mois revolu (yyyy-MM) sans lecture des lignes ; les tables detachees restent en base pour archivage")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Partitions detachees, voir les tables renvoyees"),
+            @ApiResponse(responseCode = "400", description = "Mois courant ou a venir"),
+            @ApiResponse(responseCode = "403", description = "Role ADMIN requis"),
+            @ApiResponse(responseCode = "404", description = "Aucune partition attachee pour ce mois")
+    })
+    public ResponseEntity<List<String>> detachPartitions(
+            @Parameter(description = "Mois a detacher (yyyy-MM)", example = "2024-01")
+            @PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        return ResponseEntity.ok(orderPartitionMaintenance.detachMonth(month));
+    }
+
+    @PostMapping("/archive/run")
+    @Operation(summary = "Archiver les commandes anciennes", description = "Ecrit les commandes DELIVERED ou CANCELLED passees depuis plus que la retention dans des segments compresses publies pour toutes les instances, puis les supprime de la base ; elles restent lisibles par identifiant et dans l'historique de l'utilisateur, mais plus dans les listes par statut, la recherche ni l'export. Reserve au role ADMIN")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Archivage termine"),
+            @ApiResponse(responseCode = "403", description = "Role ADMIN requis"),
+            @ApiResponse(responseCode = "409", description = "Un archivage est deja en cours sur une instance")
+    })
+    public ResponseEntity<ArchiveReportDTO> archiveOrders() {
+        return ResponseEntity.ok(orderArchiveService.archive());
+    }
+
+    @GetMapping("/pricing/rules")
+    @Operation(summary = "Lister les regles de prix", description = "Regles de promotion appliquees au passage de commande par cette instance (derniere version publiee, a l'intervalle de verification pres)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Regles de prix actives")
+    })
+    public ResponseEntity<List<PricingRuleDTO>> getPricingRules() {
+        return ResponseEntity.ok(orderPricingService.getRules());
+    }
+
+    @PutMapping("/pricing/rules")
+    @Operation(summary = "Remplacer les regles de prix", description = "Publie une nouvelle version du jeu de regles (remise par categorie, lot N achetes M offerts, palier de panier), active d'un bloc sur cette instance puis adoptee par les autres a leur prochaine verification")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Regles de prix publiees"),
+            @ApiResponse(responseCode = "400", description = "Regle incomplete, invalide ou en doublon"),
+            @ApiResponse(responseCode = "403", description = "Role ADMIN requis")
+    })
+    public ResponseEntity<List<PricingRuleDTO>> replacePricingRules(@RequestBody List<PricingRuleDTO> rules, Principal principal) {
+        return ResponseEntity.ok(pricingRuleService.publish(rules, principal.getName()));
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Annuler une commande", description = "Annule une commande en changeant son statut a CANCELLED")
     @ApiResponses(value = {
@@ -104,26 +392,48 @@ public class OrderController {
     }
 
     @GetMapping("/user/{userId}")
-    @Operation(summary = "Obtenir les commandes d'un utilisateur", description = "Recupere toutes les commandes d'un utilisateur specifique")
+    @Operation(summary = "Obtenir les commandes d'un utilisateur", description = "Recupere une page des commandes d'un utilisateur specifique ; curseur suivant dans l'en-tete X-Next-Cursor")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Liste des commandes recuperee avec succes")
+            @ApiResponse(responseCode = "200", description = "Liste des commandes recuperee avec succes"),
+            @ApiResponse(responseCode = "400", description = "Representation, curseur ou taille de page invalide")
     })
-    public ResponseEntity<List<OrderResponseDTO>> getOrdersByUserId(
-            @Parameter(description = "ID de l'utilisateur") @PathVariable Long userId) {
-        List<OrderResponseDTO> orders = orderService.getOrdersByUserId(userId);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<?>> getOrdersByUserId(
+            @Parameter(description = "ID de l'utilisateur") @PathVariable Long userId,
+            @Parameter(description = "Representation: full (defaut) ou summary (sans articles)") @RequestParam(defaultValue = "full") String view,
+            @Parameter(description = "Curseur de la page suivante") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Nombre de commandes par page (max 200)") @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        return toPageResponse(isSummaryView(view)
+                ? orderService.getOrderSummariesByUserId(userId, cursor, limit)
+                : orderService.getOrdersByUserId(userId, cursor, limit));
     }
 
     @GetMapping("/status/{status}")
-    @Operation(summary = "Filtrer les commandes par statut", description = "Recupere toutes les commandes avec un statut specifique")
+    @Operation(summary = "Filtrer les commandes par statut", description = "Recupere une page des commandes avec un statut specifique ; curseur suivant dans l'en-tete X-Next-Cursor. Les commandes archivees n'y figurent pas")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Liste des commandes recuperee avec succes"),
-            @ApiResponse(responseCode = "400", description = "Statut invalide")
+            @ApiResponse(responseCode = "400", description = "Statut, representation, curseur ou taille de page invalide")
+    })
+    public ResponseEntity<List<?>> getOrdersByStatus(
+            @Parameter(description = "Statut de la commande") @PathVariable OrderStatus status,
+            @Parameter(description = "Representation: full (defaut) ou summary (sans articles)") @RequestParam(defaultValue = "full") String view,
+            @Parameter(description = "Curseur de la page suivante") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Nombre de commandes par page (max 200)") @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        return toPageResponse(isSummaryView(view)
+                ? orderService.getOrderSummariesByStatus(status, cursor, limit)
+                : orderService.getOrdersByStatus(status, cursor, limit));
+    }
+
+    @GetMapping("/products/referenced")
+    @Operation(summary = "Lister les produits commandes", description = "Identifiants distincts des produits presents dans au moins une ligne de commande, par pages d'identifiants croissants (reprise de l'index de ms-product) ; une page incomplete est la derniere. Reserve au role ADMIN")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page recuperee avec succes"),
+            @ApiResponse(responseCode = "400", description = "Taille de page invalide"),
+            @ApiResponse(responseCode = "403", description = "Role ADMIN requis")
     })
-    public ResponseEntity<List<OrderResponseDTO>> getOrdersByStatus(
-            @Parameter(description = "Statut de la commande") @PathVariable OrderStatus status) {
-        List<OrderResponseDTO> orders = orderService.getOrdersByStatus(status);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<Long>> getReferencedProductIds(
+            @Parameter(description = "Dernier identifiant de la page precedente (exclu)") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Nombre d'identifiants par page (max 10000)") @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(orderService.getReferencedProductIds(after, limit));
     }
 
     @GetMapping("/product/{productId}/exists")
@@ -136,4 +446,37 @@ public class OrderController {
         boolean exists = orderService.isProductInAnyOrder(productId);
         return ResponseEntity.ok(exists);
     }
+
+    private ResponseEntity<List<?>> toPageResponse(OrderPageDTO<?> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getContent());
+    }
+
+    // Un utilisateur ne suit que ses propres commandes ; un administrateur suit l'utilisateur demande, ou tous
+    private static Long subscriptionUserId(JwtAuthenticationToken authentication, Long requestedUserId) {
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        if (admin) {
+            return requestedUserId;
+        }
+        Object claim = authentication.getToken().getClaims().get("userId");
+        Long callerUserId = claim instanceof Number number ? number.longValue() : null;
+        if (callerUserId == null || (requestedUserId != null && !requestedUserId.equals(callerUserId))) {
+            throw new AccessDeniedException("Seules les commandes de l'utilisateur authentifie peuvent etre suivies");
+        }
+        return callerUserId;
+    }
+
+    private static boolean isSummaryView(String view) {
+        if ("summary".equalsIgnoreCase(view)) {
+            return true;
+        }
+        if ("full".equalsIgnoreCase(view)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Representation non supportee: " + view);
+    }
 }
@@ -2,34 +2,47 @@
 -- Uses real users from ms-membership (1,2,3) and real products from ms-product
 
 -- Nettoyer les données existantes
+DELETE FROM outbox_events;
+DELETE FROM idempotency_keys;
+-- Cumuls journaliers reconstruits au demarrage a partir des commandes ci-dessous
+DELETE FROM daily_sales_rollups;
+DELETE FROM product_sales;
+DELETE FROM product_sales_hourly;
+DELETE FROM product_pair_counts;
+-- Modele de lecture reconstruit au demarrage, comme les cumuls
+DELETE FROM order_views;
 DELETE FROM order_items;
 DELETE FROM orders;
 
--- Réinitialiser les séquences
-ALTER TABLE orders ALTER COLUMN id RESTART WITH 1;
-ALTER TABLE order_items ALTER COLUMN id RESTART WITH 1;
-
--- Insert sample orders (sans ID explicite, laisse Hibernate générer)
-INSERT INTO orders (user_id, order_date, status, total_amount, shipping_address, created_at, updated_at)
+-- Insert sample orders (ID explicites, les sequences sont repositionnees en fin de script)
+INSERT INTO orders (id, user_id, order_date, status, total_amount, shipping_address, created_at, updated_at)
 VALUES
-(1, CURRENT_TIMESTAMP, 'PENDING', 79.99, '123 Rue de la Paix, Paris 75001', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-(2, CURRENT_TIMESTAMP, 'CONFIRMED', 189.98, '45 Avenue des Champs-Elysees, Paris 75008', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-(1, CURRENT_TIMESTAMP - INTERVAL '1 day', 'DELIVERED', 114.65, '123 Rue de la Paix, Paris 75001', CURRENT_TIMESTAMP - INTERVAL '1 day', CURRENT_TIMESTAMP),
-(3, CURRENT_TIMESTAMP - INTERVAL '2 days', 'SHIPPED', 59.99, '10 Boulevard Saint-Michel, Lyon 69001', CURRENT_TIMESTAMP - INTERVAL '2 days', CURRENT_TIMESTAMP),
-(2, CURRENT_TIMESTAMP - INTERVAL '3 days', 'CANCELLED', 49.50, '45 Avenue des Champs-Elysees, Paris 75008', CURRENT_TIMESTAMP - INTERVAL '3 days', CURRENT_TIMESTAMP);
+(1, 1, CURRENT_TIMESTAMP, 'PENDING', 79.99, '123 Rue de la Paix, Paris 75001', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+(2, 2, CURRENT_TIMESTAMP, 'CONFIRMED', 189.98, '45 Avenue des Champs-Elysees, Paris 75008', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+(3, 1, CURRENT_TIMESTAMP - INTERVAL '1 day', 'DELIVERED', 114.65, '123 Rue de la Paix, Paris 75001', CURRENT_TIMESTAMP - INTERVAL '1 day', CURRENT_TIMESTAMP),
+(4, 3, CURRENT_TIMESTAMP - INTERVAL '2 days', 'SHIPPED', 59.99, '10 Boulevard Saint-Michel, Lyon 69001', CURRENT_TIMESTAMP - INTERVAL '2 days', CURRENT_TIMESTAMP),
+(5, 2, CURRENT_TIMESTAMP - INTERVAL '3 days', 'CANCELLED', 49.50, '45 Avenue des Champs-Elysees, Paris 75008', CURRENT_TIMESTAMP - INTERVAL '3 days', CURRENT_TIMESTAMP);
 
 -- Insert order items using real product IDs and names from ms-product (10 products)
-INSERT INTO order_items (order_id, product_id, product_name, quantity, unit_price, subtotal)
-VALUES
+-- (order_date, cle de partitionnement, reprise de la commande)
+INSERT INTO order_items (id, order_id, order_date, product_id, product_name, quantity, unit_price, subtotal)
+SELECT v.id, v.order_id, o.order_date, v.product_id, v.product_name, v.quantity, v.unit_price, v.subtotal
+FROM (VALUES
 -- Order 1: 1x Wireless Keyboard (id=1, 79.99)
-(1, 1, 'Wireless Keyboard', 1, 79.99, 79.99),
+(1, 1, 1, 'Wireless Keyboard', 1, 79.99, 79.99),
 -- Order 2: 1x Bluetooth Headphones (id=5, 129.99) + 1x Gaming Mouse (id=10, 59.99)
-(2, 5, 'Bluetooth Headphones', 1, 129.99, 129.99),
-(2, 10, 'Gaming Mouse', 1, 59.99, 59.99),
+(2, 2, 5, 'Bluetooth Headphones', 1, 129.99, 129.99),
+(3, 2, 10, 'Gaming Mouse', 1, 59.99, 59.99),
 -- Order 3: 2x Clean Code (id=2, 34.90) + 15x Energy Bar Chocolate (id=3, 2.99)
-(3, 2, 'Clean Code', 2, 34.90, 69.80),
-(3, 3, 'Energy Bar Chocolate', 15, 2.99, 44.85),
+(4, 3, 2, 'Clean Code', 2, 34.90, 69.80),
+(5, 3, 3, 'Energy Bar Chocolate', 15, 2.99, 44.85),
 -- Order 4: 1x Gaming Mouse (id=10, 59.99)
-(4, 10, 'Gaming Mouse', 1, 59.99, 59.99),
+(6, 4, 10, 'Gaming Mouse', 1, 59.99, 59.99),
 -- Order 5: 1x USB-C Hub (id=9, 49.50) - cancelled order
-(5, 9, 'USB-C Hub', 1, 49.50, 49.50);
+(7, 5, 9, 'USB-C Hub', 1, 49.50, 49.50)
+) AS v (id, order_id, product_id, product_name, quantity, unit_price, subtotal)
+JOIN orders o ON o.id = v.order_id;
+
+-- Les identifiants sont ensuite alloues par sequences (blocs de 50) : repartir au-dela des donnees d'exemple
+SELECT setval('orders_seq', (SELECT COALESCE(MAX(id), 0) FROM orders) + 50, false);
+SELECT setval('order_items_seq', (SELECT COALESCE(MAX(id), 0) FROM order_items) + 50, false);
@@ -0,0 +1,137 @@
+-- Partitionnement mensuel de orders et order_items sur order_date.
+-- Execute apres la mise a jour du schema par Hibernate et avant data.sql, en une seule
+-- instruction (spring.sql.init.separator) : les corps de fonction contiennent des ';'.
+-- Les tables sont co-partitionnees : une commande et ses articles sont dans le meme mois, ce qui
+-- permet d'elaguer les deux tables avec la meme borne et de detacher un mois d'un seul coup.
+
+-- Verrou consultatif des operations sur les partitions, partage par toutes les instances :
+-- creation, deplacement des lignes des partitions par defaut, detachement et conversion initiale
+-- sont serialises jusqu'a la fin de la transaction appelante.
+CREATE OR REPLACE FUNCTION lock_order_partitions() RETURNS void AS $$
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('order_partitions'));
+END;
+$$ LANGUAGE plpgsql;
+
+-- Cree les partitions mensuelles manquantes couvrant [p_from, p_to[ ; les lignes tombees dans
+-- les partitions par defaut pour un mois nouvellement cree y sont deplacees.
+CREATE OR REPLACE FUNCTION ensure_order_partitions(p_from date, p_to date) RETURNS integer AS $$
+DECLARE
+    month_start date := date_trunc('month', p_from);
+    month_end date;
+    suffix text;
+    created integer := 0;
+    has_default_rows boolean;
+BEGIN
+    -- Une autre instance peut creer le meme mois : verification et creation sous le verrou
+    PERFORM lock_order_partitions();
+    WHILE month_start < p_to LOOP
+        month_end := month_start + INTERVAL '1 month';
+        suffix := to_char(month_start, 'YYYYMM');
+        IF to_regclass('orders_p' || suffix) IS NULL THEN
+            has_default_rows := to_regclass('orders_default') IS NOT NULL AND EXISTS (
+                SELECT 1 FROM orders_default WHERE order_date >= month_start AND order_date < month_end);
+            IF has_default_rows THEN
+                CREATE TEMP TABLE moved_order_items (LIKE order_items) ON COMMIT DROP;
+                CREATE TEMP TABLE moved_orders (LIKE orders) ON COMMIT DROP;
+                WITH moved AS (DELETE FROM order_items_default
+                               WHERE order_date >= month_start AND order_date < month_end RETURNING *)
+                INSERT INTO moved_order_items SELECT * FROM moved;
+                WITH moved AS (DELETE FROM orders_default
+                               WHERE order_date >= month_start AND order_date < month_end RETURNING *)
+                INSERT INTO moved_orders SELECT * FROM moved;
+            END IF;
+
+            EXECUTE format('CREATE TABLE %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                           'orders_p' || suffix, month_start, month_end);
+            EXECUTE format('CREATE TABLE %I PARTITION OF order_items FOR VALUES FROM (%L) TO (%L)',
+                           'order_items_p' || suffix, month_start, month_end);
+            created := created + 1;
+
+            IF has_default_rows THEN
+                INSERT INTO orders SELECT * FROM moved_orders;
+                INSERT INTO order_items SELECT * FROM moved_order_items;
+                DROP TABLE moved_order_items;
+                DROP TABLE moved_orders;
+            END IF;
+        END IF;
+        month_start := month_end;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detache les partitions d'un mois (operation sur le catalogue, sans lecture des lignes) ;
+-- les tables detachees restent en base sous leur nom pour archivage ou suppression.
+CREATE OR REPLACE FUNCTION detach_order_partitions(p_month date) RETURNS boolean AS $$
+DECLARE
+    suffix text := to_char(date_trunc('month', p_month), 'YYYYMM');
+BEGIN
+    PERFORM lock_order_partitions();
+    IF to_regclass('orders_p' || suffix) IS NULL THEN
+        RETURN false;
+    END IF;
+    EXECUTE format('ALTER TABLE order_items DETACH PARTITION %I', 'order_items_p' || suffix);
+    EXECUTE format('ALTER TABLE orders DETACH PARTITION %I', 'orders_p' || suffix);
+    RETURN true;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Conversion des tables creees par Hibernate (ou d'une base existante) en tables partitionnees,
+-- une seule fois : les lignes existantes sont recopiees dans les partitions.
+DO $$
+BEGIN
+    -- Instances demarrees ensemble : une seule convertit, les autres voient ensuite la table partitionnee
+    PERFORM lock_order_partitions();
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('orders')) THEN
+        RETURN;
+    END IF;
+
+    -- Base anterieure : la cle de partitionnement des articles est reprise de leur commande
+    ALTER TABLE order_items ADD COLUMN IF NOT EXISTS order_date timestamp(6);
+    UPDATE order_items i SET order_date = o.order_date
+    FROM orders o
+    WHERE o.id = i.order_id AND i.order_date IS NULL;
+
+    ALTER TABLE order_items RENAME TO order_items_unpartitioned;
+    ALTER TABLE orders RENAME TO orders_unpartitioned;
+
+    CREATE TABLE orders (LIKE orders_unpartitioned INCLUDING DEFAULTS) PARTITION BY RANGE (order_date);
+    ALTER TABLE orders ADD CONSTRAINT pk_orders_id_order_date PRIMARY KEY (id, order_date);
+    CREATE TABLE orders_default PARTITION OF orders DEFAULT;
+
+    CREATE TABLE order_items (LIKE order_items_unpartitioned INCLUDING DEFAULTS) PARTITION BY RANGE (order_date);
+    ALTER TABLE order_items ALTER COLUMN order_date SET NOT NULL;
+    ALTER TABLE order_items ADD CONSTRAINT pk_order_items_id_order_date PRIMARY KEY (id, order_date);
+    CREATE TABLE order_items_default PARTITION OF order_items DEFAULT;
+
+    PERFORM ensure_order_partitions(
+            COALESCE(CAST((SELECT MIN(order_date) FROM orders_unpartitioned) AS date), CURRENT_DATE),
+            CURRENT_DATE);
+    INSERT INTO orders SELECT * FROM orders_unpartitioned;
+    INSERT INTO order_items SELECT * FROM order_items_unpartitioned;
+
+    DROP TABLE order_items_unpartitioned;
+    DROP TABLE orders_unpartitioned;
+END;
+$$;
+
+-- Mois precedent (donnees de test recentes) et mois a venir ; ensuite tenu a jour par OrderPartitionMaintenance
+SELECT ensure_order_partitions(CAST(date_trunc('month', CURRENT_DATE) - INTERVAL '1 month' AS date),
+                               CAST(date_trunc('month', CURRENT_DATE) + INTERVAL '4 months' AS date));
+
+-- Statuts de l'outbox : la contrainte generee par Hibernate a la creation de la table n'est pas
+-- mise a jour par ddl-auto ; elle est remplacee pour accepter IN_FLIGHT (lot en cours de livraison)
+ALTER TABLE outbox_events DROP CONSTRAINT IF EXISTS outbox_events_status_check;
+ALTER TABLE outbox_events ADD CONSTRAINT outbox_events_status_check
+    CHECK (status IN ('PENDING', 'IN_FLIGHT', 'SENT', 'FAILED'));
+
+-- Index definis sur les tables partitionnees : crees sur chaque partition, presente et future
+CREATE INDEX IF NOT EXISTS idx_orders_order_date_id ON orders (order_date, id);
+CREATE INDEX IF NOT EXISTS idx_orders_status_order_date_id ON orders (status, order_date, id);
+CREATE INDEX IF NOT EXISTS idx_orders_user_order_date_id ON orders (user_id, order_date, id);
+CREATE INDEX IF NOT EXISTS idx_orders_total_amount_id ON orders (total_amount, id);
+CREATE INDEX IF NOT EXISTS idx_orders_status_total_amount_id ON orders (status, total_amount, id);
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items (order_id);
+-- Filtre produit de la recherche : les commandes d'un produit sont lues dans l'index seul
+CREATE INDEX IF NOT EXISTS idx_order_items_product_id_order_id ON order_items (product_id, order_id) INCLUDE (order_date);
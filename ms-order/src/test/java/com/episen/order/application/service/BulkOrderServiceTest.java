@@ -0,0 +1,191 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.BulkOrderReportDTO;
+import com.episen.order.application.dto.BulkOrderResultDTO;
+import com.episen.order.application.mapper.OrderItemMapper;
+import com.episen.order.application.mapper.OrderMapper;
+import com.episen.order.domain.entity.Order;
+import com.episen.order.domain.repository.OrderRepository;
+import com.episen.order.infrastructure.client.ProductClient;
+import com.episen.order.infrastructure.client.UserExistenceCache;
+import com.episen.order.infrastructure.concurrent.RemoteCallExecutor;
+import com.episen.order.infrastructure.config.OrderPricingProperties;
+import com.episen.order.infrastructure.monitoring.OrderActivityWindows;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Import en masse par lots de deux commandes : lecture du flux, rejets individuels,
+ * echec d'un lot et stock engage d'un lot a l'autre.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Bulk Order Service Tests")
+class BulkOrderServiceTest {
+
+    private static final String ADDRESS = "123 Test Street";
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private UserExistenceCache userExistenceCache;
+
+    @Mock
+    private ProductClient productClient;
+
+    @Mock
+    private StockEventPublisher stockEventPublisher;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicLong nextOrderId = new AtomicLong(1);
+
+    private BulkOrderService bulkOrderService;
+
+    @BeforeEach
+    void setUp() {
+        OrderItemMapper orderItemMapper = new OrderItemMapper();
+        bulkOrderService = new BulkOrderService(new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), orderRepository,
+                new OrderMapper(orderItemMapper), orderItemMapper, userExistenceCache, productClient,
+                new RemoteCallExecutor(5000), stockEventPublisher, salesRollupService,
+                mock(TopProductsService.class), mock(ProductRecommendationService.class), new OrderActivityWindows(),
+                mock(OrderReadModelService.class), new OrderPricingService(new OrderPricingProperties(List.of())),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry, 2, 100);
+    }
+
+    @Test
+    @DisplayName("Should keep the orders read before a truncated stream and reject unreadable elements")
+    void testMalformedStream_PartialReport() throws IOException {
+        givenUsers();
+        givenProducts(product(1L, 10));
+        givenSavedOrders();
+
+        BulkOrderReportDTO report = ingest("[" + order(1L, 1L, 1) + ", {\"userId\": \"abc\"}, "
+                + order(1L, 1L, 1) + ", {\"userId\": 1, \"items\": [");
+
+        assertEquals(3, report.getReceived());
+        assertEquals(2, report.getCreated());
+        assertEquals(1, report.getRejected());
+        assertNotNull(report.getError());
+        assertEquals(BulkOrderResultDTO.Outcome.CREATED, report.getResults().get(0).getOutcome());
+        assertEquals(BulkOrderResultDTO.Outcome.REJECTED, report.getResults().get(1).getOutcome());
+        assertTrue(report.getResults().get(1).getMessage().startsWith("Commande illisible"));
+        assertEquals(BulkOrderResultDTO.Outcome.CREATED, report.getResults().get(2).getOutcome());
+
+        assertThrows(IllegalArgumentException.class, () -> ingest("{\"userId\": 1}"));
+    }
+
+    @Test
+    @DisplayName("Should reject only the orders of a chunk that failed to save")
+    void testChunkFailure_OtherChunksCreated() throws IOException {
+        givenUsers();
+        givenProducts(product(1L, 10));
+        when(orderRepository.saveAll(any()))
+                .thenAnswer(call -> assignIds(call.getArgument(0)))
+                .thenThrow(new IllegalStateException("connexion perdue"))
+                .thenAnswer(call -> assignIds(call.getArgument(0)));
+
+        BulkOrderReportDTO report = ingest("[" + order(1L, 1L, 1) + ", " + order(1L, 1L, 1) + ", "
+                + order(1L, 1L, 1) + ", " + order(1L, 1L, 1) + ", " + order(1L, 1L, 1) + "]");
+
+        assertEquals(5, report.getReceived());
+        assertEquals(3, report.getCreated());
+        assertEquals(2, report.getRejected());
+        List<BulkOrderResultDTO> results = report.getResults();
+        assertEquals(BulkOrderResultDTO.Outcome.CREATED, results.get(0).getOutcome());
+        assertEquals(BulkOrderResultDTO.Outcome.CREATED, results.get(1).getOutcome());
+        assertEquals(BulkOrderResultDTO.Outcome.REJECTED, results.get(2).getOutcome());
+        assertTrue(results.get(2).getMessage().startsWith("Enregistrement impossible"));
+        assertEquals(BulkOrderResultDTO.Outcome.REJECTED, results.get(3).getOutcome());
+        assertEquals(BulkOrderResultDTO.Outcome.CREATED, results.get(4).getOutcome());
+        // Le stock du lot en echec n'est pas engage, le cumul et le compteur ignorent ses commandes
+        verify(salesRollupService, times(2)).recordCreated(any(List.class));
+        assertEquals(3.0, meterRegistry.get("orders.created").tag("status", "PENDING").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should count the stock committed by previous chunks before accepting an order")
+    void testStockCommittedAcrossChunks() throws IOException {
+        givenUsers();
+        givenProducts(product(1L, 5));
+        givenSavedOrders();
+
+        // Lot 1 : 2 + 2 unites ; lot 2 : 2 unites refusees (1 restante), 1 unite acceptee
+        BulkOrderReportDTO report = ingest("[" + order(1L, 1L, 2) + ", " + order(1L, 1L, 2) + ", "
+                + order(1L, 1L, 2) + ", " + order(1L, 1L, 1) + "]");
+
+        assertEquals(3, report.getCreated());
+        assertEquals(1, report.getRejected());
+        BulkOrderResultDTO rejected = report.getResults().get(2);
+        assertEquals(BulkOrderResultDTO.Outcome.REJECTED, rejected.getOutcome());
+        assertTrue(rejected.getMessage().contains("Stock disponible: 1"));
+        assertEquals(BulkOrderResultDTO.Outcome.CREATED, report.getResults().get(3).getOutcome());
+    }
+
+    private BulkOrderReportDTO ingest(String body) throws IOException {
+        return bulkOrderService.ingest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void givenUsers() {
+        when(userExistenceCache.userExists(anyLong())).thenReturn(true);
+    }
+
+    private void givenProducts(ProductClient.ProductResponseDTO product) {
+        when(productClient.findProducts(any())).thenReturn(Map.of(product.getId(), product));
+    }
+
+    private void givenSavedOrders() {
+        when(orderRepository.saveAll(any())).thenAnswer(call -> assignIds(call.getArgument(0)));
+    }
+
+    private List<Order> assignIds(List<Order> orders) {
+        orders.forEach(order -> order.setId(nextOrderId.getAndIncrement()));
+        return orders;
+    }
+
+    private static ProductClient.ProductResponseDTO product(Long id, int stock) {
+        ProductClient.ProductResponseDTO product = new ProductClient.ProductResponseDTO();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStock(stock);
+        return product;
+    }
+
+    private static String order(Long userId, Long productId, int quantity) {
+        return "{\"userId\": " + userId + ", \"shippingAddress\": \"" + ADDRESS + "\", \"items\": [{\"productId\": "
+                + productId + ", \"quantity\": " + quantity + "}]}";
+    }
+}
@@ -0,0 +1,270 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.ArchiveReportDTO;
+import com.episen.order.application.dto.OrderResponseDTO;
+import com.episen.order.domain.entity.Order;
+import com.episen.order.domain.entity.OrderArchiveSegment;
+import com.episen.order.domain.entity.OrderItem;
+import com.episen.order.domain.enums.OrderStatus;
+import com.episen.order.domain.repository.OrderArchiveSegmentRepository;
+import com.episen.order.domain.repository.OrderRepository;
+import com.episen.order.domain.repository.OrderViewRepository;
+import com.episen.order.infrastructure.archive.OrderArchive;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Archivage par segments de trois commandes et suppression par lots de deux, sur une base simulee :
+ * publication du segment avant suppression, lecture depuis une autre instance, reprise apres une
+ * interruption et verrou tenu par une autre instance.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Order Archive Service Tests")
+class OrderArchiveServiceTest {
+
+    private static final LocalDateTime ORDER_DATE = LocalDateTime.of(2023, 6, 1, 9, 30);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderViewRepository orderViewRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path directory;
+
+    @TempDir
+    private Path otherInstanceDirectory;
+
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+    private final OrderArchiveSegmentRepository catalog = inMemoryCatalog();
+    // Table orders simulee, par identifiant
+    private final TreeMap<Long, Order> rows = new TreeMap<>();
+
+    private OrderArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 5; id++) {
+            rows.put(id, order(id));
+        }
+        archiveService = new OrderArchiveService(orderRepository, orderViewRepository,
+                new OrderArchive(directory, catalog, transactionTemplate), transactionTemplate, jdbcTemplate, 365, 3, 2);
+    }
+
+    @Test
+    @DisplayName("Should publish each segment before deleting its orders in batches, readable by another instance")
+    void testArchive_BatchDelete() {
+        givenLock(true);
+        givenDatabase(0);
+
+        ArchiveReportDTO report = archiveService.archive();
+
+        assertEquals(2, report.getSegments());
+        assertEquals(5, report.getArchived());
+        assertTrue(rows.isEmpty());
+        InOrder order = inOrder(catalog, orderRepository, orderViewRepository);
+        order.verify(catalog).save(any());
+        order.verify(orderRepository).deleteArchivedItems(eq(List.of(1L, 2L)), any());
+        order.verify(orderViewRepository).deleteByOrderIdIn(List.of(1L, 2L));
+        order.verify(orderRepository).deleteArchived(eq(List.of(1L, 2L)), any());
+        order.verify(orderRepository).deleteArchived(eq(List.of(3L)), any());
+        order.verify(catalog).save(any());
+        order.verify(orderRepository).deleteArchived(eq(List.of(4L, 5L)), any());
+
+        // Autre instance, repertoire vide : segments copies depuis le catalogue
+        OrderArchive otherInstance = new OrderArchive(otherInstanceDirectory, catalog, transactionTemplate);
+        for (long id = 1; id <= 5; id++) {
+            assertEquals(id, otherInstance.findOrder(id).orElseThrow().getId());
+        }
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L), ids(otherInstance.findByUserId(1L, null, 10)));
+        assertTrue(otherInstance.containsProduct(42L));
+    }
+
+    @Test
+    @DisplayName("Should archive the remaining orders again after a crash between two delete batches")
+    void testArchive_RerunAfterCrash() {
+        givenLock(true);
+        // Deuxieme lot de suppression interrompu
+        givenDatabase(2);
+
+        assertThrows(IllegalStateException.class, () -> archiveService.archive());
+        assertEquals(List.of(3L, 4L, 5L), List.copyOf(rows.keySet()));
+
+        ArchiveReportDTO rerun = archiveService.archive();
+
+        assertEquals(1, rerun.getSegments());
+        assertEquals(3, rerun.getArchived());
+        assertTrue(rows.isEmpty());
+        // La commande 3, dans les deux segments, n'est lue qu'une fois
+        OrderArchive otherInstance = new OrderArchive(otherInstanceDirectory, catalog, transactionTemplate);
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L), ids(otherInstance.findByUserId(1L, null, 10)));
+        assertEquals(2, catalog.findAllIds().size());
+    }
+
+    @Test
+    @DisplayName("Should replace the segment of the same range when the crash happened before any delete")
+    void testArchive_RerunSameRange_SegmentReplaced() {
+        givenLock(true);
+        // Interruption au premier lot : rien n'est supprime
+        givenDatabase(1);
+
+        assertThrows(IllegalStateException.class, () -> archiveService.archive());
+        long firstSegment = catalog.findLatestId();
+
+        assertEquals(5, archiveService.archive().getArchived());
+
+        List<Long> segments = catalog.findAllIds();
+        assertEquals(2, segments.size());
+        assertTrue(segments.stream().noneMatch(id -> id == firstSegment));
+        assertFalse(Files.exists(directory.resolve("segment-" + firstSegment + ".seg")));
+    }
+
+    @Test
+    @DisplayName("Should refuse to run while another instance holds the archive lock")
+    void testArchive_LockHeldElsewhere() {
+        givenLock(false);
+
+        assertThrows(IllegalStateException.class, () -> archiveService.archive());
+        archiveService.scheduledArchive();
+
+        verify(orderRepository, never()).findArchivableIds(any(), anyLong(), anyInt());
+        verify(catalog, never()).save(any());
+    }
+
+    private void givenLock(boolean acquired) {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(call ->
+                call.<ConnectionCallback<?>>getArgument(0).doInConnection(lockConnection(acquired)));
+    }
+
+    // Lignes lues et supprimees dans la table simulee ; failingDelete : numero de l'appel de
+    // suppression qui echoue, 0 pour aucun
+    private void givenDatabase(int failingDelete) {
+        when(orderRepository.findArchivableIds(any(), anyLong(), anyInt())).thenAnswer(call -> rows
+                .tailMap(call.<Long>getArgument(1), false).keySet().stream()
+                .limit(call.<Integer>getArgument(2))
+                .toList());
+        when(orderRepository.findAllWithItemsByIdIn(any())).thenAnswer(call -> call.<Collection<Long>>getArgument(0)
+                .stream()
+                .map(rows::get)
+                .toList());
+        AtomicInteger deletes = new AtomicInteger();
+        when(orderRepository.deleteArchived(any(), any())).thenAnswer(call -> {
+            if (deletes.incrementAndGet() == failingDelete) {
+                throw new IllegalStateException("connexion perdue");
+            }
+            return delete(call.getArgument(0));
+        });
+    }
+
+    private int delete(Collection<Long> ids) {
+        int deleted = 0;
+        for (Long id : ids) {
+            deleted += rows.remove(id) != null ? 1 : 0;
+        }
+        return deleted;
+    }
+
+    private static Connection lockConnection(boolean acquired) throws SQLException {
+        ResultSet result = mock(ResultSet.class);
+        when(result.next()).thenReturn(true);
+        when(result.getBoolean(1)).thenReturn(acquired);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(result);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        return connection;
+    }
+
+    /**
+     * Catalogue des segments en memoire, partage par les instances d'un test.
+     */
+    static OrderArchiveSegmentRepository inMemoryCatalog() {
+        TreeMap<Long, OrderArchiveSegment> published = new TreeMap<>();
+        AtomicLong nextId = new AtomicLong(1);
+        return mock(OrderArchiveSegmentRepository.class, call -> switch (call.getMethod().getName()) {
+            case "findLatestId" -> published.isEmpty() ? 0L : published.lastKey();
+            case "findAllIds" -> List.copyOf(published.keySet());
+            case "findById" -> Optional.ofNullable(published.get(call.<Long>getArgument(0)));
+            case "deleteByRange" -> {
+                int before = published.size();
+                published.values().removeIf(segment -> segment.getMinOrderId() == call.<Long>getArgument(0)
+                        && segment.getMaxOrderId() == call.<Long>getArgument(1));
+                yield before - published.size();
+            }
+            case "save" -> {
+                OrderArchiveSegment segment = call.getArgument(0);
+                segment.setId(nextId.getAndIncrement());
+                published.put(segment.getId(), segment);
+                yield segment;
+            }
+            default -> RETURNS_DEFAULTS.answer(call);
+        });
+    }
+
+    private static Order order(long id) {
+        Order order = Order.builder()
+                .id(id)
+                .userId(1L)
+                .orderDate(ORDER_DATE.plusHours(id))
+                .status(OrderStatus.DELIVERED)
+                .totalAmount(new BigDecimal("20.00"))
+                .shippingAddress("1 Archive Road")
+                .createdAt(ORDER_DATE)
+                .updatedAt(ORDER_DATE)
+                .items(new ArrayList<>())
+                .build();
+        order.addItem(OrderItem.builder().id(id).productId(42L).productName("Old Book").quantity(1)
+                .unitPrice(new BigDecimal("20.00")).subtotal(new BigDecimal("20.00")).build());
+        return order;
+    }
+
+    private static List<Long> ids(List<OrderResponseDTO> orders) {
+        return orders.stream().map(OrderResponseDTO::getId).toList();
+    }
+}
@@ -0,0 +1,149 @@
+package com.episen.order.application.service;
+
+import com.episen.order.domain.entity.Order;
+import com.episen.order.domain.entity.OrderItem;
+import com.episen.order.domain.enums.OrderStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Export en flux lu par curseur JDBC : une commande par ligne en NDJSON, un article par ligne en CSV.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@DisplayName("Order Export Service Tests")
+class OrderExportServiceTest {
+
+    private static final LocalDateTime ORDER_DATE = LocalDateTime.of(2026, 3, 10, 14, 30);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private OrderExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        // Taille de lot inferieure au nombre de lignes : le curseur est lu en plusieurs fois
+        exportService = new OrderExportService(jdbcTemplate, transactionManager, objectMapper, new SimpleMeterRegistry(), 2);
+        persist(OrderStatus.DELIVERED, "=HYPERLINK(\"http://evil\")", item(1L, "Book, 2nd edition"), item(2L, "@SUM(A1)"));
+        persist(OrderStatus.CANCELLED, "1 Main Street", item(3L, "Pen"));
+        persist(OrderStatus.DELIVERED, "+33 Rue Test", item(4L, "-Lamp"), item(5L, "Desk"), item(6L, "Chair"));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should write one JSON line per order with its items, filtered by status")
+    void testExport_NdjsonGroupsItemsPerOrder() throws IOException {
+        List<String> lines = export(OrderExportService.Format.NDJSON, OrderStatus.DELIVERED).lines().toList();
+
+        assertEquals(2, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        JsonNode second = objectMapper.readTree(lines.get(1));
+        assertEquals(2, first.get("items").size());
+        assertEquals(3, second.get("items").size());
+        assertEquals("DELIVERED", second.get("status").asText());
+        assertEquals(first.get("id").asLong() + 2, second.get("id").asLong());
+    }
+
+    @Test
+    @DisplayName("Should write one CSV row per item and neutralize spreadsheet formulas")
+    void testExport_CsvEscapesFormulas() throws IOException {
+        List<String> lines = export(OrderExportService.Format.CSV, null).lines().toList();
+
+        assertEquals(1 + 6, lines.size());
+        assertEquals("\"'=HYPERLINK(\"\"http://evil\"\")\"", csvField(lines.get(1), 5));
+        assertEquals("\"Book, 2nd edition\"", csvField(lines.get(1), 8));
+        assertEquals("\"'@SUM(A1)\"", csvField(lines.get(2), 8));
+        assertEquals("1 Main Street", csvField(lines.get(3), 5));
+        assertEquals("\"'+33 Rue Test\"", csvField(lines.get(4), 5));
+        assertEquals("\"'-Lamp\"", csvField(lines.get(4), 8));
+    }
+
+    @Test
+    @DisplayName("Should reject an empty or inverted period before streaming")
+    void testExport_InvalidPeriod() {
+        assertThrows(IllegalArgumentException.class,
+                () -> exportService.export(OrderExportService.Format.CSV, ORDER_DATE, ORDER_DATE, null));
+    }
+
+    private String export(OrderExportService.Format format, OrderStatus status) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(format, null, null, status).writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private void persist(OrderStatus status, String shippingAddress, OrderItem... items) {
+        Order order = Order.builder()
+                .userId(1L)
+                .orderDate(ORDER_DATE)
+                .status(status)
+                .totalAmount(new BigDecimal("10.00").multiply(BigDecimal.valueOf(items.length)))
+                .shippingAddress(shippingAddress)
+                .build();
+        for (OrderItem item : items) {
+            order.addItem(item);
+        }
+        entityManager.persist(order);
+    }
+
+    private static OrderItem item(Long productId, String productName) {
+        return OrderItem.builder()
+                .productId(productId)
+                .productName(productName)
+                .quantity(1)
+                .unitPrice(new BigDecimal("10.00"))
+                .subtotal(new BigDecimal("10.00"))
+                .build();
+    }
+
+    // Champ d'une ligne CSV, guillemets conserves (les virgules entre guillemets ne separent pas)
+    private static String csvField(String line, int index) {
+        int field = 0;
+        boolean quoted = false;
+        StringBuilder current = new StringBuilder();
+        for (char c : line.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+            }
+            if (c == ',' && !quoted) {
+                if (field++ == index) {
+                    return current.toString();
+                }
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        return current.toString();
+    }
+}
@@ -0,0 +1,209 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.OrderItemRequestDTO;
+import com.episen.order.application.dto.OrderRequestDTO;
+import com.episen.order.application.dto.OrderResponseDTO;
+import com.episen.order.domain.entity.IdempotencyRecord;
+import com.episen.order.domain.enums.IdempotencyStatus;
+import com.episen.order.domain.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reservation, rejeu, conflit et reprise d'une cle d'idempotence ; seule l'execution titulaire
+ * du bail peut completer ou liberer la cle.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Order Idempotency Service Tests")
+class OrderIdempotencyServiceTest {
+
+    private static final String OWNER = "user@test.com";
+    private static final String KEY = "key-1";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private OrderIdempotencyService service;
+
+    private OrderRequestDTO request;
+
+    @BeforeEach
+    void setUp() {
+        service = new OrderIdempotencyService(idempotencyRecordRepository, objectMapper,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new SimpleMeterRegistry(),
+                taskScheduler, 24, 30, 200);
+        request = OrderRequestDTO.builder()
+                .userId(1L)
+                .shippingAddress("123 Test Street")
+                .items(List.of(OrderItemRequestDTO.builder().productId(1L).quantity(1).build()))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should execute once under a fresh execution token and renew the lease meanwhile")
+    void testClaim_ExecutedWithToken() {
+        ScheduledFuture<?> leaseRenewal = scheduleLeaseRenewal();
+        when(idempotencyRecordRepository.claim(eq(OWNER), eq(KEY), anyString(), anyString(), any(), any())).thenReturn(1);
+        AtomicReference<OrderIdempotencyService.Claim> executed = new AtomicReference<>();
+
+        OrderIdempotencyService.Result result = service.execute(OWNER, KEY, request, claim -> {
+            executed.set(claim);
+            return OrderResponseDTO.builder().id(1L).build();
+        });
+
+        assertFalse(result.replayed());
+        assertEquals(1L, result.order().getId());
+        assertNotNull(executed.get().token());
+        verify(idempotencyRecordRepository).claim(eq(OWNER), eq(KEY), anyString(), eq(executed.get().token()), any(), any());
+        verify(leaseRenewal).cancel(false);
+
+        // Prolongation periodique du bail par l'execution titulaire
+        ArgumentCaptor<Runnable> renewal = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).scheduleAtFixedRate(renewal.capture(), any(Instant.class), eq(Duration.ofSeconds(10)));
+        renewal.getValue().run();
+        verify(idempotencyRecordRepository).renewLease(eq(OWNER), eq(KEY), eq(executed.get().token()), any());
+    }
+
+    @Test
+    @DisplayName("Should replay the recorded response without executing again")
+    void testCompleted_Replayed() throws Exception {
+        OrderResponseDTO recorded = OrderResponseDTO.builder().id(7L).build();
+        AtomicReference<String> requestHash = new AtomicReference<>();
+        when(idempotencyRecordRepository.claim(eq(OWNER), eq(KEY), anyString(), anyString(), any(), any()))
+                .thenAnswer(call -> {
+                    requestHash.set(call.getArgument(2));
+                    return 0;
+                });
+        when(idempotencyRecordRepository.findByOwnerAndIdempotencyKey(OWNER, KEY)).thenAnswer(call -> Optional.of(
+                record(requestHash.get(), IdempotencyStatus.COMPLETED, objectMapper.writeValueAsString(recorded))));
+
+        OrderIdempotencyService.Result result = service.execute(OWNER, KEY, request, claim -> {
+            throw new AssertionError("La creation ne doit pas etre relancee");
+        });
+
+        assertTrue(result.replayed());
+        assertEquals(7L, result.order().getId());
+        verify(taskScheduler, never()).scheduleAtFixedRate(any(Runnable.class), any(Instant.class), any(Duration.class));
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused for a different request")
+    void testDifferentRequest_Conflict() {
+        when(idempotencyRecordRepository.claim(eq(OWNER), eq(KEY), anyString(), anyString(), any(), any())).thenReturn(0);
+        when(idempotencyRecordRepository.findByOwnerAndIdempotencyKey(OWNER, KEY))
+                .thenReturn(Optional.of(record("other-request", IdempotencyStatus.COMPLETED, "{}")));
+
+        assertThrows(IllegalArgumentException.class, () -> service.execute(OWNER, KEY, request, claim -> {
+            throw new AssertionError("La creation ne doit pas etre executee");
+        }));
+    }
+
+    @Test
+    @DisplayName("Should take over an expired lease under a new execution token")
+    void testExpiredLease_TakenOver() {
+        scheduleLeaseRenewal();
+        AtomicReference<String> requestHash = new AtomicReference<>();
+        when(idempotencyRecordRepository.claim(eq(OWNER), eq(KEY), anyString(), anyString(), any(), any()))
+                .thenAnswer(call -> {
+                    requestHash.set(call.getArgument(2));
+                    return 0;
+                });
+        when(idempotencyRecordRepository.findByOwnerAndIdempotencyKey(OWNER, KEY))
+                .thenAnswer(call -> Optional.of(record(requestHash.get(), IdempotencyStatus.IN_PROGRESS, null)));
+        when(idempotencyRecordRepository.takeOverExpiredLease(eq(OWNER), eq(KEY), anyString(), anyString(), any(), any()))
+                .thenReturn(1);
+        AtomicReference<OrderIdempotencyService.Claim> executed = new AtomicReference<>();
+
+        OrderIdempotencyService.Result result = service.execute(OWNER, KEY, request, claim -> {
+            executed.set(claim);
+            return OrderResponseDTO.builder().id(2L).build();
+        });
+
+        assertFalse(result.replayed());
+        verify(idempotencyRecordRepository).takeOverExpiredLease(eq(OWNER), eq(KEY), eq(requestHash.get()),
+                eq(executed.get().token()), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should release only its own claim when the creation fails")
+    void testFailure_ReleasedWithToken() {
+        ScheduledFuture<?> leaseRenewal = scheduleLeaseRenewal();
+        when(idempotencyRecordRepository.claim(eq(OWNER), eq(KEY), anyString(), anyString(), any(), any())).thenReturn(1);
+        AtomicReference<OrderIdempotencyService.Claim> executed = new AtomicReference<>();
+
+        assertThrows(IllegalStateException.class, () -> service.execute(OWNER, KEY, request, claim -> {
+            executed.set(claim);
+            throw new IllegalStateException("Stock insuffisant");
+        }));
+
+        verify(idempotencyRecordRepository).release(eq(OWNER), eq(KEY), eq(executed.get().token()), any());
+        verify(leaseRenewal).cancel(false);
+    }
+
+    @Test
+    @DisplayName("Should abort the order transaction when the lease was lost")
+    void testRecordResponse_LeaseLost() {
+        OrderIdempotencyService.Claim claim = new OrderIdempotencyService.Claim(OWNER, KEY, "stale-token");
+        when(idempotencyRecordRepository.complete(eq(OWNER), eq(KEY), eq("stale-token"), anyInt(), anyString(), any(), any()))
+                .thenReturn(0);
+
+        assertThrows(IllegalStateException.class,
+                () -> service.recordResponse(claim, OrderResponseDTO.builder().id(1L).build()));
+    }
+
+    private ScheduledFuture<?> scheduleLeaseRenewal() {
+        ScheduledFuture<?> leaseRenewal = mock(ScheduledFuture.class);
+        when(taskScheduler.scheduleAtFixedRate(any(Runnable.class), any(Instant.class), any(Duration.class)))
+                .thenAnswer(call -> leaseRenewal);
+        return leaseRenewal;
+    }
+
+    private static IdempotencyRecord record(String requestHash, IdempotencyStatus status, String responseBody) {
+        return IdempotencyRecord.builder()
+                .owner(OWNER)
+                .idempotencyKey(KEY)
+                .requestHash(requestHash)
+                .status(status)
+                .responseBody(responseBody)
+                .lockedUntil(status == IdempotencyStatus.IN_PROGRESS ? LocalDateTime.now().minusSeconds(1) : null)
+                .expiresAt(LocalDateTime.now().plusHours(24))
+                .build();
+    }
+}
@@ -0,0 +1,162 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.OrderPageDTO;
+import com.episen.order.application.dto.OrderSearchCriteria;
+import com.episen.order.application.dto.OrderSearchCursor;
+import com.episen.order.application.dto.OrderSummaryDTO;
+import com.episen.order.domain.enums.OrderStatus;
+import com.episen.order.domain.repository.OrderRepository;
+import com.episen.order.domain.repository.OrderViewRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * SQL genere par la recherche (branche unique, une branche par statut fusionnees par UNION ALL,
+ * reprise par comparaison de ligne) et aller-retour du curseur entre deux pages.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Order Search Query Tests")
+class OrderSearchQueryTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Test
+    @DisplayName("Should read a user's orders in a single branch with the status and product filters")
+    void testSingleBranch_UserStatusesAndProduct() {
+        OrderSearchCriteria criteria = OrderSearchCriteria.builder()
+                .userId(1L)
+                .statuses(Set.of(OrderStatus.SHIPPED, OrderStatus.PENDING))
+                .from(FROM)
+                .productId(42L)
+                .build();
+
+        OrderSearchQuery query = OrderSearchQuery.build(criteria, OrderSearchService.Sort.DATE_DESC, null, null, 21);
+
+        assertEquals("""
+                SELECT o.id, o.order_date AS sort_key FROM orders o
+                WHERE o.user_id = ? AND o.status IN (?, ?) AND o.order_date >= ? \
+                AND (o.id, o.order_date) IN (SELECT i.order_id, i.order_date FROM order_items i \
+                WHERE i.product_id = ? AND i.order_date >= ?)
+                ORDER BY o.order_date DESC, o.id DESC
+                LIMIT ?""", query.sql());
+        assertEquals(Arrays.asList(1L, "PENDING", "SHIPPED", Timestamp.valueOf(FROM), 42L, Timestamp.valueOf(FROM), 21),
+                query.args());
+    }
+
+    @Test
+    @DisplayName("Should merge one limited branch per status with UNION ALL and resume after the cursor row")
+    void testUnionAllPerStatus_RowComparison() {
+        OrderSearchCriteria criteria = OrderSearchCriteria.builder()
+                .statuses(Set.of(OrderStatus.CONFIRMED, OrderStatus.PENDING))
+                .build();
+        BigDecimal afterKey = new BigDecimal("10.00");
+
+        OrderSearchQuery query = OrderSearchQuery.build(criteria, OrderSearchService.Sort.AMOUNT_ASC, afterKey, 5L, 11);
+
+        String branch = """
+                SELECT o.id, o.total_amount AS sort_key FROM orders o
+                WHERE o.status = ? AND (o.total_amount, o.id) > (?, ?)
+                ORDER BY o.total_amount ASC, o.id ASC
+                LIMIT ?""";
+        assertEquals("SELECT id, sort_key FROM (\n(" + branch + ")\nUNION ALL\n(" + branch + ")\n) branches\n"
+                + "ORDER BY sort_key ASC, id ASC\nLIMIT ?", query.sql());
+        assertEquals(List.of("PENDING", afterKey, 5L, 11, "CONFIRMED", afterKey, 5L, 11, 11), query.args());
+    }
+
+    @Test
+    @DisplayName("Should add a plain bound on order_date next to the row comparison for partition pruning")
+    void testDateCursor_PartitionBound() {
+        Timestamp afterKey = Timestamp.valueOf(FROM);
+
+        OrderSearchQuery query = OrderSearchQuery.build(new OrderSearchCriteria(), OrderSearchService.Sort.DATE_DESC,
+                afterKey, 7L, 3);
+
+        assertEquals("""
+                SELECT o.id, o.order_date AS sort_key FROM orders o
+                WHERE o.order_date <= ? AND (o.order_date, o.id) < (?, ?)
+                ORDER BY o.order_date DESC, o.id DESC
+                LIMIT ?""", query.sql());
+        assertEquals(List.of(afterKey, afterKey, 7L, 3), query.args());
+    }
+
+    @Test
+    @DisplayName("Should resume the next page from the exact sort key carried by the cursor")
+    void testCursorRoundTrip() throws SQLException {
+        // Date a la microseconde : la reprise doit utiliser la cle exacte de la derniere ligne
+        LocalDateTime first = LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123456000);
+        LocalDateTime second = first.minusMinutes(5);
+        List<ResultSet> rows = List.of(row(1L, first), row(2L, second));
+        List<Object[]> calls = new ArrayList<>();
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(call -> {
+            // Arguments de la requete, transmis en varargs apres le RowMapper
+            calls.add(Arrays.copyOfRange(call.getArguments(), 2, call.getArguments().length));
+            RowMapper<?> mapper = call.getArgument(1);
+            List<Object> hits = new ArrayList<>();
+            // Premiere page : deux lignes pour une page d'une ; seconde page : la ligne suivant le curseur
+            List<ResultSet> page = calls.size() == 1 ? rows : rows.subList(1, 2);
+            for (int i = 0; i < page.size(); i++) {
+                hits.add(mapper.mapRow(page.get(i), i));
+            }
+            return hits;
+        });
+        when(orderRepository.findSummariesByIdIn(any())).thenAnswer(call -> call.<List<Long>>getArgument(0).stream()
+                .map(id -> OrderSummaryDTO.builder().id(id).build())
+                .toList());
+        OrderSearchService service = new OrderSearchService(jdbcTemplate, orderRepository,
+                mock(OrderViewRepository.class), mock(OrderReadModelService.class));
+        OrderSearchCriteria criteria = new OrderSearchCriteria();
+
+        OrderPageDTO<OrderSummaryDTO> firstPage = service.searchSummaries(criteria, OrderSearchService.Sort.DATE_DESC, null, 1);
+
+        assertEquals(new OrderSearchCursor("DATE_DESC", first.toString(), 1L),
+                OrderSearchCursor.decode(firstPage.getNextCursor()));
+
+        OrderPageDTO<OrderSummaryDTO> secondPage = service.searchSummaries(criteria, OrderSearchService.Sort.DATE_DESC,
+                firstPage.getNextCursor(), 1);
+
+        assertEquals(2L, secondPage.getContent().get(0).getId());
+        assertNull(secondPage.getNextCursor());
+        assertEquals(List.of(Timestamp.valueOf(first), Timestamp.valueOf(first), 1L, 2), Arrays.asList(calls.get(1)));
+
+        // Curseur d'un autre tri ou illisible
+        assertThrows(IllegalArgumentException.class, () -> service.searchSummaries(criteria,
+                OrderSearchService.Sort.AMOUNT_DESC, firstPage.getNextCursor(), 1));
+        assertThrows(IllegalArgumentException.class, () -> OrderSearchCursor.decode("pas-un-curseur"));
+    }
+
+    private static ResultSet row(long id, LocalDateTime orderDate) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getTimestamp("sort_key")).thenReturn(Timestamp.valueOf(orderDate));
+        return rs;
+    }
+}
@@ -1,29 +1,62 @@
 package com.episen.order.application.service;
 
+import com.episen.order.application.dto.BulkStatusUpdateReportDTO;
+import com.episen.order.application.dto.BulkStatusUpdateRequest;
+import com.episen.order.application.dto.BulkStatusUpdateResultDTO;
 import com.episen.order.application.dto.OrderItemRequestDTO;
+import com.episen.order.application.dto.OrderItemResponseDTO;
+import com.episen.order.application.dto.OrderPageDTO;
 import com.episen.order.application.dto.OrderRequestDTO;
 import com.episen.order.application.dto.OrderResponseDTO;
+import com.episen.order.application.dto.OrderStatusEventDTO;
+import com.episen.order.application.dto.OrderSummaryDTO;
+import com.episen.order.application.dto.PricingRuleDTO;
 import com.episen.order.domain.entity.Order;
 import com.episen.order.domain.entity.OrderItem;
+import com.episen.order.domain.enums.Category;
 import com.episen.order.domain.enums.OrderStatus;
+import com.episen.order.domain.repository.OrderArchiveSegmentRepository;
+import com.episen.order.domain.repository.OrderItemRepository;
 import com.episen.order.domain.repository.OrderRepository;
+import com.episen.order.domain.repository.OrderViewRepository;
+import com.episen.order.infrastructure.archive.OrderArchive;
+import com.episen.order.infrastructure.client.ProductClient;
+import com.episen.order.infrastructure.concurrent.RemoteCallExecutor;
+import com.episen.order.infrastructure.config.OrderPricingProperties;
 import com.episen.order.infrastructure.exception.ResourceNotFoundException;
+import com.episen.order.infrastructure.monitoring.OrderActivityWindows;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,7 +76,52 @@ class OrderServiceTest {
     private com.episen.order.infrastructure.client.ProductClient productClient;
 
     @Mock
-    private com.episen.order.infrastructure.client.MembershipClient membershipClient;
+    private com.episen.order.infrastructure.client.UserExistenceCache userExistenceCache;
+
+    @Mock
+    private StockEventPublisher stockEventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private OrderIdempotencyService orderIdempotencyService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OrderViewRepository orderViewRepository;
+
+    @Mock
+    private OrderReadModelService orderReadModelService;
+
+    @Mock
+    private TopProductsService topProductsService;
+
+    @Mock
+    private ProductRecommendationService productRecommendationService;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private OrderArchive orderArchive;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private RemoteCallExecutor remoteCallExecutor = new RemoteCallExecutor(5000);
+
+    @Spy
+    private OrderActivityWindows orderActivityWindows = new OrderActivityWindows();
+
+    @Spy
+    private OrderPricingService orderPricingService = new OrderPricingService(new OrderPricingProperties(List.of()));
 
     @InjectMocks
     private OrderService orderService;
@@ -119,6 +197,20 @@ class OrderServiceTest {
         verify(orderRepository, times(1)).findByIdWithItems(999L);
     }
 
+    @Test
+    @DisplayName("Should serve an order from the read model without loading entities")
+    void testGetOrderById_FromReadModel() {
+        OrderResponseDTO expectedResponse = OrderResponseDTO.builder().id(1L).status(OrderStatus.PENDING).build();
+        when(orderViewRepository.findDocumentByOrderId(1L)).thenReturn(Optional.of("{\"id\":1}"));
+        when(orderReadModelService.toDto("{\"id\":1}")).thenReturn(expectedResponse);
+
+        OrderResponseDTO result = orderService.getOrderById(1L);
+
+        assertSame(expectedResponse, result);
+        verify(orderRepository, never()).findByIdWithItems(anyLong());
+        verifyNoInteractions(orderMapper);
+    }
+
     @Test
     @DisplayName("Should update order status successfully")
     void testUpdateOrderStatus_Success() {
@@ -126,7 +218,7 @@ class OrderServiceTest {
         expectedResponse.setId(1L);
         expectedResponse.setStatus(OrderStatus.CONFIRMED);
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.findByIdWithItems(1L)).thenReturn(Optional.of(testOrder));
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
         when(orderMapper.toDto(any(Order.class))).thenReturn(expectedResponse);
 
@@ -135,47 +227,61 @@ class OrderServiceTest {
         assertNotNull(result);
         assertEquals(OrderStatus.CONFIRMED, result.getStatus());
 
-        verify(orderRepository, times(1)).findById(1L);
+        verify(orderRepository, times(1)).findByIdWithItems(1L);
         verify(orderRepository, times(1)).save(any(Order.class));
+        verify(salesRollupService, times(1)).recordStatusChange(testOrder, OrderStatus.PENDING);
+        verify(stockEventPublisher, never()).enqueueRelease(any());
     }
 
     @Test
     @DisplayName("Should throw exception when trying to update status of delivered order")
     void testUpdateOrderStatus_DeliveredOrder_ShouldThrowException() {
         testOrder.setStatus(OrderStatus.DELIVERED);
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.findByIdWithItems(1L)).thenReturn(Optional.of(testOrder));
 
         assertThrows(IllegalStateException.class, () -> {
             orderService.updateOrderStatus(1L, OrderStatus.CONFIRMED);
         });
 
-        verify(orderRepository, times(1)).findById(1L);
+        verify(orderRepository, times(1)).findByIdWithItems(1L);
         verify(orderRepository, never()).save(any(Order.class));
     }
 
     @Test
     @DisplayName("Should cancel order successfully")
     void testCancelOrder_Success() {
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.findByIdWithItems(1L)).thenReturn(Optional.of(testOrder));
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
 
         orderService.cancelOrder(1L);
 
-        verify(orderRepository, times(1)).findById(1L);
+        verify(orderRepository, times(1)).findByIdWithItems(1L);
         verify(orderRepository, times(1)).save(any(Order.class));
+        verify(stockEventPublisher, times(1)).enqueueRelease(testOrder);
+        verify(topProductsService, times(1)).recordCancelled(testOrder);
+        verify(productRecommendationService, times(1)).recordCancelled(testOrder);
+        OrderActivityWindows.WindowStats lastMinute = orderActivityWindows.stats(OrderActivityWindows.Window.ONE_MINUTE);
+        assertEquals(1, lastMinute.cancelledOrders());
+        assertEquals(new BigDecimal("100.00"), lastMinute.cancelledRevenue());
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) -> event instanceof OrderStatusEventDTO statusEvent
+                && statusEvent.getOrderId().equals(1L)
+                && statusEvent.getPreviousStatus() == OrderStatus.PENDING
+                && statusEvent.getStatus() == OrderStatus.CANCELLED));
+        verify(salesRollupService, times(1)).recordStatusChange(testOrder, OrderStatus.PENDING);
+        verify(orderReadModelService, times(1)).refresh(List.of(1L));
     }
 
     @Test
     @DisplayName("Should throw exception when trying to cancel already cancelled order")
     void testCancelOrder_AlreadyCancelled_ShouldThrowException() {
         testOrder.setStatus(OrderStatus.CANCELLED);
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.findByIdWithItems(1L)).thenReturn(Optional.of(testOrder));
 
         assertThrows(IllegalStateException.class, () -> {
             orderService.cancelOrder(1L);
         });
 
-        verify(orderRepository, times(1)).findById(1L);
+        verify(orderRepository, times(1)).findByIdWithItems(1L);
         verify(orderRepository, never()).save(any(Order.class));
     }
 
@@ -186,16 +292,20 @@ class OrderServiceTest {
         expectedResponse.setId(1L);
         expectedResponse.setUserId(1L);
 
-        when(orderRepository.findByUserId(1L)).thenReturn(List.of(testOrder));
-        when(orderMapper.toDto(testOrder)).thenReturn(expectedResponse);
+        when(orderRepository.findFirstPageIdsByUserId(eq(1L), any(Pageable.class))).thenReturn(List.of(1L));
+        when(orderViewRepository.findDocumentsByOrderIdIn(List.of(1L)))
+                .thenReturn(List.of(document(1L, testOrder.getOrderDate(), "{\"id\":1}")));
+        when(orderReadModelService.toDto("{\"id\":1}")).thenReturn(expectedResponse);
 
-        List<OrderResponseDTO> results = orderService.getOrdersByUserId(1L);
+        OrderPageDTO<OrderResponseDTO> page = orderService.getOrdersByUserId(1L, null, 50);
 
-        assertNotNull(results);
-        assertEquals(1, results.size());
-        assertEquals(1L, results.get(0).getUserId());
+        assertNotNull(page.getContent());
+        assertEquals(1, page.getContent().size());
+        assertEquals(1L, page.getContent().get(0).getUserId());
+        assertNull(page.getNextCursor());
 
-        verify(orderRepository, times(1)).findByUserId(1L);
+        verify(orderRepository, times(1)).findFirstPageIdsByUserId(eq(1L), any(Pageable.class));
+        verify(orderRepository, never()).findAllWithItemsByIdIn(any());
     }
 
     @Test
@@ -205,16 +315,18 @@ class OrderServiceTest {
         expectedResponse.setId(1L);
         expectedResponse.setStatus(OrderStatus.PENDING);
 
-        when(orderRepository.findByStatusWithItems(OrderStatus.PENDING)).thenReturn(List.of(testOrder));
-        when(orderMapper.toDto(testOrder)).thenReturn(expectedResponse);
+        when(orderRepository.findFirstPageIdsByStatus(eq(OrderStatus.PENDING), any(Pageable.class))).thenReturn(List.of(1L));
+        when(orderViewRepository.findDocumentsByOrderIdIn(List.of(1L)))
+                .thenReturn(List.of(document(1L, testOrder.getOrderDate(), "{\"id\":1}")));
+        when(orderReadModelService.toDto("{\"id\":1}")).thenReturn(expectedResponse);
 
-        List<OrderResponseDTO> results = orderService.getOrdersByStatus(OrderStatus.PENDING);
+        OrderPageDTO<OrderResponseDTO> page = orderService.getOrdersByStatus(OrderStatus.PENDING, null, 50);
 
-        assertNotNull(results);
-        assertEquals(1, results.size());
-        assertEquals(OrderStatus.PENDING, results.get(0).getStatus());
+        assertNotNull(page.getContent());
+        assertEquals(1, page.getContent().size());
+        assertEquals(OrderStatus.PENDING, page.getContent().get(0).getStatus());
 
-        verify(orderRepository, times(1)).findByStatusWithItems(OrderStatus.PENDING);
+        verify(orderRepository, times(1)).findFirstPageIdsByStatus(eq(OrderStatus.PENDING), any(Pageable.class));
     }
 
     @Test
@@ -223,14 +335,417 @@ class OrderServiceTest {
         OrderResponseDTO expectedResponse = new OrderResponseDTO();
         expectedResponse.setId(1L);
 
-        when(orderRepository.findAllWithItems()).thenReturn(List.of(testOrder));
-        when(orderMapper.toDto(testOrder)).thenReturn(expectedResponse);
+        when(orderRepository.findFirstPageIds(any(Pageable.class))).thenReturn(List.of(1L));
+        when(orderViewRepository.findDocumentsByOrderIdIn(List.of(1L)))
+                .thenReturn(List.of(document(1L, testOrder.getOrderDate(), "{\"id\":1}")));
+        when(orderReadModelService.toDto("{\"id\":1}")).thenReturn(expectedResponse);
+
+        OrderPageDTO<OrderResponseDTO> page = orderService.getAllOrders(null, 50);
+
+        assertNotNull(page.getContent());
+        assertEquals(1, page.getContent().size());
+        assertNull(page.getNextCursor());
+
+        verify(orderRepository, times(1)).findFirstPageIds(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should load from the entities the listed orders missing from the read model")
+    void testGetAllOrders_ReadModelFallback() {
+        Order missing = Order.builder()
+                .id(2L)
+                .userId(1L)
+                .orderDate(testOrder.getOrderDate().minusDays(1))
+                .status(OrderStatus.PENDING)
+                .totalAmount(new BigDecimal("5.00"))
+                .shippingAddress("123 Test Street")
+                .items(new ArrayList<>())
+                .build();
+        when(orderRepository.findFirstPageIds(any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(orderViewRepository.findDocumentsByOrderIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(document(1L, testOrder.getOrderDate(), "{\"id\":1}")));
+        when(orderReadModelService.toDto("{\"id\":1}")).thenReturn(OrderResponseDTO.builder().id(1L).build());
+        when(orderRepository.findAllWithItemsByIdIn(List.of(2L))).thenReturn(List.of(missing));
+        when(orderMapper.toDto(missing)).thenReturn(OrderResponseDTO.builder().id(2L).build());
+
+        OrderPageDTO<OrderResponseDTO> page = orderService.getAllOrders(null, 50);
+
+        assertEquals(List.of(1L, 2L), page.getContent().stream().map(OrderResponseDTO::getId).toList());
+        assertEquals(1.0, meterRegistry.get("orders.read_model.fallback").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should return a cursor when more orders remain and resume after it")
+    void testGetAllOrders_KeysetCursor() {
+        // Date a la microseconde : le curseur doit reprendre la date exacte, pas celle du document
+        LocalDateTime orderDate = LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123456000);
+        when(orderRepository.findFirstPageIds(PageRequest.ofSize(2))).thenReturn(List.of(1L, 2L));
+        when(orderViewRepository.findDocumentsByOrderIdIn(List.of(1L)))
+                .thenReturn(List.of(document(1L, orderDate, "{\"id\":1}")));
+        when(orderReadModelService.toDto(anyString())).thenAnswer(invocation ->
+                OrderResponseDTO.builder().id(invocation.getArgument(0, String.class).contains("1") ? 1L : 2L).build());
+
+        OrderPageDTO<OrderResponseDTO> firstPage = orderService.getAllOrders(null, 1);
+
+        assertEquals(1, firstPage.getContent().size());
+        assertNotNull(firstPage.getNextCursor());
+
+        when(orderRepository.findPageIdsAfter(orderDate, 1L, PageRequest.ofSize(2))).thenReturn(List.of(2L));
+        when(orderViewRepository.findDocumentsByOrderIdIn(List.of(2L)))
+                .thenReturn(List.of(document(2L, orderDate.minusMinutes(5), "{\"id\":2}")));
+
+        OrderPageDTO<OrderResponseDTO> secondPage = orderService.getAllOrders(firstPage.getNextCursor(), 1);
+
+        assertEquals(1, secondPage.getContent().size());
+        assertEquals(2L, secondPage.getContent().get(0).getId());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should list order summaries from the projection without loading items")
+    void testGetOrderSummariesByStatus() {
+        OrderSummaryDTO summary = OrderSummaryDTO.builder()
+                .id(1L)
+                .userId(1L)
+                .orderDate(testOrder.getOrderDate())
+                .status(OrderStatus.PENDING)
+                .totalAmount(new BigDecimal("100.00"))
+                .itemCount(1L)
+                .build();
+        when(orderRepository.findFirstPageIdsByStatus(eq(OrderStatus.PENDING), any(Pageable.class))).thenReturn(List.of(1L));
+        when(orderRepository.findSummariesByIdIn(List.of(1L))).thenReturn(List.of(summary));
 
-        List<OrderResponseDTO> results = orderService.getAllOrders();
+        OrderPageDTO<OrderSummaryDTO> page = orderService.getOrderSummariesByStatus(OrderStatus.PENDING, null, 50);
 
-        assertNotNull(results);
-        assertEquals(1, results.size());
+        assertEquals(List.of(summary), page.getContent());
+        assertNull(page.getNextCursor());
+        verify(orderRepository, never()).findAllWithItemsByIdIn(any());
+        verifyNoInteractions(orderMapper);
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid page size or cursor")
+    void testGetAllOrders_InvalidPaging() {
+        assertThrows(IllegalArgumentException.class, () -> orderService.getAllOrders(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> orderService.getAllOrders(null, OrderService.MAX_PAGE_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> orderService.getAllOrders("not-a-cursor", 10));
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    @DisplayName("Should resolve all products in a single call and merge duplicate lines")
+    void testCreateOrder_BatchProductLookup() {
+        ProductClient.ProductResponseDTO product = new ProductClient.ProductResponseDTO();
+        product.setId(1L);
+        product.setName("Test Product");
+        product.setPrice(new BigDecimal("50.00"));
+        product.setStock(5);
+
+        OrderRequestDTO request = OrderRequestDTO.builder()
+                .userId(1L)
+                .shippingAddress("123 Test Street")
+                .items(List.of(
+                        OrderItemRequestDTO.builder().productId(1L).quantity(2).build(),
+                        OrderItemRequestDTO.builder().productId(1L).quantity(3).build()))
+                .build();
+
+        when(userExistenceCache.userExists(1L)).thenReturn(true);
+        when(productClient.getProducts(List.of(1L, 1L))).thenReturn(Map.of(1L, product));
+        when(orderItemMapper.toEntity(any(OrderItemRequestDTO.class), eq("Test Product"), eq(new BigDecimal("50.00"))))
+                .thenAnswer(invocation -> OrderItem.builder()
+                        .productId(1L)
+                        .quantity(((OrderItemRequestDTO) invocation.getArgument(0)).getQuantity())
+                        .unitPrice(new BigDecimal("50.00"))
+                        .build());
+        when(orderMapper.toEntity(any(OrderRequestDTO.class), any())).thenReturn(testOrder);
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        when(orderMapper.toDto(testOrder)).thenReturn(new OrderResponseDTO());
+
+        orderService.createOrder(request);
+
+        verify(productClient, times(1)).getProducts(any());
+        verify(productClient, never()).getProduct(anyLong());
+        verify(stockEventPublisher, times(1)).enqueueReservation(testOrder, Map.of(1L, 5));
+        verify(salesRollupService, times(1)).recordCreated(testOrder);
+        // Cumul du jour mis a jour en dernier dans la transaction
+        InOrder writes = inOrder(stockEventPublisher, orderReadModelService, salesRollupService);
+        writes.verify(stockEventPublisher).enqueueReservation(testOrder, Map.of(1L, 5));
+        writes.verify(orderReadModelService).refresh(List.of(testOrder.getId()));
+        writes.verify(salesRollupService).recordCreated(testOrder);
+        verify(topProductsService, times(1)).recordCreated(testOrder, Map.of(1L, product));
+        verify(productRecommendationService, times(1)).recordCreated(testOrder);
+        OrderActivityWindows.WindowStats lastMinute = orderActivityWindows.stats(OrderActivityWindows.Window.ONE_MINUTE);
+        assertEquals(1, lastMinute.orders());
+        assertEquals(2, lastMinute.items());
+        assertEquals(new BigDecimal("100.00"), lastMinute.revenue());
+        assertEquals(new BigDecimal("100.00"), lastMinute.averageBasket());
+        assertEquals(1, orderActivityWindows.stats(OrderActivityWindows.Window.ONE_HOUR).orders());
+        verify(orderIdempotencyService, never()).recordResponse(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should record the idempotent response in the order transaction")
+    void testCreateOrder_RecordsIdempotentResponse() {
+        ProductClient.ProductResponseDTO product = new ProductClient.ProductResponseDTO();
+        product.setId(1L);
+        product.setName("Test Product");
+        product.setPrice(new BigDecimal("50.00"));
+        product.setStock(5);
+
+        OrderRequestDTO request = OrderRequestDTO.builder()
+                .userId(1L)
+                .shippingAddress("123 Test Street")
+                .items(List.of(OrderItemRequestDTO.builder().productId(1L).quantity(1).build()))
+                .build();
+        OrderIdempotencyService.Claim claim = new OrderIdempotencyService.Claim("user@test.com", "key-1", "token-1");
+        OrderResponseDTO response = OrderResponseDTO.builder().id(1L).build();
+
+        when(userExistenceCache.userExists(1L)).thenReturn(true);
+        when(productClient.getProducts(List.of(1L))).thenReturn(Map.of(1L, product));
+        when(orderItemMapper.toEntity(any(OrderItemRequestDTO.class), eq("Test Product"), eq(new BigDecimal("50.00"))))
+                .thenReturn(OrderItem.builder().productId(1L).quantity(1).unitPrice(new BigDecimal("50.00")).build());
+        when(orderMapper.toEntity(any(OrderRequestDTO.class), any())).thenReturn(testOrder);
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        when(orderMapper.toDto(testOrder)).thenReturn(response);
+
+        OrderResponseDTO created = orderService.createOrder(request, claim);
+
+        assertEquals(response, created);
+        verify(orderIdempotencyService, times(1)).recordResponse(claim, response);
+    }
+
+    @Test
+    @DisplayName("Should reject order when cumulated quantity exceeds stock")
+    void testCreateOrder_InsufficientStockAcrossDuplicateLines() {
+        ProductClient.ProductResponseDTO product = new ProductClient.ProductResponseDTO();
+        product.setId(1L);
+        product.setName("Test Product");
+        product.setPrice(new BigDecimal("50.00"));
+        product.setStock(4);
+
+        OrderRequestDTO request = OrderRequestDTO.builder()
+                .userId(1L)
+                .shippingAddress("123 Test Street")
+                .items(List.of(
+                        OrderItemRequestDTO.builder().productId(1L).quantity(2).build(),
+                        OrderItemRequestDTO.builder().productId(1L).quantity(3).build()))
+                .build();
+
+        when(userExistenceCache.userExists(1L)).thenReturn(true);
+        when(productClient.getProducts(any())).thenReturn(Map.of(1L, product));
+
+        assertThrows(IllegalStateException.class, () -> orderService.createOrder(request));
+
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(stockEventPublisher, never()).enqueueReservation(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should fail fast and skip persistence when user does not exist")
+    void testCreateOrder_UnknownUser() {
+        OrderRequestDTO request = OrderRequestDTO.builder()
+                .userId(42L)
+                .shippingAddress("123 Test Street")
+                .items(List.of(OrderItemRequestDTO.builder().productId(1L).quantity(1).build()))
+                .build();
+
+        when(userExistenceCache.userExists(42L)).thenReturn(false);
+        lenient().when(productClient.getProducts(any())).thenReturn(Map.of());
+
+        assertThrows(ResourceNotFoundException.class, () -> orderService.createOrder(request));
+
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(stockEventPublisher, never()).enqueueReservation(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should report updated, finished and unknown orders of a bulk status transition")
+    void testBulkUpdateStatus_ByIds() {
+        OrderRepository.StatusTransition transition = mock(OrderRepository.StatusTransition.class);
+        when(transition.getId()).thenReturn(1L);
+        when(transition.getPreviousStatus()).thenReturn("CONFIRMED");
+        OrderRepository.OrderStatusView delivered = mock(OrderRepository.OrderStatusView.class);
+        when(delivered.getId()).thenReturn(2L);
+        when(delivered.getStatus()).thenReturn(OrderStatus.DELIVERED);
+
+        when(orderRepository.transitionStatusByIds(any(), eq("SHIPPED"))).thenReturn(List.of(transition));
+        when(orderRepository.findStatusesByIdIn(List.of(2L, 3L))).thenReturn(List.of(delivered));
+
+        BulkStatusUpdateReportDTO report = orderService.bulkUpdateStatus(BulkStatusUpdateRequest.builder()
+                .status(OrderStatus.SHIPPED)
+                .ids(List.of(1L, 2L, 3L))
+                .build());
+
+        assertEquals(1, report.getUpdated());
+        assertEquals(2, report.getRejected());
+        assertEquals(List.of(BulkStatusUpdateResultDTO.Outcome.UPDATED,
+                        BulkStatusUpdateResultDTO.Outcome.NOT_MODIFIABLE,
+                        BulkStatusUpdateResultDTO.Outcome.NOT_FOUND),
+                report.getResults().stream().map(BulkStatusUpdateResultDTO::getOutcome).toList());
+        assertEquals(OrderStatus.CONFIRMED, report.getResults().get(0).getPreviousStatus());
+        verify(salesRollupService, times(1)).recordStatusChanges(List.of(transition), OrderStatus.SHIPPED);
+        verify(stockEventPublisher, never()).enqueueReleases(any());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("Should reject a bulk status transition without ids nor filter")
+    void testBulkUpdateStatus_RequiresIdsOrFilter() {
+        BulkStatusUpdateRequest request = BulkStatusUpdateRequest.builder()
+                .status(OrderStatus.SHIPPED)
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.bulkUpdateStatus(request));
+
+        verifyNoInteractions(salesRollupService);
+    }
+
+    @Test
+    @DisplayName("Should price each line at unit price times quantity when no pricing rule applies")
+    void testPricing_WithoutRules() {
+        Order order = Order.builder().userId(1L).shippingAddress("123 Test Street").build();
+        order.addItem(OrderItem.builder().productId(1L).quantity(3).unitPrice(new BigDecimal("19.99")).build());
+        order.addItem(OrderItem.builder().productId(2L).quantity(2).unitPrice(new BigDecimal("5.50")).build());
+        order.addItem(OrderItem.builder().productId(3L).quantity(7).unitPrice(new BigDecimal("0.10")).build());
+
+        orderPricingService.price(order, Map.of());
+
+        assertEquals(new BigDecimal("59.97"), order.getItems().get(0).getSubtotal());
+        assertEquals(new BigDecimal("11.00"), order.getItems().get(1).getSubtotal());
+        assertEquals(new BigDecimal("0.70"), order.getItems().get(2).getSubtotal());
+        assertEquals(new BigDecimal("71.67"), order.getTotalAmount());
+    }
+
+    @Test
+    @DisplayName("Should apply bundle, category and basket threshold rules with lines summing to the total")
+    void testPricing_WithRules() {
+        orderPricingService.activateRules(1L, List.of(
+                PricingRuleDTO.builder().type(PricingRuleDTO.Type.CATEGORY_PERCENT_OFF)
+                        .category(Category.BOOKS).percentOff(new BigDecimal("10")).build(),
+                PricingRuleDTO.builder().type(PricingRuleDTO.Type.BUY_N_GET_M)
+                        .productId(2L).buyQuantity(2).freeQuantity(1).build(),
+                PricingRuleDTO.builder().type(PricingRuleDTO.Type.BASKET_THRESHOLD)
+                        .minAmount(new BigDecimal("50.00")).amountOff(new BigDecimal("5.00")).build()));
+        Order order = Order.builder().userId(1L).shippingAddress("123 Test Street").build();
+        order.addItem(OrderItem.builder().productId(1L).quantity(2).unitPrice(new BigDecimal("20.00")).build());
+        order.addItem(OrderItem.builder().productId(2L).quantity(3).unitPrice(new BigDecimal("3.00")).build());
+        order.addItem(OrderItem.builder().productId(3L).quantity(1).unitPrice(new BigDecimal("15.00")).build());
+
+        orderPricingService.price(order, Map.of(
+                1L, product(1L, "BOOKS"),
+                2L, product(2L, "FOOD"),
+                3L, product(3L, "ELECTRONICS")));
+
+        // 36.00 (10 % sur les livres), 6.00 (un article offert), 15.00 ; 5.00 de remise repartie au prorata
+        assertEquals(new BigDecimal("32.84"), order.getItems().get(0).getSubtotal());
+        assertEquals(new BigDecimal("5.47"), order.getItems().get(1).getSubtotal());
+        assertEquals(new BigDecimal("13.69"), order.getItems().get(2).getSubtotal());
+        assertEquals(new BigDecimal("52.00"), order.getTotalAmount());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid pricing rules and keep the active ones")
+    void testPricing_InvalidRules() {
+        PricingRuleDTO booksOff = PricingRuleDTO.builder().type(PricingRuleDTO.Type.CATEGORY_PERCENT_OFF)
+                .category(Category.BOOKS).percentOff(new BigDecimal("10")).build();
+
+        assertThrows(IllegalArgumentException.class, () -> orderPricingService.activateRules(1L, List.of(booksOff, booksOff)));
+        assertThrows(IllegalArgumentException.class, () -> orderPricingService.activateRules(1L, List.of(
+                PricingRuleDTO.builder().type(PricingRuleDTO.Type.CATEGORY_PERCENT_OFF)
+                        .category(Category.BOOKS).percentOff(new BigDecimal("12.345")).build())));
+        assertThrows(IllegalArgumentException.class, () -> orderPricingService.activateRules(1L, List.of(
+                PricingRuleDTO.builder().type(PricingRuleDTO.Type.BUY_N_GET_M).buyQuantity(2).freeQuantity(1).build())));
+        assertTrue(orderPricingService.getRules().isEmpty());
+    }
+
+    private static ProductClient.ProductResponseDTO product(Long id, String category) {
+        ProductClient.ProductResponseDTO product = new ProductClient.ProductResponseDTO();
+        product.setId(id);
+        product.setCategory(category);
+        return product;
+    }
+
+    @Test
+    @DisplayName("Should read archived orders by id and in the user history after they left the database")
+    void testArchive_TransparentFallback(@TempDir Path directory) {
+        LocalDateTime archivedDate = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_456_000);
+        Order archived = Order.builder()
+                .id(5L)
+                .userId(1L)
+                .orderDate(archivedDate)
+                .status(OrderStatus.DELIVERED)
+                .totalAmount(new BigDecimal("30.50"))
+                .shippingAddress("1 Archive Road")
+                .createdAt(archivedDate)
+                .updatedAt(archivedDate.plusDays(3))
+                .items(new ArrayList<>())
+                .build();
+        archived.addItem(OrderItem.builder().id(9L).productId(42L).productName("Old Book").quantity(1)
+                .unitPrice(new BigDecimal("20.50")).subtotal(new BigDecimal("20.50")).build());
+        archived.addItem(OrderItem.builder().id(10L).productId(43L).productName("Old Pen").quantity(2)
+                .unitPrice(new BigDecimal("5.00")).subtotal(new BigDecimal("10.00")).build());
+        Order otherUser = Order.builder().id(6L).userId(2L).orderDate(archivedDate).status(OrderStatus.CANCELLED)
+                .totalAmount(new BigDecimal("1.00")).createdAt(archivedDate).updatedAt(archivedDate)
+                .items(new ArrayList<>()).build();
+        TransactionTemplate catalogTransactions = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        OrderArchiveSegmentRepository catalog = OrderArchiveServiceTest.inMemoryCatalog();
+        new OrderArchive(directory.resolve("archiver"), catalog, catalogTransactions).append(List.of(otherUser, archived));
+
+        // Segment copie depuis le catalogue par une autre instance
+        OrderArchive reopened = new OrderArchive(directory.resolve("reader"), catalog, catalogTransactions);
+        when(orderArchive.findOrder(anyLong())).thenAnswer(call -> reopened.findOrder(call.getArgument(0)));
+        when(orderArchive.containsUser(1L)).thenAnswer(call -> reopened.containsUser(1L));
+        when(orderArchive.findByUserId(eq(1L), any(), anyInt()))
+                .thenAnswer(call -> reopened.findByUserId(1L, call.getArgument(1), call.getArgument(2)));
+        when(orderArchive.containsProduct(43L)).thenAnswer(call -> reopened.containsProduct(43L));
+
+        OrderResponseDTO byId = orderService.getOrderById(5L);
+        assertEquals(archivedDate, byId.getOrderDate());
+        assertEquals(OrderStatus.DELIVERED, byId.getStatus());
+        assertEquals(new BigDecimal("30.50"), byId.getTotalAmount());
+        assertEquals("1 Archive Road", byId.getShippingAddress());
+        assertEquals(List.of("Old Book", "Old Pen"), byId.getItems().stream().map(OrderItemResponseDTO::getProductName).toList());
+        assertEquals(new BigDecimal("10.00"), byId.getItems().get(1).getSubtotal());
+        assertThrows(ResourceNotFoundException.class, () -> orderService.getOrderById(7L));
+
+        // Historique : la commande en base puis, page suivante, la commande archivee
+        OrderResponseDTO hot = OrderResponseDTO.builder().id(1L).userId(1L).build();
+        when(orderRepository.findFirstPageIdsByUserId(eq(1L), any(Pageable.class))).thenReturn(List.of(1L));
+        when(orderViewRepository.findDocumentsByOrderIdIn(List.of(1L)))
+                .thenReturn(List.of(document(1L, testOrder.getOrderDate(), "{\"id\":1}")));
+        when(orderReadModelService.toDto("{\"id\":1}")).thenReturn(hot);
+
+        OrderPageDTO<OrderResponseDTO> first = orderService.getOrdersByUserId(1L, null, 1);
+        assertEquals(List.of(1L), first.getContent().stream().map(OrderResponseDTO::getId).toList());
+        assertNotNull(first.getNextCursor());
+
+        OrderPageDTO<OrderResponseDTO> second = orderService.getOrdersByUserId(1L, first.getNextCursor(), 1);
+        assertEquals(List.of(5L), second.getContent().stream().map(OrderResponseDTO::getId).toList());
+        assertNull(second.getNextCursor());
+
+        assertTrue(orderService.isProductInAnyOrder(43L));
+    }
 
-        verify(orderRepository, times(1)).findAllWithItems();
+    private static OrderViewRepository.OrderDocument document(Long orderId, LocalDateTime orderDate, String json) {
+        return new OrderViewRepository.OrderDocument() {
+            @Override
+            public Long getOrderId() {
+                return orderId;
+            }
+
+            @Override
+            public LocalDateTime getOrderDate() {
+                return orderDate;
+            }
+
+            @Override
+            public String getDocument() {
+                return json;
+            }
+        };
     }
 }
@@ -0,0 +1,109 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.PricingRuleDTO;
+import com.episen.order.domain.entity.PricingRuleVersion;
+import com.episen.order.domain.enums.Category;
+import com.episen.order.domain.repository.PricingRuleVersionRepository;
+import com.episen.order.infrastructure.config.OrderPricingProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Publication des regles de prix : version enregistree puis activee, adoption de la derniere
+ * version publiee par une autre instance, versions anterieures ignorees.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pricing Rule Service Tests")
+class PricingRuleServiceTest {
+
+    private static final PricingRuleDTO BOOKS_10 = PricingRuleDTO.builder()
+            .type(PricingRuleDTO.Type.CATEGORY_PERCENT_OFF)
+            .category(Category.BOOKS)
+            .percentOff(new BigDecimal("10"))
+            .build();
+
+    @Mock
+    private PricingRuleVersionRepository pricingRuleVersionRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private OrderPricingService orderPricingService;
+
+    private PricingRuleService pricingRuleService;
+
+    @BeforeEach
+    void setUp() {
+        orderPricingService = new OrderPricingService(new OrderPricingProperties(List.of()));
+        pricingRuleService = new PricingRuleService(pricingRuleVersionRepository, orderPricingService, objectMapper);
+    }
+
+    @Test
+    @DisplayName("Should record a new version and activate it on this instance")
+    void testPublish_RecordedAndActivated() throws Exception {
+        when(pricingRuleVersionRepository.save(any(PricingRuleVersion.class))).thenAnswer(call -> {
+            PricingRuleVersion version = call.getArgument(0);
+            version.setId(4L);
+            return version;
+        });
+
+        pricingRuleService.publish(List.of(BOOKS_10), "admin@test.com");
+
+        ArgumentCaptor<PricingRuleVersion> saved = ArgumentCaptor.forClass(PricingRuleVersion.class);
+        verify(pricingRuleVersionRepository).save(saved.capture());
+        assertEquals("admin@test.com", saved.getValue().getPublishedBy());
+        assertEquals(objectMapper.writeValueAsString(List.of(BOOKS_10)), saved.getValue().getRules());
+        assertEquals(4L, orderPricingService.getRulesVersion());
+        assertEquals(List.of(BOOKS_10), orderPricingService.getRules());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid rules without recording a version")
+    void testPublish_InvalidRules() {
+        PricingRuleDTO incomplete = PricingRuleDTO.builder().type(PricingRuleDTO.Type.BUY_N_GET_M).build();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> pricingRuleService.publish(List.of(incomplete), "admin@test.com"));
+
+        verify(pricingRuleVersionRepository, never()).save(any());
+        assertEquals(0L, orderPricingService.getRulesVersion());
+    }
+
+    @Test
+    @DisplayName("Should adopt the latest version published by another instance once")
+    void testRefresh_AdoptsLatestVersion() throws Exception {
+        when(pricingRuleVersionRepository.findLatestVersion()).thenReturn(3L);
+        when(pricingRuleVersionRepository.findById(3L)).thenReturn(Optional.of(PricingRuleVersion.builder()
+                .id(3L)
+                .rules(objectMapper.writeValueAsString(List.of(BOOKS_10)))
+                .build()));
+
+        pricingRuleService.refresh();
+        pricingRuleService.refresh();
+
+        verify(pricingRuleVersionRepository, times(1)).findById(3L);
+        assertEquals(3L, orderPricingService.getRulesVersion());
+        assertEquals(List.of(BOOKS_10), orderPricingService.getRules());
+        // Activation differee d'une publication plus ancienne
+        assertFalse(orderPricingService.activateRules(2L, List.of()));
+        assertEquals(List.of(BOOKS_10), orderPricingService.getRules());
+    }
+}
@@ -0,0 +1,165 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.BoughtTogetherDTO;
+import com.episen.order.application.dto.ProductRecommendationsDTO;
+import com.episen.order.domain.entity.Order;
+import com.episen.order.domain.entity.OrderItem;
+import com.episen.order.domain.entity.ProductPairCount;
+import com.episen.order.domain.repository.ProductPairCountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Produits achetes ensemble : construction de la matrice sous verrou consultatif, bornee au plus
+ * grand identifiant de commande, et commandes validees avant la fin du chargement.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Product Recommendation Service Tests")
+class ProductRecommendationServiceTest {
+
+    @Mock
+    private ProductPairCountRepository pairCountRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ProductRecommendationService recommendations;
+
+    @BeforeEach
+    void setUp() {
+        recommendations = new ProductRecommendationService(pairCountRepository, jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), 20, 50, 10, 2);
+    }
+
+    @Test
+    @DisplayName("Should recommend products bought together from backfilled and live orders")
+    void testBoughtTogether_CoOccurrence() {
+        when(pairCountRepository.count()).thenReturn(0L);
+        when(pairCountRepository.findMaxOrderId()).thenReturn(2L);
+        // Commande 1 : produits 1, 2, 3 (produit 2 sur deux lignes) ; commande 2 : produits 1, 2
+        when(pairCountRepository.findBasketLines(0L, 2L)).thenReturn(List.of(
+                basketLine(1L, 1L), basketLine(1L, 2L), basketLine(1L, 2L), basketLine(1L, 3L),
+                basketLine(2L, 1L), basketLine(2L, 2L)));
+
+        recommendations.load();
+        Order live = order(3L, 1L, 3L, 4L, 4L);
+        Order cancelled = order(4L, 1L, 4L);
+        // Hors transaction : comptees immediatement
+        recommendations.recordCreated(List.of(live, cancelled));
+        recommendations.recordCancelled(cancelled);
+        recommendations.refreshNeighbors();
+
+        ProductRecommendationsDTO forProduct1 = recommendations.getBoughtTogether(1L, 5);
+        assertEquals(List.of(2L, 3L, 4L), forProduct1.getProducts().stream().map(BoughtTogetherDTO::getProductId).toList());
+        assertEquals(List.of(2L, 2L, 1L), forProduct1.getProducts().stream().map(BoughtTogetherDTO::getOrderCount).toList());
+        assertEquals(List.of(1L), recommendations.getBoughtTogether(2L, 1).getProducts().stream()
+                .map(BoughtTogetherDTO::getProductId).toList());
+        assertTrue(recommendations.getBoughtTogether(99L, 5).getProducts().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> recommendations.getBoughtTogether(1L, 21));
+        assertEquals(4L, ProductRecommendationService.low(ProductRecommendationService.pairKey(4L, 0xFFFF_FFFFL)));
+        assertEquals(0xFFFF_FFFFL, ProductRecommendationService.high(ProductRecommendationService.pairKey(4L, 0xFFFF_FFFFL)));
+    }
+
+    @Test
+    @DisplayName("Should backfill under the advisory lock up to the max order id and skip the orders it counted")
+    void testLoad_BackfillUnderLock() {
+        when(pairCountRepository.count()).thenReturn(0L);
+        when(pairCountRepository.findMaxOrderId()).thenReturn(12L);
+        when(pairCountRepository.findBasketLines(0L, 9L)).thenReturn(List.of(basketLine(5L, 1L), basketLine(5L, 2L)));
+        when(pairCountRepository.findBasketLines(10L, 12L)).thenReturn(List.of(basketLine(11L, 1L), basketLine(11L, 2L)));
+        // Validees pendant le demarrage : la commande 11 est couverte par la construction, pas la 13
+        recommendations.recordCreated(List.of(order(11L, 1L, 2L), order(13L, 1L, 2L)));
+
+        recommendations.load();
+
+        InOrder backfill = inOrder(jdbcTemplate, pairCountRepository);
+        backfill.verify(jdbcTemplate).queryForObject(contains("pg_advisory_xact_lock"), eq(Integer.class),
+                eq(ProductRecommendationService.BACKFILL_LOCK));
+        backfill.verify(pairCountRepository).count();
+        backfill.verify(pairCountRepository).findMaxOrderId();
+        // Matrice ecrite dans la transaction du verrou, sans passer par le vidage periodique
+        ArgumentCaptor<List<Object[]>> written = ArgumentCaptor.captor();
+        backfill.verify(jdbcTemplate).batchUpdate(eq(ProductPairCountRepository.ADD_ORDERS), written.capture());
+        assertArrayEquals(new Object[]{1L, 2L, 2L}, written.getValue().get(0));
+        assertEquals(3L, recommendations.getBoughtTogether(1L, 1).getProducts().get(0).getOrderCount());
+
+        // Deja ecrite : seule la commande 13 reste a vider
+        recommendations.refresh();
+        ArgumentCaptor<List<Object[]>> flushed = ArgumentCaptor.captor();
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(ProductPairCountRepository.ADD_ORDERS), flushed.capture());
+        assertArrayEquals(new Object[]{1L, 2L, 1L}, flushed.getAllValues().get(1).get(0));
+    }
+
+    @Test
+    @DisplayName("Should read the filled table and count the orders received before loading once")
+    void testLoad_TableFilled() {
+        when(pairCountRepository.count()).thenReturn(1L);
+        when(pairCountRepository.findAll()).thenReturn(List.of(pairCount(1L, 2L, 4L)));
+        recommendations.recordCreated(order(20L, 1L, 2L));
+
+        recommendations.load();
+
+        verify(pairCountRepository, never()).findMaxOrderId();
+        verify(pairCountRepository, never()).findBasketLines(anyLong(), anyLong());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), ArgumentMatchers.<List<Object[]>>any());
+        assertEquals(5L, recommendations.getBoughtTogether(2L, 1).getProducts().get(0).getOrderCount());
+    }
+
+    private static Order order(Long id, Long... productIds) {
+        Order order = Order.builder().id(id).userId(1L).items(new ArrayList<>()).build();
+        for (Long productId : productIds) {
+            order.addItem(OrderItem.builder().productId(productId).quantity(1).build());
+        }
+        return order;
+    }
+
+    private static ProductPairCount pairCount(long lowProductId, long highProductId, long orderCount) {
+        return ProductPairCount.builder()
+                .lowProductId(lowProductId)
+                .highProductId(highProductId)
+                .orderCount(orderCount)
+                .build();
+    }
+
+    private static ProductPairCountRepository.BasketLine basketLine(Long orderId, Long productId) {
+        return new ProductPairCountRepository.BasketLine() {
+            @Override
+            public Long getOrderId() {
+                return orderId;
+            }
+
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+        };
+    }
+}
@@ -0,0 +1,152 @@
+package com.episen.order.application.service;
+
+import com.episen.order.application.dto.TopProductDTO;
+import com.episen.order.application.dto.TopProductsDTO;
+import com.episen.order.domain.entity.Order;
+import com.episen.order.domain.entity.OrderItem;
+import com.episen.order.domain.entity.ProductSales;
+import com.episen.order.domain.enums.Category;
+import com.episen.order.domain.repository.ProductSalesRepository;
+import com.episen.order.infrastructure.client.ProductClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Meilleures ventes : classement par fenetre et par categorie, reconstruction des tables sous
+ * verrou consultatif et commandes validees avant la fin du chargement.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Top Products Service Tests")
+class TopProductsServiceTest {
+
+    private static final Map<Long, ProductClient.ProductResponseDTO> PRODUCTS = Map.of(
+            1L, product(1L, "BOOKS"), 2L, product(2L, "BOOKS"), 3L, product(3L, "FOOD"));
+
+    @Mock
+    private ProductSalesRepository productSalesRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private TopProductsService tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new TopProductsService(productSalesRepository, jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), 100);
+    }
+
+    @Test
+    @DisplayName("Should rank best sellers per window and category, net of cancellations")
+    void testLeaderboard() {
+        when(productSalesRepository.count()).thenReturn(1L);
+        tracker.load();
+        Order recent = order(1L, LocalDateTime.now(), Map.of(1L, 2, 2L, 5, 3L, 1));
+        Order older = order(2L, LocalDateTime.now().minusDays(3), Map.of(1L, 10));
+        Order cancelled = order(3L, LocalDateTime.now(), Map.of(2L, 4));
+
+        // Hors transaction : comptees immediatement
+        tracker.recordCreated(List.of(recent, older, cancelled), PRODUCTS);
+        tracker.recordCancelled(cancelled);
+        tracker.refreshLeaderboards();
+
+        TopProductsDTO allTime = tracker.getTopProducts(TopProductsService.Window.ALL_TIME, null, 10);
+        assertEquals(List.of(1L, 2L, 3L), allTime.getProducts().stream().map(TopProductDTO::getProductId).toList());
+        assertEquals(12, allTime.getProducts().get(0).getUnitsSold());
+        assertEquals(5, allTime.getProducts().get(1).getUnitsSold());
+        assertEquals(Category.BOOKS, allTime.getProducts().get(0).getCategory());
+
+        TopProductsDTO lastDay = tracker.getTopProducts(TopProductsService.Window.LAST_24_HOURS, Category.BOOKS, 1);
+        assertEquals(1, lastDay.getProducts().size());
+        assertEquals(2L, lastDay.getProducts().get(0).getProductId());
+        assertEquals(5, lastDay.getProducts().get(0).getUnitsSold());
+        assertEquals(12, tracker.getTopProducts(TopProductsService.Window.LAST_7_DAYS, Category.BOOKS, 1)
+                .getProducts().get(0).getUnitsSold());
+        assertThrows(IllegalArgumentException.class,
+                () -> tracker.getTopProducts(TopProductsService.Window.ALL_TIME, null, 0));
+    }
+
+    @Test
+    @DisplayName("Should rebuild empty tables under the advisory lock and skip the orders it already counted")
+    void testLoad_RebuildUnderLock() {
+        when(productSalesRepository.count()).thenReturn(0L);
+        when(productSalesRepository.findMaxOrderId()).thenReturn(10L);
+        when(productSalesRepository.findAll()).thenReturn(List.of(ProductSales.builder().productId(1L).units(7L).build()));
+        // Validees pendant le demarrage : la commande 9 est couverte par la reconstruction, pas la 11
+        tracker.recordCreated(List.of(order(9L, LocalDateTime.now(), Map.of(1L, 3)),
+                order(11L, LocalDateTime.now(), Map.of(1L, 2))), PRODUCTS);
+
+        tracker.load();
+
+        InOrder rebuild = inOrder(jdbcTemplate, productSalesRepository);
+        rebuild.verify(jdbcTemplate).queryForObject(contains("pg_advisory_xact_lock"), eq(Integer.class),
+                eq(TopProductsService.REBUILD_LOCK));
+        rebuild.verify(productSalesRepository).count();
+        rebuild.verify(productSalesRepository).rebuildFromOrders(10L);
+        rebuild.verify(productSalesRepository).rebuildHourlyFromOrders(any(LocalDateTime.class), eq(10L));
+        assertEquals(9, unitsSold(1L));
+    }
+
+    @Test
+    @DisplayName("Should count the orders received before loading once the tables are read")
+    void testLoad_DeferredOrdersCountedOnce() {
+        when(productSalesRepository.count()).thenReturn(1L);
+        when(productSalesRepository.findAll()).thenReturn(List.of(ProductSales.builder().productId(1L).units(7L).build()));
+        tracker.recordCreated(order(4L, LocalDateTime.now(), Map.of(1L, 3)), PRODUCTS);
+        // Non comptee tant que les tables n'ont pas ete relues
+        tracker.refreshLeaderboards();
+        assertEquals(0, tracker.getTopProducts(TopProductsService.Window.ALL_TIME, null, 10).getProducts().size());
+
+        tracker.load();
+
+        verify(productSalesRepository, never()).rebuildFromOrders(anyLong());
+        assertEquals(10, unitsSold(1L));
+    }
+
+    private long unitsSold(Long productId) {
+        return tracker.getTopProducts(TopProductsService.Window.ALL_TIME, null, 10).getProducts().stream()
+                .filter(product -> product.getProductId().equals(productId))
+                .findFirst()
+                .orElseThrow()
+                .getUnitsSold();
+    }
+
+    private static Order order(Long id, LocalDateTime orderDate, Map<Long, Integer> quantities) {
+        Order order = Order.builder().id(id).userId(1L).orderDate(orderDate).items(new ArrayList<>()).build();
+        quantities.forEach((productId, quantity) ->
+                order.addItem(OrderItem.builder().productId(productId).quantity(quantity).build()));
+        return order;
+    }
+
+    private static ProductClient.ProductResponseDTO product(Long id, String category) {
+        ProductClient.ProductResponseDTO product = new ProductClient.ProductResponseDTO();
+        product.setId(id);
+        product.setCategory(category);
+        return product;
+    }
+}
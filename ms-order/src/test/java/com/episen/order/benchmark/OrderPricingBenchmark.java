@@ -0,0 +1,143 @@
+package com.episen.order.benchmark;
+
+import com.episen.order.application.dto.PricingRuleDTO;
+import com.episen.order.application.service.OrderPricingService;
+import com.episen.order.domain.entity.Order;
+import com.episen.order.domain.entity.OrderItem;
+import com.episen.order.domain.enums.Category;
+import com.episen.order.domain.pricing.PricingBasket;
+import com.episen.order.domain.pricing.PricingRuleSet;
+import com.episen.order.infrastructure.client.ProductClient;
+import com.episen.order.infrastructure.config.OrderPricingProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tarification d'une commande : ancien Order.calculateTotal (BigDecimal) contre OrderPricingService,
+ * sans regle et avec les trois types de regles, et le calcul en centimes seul.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="OrderPricingBenchmark -prof gc"
+ * (-prof gc : octets alloues par operation).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderPricingBenchmark {
+
+    @Param({"3", "20"})
+    private int lines;
+
+    private Order order;
+    private Map<Long, ProductClient.ProductResponseDTO> products;
+    private OrderPricingService withoutRules;
+    private OrderPricingService withRules;
+    private PricingRuleSet ruleSet;
+    private PricingBasket basket;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        order = Order.builder().userId(1L).shippingAddress("1 rue du Benchmark").build();
+        products = new HashMap<>();
+        Category[] categories = Category.values();
+        for (long productId = 1; productId <= lines; productId++) {
+            BigDecimal unitPrice = BigDecimal.valueOf(productId * 137 + 99, 2);
+            order.addItem(OrderItem.builder()
+                    .productId(productId)
+                    .productName("Produit " + productId)
+                    .quantity((int) (productId % 4) + 1)
+                    .unitPrice(unitPrice)
+                    .build());
+            ProductClient.ProductResponseDTO product = new ProductClient.ProductResponseDTO();
+            product.setId(productId);
+            product.setPrice(unitPrice);
+            product.setCategory(categories[(int) (productId % categories.length)].name());
+            products.put(productId, product);
+        }
+
+        List<PricingRuleDTO> rules = List.of(
+                PricingRuleDTO.builder().type(PricingRuleDTO.Type.CATEGORY_PERCENT_OFF)
+                        .category(Category.BOOKS).percentOff(new BigDecimal("10")).build(),
+                PricingRuleDTO.builder().type(PricingRuleDTO.Type.BUY_N_GET_M)
+                        .productId(2L).buyQuantity(2).freeQuantity(1).build(),
+                PricingRuleDTO.builder().type(PricingRuleDTO.Type.BASKET_THRESHOLD)
+                        .minAmount(new BigDecimal("20.00")).amountOff(new BigDecimal("5.00")).build());
+        withoutRules = new OrderPricingService(new OrderPricingProperties(List.of()));
+        withRules = new OrderPricingService(new OrderPricingProperties(rules));
+
+        ruleSet = PricingRuleSet.builder()
+                .categoryPercentOff(Category.BOOKS, 1000)
+                .buyNGetM(2L, 2, 1)
+                .basketThreshold(2000, 0, 500)
+                .build();
+        basket = new PricingBasket(lines);
+        for (OrderItem item : order.getItems()) {
+            basket.add(item.getProductId(), Category.fromName(products.get(item.getProductId()).getCategory()),
+                    item.getQuantity(), item.getUnitPrice().movePointRight(2).longValueExact());
+        }
+    }
+
+    @Benchmark
+    public BigDecimal legacyCalculateTotal() {
+        legacyCalculateTotal(order);
+        return order.getTotalAmount();
+    }
+
+    @Benchmark
+    public BigDecimal pricingServiceWithoutRules() {
+        withoutRules.price(order, products);
+        return order.getTotalAmount();
+    }
+
+    @Benchmark
+    public BigDecimal pricingServiceWithRules() {
+        withRules.price(order, products);
+        return order.getTotalAmount();
+    }
+
+    // Calcul en centimes seul, sans conversion depuis et vers les BigDecimal des entites
+    @Benchmark
+    public long ruleSetOnly() {
+        ruleSet.price(basket);
+        return basket.total();
+    }
+
+    // Ancienne implementation de Order.calculateTotal, reference de comparaison
+    private static void legacyCalculateTotal(Order order) {
+        List<OrderItem> items = order.getItems();
+        if (items != null && !items.isEmpty()) {
+            items.forEach(item -> {
+                if (item.getQuantity() != null && item.getUnitPrice() != null) {
+                    item.setSubtotal(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+                } else {
+                    item.setSubtotal(BigDecimal.ZERO);
+                }
+            });
+            order.setTotalAmount(items.stream()
+                    .map(OrderItem::getSubtotal)
+                    .filter(Objects::nonNull)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add));
+        } else {
+            order.setTotalAmount(BigDecimal.ZERO);
+        }
+    }
+}
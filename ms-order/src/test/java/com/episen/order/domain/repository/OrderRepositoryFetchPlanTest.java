@@ -0,0 +1,139 @@
+package com.episen.order.domain.repository;
+
+import com.episen.order.application.dto.OrderResponseDTO;
+import com.episen.order.application.mapper.OrderItemMapper;
+import com.episen.order.application.mapper.OrderMapper;
+import com.episen.order.domain.entity.Order;
+import com.episen.order.domain.entity.OrderItem;
+import com.episen.order.domain.enums.OrderStatus;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Budget de requetes SQL des lectures d'entites, mesure par les statistiques Hibernate :
+ * une lecture qui depasse son budget (chargement paresseux des articles commande par commande)
+ * fait echouer le build. Les lectures se terminent hors session, comme en production ou
+ * open-in-view est desactive.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@DisplayName("Order Repository Fetch Plan Tests")
+class OrderRepositoryFetchPlanTest {
+
+    private static final int ORDERS = 5;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final OrderMapper orderMapper = new OrderMapper(new OrderItemMapper());
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int o = 0; o < ORDERS; o++) {
+            Order order = Order.builder()
+                    .userId(1L)
+                    .status(OrderStatus.CONFIRMED)
+                    .totalAmount(new BigDecimal("30.00"))
+                    .shippingAddress("123 Test Street")
+                    .build();
+            for (long productId = 1; productId <= ITEMS_PER_ORDER; productId++) {
+                order.addItem(OrderItem.builder()
+                        .productId(productId)
+                        .productName("Product " + productId)
+                        .quantity(1)
+                        .unitPrice(new BigDecimal("10.00"))
+                        .subtotal(new BigDecimal("10.00"))
+                        .build());
+            }
+            orderIds.add(entityManager.persist(order).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should load the orders of a user with their items in a single statement")
+    void testFindByUserId_SingleStatement() {
+        List<OrderResponseDTO> orders = withinStatementBudget(1,
+                () -> orderRepository.findByUserId(1L).stream().map(orderMapper::toDto).toList());
+
+        assertEquals(ORDERS, orders.size());
+        orders.forEach(order -> assertEquals(ITEMS_PER_ORDER, order.getItems().size()));
+    }
+
+    @Test
+    @DisplayName("Should load the orders of a status with their items in a single statement")
+    void testFindByStatus_SingleStatement() {
+        List<OrderResponseDTO> orders = withinStatementBudget(1,
+                () -> orderRepository.findByStatus(OrderStatus.CONFIRMED).stream().map(orderMapper::toDto).toList());
+
+        assertEquals(ORDERS, orders.size());
+    }
+
+    @Test
+    @DisplayName("Should load one order with its items in a single statement")
+    void testFindByIdWithItems_SingleStatement() {
+        OrderResponseDTO order = withinStatementBudget(1,
+                () -> orderMapper.toDto(orderRepository.findByIdWithItems(orderIds.get(0)).orElseThrow()));
+
+        assertEquals(ITEMS_PER_ORDER, order.getItems().size());
+    }
+
+    @Test
+    @DisplayName("Should load a page of orders with their items in a single statement")
+    void testFindAllWithItemsByIdIn_SingleStatement() {
+        List<OrderResponseDTO> orders = withinStatementBudget(1,
+                () -> orderRepository.findAllWithItemsByIdIn(orderIds).stream().map(orderMapper::toDto).toList());
+
+        assertEquals(ORDERS, orders.size());
+    }
+
+    @Test
+    @DisplayName("Should batch lazy item loads instead of one statement per order")
+    void testLazyItems_BatchFetched() {
+        List<OrderResponseDTO> orders = withinStatementBudget(2, () -> {
+            List<OrderResponseDTO> dtos = orderRepository.findAllById(orderIds).stream().map(orderMapper::toDto).toList();
+            entityManager.clear();
+            return dtos;
+        });
+
+        assertEquals(ORDERS, orders.size());
+        orders.forEach(order -> assertEquals(ITEMS_PER_ORDER, order.getItems().size()));
+    }
+
+    // Execute la lecture puis vide le contexte de persistance : rien ne peut plus etre charge ensuite
+    private <T> T withinStatementBudget(int budget, Supplier<T> read) {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        T result = read.get();
+        entityManager.clear();
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= budget,
+                "Budget de " + budget + " requete(s) depasse : " + statements + " executee(s)");
+        return result;
+    }
+}
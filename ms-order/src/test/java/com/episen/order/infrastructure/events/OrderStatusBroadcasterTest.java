@@ -0,0 +1,227 @@
+package com.episen.order.infrastructure.events;
+
+import com.episen.order.application.dto.OrderStatusEventDTO;
+import com.episen.order.domain.enums.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Diffusion SSE : filtre, reprise par Last-Event-ID, reinitialisation, eviction des abonnes lents
+ * et plafond d'abonnes. Les emetteurs enregistrent les evenements au lieu de les ecrire.
+ */
+@DisplayName("Order Status Broadcaster Tests")
+class OrderStatusBroadcasterTest {
+
+    private static final Pattern ID = Pattern.compile("(?m)^id:(.+)$");
+    private static final Pattern NAME = Pattern.compile("(?m)^event:(.+)$");
+
+    private record Sent(String id, String name, Object data) {
+    }
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+    private OrderStatusBroadcaster broadcaster;
+    private CountDownLatch sendGate;
+
+    @AfterEach
+    void tearDown() {
+        if (sendGate != null) {
+            sendGate.countDown();
+        }
+        broadcaster.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should deliver only the events matching the subscription filter")
+    void testFilterByUser() throws InterruptedException {
+        broadcaster = broadcaster(10, 16, 10);
+        RecordingEmitter user1 = subscribe(1L, null, null);
+
+        broadcaster.onStatusChanged(event(10L, 1L));
+        broadcaster.onStatusChanged(event(20L, 2L));
+        broadcaster.onStatusChanged(event(11L, 1L));
+
+        assertEquals(10L, user1.next().payload().getOrderId());
+        assertEquals(11L, user1.next().payload().getOrderId());
+        assertNull(user1.poll(100));
+    }
+
+    @Test
+    @DisplayName("Should replay the events after Last-Event-ID from the history")
+    void testResumeFromLastEventId() throws InterruptedException {
+        broadcaster = broadcaster(10, 16, 10);
+        RecordingEmitter first = subscribe(null, null, null);
+        broadcaster.onStatusChanged(event(1L, 1L));
+        broadcaster.onStatusChanged(event(2L, 1L));
+        broadcaster.onStatusChanged(event(3L, 1L));
+        String afterFirst = first.next().sent().id();
+
+        RecordingEmitter resumed = subscribe(null, null, afterFirst);
+
+        assertEquals(2L, resumed.next().payload().getOrderId());
+        assertEquals(3L, resumed.next().payload().getOrderId());
+        assertNull(resumed.poll(100));
+    }
+
+    @Test
+    @DisplayName("Should send a reset when the event id comes from another instance or left the history")
+    void testResetWhenResumeImpossible() throws InterruptedException {
+        broadcaster = broadcaster(2, 16, 10);
+        RecordingEmitter first = subscribe(null, null, null);
+        broadcaster.onStatusChanged(event(1L, 1L));
+        broadcaster.onStatusChanged(event(2L, 1L));
+        broadcaster.onStatusChanged(event(3L, 1L));
+        String evicted = first.next().sent().id();
+
+        RecordingEmitter otherEpoch = subscribe(null, null, "otherepoch-1");
+        assertEquals(OrderStatusBroadcaster.RESET_EVENT, otherEpoch.nextSent().name());
+
+        // Historique de deux evenements : le premier n'y est plus
+        RecordingEmitter tooOld = subscribe(null, null, evicted.replaceAll("-\\d+$", "-0"));
+        assertEquals(OrderStatusBroadcaster.RESET_EVENT, tooOld.nextSent().name());
+        RecordingEmitter replayable = subscribe(null, null, evicted);
+        assertEquals(2L, replayable.next().payload().getOrderId());
+        assertEquals(3L, replayable.next().payload().getOrderId());
+    }
+
+    @Test
+    @DisplayName("Should evict a subscriber whose queue overflows without blocking the publisher")
+    void testSlowSubscriberEvicted() throws InterruptedException {
+        broadcaster = broadcaster(10, 2, 10);
+        sendGate = new CountDownLatch(1);
+        RecordingEmitter slow = subscribe(1L, null, null);
+
+        // Le premier envoi bloque ; deux evenements remplissent la file, le quatrieme deborde
+        for (long orderId = 1; orderId <= 4; orderId++) {
+            broadcaster.onStatusChanged(event(orderId, 1L));
+        }
+
+        assertEquals(1.0, meterRegistry.get("orders.events.evicted").counter().count());
+        assertEquals(0.0, meterRegistry.get("orders.events.subscribers").gauge().value());
+        sendGate.countDown();
+        assertTrue(slow.completed.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should refuse subscribers beyond the configured maximum")
+    void testSubscriberCap() {
+        broadcaster = broadcaster(10, 16, 1);
+        subscribe(null, null, null);
+
+        assertThrows(IllegalStateException.class, () -> broadcaster.subscribe(null, null, null));
+    }
+
+    private OrderStatusBroadcaster broadcaster(int historySize, int bufferSize, int maxSubscribers) {
+        return new OrderStatusBroadcaster(meterRegistry, historySize, bufferSize, 60_000, maxSubscribers) {
+            @Override
+            SseEmitter createEmitter(long timeoutMs) {
+                RecordingEmitter emitter = new RecordingEmitter(sendGate);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    private RecordingEmitter subscribe(Long userId, Long orderId, String lastEventId) {
+        broadcaster.subscribe(userId, orderId, lastEventId);
+        return emitters.get(emitters.size() - 1);
+    }
+
+    private static OrderStatusEventDTO event(Long orderId, Long userId) {
+        return OrderStatusEventDTO.builder()
+                .orderId(orderId)
+                .userId(userId)
+                .previousStatus(OrderStatus.PENDING)
+                .status(OrderStatus.CONFIRMED)
+                .build();
+    }
+
+    private record Received(Sent sent, OrderStatusEventDTO payload) {
+    }
+
+    /**
+     * Emetteur qui enregistre les evenements ; si une barriere est fournie, chaque envoi l'attend.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<Sent> sent = new LinkedBlockingQueue<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch gate;
+
+        RecordingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            Object data = null;
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof String string) {
+                    text.append(string);
+                } else {
+                    data = part.getData();
+                }
+            }
+            sent.add(new Sent(group(ID, text), group(NAME, text), data));
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        Sent nextSent() throws InterruptedException {
+            Sent next = sent.poll(2, TimeUnit.SECONDS);
+            assertNotNull(next, "Aucun evenement recu");
+            return next;
+        }
+
+        // Prochain changement de statut, commentaires de maintien de connexion ignores
+        Received next() throws InterruptedException {
+            while (true) {
+                Sent next = nextSent();
+                if (OrderStatusBroadcaster.STATUS_EVENT.equals(next.name())) {
+                    return new Received(next, (OrderStatusEventDTO) next.data());
+                }
+            }
+        }
+
+        Sent poll(long timeoutMs) throws InterruptedException {
+            return sent.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+
+        private static String group(Pattern pattern, CharSequence text) {
+            Matcher matcher = pattern.matcher(text);
+            return matcher.find() ? matcher.group(1) : null;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.episen.order.infrastructure.outbox;
+
+import com.episen.order.application.service.OrderReadModelService;
+import com.episen.order.application.service.ProductRecommendationService;
+import com.episen.order.application.service.SalesRollupService;
+import com.episen.order.application.service.TopProductsService;
+import com.episen.order.domain.entity.OutboxEvent;
+import com.episen.order.domain.enums.OutboxEventStatus;
+import com.episen.order.domain.enums.OutboxEventType;
+import com.episen.order.domain.repository.OrderRepository;
+import com.episen.order.domain.repository.OutboxEventRepository;
+import com.episen.order.infrastructure.client.ProductClient;
+import com.episen.order.infrastructure.monitoring.OrderActivityWindows;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Livraison d'un lot outbox en trois temps : reservation (IN_FLIGHT), appel a ms-product hors
+ * transaction, enregistrement du resultat.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Stock Outbox Relay Tests")
+class StockOutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private ProductClient productClient;
+
+    private StockOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new StockOutboxRelay(outboxEventRepository, mock(OrderRepository.class), productClient,
+                mock(SalesRollupService.class), mock(TopProductsService.class), mock(ProductRecommendationService.class),
+                new OrderActivityWindows(), mock(OrderReadModelService.class), new ObjectMapper(),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), mock(ApplicationEventPublisher.class),
+                new SimpleMeterRegistry(), 50, 60);
+    }
+
+    @Test
+    @DisplayName("Should fail an unreadable event and still deliver the rest of the batch")
+    void testUnreadablePayload_FailedAlone() {
+        OutboxEvent unreadable = event(1L, "key-1", "{not json");
+        OutboxEvent readable = event(2L, "key-2", "{\"operationId\":\"key-2\",\"type\":\"RESERVE\"}");
+        List<OutboxEvent> batch = List.of(unreadable, readable);
+        when(outboxEventRepository.lockNextBatch(anyInt())).thenReturn(batch);
+        when(outboxEventRepository.lockByIdIn(List.of(1L, 2L))).thenReturn(batch);
+        when(productClient.applyStockOperations(anyList())).thenReturn(List.of(result("key-2", "APPLIED")));
+
+        assertFalse(relay.deliverNextBatch());
+
+        verify(productClient).applyStockOperations(argThat(operations ->
+                operations.size() == 1 && "key-2".equals(operations.get(0).getOperationId())));
+        assertEquals(OutboxEventStatus.FAILED, unreadable.getStatus());
+        assertEquals(OutboxEventStatus.SENT, readable.getStatus());
+        assertNull(readable.getClaimToken());
+    }
+
+    @Test
+    @DisplayName("Should release the claim and schedule a retry when ms-product is unreachable")
+    void testDeliveryFailure_ScheduledRetry() {
+        OutboxEvent event = event(1L, "key-1", "{\"operationId\":\"key-1\",\"type\":\"RESERVE\"}");
+        when(outboxEventRepository.lockNextBatch(anyInt())).thenReturn(List.of(event));
+        when(outboxEventRepository.lockByIdIn(List.of(1L))).thenReturn(List.of(event));
+        when(productClient.applyStockOperations(anyList())).thenAnswer(call -> {
+            // Pendant l'appel, l'evenement est reserve par ce relais
+            assertEquals(OutboxEventStatus.IN_FLIGHT, event.getStatus());
+            throw new IllegalStateException("Impossible de livrer les operations de stock");
+        });
+
+        assertFalse(relay.deliverNextBatch());
+
+        assertEquals(OutboxEventStatus.PENDING, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertNull(event.getClaimToken());
+    }
+
+    @Test
+    @DisplayName("Should ignore a late outcome once the lease was taken over by another relay")
+    void testExpiredLease_OutcomeIgnored() {
+        OutboxEvent event = event(1L, "key-1", "{\"operationId\":\"key-1\",\"type\":\"RESERVE\"}");
+        when(outboxEventRepository.lockNextBatch(anyInt())).thenReturn(List.of(event));
+        when(outboxEventRepository.lockByIdIn(List.of(1L))).thenReturn(List.of(event));
+        when(productClient.applyStockOperations(anyList())).thenAnswer(call -> {
+            event.claim("other-relay", LocalDateTime.now().plusSeconds(60));
+            return List.of(result("key-1", "APPLIED"));
+        });
+
+        relay.deliverNextBatch();
+
+        assertEquals(OutboxEventStatus.IN_FLIGHT, event.getStatus());
+        assertEquals("other-relay", event.getClaimToken());
+    }
+
+    private static OutboxEvent event(Long id, String key, String payload) {
+        return OutboxEvent.builder()
+                .id(id)
+                .eventKey(key)
+                .aggregateId(id)
+                .type(OutboxEventType.STOCK_RESERVE)
+                .payload(payload)
+                .build();
+    }
+
+    private static ProductClient.StockOperationResult result(String operationId, String outcome) {
+        ProductClient.StockOperationResult result = new ProductClient.StockOperationResult();
+        result.setOperationId(operationId);
+        result.setOutcome(outcome);
+        return result;
+    }
+}
@@ -0,0 +1,160 @@
+package com.episen.order.infrastructure.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * schema.sql sur PostgreSQL : conversion des tables creees par Hibernate en tables partitionnees,
+ * deplacement des lignes des partitions par defaut, detachement d'un mois et verrou consultatif
+ * partage par les instances. Ignore lorsque Docker n'est pas disponible.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Order Partition Schema Tests")
+class OrderPartitionSchemaTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+    private static final YearMonth OLD_MONTH = YearMonth.now().minusMonths(6);
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP SCHEMA public CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA public");
+        // Tables d'une base anterieure, telles que creees par Hibernate (articles sans order_date)
+        jdbcTemplate.execute("""
+                CREATE TABLE orders (id bigint PRIMARY KEY, user_id bigint NOT NULL, order_date timestamp(6) NOT NULL,
+                                     status varchar(20) NOT NULL, total_amount numeric(10, 2) NOT NULL,
+                                     shipping_address varchar(500))""");
+        jdbcTemplate.execute("""
+                CREATE TABLE order_items (id bigint PRIMARY KEY, order_id bigint NOT NULL, product_id bigint NOT NULL,
+                                          quantity integer NOT NULL, unit_price numeric(10, 2) NOT NULL)""");
+        jdbcTemplate.execute("CREATE TABLE outbox_events (id bigint PRIMARY KEY, status varchar(20) NOT NULL)");
+        insertOrder(1L, OLD_MONTH.atDay(10));
+        insertOrder(2L, LocalDate.now());
+        runSchema();
+    }
+
+    @Test
+    @DisplayName("Should convert the existing tables once and copy their rows into monthly partitions")
+    void testConversion() throws SQLException {
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_partitioned_table WHERE partrelid IN ('orders'::regclass, 'order_items'::regclass)",
+                Integer.class));
+        assertEquals(1, count("orders_p" + suffix(OLD_MONTH)));
+        assertEquals(1, count("order_items_p" + suffix(OLD_MONTH)));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM order_items WHERE order_date IS NULL", Integer.class));
+
+        // Deuxieme demarrage : la conversion n'est pas rejouee
+        runSchema();
+        assertEquals(2, count("orders"));
+        assertEquals(2, count("order_items"));
+    }
+
+    @Test
+    @DisplayName("Should move the rows of a new month out of the default partitions")
+    void testEnsurePartitions_MovesDefaultRows() {
+        YearMonth future = YearMonth.now().plusMonths(12);
+        insertOrder(3L, future.atDay(1));
+        assertEquals(1, count("orders_default"));
+
+        Integer created = jdbcTemplate.queryForObject("SELECT ensure_order_partitions(?, ?)", Integer.class,
+                future.atDay(1), future.plusMonths(1).atDay(1));
+
+        assertEquals(1, created);
+        assertEquals(0, count("orders_default"));
+        assertEquals(0, count("order_items_default"));
+        assertEquals(1, count("orders_p" + suffix(future)));
+        assertEquals(1, count("order_items_p" + suffix(future)));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT ensure_order_partitions(?, ?)", Integer.class,
+                future.atDay(1), future.plusMonths(1).atDay(1)));
+    }
+
+    @Test
+    @DisplayName("Should detach a month without touching the other partitions")
+    void testDetachMonth() {
+        assertTrue(jdbcTemplate.queryForObject("SELECT detach_order_partitions(?)", Boolean.class, OLD_MONTH.atDay(1)));
+
+        assertEquals(1, count("orders"));
+        assertEquals(1, count("order_items"));
+        assertEquals(1, count("orders_p" + suffix(OLD_MONTH)));
+        assertFalse(jdbcTemplate.queryForObject("SELECT detach_order_partitions(?)", Boolean.class, OLD_MONTH.atDay(1)));
+    }
+
+    @Test
+    @DisplayName("Should wait for the partition lock held by another instance")
+    void testPartitionOperationsSerialized() throws SQLException {
+        try (Connection holder = dataSource.getConnection(); Connection other = dataSource.getConnection()) {
+            holder.setAutoCommit(false);
+            try (Statement statement = holder.createStatement()) {
+                statement.execute("SELECT lock_order_partitions()");
+            }
+            try (Statement statement = other.createStatement()) {
+                statement.execute("SET lock_timeout = '200ms'");
+                SQLException timeout = assertThrows(SQLException.class,
+                        () -> statement.execute("SELECT ensure_order_partitions(CURRENT_DATE, CURRENT_DATE + 1)"));
+                assertEquals("55P03", timeout.getSQLState());
+            }
+            holder.rollback();
+            try (Statement statement = other.createStatement()) {
+                statement.execute("SELECT ensure_order_partitions(CURRENT_DATE, CURRENT_DATE + 1)");
+            }
+        }
+    }
+
+    private void runSchema() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            // Meme decoupage que spring.sql.init.separator : le script entier en une instruction
+            ScriptUtils.executeSqlScript(connection, new EncodedResource(new ClassPathResource("schema.sql")), false, false,
+                    ScriptUtils.DEFAULT_COMMENT_PREFIX, ScriptUtils.EOF_STATEMENT_SEPARATOR,
+                    ScriptUtils.DEFAULT_BLOCK_COMMENT_START_DELIMITER, ScriptUtils.DEFAULT_BLOCK_COMMENT_END_DELIMITER);
+        }
+    }
+
+    private void insertOrder(long id, LocalDate orderDate) {
+        jdbcTemplate.update("INSERT INTO orders (id, user_id, order_date, status, total_amount) VALUES (?, 1, ?, 'PENDING', 10)",
+                id, orderDate.atTime(12, 0));
+        boolean partitioned = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'order_items'::regclass)", Boolean.class));
+        if (partitioned) {
+            jdbcTemplate.update("INSERT INTO order_items (id, order_id, order_date, product_id, quantity, unit_price) "
+                    + "VALUES (?, ?, ?, 1, 1, 10)", id, id, orderDate.atTime(12, 0));
+        } else {
+            jdbcTemplate.update("INSERT INTO order_items (id, order_id, product_id, quantity, unit_price) VALUES (?, ?, 1, 1, 10)",
+                    id, id);
+        }
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+    }
+
+    private static String suffix(YearMonth month) {
+        return String.format("%04d%02d", month.getYear(), month.getMonthValue());
+    }
+}
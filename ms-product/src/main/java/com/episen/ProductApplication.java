@@ -2,12 +2,15 @@ package com.episen;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Application Spring Boot qui expose le service produit.
  * Initialise le contexte et les composants necessaires au microservice.
+ * La planification rafraichit les instantanes utilises par les metriques et la sante.
  */
 @SpringBootApplication
+@EnableScheduling
 public class ProductApplication {
 
     /**
@@ -0,0 +1,25 @@
+package com.episen.application.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour la lecture groupee de plusieurs produits en un seul appel.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductBatchRequest {
+
+    @NotEmpty(message = "La liste des identifiants ne peut pas etre vide")
+    @Size(max = 500, message = "La liste des identifiants ne peut pas depasser 500 elements")
+    private List<@NotNull(message = "L'identifiant produit est obligatoire") Long> ids;
+}
@@ -0,0 +1,24 @@
+package com.episen.application.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Lot d'operations de stock livrees par le relais outbox du service commandes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockOperationBatchRequest {
+
+    @NotEmpty(message = "Le lot doit contenir au moins une operation")
+    @Valid
+    private List<StockOperationRequest> operations;
+}
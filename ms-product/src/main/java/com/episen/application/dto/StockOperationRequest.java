@@ -0,0 +1,38 @@
+package com.episen.application.dto;
+
+import com.episen.domain.enums.StockOperationType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Operation de stock idempotente (reservation ou liberation) pour une commande.
+ * Une liberation reference la reservation qu'elle annule.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockOperationRequest {
+
+    @NotBlank(message = "L'identifiant d'operation est obligatoire")
+    @Size(max = 64, message = "L'identifiant d'operation ne peut pas depasser 64 caracteres")
+    private String operationId;
+
+    @NotNull(message = "Le type d'operation est obligatoire")
+    private StockOperationType type;
+
+    private String reservationId;
+
+    @NotEmpty(message = "L'operation doit contenir au moins une ligne")
+    @Valid
+    private List<StockReservationRequest.Line> lines;
+}
@@ -0,0 +1,30 @@
+package com.episen.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultat du traitement d'une operation de stock.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockOperationResultDTO {
+
+    private String operationId;
+    private Outcome outcome;
+    private String message;
+
+    /**
+     * APPLIED : operation appliquee, DUPLICATE : deja appliquee auparavant,
+     * REJECTED : refus definitif (produit absent, stock insuffisant, reservation inconnue).
+     */
+    public enum Outcome {
+        APPLIED,
+        DUPLICATE,
+        REJECTED
+    }
+}
@@ -0,0 +1,43 @@
+package com.episen.application.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Lignes d'une commande dont le stock est reserve ou libere (voir StockOperationRequest).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservationRequest {
+
+    @NotEmpty(message = "La reservation doit contenir au moins une ligne")
+    @Valid
+    private List<Line> lines;
+
+    /**
+     * Quantite a retirer du stock pour un produit.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Line {
+
+        @NotNull(message = "L'ID produit est obligatoire")
+        private Long productId;
+
+        @NotNull(message = "La quantite est obligatoire")
+        @Min(value = 1, message = "La quantite doit etre au moins 1")
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,180 @@
+package com.episen.application.service;
+
+import com.episen.domain.entity.ProductReferenceBackfill;
+import com.episen.domain.repository.ProductReferenceBackfillRepository;
+import com.episen.domain.repository.ProductReferenceRepository;
+import com.episen.infrastructure.client.OrderClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Index local des produits references par des commandes. La table product_references est alimentee
+ * par les reservations livrees par le relais outbox (chaque reservation porte les produits des lignes
+ * ecrites avec la commande) ; un ensemble de bits en memoire repond sans requete pour les produits
+ * deja connus. Une reference n'est jamais retiree : un produit present en memoire ou en base est donc
+ * toujours reference.
+ *
+ * Une fois la reprise des commandes anterieures terminee (ligne de product_reference_backfills),
+ * l'index fait foi et le service commandes n'est plus interroge. Avant, un produit absent est verifie
+ * aupres du service commandes, et la suppression est refusee si celui-ci est injoignable. Une commande
+ * dont la reservation n'est pas encore livree peut viser un produit supprime entre-temps : la
+ * reservation est alors refusee par ms-product.
+ */
+@Slf4j
+@Service
+public class ProductReferenceService {
+
+    static final int BACKFILL_PAGE_SIZE = 1000;
+
+    private final ProductReferenceRepository productReferenceRepository;
+    private final ProductReferenceBackfillRepository backfillRepository;
+    private final OrderClient orderClient;
+    private final TransactionTemplate transactionTemplate;
+    private final BitSet referencedIds = new BitSet();
+    // Une fois vrai, ne repasse jamais a faux
+    private volatile boolean backfillComplete;
+
+    /**
+     * Construit le service d'index des references.
+     *
+     * @param productReferenceRepository depot des references
+     * @param backfillRepository         depot de la reprise de l'index
+     * @param orderClient                client du service commandes (reprise initiale)
+     * @param transactionManager         gestionnaire de transactions
+     */
+    public ProductReferenceService(
+            ProductReferenceRepository productReferenceRepository,
+            ProductReferenceBackfillRepository backfillRepository,
+            OrderClient orderClient,
+            PlatformTransactionManager transactionManager) {
+        this.productReferenceRepository = productReferenceRepository;
+        this.backfillRepository = backfillRepository;
+        this.orderClient = orderClient;
+        // Transaction propre : une reference apprise pendant une suppression refusee (transaction
+        // annulee) reste enregistree
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Charge en memoire les references persistees au demarrage.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        List<Long> productIds = productReferenceRepository.findAllProductIds();
+        productIds.forEach(this::remember);
+        log.info("Index des produits references charge ({} produits, reprise {})", productIds.size(),
+                isBackfillComplete() ? "terminee" : "non effectuee");
+    }
+
+    /**
+     * Indique si un produit est reference par au moins une ligne de commande.
+     *
+     * @param productId identifiant du produit
+     * @return true si le produit est reference
+     * @throws IllegalStateException si la reprise de l'index n'est pas terminee, que le produit est
+     *                               inconnu de l'index et que le service commandes est injoignable
+     */
+    public boolean isReferenced(Long productId) {
+        if (isRemembered(productId)) {
+            return true;
+        }
+        // Reference enregistree par une autre instance depuis le chargement de l'index
+        if (productReferenceRepository.existsById(productId)) {
+            remember(productId);
+            return true;
+        }
+        if (isBackfillComplete()) {
+            return false;
+        }
+        // Commande anterieure a la reprise de l'index
+        if (orderClient.isProductInAnyOrder(productId)) {
+            recordReferences(List.of(productId));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Enregistre des produits comme references (idempotent) dans une transaction propre, puis les
+     * ajoute a l'index en memoire une fois celle-ci validee.
+     *
+     * @param productIds identifiants des produits references
+     */
+    public void recordReferences(Collection<Long> productIds) {
+        Set<Long> newIds = new TreeSet<>();
+        for (Long productId : productIds) {
+            if (!isRemembered(productId)) {
+                newIds.add(productId);
+            }
+        }
+        if (newIds.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> newIds.forEach(productReferenceRepository::insertIfAbsent));
+        newIds.forEach(this::remember);
+    }
+
+    /**
+     * Reconstruit l'index a partir des lignes de commande existantes dans le service commandes,
+     * page par page, puis enregistre la reprise comme terminee.
+     *
+     * @return nombre de produits references recus du service commandes
+     */
+    public int backfill() {
+        int received = 0;
+        long afterProductId = 0;
+        List<Long> page;
+        do {
+            page = orderClient.getReferencedProductIds(afterProductId, BACKFILL_PAGE_SIZE);
+            recordReferences(page);
+            received += page.size();
+            if (!page.isEmpty()) {
+                afterProductId = page.get(page.size() - 1);
+            }
+        } while (page.size() == BACKFILL_PAGE_SIZE);
+        int referencedProducts = received;
+        transactionTemplate.executeWithoutResult(status -> backfillRepository.save(ProductReferenceBackfill.builder()
+                .id(ProductReferenceBackfill.SINGLETON_ID)
+                .completedAt(LocalDateTime.now())
+                .referencedProducts(referencedProducts)
+                .build()));
+        backfillComplete = true;
+        log.info("Reprise des produits references terminee ({} produits recus)", received);
+        return received;
+    }
+
+    // Reprise terminee par cette instance ou une autre
+    private boolean isBackfillComplete() {
+        if (!backfillComplete && backfillRepository.existsById(ProductReferenceBackfill.SINGLETON_ID)) {
+            backfillComplete = true;
+        }
+        return backfillComplete;
+    }
+
+    private synchronized boolean isRemembered(Long productId) {
+        return fitsIndex(productId) && referencedIds.get(productId.intValue());
+    }
+
+    private synchronized void remember(Long productId) {
+        if (fitsIndex(productId)) {
+            referencedIds.set(productId.intValue());
+        }
+    }
+
+    private static boolean fitsIndex(Long productId) {
+        return productId != null && productId >= 0 && productId <= Integer.MAX_VALUE;
+    }
+}
@@ -2,11 +2,15 @@ package com.episen.application.service;
 
 import com.episen.application.dto.ProductRequestDTO;
 import com.episen.application.dto.ProductResponseDTO;
+import com.episen.application.dto.StockOperationRequest;
+import com.episen.application.dto.StockReservationRequest;
 import com.episen.application.mapper.ProductMapper;
 import com.episen.domain.entity.Product;
+import com.episen.domain.entity.StockOperation;
 import com.episen.domain.enums.Category;
+import com.episen.domain.enums.StockOperationType;
 import com.episen.domain.repository.ProductRepository;
-import com.episen.infrastructure.client.OrderClient;
+import com.episen.domain.repository.StockOperationRepository;
 import com.episen.infrastructure.exception.ResourceAlreadyExistsException;
 import com.episen.infrastructure.exception.ResourceNotFoundException;
 import jakarta.validation.Valid;
@@ -20,7 +24,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
@@ -36,7 +45,8 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
     private final MeterRegistry meterRegistry;
-    private final OrderClient orderClient;
+    private final ProductReferenceService productReferenceService;
+    private final StockOperationRepository stockOperationRepository;
 
     /**
      * Recupere tous les produits disponibles en base.
@@ -62,6 +72,21 @@ public class ProductService {
         return productMapper.toDto(product);
     }
 
+    /**
+     * Retourne en une seule requete les produits correspondant aux identifiants fournis.
+     * Les doublons sont fusionnes et les identifiants inconnus sont ignores.
+     *
+     * @param ids identifiants des produits recherches
+     * @return produits trouves au format DTO
+     */
+    public List<ProductResponseDTO> getProductsByIds(Collection<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        List<Product> products = productRepository.findAllById(distinctIds);
+        return products.stream()
+                .map(productMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Cree un nouveau produit apres verification d'unicite du nom.
      *
@@ -112,8 +137,8 @@ public class ProductService {
     @Transactional
     public void deleteProduct(Long id) {
         Product existing = findProductOrThrow(id);
-        // Regle metier: ne pas supprimer si le produit est present dans une commande
-        if (orderClient.isProductInAnyOrder(id)) {
+        // Regle metier: ne pas supprimer si le produit est present dans une commande (index local)
+        if (productReferenceService.isReferenced(id)) {
             throw new IllegalStateException("Le produit ne peut pas etre supprime car il est utilise dans une commande Test Test");
         }
         productRepository.delete(existing);
@@ -178,6 +203,77 @@ public class ProductService {
         return productMapper.toDto(saved);
     }
 
+    /**
+     * Applique une operation de stock idempotente en tout-ou-rien.
+     * Une operation deja enregistree n'est pas rejouee ; une liberation n'est appliquee
+     * que si la reservation qu'elle reference a elle-meme ete appliquee.
+     *
+     * @param request operation a appliquer
+     * @return true si l'operation a ete appliquee, false si elle l'avait deja ete
+     * @throws ResourceNotFoundException si un produit n'existe pas
+     * @throws IllegalStateException     si le stock est insuffisant ou la reservation inconnue
+     */
+    @Transactional
+    public boolean applyStockOperation(@Valid StockOperationRequest request) {
+        if (stockOperationRepository.existsById(request.getOperationId())) {
+            return false;
+        }
+
+        if (request.getType() == StockOperationType.RESERVE) {
+            decrementStock(request.getLines());
+            incrementCounter("products.stock_reserved");
+        } else {
+            if (request.getReservationId() == null
+                    || !stockOperationRepository.existsByOperationIdAndType(request.getReservationId(), StockOperationType.RESERVE)) {
+                throw new IllegalStateException("Reservation inconnue: " + request.getReservationId());
+            }
+            mergeLinesByProduct(request.getLines()).forEach((productId, quantity) -> {
+                if (productRepository.incrementStock(productId, quantity) == 0) {
+                    throw new ResourceNotFoundException("Product", "id", productId);
+                }
+            });
+            incrementCounter("products.stock_released");
+        }
+
+        stockOperationRepository.save(StockOperation.builder()
+                .operationId(request.getOperationId())
+                .type(request.getType())
+                .build());
+        return true;
+    }
+
+    /**
+     * Decremente le stock de chaque produit, lignes fusionnees et traitees par identifiant croissant
+     * afin de verrouiller les lignes toujours dans le meme ordre et eviter les interblocages.
+     *
+     * @param lines lignes a reserver
+     */
+    private void decrementStock(List<StockReservationRequest.Line> lines) {
+        mergeLinesByProduct(lines).forEach((productId, quantity) -> {
+            if (productRepository.decrementStock(productId, quantity) == 0) {
+                if (!productRepository.existsById(productId)) {
+                    throw new ResourceNotFoundException("Product", "id", productId);
+                }
+                throw new IllegalStateException("Stock insuffisant pour le produit " + productId
+                        + ". Quantite demandee: " + quantity);
+            }
+        });
+    }
+
+    /**
+     * Cumule les quantites par produit, triees par identifiant croissant.
+     *
+     * @param lines lignes de la demande
+     * @return quantites par produit
+     */
+    private Map<Long, Integer> mergeLinesByProduct(List<StockReservationRequest.Line> lines) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (StockReservationRequest.Line line : lines) {
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
     /**
      * Charge un produit ou leve une exception descriptive si absent.
      *
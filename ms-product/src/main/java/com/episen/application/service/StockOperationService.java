@@ -0,0 +1,78 @@
+package com.episen.application.service;
+
+import com.episen.application.dto.StockOperationBatchRequest;
+import com.episen.application.dto.StockOperationRequest;
+import com.episen.application.dto.StockOperationResultDTO;
+import com.episen.application.dto.StockReservationRequest;
+import com.episen.domain.enums.StockOperationType;
+import com.episen.infrastructure.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Traite les lots d'operations de stock livres par le relais outbox du service commandes.
+ * Chaque operation est appliquee dans sa propre transaction, dans l'ordre du lot.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockOperationService {
+
+    private final ProductService productService;
+    private final ProductReferenceService productReferenceService;
+
+    /**
+     * Applique les operations du lot et retourne le resultat de chacune.
+     *
+     * @param batch operations a appliquer
+     * @return resultat par operation, dans l'ordre du lot
+     */
+    public List<StockOperationResultDTO> applyAll(StockOperationBatchRequest batch) {
+        List<StockOperationResultDTO> results = new ArrayList<>();
+        for (StockOperationRequest operation : batch.getOperations()) {
+            results.add(apply(operation));
+        }
+        return results;
+    }
+
+    /**
+     * Applique une operation en convertissant les refus metier en resultat REJECTED.
+     *
+     * @param operation operation a appliquer
+     * @return resultat de l'operation
+     */
+    private StockOperationResultDTO apply(StockOperationRequest operation) {
+        // Une reservation porte les lignes d'une commande : ses produits sont references,
+        // que la reservation aboutisse ou non (la commande annulee garde ses lignes)
+        if (operation.getType() == StockOperationType.RESERVE) {
+            productReferenceService.recordReferences(operation.getLines().stream()
+                    .map(StockReservationRequest.Line::getProductId)
+                    .toList());
+        }
+
+        StockOperationResultDTO.Outcome outcome;
+        String message = null;
+        try {
+            outcome = productService.applyStockOperation(operation)
+                    ? StockOperationResultDTO.Outcome.APPLIED
+                    : StockOperationResultDTO.Outcome.DUPLICATE;
+        } catch (ResourceNotFoundException | IllegalStateException e) {
+            log.warn("Operation de stock {} refusee: {}", operation.getOperationId(), e.getMessage());
+            outcome = StockOperationResultDTO.Outcome.REJECTED;
+            message = e.getMessage();
+        } catch (DataIntegrityViolationException e) {
+            // Livraison concurrente de la meme operation : l'autre transaction l'a deja enregistree
+            outcome = StockOperationResultDTO.Outcome.DUPLICATE;
+        }
+        return StockOperationResultDTO.builder()
+                .operationId(operation.getOperationId())
+                .outcome(outcome)
+                .message(message)
+                .build();
+    }
+}
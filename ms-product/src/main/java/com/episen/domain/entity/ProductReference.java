@@ -0,0 +1,31 @@
+package com.episen.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Produit reference par au moins une ligne de commande, connu localement pour interdire sa suppression
+ * sans interroger le service commandes.
+ */
+@Entity
+@Table(name = "product_references")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductReference {
+
+    @Id
+    private Long productId;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime firstReferencedAt;
+}
@@ -0,0 +1,37 @@
+package com.episen.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reprise complete de l'index des produits references depuis le service commandes. Une seule ligne :
+ * sa presence indique que l'index local couvre toutes les commandes anterieures aux reservations
+ * livrees par le relais outbox.
+ */
+@Entity
+@Table(name = "product_reference_backfills")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductReferenceBackfill {
+
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private LocalDateTime completedAt;
+
+    @Column(nullable = false)
+    private int referencedProducts;
+}
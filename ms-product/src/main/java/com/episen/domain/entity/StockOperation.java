@@ -0,0 +1,40 @@
+package com.episen.domain.entity;
+
+import com.episen.domain.enums.StockOperationType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trace d'une operation de stock deja appliquee, utilisee pour rendre les livraisons idempotentes.
+ */
+@Entity
+@Table(name = "stock_operations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockOperation {
+
+    @Id
+    @Column(length = 64)
+    private String operationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StockOperationType type;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime processedAt;
+}
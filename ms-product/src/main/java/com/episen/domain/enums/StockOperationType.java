@@ -0,0 +1,9 @@
+package com.episen.domain.enums;
+
+/**
+ * Nature d'une operation de stock emise par le service commandes.
+ */
+public enum StockOperationType {
+    RESERVE,
+    RELEASE
+}
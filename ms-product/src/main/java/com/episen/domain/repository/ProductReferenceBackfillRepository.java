@@ -0,0 +1,12 @@
+package com.episen.domain.repository;
+
+import com.episen.domain.entity.ProductReferenceBackfill;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository de la reprise de l'index des produits references.
+ */
+@Repository
+public interface ProductReferenceBackfillRepository extends JpaRepository<ProductReferenceBackfill, Integer> {
+}
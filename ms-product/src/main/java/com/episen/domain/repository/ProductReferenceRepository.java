@@ -0,0 +1,37 @@
+package com.episen.domain.repository;
+
+import com.episen.domain.entity.ProductReference;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository des produits references par des lignes de commande.
+ */
+@Repository
+public interface ProductReferenceRepository extends JpaRepository<ProductReference, Long> {
+
+    /**
+     * Enregistre la reference si elle n'existe pas encore (sans effet sinon).
+     *
+     * @param productId identifiant du produit reference
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO product_references (product_id, first_referenced_at)
+            VALUES (:productId, CURRENT_TIMESTAMP)
+            ON CONFLICT (product_id) DO NOTHING
+            """, nativeQuery = true)
+    void insertIfAbsent(Long productId);
+
+    /**
+     * Retourne tous les identifiants de produits references.
+     *
+     * @return identifiants references
+     */
+    @Query("SELECT r.productId FROM ProductReference r")
+    List<Long> findAllProductIds();
+}
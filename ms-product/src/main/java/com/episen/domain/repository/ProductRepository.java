@@ -3,6 +3,9 @@ package com.episen.domain.repository;
 import com.episen.domain.entity.Product;
 import com.episen.domain.enums.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -60,4 +63,27 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @return nombre de produits sous le seuil
      */
     long countByStockLessThan(Integer stock);
+
+    /**
+     * Decremente le stock d'un produit uniquement si la quantite disponible est suffisante.
+     *
+     * @param id       identifiant du produit
+     * @param quantity quantite a retirer
+     * @return nombre de lignes modifiees (0 si produit absent ou stock insuffisant)
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity, p.updatedAt = CURRENT_TIMESTAMP "
+            + "WHERE p.id = :id AND p.stock >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Reincremente le stock d'un produit (liberation d'une reservation).
+     *
+     * @param id       identifiant du produit
+     * @param quantity quantite a restituer
+     * @return nombre de lignes modifiees (0 si produit absent)
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity, p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
 }
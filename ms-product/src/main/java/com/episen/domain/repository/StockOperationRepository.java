@@ -0,0 +1,22 @@
+package com.episen.domain.repository;
+
+import com.episen.domain.entity.StockOperation;
+import com.episen.domain.enums.StockOperationType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Port d'acces aux operations de stock deja traitees.
+ */
+@Repository
+public interface StockOperationRepository extends JpaRepository<StockOperation, String> {
+
+    /**
+     * Verifie qu'une operation d'un type donne a deja ete appliquee.
+     *
+     * @param operationId identifiant de l'operation
+     * @param type        type attendu
+     * @return true si l'operation existe avec ce type
+     */
+    boolean existsByOperationIdAndType(String operationId, StockOperationType type);
+}
@@ -2,16 +2,22 @@ package com.episen.infrastructure.client;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
- * Client pour interroger le microservice Order et savoir si un produit
- * est utilise dans au moins une commande.
+ * Client pour interroger le microservice Order : presence d'un produit dans les commandes
+ * et reprise de l'index des produits references.
  */
 @Slf4j
 @Component
@@ -23,31 +29,70 @@ public class OrderClient {
     /**
      * Construit le client REST pour communiquer avec le microservice de commandes.
      *
-     * @param restTemplateBuilder constructeur de RestTemplate
+     * @param restTemplateFactory fabrique de RestTemplate sur pool de connexions
      * @param orderServiceBaseUrl URL racine du service commandes
      */
     public OrderClient(
-            RestTemplateBuilder restTemplateBuilder,
+            PooledRestTemplateFactory restTemplateFactory,
             @Value("${order.service.url:http://localhost:8083}") String orderServiceBaseUrl) {
-        this.restTemplate = restTemplateBuilder.build();
+        this.restTemplate = restTemplateFactory.create("ms-order");
         this.orderServiceBaseUrl = orderServiceBaseUrl;
     }
 
     /**
-     * Appelle le service Order. L'endpoint cible est a aligner avec le futur service :
-     * - exemple propose : GET /api/v1/orders/product/{productId}/exists -> boolean
-     * Adapter l'URL si l'implementation differe.
+     * Indique si un produit est present dans au moins une ligne de commande, archives comprises.
+     * Les lignes sont ecrites dans la transaction qui cree la commande : une reservation encore
+     * en attente de livraison par le relais outbox est donc deja visible.
+     * Le jeton de l'appelant est transmis au service commandes.
+     *
+     * @param productId identifiant du produit
+     * @return true si le produit est commande
+     * @throws IllegalStateException si le service commandes est injoignable
      */
     public boolean isProductInAnyOrder(Long productId) {
         String url = orderServiceBaseUrl + "/api/v1/orders/product/{productId}/exists";
         try {
-            ResponseEntity<Boolean> response = restTemplate.getForEntity(url, Boolean.class, productId);
-            return Boolean.TRUE.equals(response.getBody());
-        } catch (HttpClientErrorException.NotFound e) {
-            return false;
+            Boolean body = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(buildAuthHeaders()), Boolean.class,
+                    productId).getBody();
+            return Boolean.TRUE.equals(body);
         } catch (RestClientException e) {
             log.error("Erreur lors de l'appel au service Order pour le produit {}", productId, e);
             throw new IllegalStateException("Impossible de verifier la presence du produit dans les commandes", e);
         }
     }
+
+    /**
+     * Recupere une page d'identifiants distincts des produits presents dans au moins une ligne de commande,
+     * par identifiants croissants. Le jeton de l'appelant est transmis au service commandes.
+     *
+     * @param afterProductId dernier identifiant de la page precedente (exclu), 0 pour la premiere page
+     * @param limit          taille de la page ; une page incomplete est la derniere
+     * @return identifiants des produits references
+     * @throws IllegalStateException si le service commandes est injoignable
+     */
+    public List<Long> getReferencedProductIds(long afterProductId, int limit) {
+        String url = orderServiceBaseUrl + "/api/v1/orders/products/referenced?after={after}&limit={limit}";
+        try {
+            Long[] body = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(buildAuthHeaders()), Long[].class,
+                    afterProductId, limit).getBody();
+            return body != null ? Arrays.asList(body) : List.of();
+        } catch (RestClientException e) {
+            log.error("Erreur lors de la recuperation des produits references par le service Order", e);
+            throw new IllegalStateException("Impossible de recuperer les produits references par les commandes", e);
+        }
+    }
+
+    /**
+     * Construit les en-tetes d'authentification a partir du jeton de l'appelant.
+     *
+     * @return en-tetes HTTP
+     */
+    private HttpHeaders buildAuthHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JwtAuthenticationToken jwtAuthentication) {
+            headers.setBearerAuth(jwtAuthentication.getToken().getTokenValue());
+        }
+        return headers;
+    }
 }
@@ -0,0 +1,21 @@
+package com.episen.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Parametres du pool de connexions HTTP utilise par les clients inter-services.
+ */
+@ConfigurationProperties(prefix = "http.client")
+public record HttpClientProperties(
+        @DefaultValue("100") int maxTotal,
+        @DefaultValue("50") int maxPerRoute,
+        @DefaultValue("2s") Duration connectTimeout,
+        @DefaultValue("5s") Duration readTimeout,
+        @DefaultValue("1s") Duration connectionRequestTimeout,
+        @DefaultValue("30s") Duration keepAlive,
+        @DefaultValue("30s") Duration idleEviction,
+        @DefaultValue("5s") Duration validateAfterInactivity) {
+}
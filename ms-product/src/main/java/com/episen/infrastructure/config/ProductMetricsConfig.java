@@ -1,6 +1,6 @@
 package com.episen.infrastructure.config;
 
-import com.episen.domain.repository.ProductRepository;
+import com.episen.infrastructure.monitoring.ProductStatsSnapshot;
 import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
@@ -13,18 +13,17 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class ProductMetricsConfig {
 
-    private static final int LOW_STOCK_THRESHOLD = 5;
-
     private final MeterRegistry meterRegistry;
-    private final ProductRepository productRepository;
+    private final ProductStatsSnapshot productStatsSnapshot;
 
     /**
      * Enregistre les jauges Micrometer au demarrage de l'application.
+     * Elles lisent l'instantane rafraichi en arriere-plan, jamais la base.
      */
     @PostConstruct
     public void registerGauges() {
         meterRegistry.gauge("products.low_stock.count",
-                productRepository,
-                repo -> repo.countByStockLessThan(LOW_STOCK_THRESHOLD));
+                productStatsSnapshot.snapshot(),
+                snapshot -> snapshot.gaugeValue(ProductStatsSnapshot.ProductStats::lowStockCount));
     }
 }
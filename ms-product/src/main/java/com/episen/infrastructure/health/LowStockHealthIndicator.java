@@ -1,6 +1,7 @@
 package com.episen.infrastructure.health;
 
-import com.episen.domain.repository.ProductRepository;
+import com.episen.infrastructure.monitoring.PeriodicSnapshot;
+import com.episen.infrastructure.monitoring.ProductStatsSnapshot;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.actuate.health.AbstractHealthIndicator;
 import org.springframework.boot.actuate.health.Health;
@@ -14,21 +15,24 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class LowStockHealthIndicator extends AbstractHealthIndicator {
 
-    private static final int LOW_STOCK_THRESHOLD = 5;
-
-    private final ProductRepository productRepository;
+    private final ProductStatsSnapshot productStatsSnapshot;
 
     /**
-     * Construit la reponse de sante en fonction du nombre de produits sous le seuil.
+     * Construit la reponse de sante en fonction du nombre de produits sous le seuil,
+     * lu dans l'instantane rafraichi en arriere-plan.
      *
      * @param builder constructeur de l'etat de sante
      */
     @Override
     protected void doHealthCheck(Health.Builder builder) {
-        long lowStockCount = productRepository.countByStockLessThan(LOW_STOCK_THRESHOLD);
+        PeriodicSnapshot<ProductStatsSnapshot.ProductStats> snapshot = productStatsSnapshot.snapshot();
+        builder.withDetail("threshold", ProductStatsSnapshot.LOW_STOCK_THRESHOLD);
+        if (!snapshot.describe(builder)) {
+            return;
+        }
 
-        builder.withDetail("threshold", LOW_STOCK_THRESHOLD)
-                .withDetail("lowStockCount", lowStockCount);
+        long lowStockCount = snapshot.current().orElseThrow().lowStockCount();
+        builder.withDetail("lowStockCount", lowStockCount);
 
         if (lowStockCount > 0) {
             builder.status(Status.UP).withDetail("status", "LOW_STOCK");
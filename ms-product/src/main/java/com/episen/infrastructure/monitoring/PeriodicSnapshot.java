@@ -0,0 +1,129 @@
+package com.episen.infrastructure.monitoring;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Valeurs lues en base par un traitement planifie. Les jauges et indicateurs de sante lisent
+ * la derniere valeur en memoire : un scrape ou une sonde n'execute jamais de requete.
+ *
+ * @param <T> valeurs capturees
+ */
+@Slf4j
+public class PeriodicSnapshot<T> {
+
+    private final String name;
+    private final Supplier<T> loader;
+    private final Duration maxAge;
+    private final Clock clock;
+
+    private volatile T value;
+    private volatile Instant takenAt;
+    private volatile String lastError;
+
+    /**
+     * Cree l'instantane et enregistre la jauge de son age.
+     *
+     * @param name          nom de l'instantane (etiquette de la jauge d'age)
+     * @param loader        lecture des valeurs en base
+     * @param maxAge        age au-dela duquel l'instantane est considere obsolete
+     * @param meterRegistry registre micrometer
+     */
+    public PeriodicSnapshot(String name, Supplier<T> loader, Duration maxAge, MeterRegistry meterRegistry) {
+        this(name, loader, maxAge, meterRegistry, Clock.systemUTC());
+    }
+
+    // Horloge fournie par les tests
+    PeriodicSnapshot(String name, Supplier<T> loader, Duration maxAge, MeterRegistry meterRegistry, Clock clock) {
+        this.name = name;
+        this.loader = loader;
+        this.maxAge = maxAge;
+        this.clock = clock;
+        Gauge.builder("monitoring.snapshot.age.seconds", this, PeriodicSnapshot::ageSeconds)
+                .description("Age du dernier instantane des valeurs lues en base")
+                .tag("snapshot", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Relit les valeurs en base ; en cas d'echec l'instantane precedent est conserve.
+     */
+    public void refresh() {
+        try {
+            T loaded = loader.get();
+            value = loaded;
+            takenAt = clock.instant();
+            lastError = null;
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            log.warn("Rafraichissement de l'instantane {} impossible: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Retourne la derniere valeur capturee.
+     *
+     * @return valeur, vide tant qu'aucun rafraichissement n'a reussi
+     */
+    public Optional<T> current() {
+        return Optional.ofNullable(value);
+    }
+
+    /**
+     * Valeur derivee pour une jauge, NaN tant qu'aucun instantane n'a ete pris.
+     *
+     * @param extractor extraction de la valeur numerique
+     * @return valeur de la jauge
+     */
+    public double gaugeValue(ToDoubleFunction<T> extractor) {
+        T current = value;
+        return current != null ? extractor.applyAsDouble(current) : Double.NaN;
+    }
+
+    /**
+     * Age du dernier instantane.
+     *
+     * @return age en secondes, NaN tant qu'aucun instantane n'a ete pris
+     */
+    public double ageSeconds() {
+        Instant current = takenAt;
+        return current != null ? Duration.between(current, clock.instant()).toMillis() / 1000.0 : Double.NaN;
+    }
+
+    /**
+     * Ajoute l'age de l'instantane au rapport de sante et positionne l'etat : UNKNOWN avant le
+     * premier rafraichissement, DOWN si le dernier a echoue ou si l'instantane est trop ancien.
+     *
+     * @param builder constructeur de l'etat de sante
+     * @return true si l'instantane est exploitable
+     */
+    public boolean describe(Health.Builder builder) {
+        Instant current = takenAt;
+        if (current != null) {
+            builder.withDetail("snapshotTakenAt", current.toString())
+                    .withDetail("snapshotAgeSeconds", ageSeconds());
+        }
+        if (lastError != null) {
+            builder.down().withDetail("error", lastError);
+            return false;
+        }
+        if (current == null) {
+            builder.unknown().withDetail("status", "Snapshot pending");
+            return false;
+        }
+        if (Duration.between(current, clock.instant()).compareTo(maxAge) > 0) {
+            builder.down().withDetail("error", "Snapshot older than " + maxAge.toSeconds() + "s");
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,69 @@
+package com.episen.infrastructure.monitoring;
+
+import com.episen.domain.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Instantane des indicateurs de stock partages par les metriques et l'indicateur de sante,
+ * relu periodiquement en base.
+ */
+@Component
+public class ProductStatsSnapshot {
+
+    /**
+     * Seuil sous lequel un produit est considere en stock bas.
+     */
+    public static final int LOW_STOCK_THRESHOLD = 5;
+
+    /**
+     * Valeurs capturees.
+     *
+     * @param lowStockCount nombre de produits sous le seuil de stock
+     */
+    public record ProductStats(long lowStockCount) {
+    }
+
+    private final ProductRepository productRepository;
+    private final PeriodicSnapshot<ProductStats> snapshot;
+
+    /**
+     * Cree l'instantane ; il est considere obsolete apres trois periodes sans rafraichissement.
+     *
+     * @param productRepository depot des produits
+     * @param meterRegistry     registre micrometer
+     * @param refreshMs         periode de rafraichissement en millisecondes
+     */
+    public ProductStatsSnapshot(
+            ProductRepository productRepository,
+            MeterRegistry meterRegistry,
+            @Value("${monitoring.snapshot.refresh-ms:15000}") long refreshMs) {
+        this.productRepository = productRepository;
+        this.snapshot = new PeriodicSnapshot<>("product-stats", this::load, Duration.ofMillis(refreshMs * 3), meterRegistry);
+    }
+
+    /**
+     * Relit les valeurs en base selon la periode configuree.
+     */
+    @Scheduled(fixedDelayString = "${monitoring.snapshot.refresh-ms:15000}")
+    public void refresh() {
+        snapshot.refresh();
+    }
+
+    /**
+     * Retourne l'instantane courant.
+     *
+     * @return instantane des indicateurs de stock
+     */
+    public PeriodicSnapshot<ProductStats> snapshot() {
+        return snapshot;
+    }
+
+    private ProductStats load() {
+        return new ProductStats(productRepository.countByStockLessThan(LOW_STOCK_THRESHOLD));
+    }
+}
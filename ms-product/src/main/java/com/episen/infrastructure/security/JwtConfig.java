@@ -3,7 +3,9 @@ package com.episen.infrastructure.security;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 
 import java.io.IOException;
@@ -20,16 +22,29 @@ import java.util.Base64;
 @EnableConfigurationProperties(JwtProperties.class)
 public class JwtConfig {
 
+    private static final String SERVICE_TOKEN_ISSUER = "ms-order";
+
     @Bean
     public RSAPublicKey jwtPublicKey(JwtProperties properties) {
         return readPublicKey(properties.publicKeyPath());
     }
 
+    // Jetons des utilisateurs, signes par ms-membership
     @Bean
+    @Primary
     public JwtDecoder jwtDecoder(RSAPublicKey publicKey) {
         return NimbusJwtDecoder.withPublicKey(publicKey).build();
     }
 
+    // Jetons de service de ms-order, signes avec sa propre cle ; acceptes uniquement sur les
+    // operations de stock (voir SecurityConfig)
+    @Bean
+    public JwtDecoder serviceJwtDecoder(JwtProperties properties) {
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withPublicKey(readPublicKey(properties.servicePublicKeyPath())).build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(SERVICE_TOKEN_ISSUER));
+        return decoder;
+    }
+
     private RSAPublicKey readPublicKey(String path) {
         byte[] keyBytes = readKeyBytes(path, "-----BEGIN PUBLIC KEY-----", "-----END PUBLIC KEY-----");
         try {
@@ -3,5 +3,5 @@ package com.episen.infrastructure.security;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(prefix = "jwt")
-public record JwtProperties(String publicKeyPath) {
+public record JwtProperties(String publicKeyPath, String servicePublicKeyPath) {
 }
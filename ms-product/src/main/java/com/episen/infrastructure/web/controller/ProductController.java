@@ -1,9 +1,14 @@
 package com.episen.infrastructure.web.controller;
 
+import com.episen.application.dto.ProductBatchRequest;
 import com.episen.application.dto.ProductRequestDTO;
 import com.episen.application.dto.ProductResponseDTO;
+import com.episen.application.dto.StockOperationBatchRequest;
+import com.episen.application.dto.StockOperationResultDTO;
 import com.episen.application.dto.StockUpdateRequest;
+import com.episen.application.service.ProductReferenceService;
 import com.episen.application.service.ProductService;
+import com.episen.application.service.StockOperationService;
 import com.episen.domain.enums.Category;
 import com.episen.infrastructure.exception.ErrorResponse;
 import com.episen.infrastructure.exception.ResourceAlreadyExistsException;
@@ -38,6 +43,7 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controleur REST pour la gestion des produits.
@@ -61,6 +67,8 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final StockOperationService stockOperationService;
+    private final ProductReferenceService productReferenceService;
 
     /**
      * GET /api/v1/products
@@ -110,6 +118,30 @@ public class ProductController {
         }
     }
 
+    /**
+     * POST /api/v1/products/batch
+     * Recupere plusieurs produits en un seul appel (utilise par ms-order lors de la creation de commande).
+     *
+     * @param request identifiants des produits recherches
+     * @return 200 OK avec les produits trouves (les identifiants inconnus sont absents de la reponse)
+     */
+    @Operation(summary = "Recuperer plusieurs produits par identifiants",
+            description = "Retourne les produits correspondant aux identifiants fournis, doublons fusionnes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Produits trouves",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ProductResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Requete invalide",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ProductResponseDTO>> getProductsByIds(
+            @Valid @RequestBody ProductBatchRequest request) {
+        List<ProductResponseDTO> products = productService.getProductsByIds(request.getIds());
+        return ResponseEntity.ok(products);
+    }
+
     /**
      * POST /api/v1/products
      * Cree un nouveau produit.
@@ -325,6 +357,54 @@ public class ProductController {
         }
     }
 
+    /**
+     * POST /api/v1/products/stock/operations
+     * Applique un lot d'operations de stock idempotentes (reservations et liberations).
+     * Reserve au jeton de service de ms-order (ROLE_SERVICE).
+     *
+     * @param request operations a appliquer, dans l'ordre
+     * @return 200 OK avec le resultat de chaque operation
+     */
+    @Operation(summary = "Appliquer un lot d'operations de stock",
+            description = "Applique chaque operation dans sa propre transaction ; les operations deja traitees ne sont pas rejouees")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lot traite",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = StockOperationResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Requete invalide",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Jeton sans le role ROLE_SERVICE", content = @Content)
+    })
+    @PostMapping(value = "/stock/operations", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<StockOperationResultDTO>> applyStockOperations(
+            @Valid @RequestBody StockOperationBatchRequest request) {
+        List<StockOperationResultDTO> results = stockOperationService.applyAll(request);
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * POST /api/v1/products/references/backfill
+     * Reconstruit l'index local des produits references a partir des lignes de commande existantes.
+     * Reserve aux administrateurs (ROLE_ADMIN).
+     *
+     * @return 200 OK avec le nombre de produits references recus
+     */
+    @Operation(summary = "Reprendre l'index des produits references",
+            description = "Importe depuis le service commandes les produits presents dans au moins une ligne de commande")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reprise effectuee"),
+            @ApiResponse(responseCode = "403", description = "Jeton sans le role ROLE_ADMIN", content = @Content),
+            @ApiResponse(responseCode = "409", description = "Service commandes indisponible",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PostMapping(value = "/references/backfill", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Integer>> backfillProductReferences() {
+        int referencedProducts = productReferenceService.backfill();
+        return ResponseEntity.ok(Map.of("referencedProducts", referencedProducts));
+    }
+
     /**
      * Gere les erreurs de type pour les parametres de requete.
      *
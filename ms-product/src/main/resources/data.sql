@@ -12,3 +12,9 @@ VALUES
 ('USB-C Hub', 'Hub USB-C 7-en-1 avec HDMI et lecteur SD', 49.50, 60, 'ELECTRONICS', 'https://images.unsplash.com/photo-1625948515291-69613efd103f?w=400', TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
 ('Gaming Mouse', 'Souris gaming RGB haute precision 16000 DPI', 59.99, 70, 'ELECTRONICS', 'https://images.unsplash.com/photo-1527864550417-7fd91fc51a46?w=400', TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
 ON CONFLICT (name) DO NOTHING;
+
+-- Produits references par les commandes d'exemple de ms-order (inserees sans passer par l'outbox)
+INSERT INTO product_references (product_id, first_referenced_at)
+VALUES (1, CURRENT_TIMESTAMP), (2, CURRENT_TIMESTAMP), (3, CURRENT_TIMESTAMP),
+       (5, CURRENT_TIMESTAMP), (9, CURRENT_TIMESTAMP), (10, CURRENT_TIMESTAMP)
+ON CONFLICT (product_id) DO NOTHING;
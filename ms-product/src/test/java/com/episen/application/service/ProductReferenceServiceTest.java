@@ -0,0 +1,137 @@
+package com.episen.application.service;
+
+import com.episen.domain.entity.ProductReferenceBackfill;
+import com.episen.domain.repository.ProductReferenceBackfillRepository;
+import com.episen.domain.repository.ProductReferenceRepository;
+import com.episen.infrastructure.client.OrderClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Product Reference Service Tests")
+class ProductReferenceServiceTest {
+
+    @Mock
+    private ProductReferenceRepository productReferenceRepository;
+
+    @Mock
+    private ProductReferenceBackfillRepository backfillRepository;
+
+    @Mock
+    private OrderClient orderClient;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductReferenceService productReferenceService;
+
+    @BeforeEach
+    void setUp() {
+        productReferenceService = new ProductReferenceService(productReferenceRepository, backfillRepository,
+                orderClient, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should answer from the in-memory index without querying")
+    void isReferenced_shouldAnswerFromIndex() {
+        given(productReferenceRepository.findAllProductIds()).willReturn(List.of(7L));
+        productReferenceService.loadIndex();
+
+        assertTrue(productReferenceService.isReferenced(7L));
+
+        verify(productReferenceRepository, never()).existsById(anyLong());
+        verify(orderClient, never()).isProductInAnyOrder(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should find a reference recorded by another instance and remember it")
+    void isReferenced_shouldFindDatabaseReference() {
+        given(productReferenceRepository.existsById(7L)).willReturn(true);
+
+        assertTrue(productReferenceService.isReferenced(7L));
+        assertTrue(productReferenceService.isReferenced(7L));
+
+        verify(productReferenceRepository, times(1)).existsById(7L);
+        verify(orderClient, never()).isProductInAnyOrder(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should ask the order service before the backfill and persist the reference in its own transaction")
+    void isReferenced_shouldFallBackToOrderServiceBeforeBackfill() {
+        given(orderClient.isProductInAnyOrder(7L)).willReturn(true);
+
+        assertTrue(productReferenceService.isReferenced(7L));
+
+        verify(productReferenceRepository).insertIfAbsent(7L);
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getValue().getPropagationBehavior());
+        // Reference persistee et memorisee : plus d'appel distant
+        assertTrue(productReferenceService.isReferenced(7L));
+        verify(orderClient, times(1)).isProductInAnyOrder(7L);
+    }
+
+    @Test
+    @DisplayName("Should fail closed before the backfill when the order service is unreachable")
+    void isReferenced_shouldFailClosedWhenOrderServiceUnreachable() {
+        given(orderClient.isProductInAnyOrder(7L)).willThrow(new IllegalStateException("Service commandes injoignable"));
+
+        assertThrows(IllegalStateException.class, () -> productReferenceService.isReferenced(7L));
+    }
+
+    @Test
+    @DisplayName("Should answer locally once the backfill is complete")
+    void isReferenced_shouldAnswerLocallyAfterBackfill() {
+        given(backfillRepository.existsById(ProductReferenceBackfill.SINGLETON_ID)).willReturn(true);
+
+        assertFalse(productReferenceService.isReferenced(7L));
+
+        verify(orderClient, never()).isProductInAnyOrder(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should page through the order service and then persist the backfill watermark")
+    void backfill_shouldRecordEveryPageThenWatermark() {
+        int pageSize = ProductReferenceService.BACKFILL_PAGE_SIZE;
+        List<Long> firstPage = LongStream.rangeClosed(1, pageSize).boxed().toList();
+        List<Long> lastPage = List.of(pageSize + 5L, pageSize + 9L);
+        given(orderClient.getReferencedProductIds(0L, pageSize)).willReturn(firstPage);
+        given(orderClient.getReferencedProductIds(eq((long) pageSize), anyInt())).willReturn(lastPage);
+
+        assertEquals(pageSize + 2, productReferenceService.backfill());
+
+        verify(productReferenceRepository).insertIfAbsent(1L);
+        verify(productReferenceRepository).insertIfAbsent((long) pageSize);
+        verify(productReferenceRepository).insertIfAbsent(pageSize + 9L);
+        ArgumentCaptor<ProductReferenceBackfill> watermark = ArgumentCaptor.forClass(ProductReferenceBackfill.class);
+        verify(backfillRepository).save(watermark.capture());
+        assertEquals(pageSize + 2, watermark.getValue().getReferencedProducts());
+
+        // Reprise terminee : un produit inconnu n'est plus verifie a distance
+        assertFalse(productReferenceService.isReferenced(pageSize + 7L));
+        assertTrue(productReferenceService.isReferenced(pageSize + 9L));
+        verify(orderClient, never()).isProductInAnyOrder(anyLong());
+    }
+}
@@ -2,11 +2,14 @@ package com.episen.application.service;
 
 import com.episen.application.dto.ProductRequestDTO;
 import com.episen.application.dto.ProductResponseDTO;
+import com.episen.application.dto.StockOperationRequest;
+import com.episen.application.dto.StockReservationRequest;
 import com.episen.application.mapper.ProductMapper;
 import com.episen.domain.entity.Product;
 import com.episen.domain.enums.Category;
+import com.episen.domain.enums.StockOperationType;
 import com.episen.domain.repository.ProductRepository;
-import com.episen.infrastructure.client.OrderClient;
+import com.episen.domain.repository.StockOperationRepository;
 import com.episen.infrastructure.exception.ResourceAlreadyExistsException;
 import com.episen.infrastructure.exception.ResourceNotFoundException;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
@@ -14,17 +17,24 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
@@ -39,7 +49,10 @@ class ProductServiceTest {
     private ProductMapper productMapper;
 
     @Mock
-    private OrderClient orderClient;
+    private ProductReferenceService productReferenceService;
+
+    @Mock
+    private StockOperationRepository stockOperationRepository;
 
     private ProductService productService;
 
@@ -47,7 +60,7 @@ class ProductServiceTest {
 
     @BeforeEach
     void setUp() {
-        productService = new ProductService(productRepository, productMapper, meterRegistry, orderClient);
+        productService = new ProductService(productRepository, productMapper, meterRegistry, productReferenceService, stockOperationRepository);
     }
 
     @Test
@@ -127,10 +140,105 @@ class ProductServiceTest {
                 .build();
 
         given(productRepository.findById(product.getId())).willReturn(Optional.of(product));
-        given(orderClient.isProductInAnyOrder(product.getId())).willReturn(true);
+        given(productReferenceService.isReferenced(product.getId())).willReturn(true);
 
         assertThrows(IllegalStateException.class, () -> productService.deleteProduct(product.getId()));
         verify(productRepository, never()).delete(any());
-        verify(orderClient).isProductInAnyOrder(eq(product.getId()));
+        verify(productReferenceService).isReferenced(eq(product.getId()));
+    }
+
+    @Test
+    @DisplayName("Should load products in a single query with duplicate IDs merged")
+    void getProductsByIds_shouldMergeDuplicatesAndQueryOnce() {
+        Product product = Product.builder()
+                .id(1L)
+                .name("Laptop")
+                .price(new BigDecimal("999.99"))
+                .stock(10)
+                .category(Category.ELECTRONICS)
+                .build();
+        ProductResponseDTO response = ProductResponseDTO.builder().id(1L).name("Laptop").build();
+
+        given(productRepository.findAllById(Set.of(1L, 3L))).willReturn(List.of(product));
+        given(productMapper.toDto(product)).willReturn(response);
+
+        List<ProductResponseDTO> result = productService.getProductsByIds(List.of(1L, 3L, 1L));
+
+        assertEquals(List.of(response), result);
+        verify(productRepository).findAllById(Set.of(1L, 3L));
+    }
+
+    @Test
+    @DisplayName("Should reserve merged lines in ascending product ID order")
+    void applyStockOperation_shouldDecrementInDeterministicOrder() {
+        StockOperationRequest request = StockOperationRequest.builder()
+                .operationId("op-1")
+                .type(StockOperationType.RESERVE)
+                .lines(List.of(
+                        new StockReservationRequest.Line(5L, 1),
+                        new StockReservationRequest.Line(2L, 2),
+                        new StockReservationRequest.Line(5L, 3)))
+                .build();
+
+        given(productRepository.decrementStock(2L, 2)).willReturn(1);
+        given(productRepository.decrementStock(5L, 4)).willReturn(1);
+
+        assertTrue(productService.applyStockOperation(request));
+
+        InOrder inOrder = inOrder(productRepository);
+        inOrder.verify(productRepository).decrementStock(2L, 2);
+        inOrder.verify(productRepository).decrementStock(5L, 4);
+    }
+
+    @Test
+    @DisplayName("Should fail the whole reservation when one product lacks stock")
+    void applyStockOperation_shouldThrowWhenStockInsufficient() {
+        StockOperationRequest request = StockOperationRequest.builder()
+                .operationId("op-1")
+                .type(StockOperationType.RESERVE)
+                .lines(List.of(
+                        new StockReservationRequest.Line(1L, 1),
+                        new StockReservationRequest.Line(2L, 50)))
+                .build();
+
+        given(productRepository.decrementStock(1L, 1)).willReturn(1);
+        given(productRepository.decrementStock(2L, 50)).willReturn(0);
+        given(productRepository.existsById(2L)).willReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> productService.applyStockOperation(request));
+        verify(stockOperationRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should not replay a stock operation that was already applied")
+    void applyStockOperation_shouldSkipDuplicate() {
+        StockOperationRequest request = StockOperationRequest.builder()
+                .operationId("op-1")
+                .type(StockOperationType.RESERVE)
+                .lines(List.of(new StockReservationRequest.Line(1L, 2)))
+                .build();
+
+        given(stockOperationRepository.existsById("op-1")).willReturn(true);
+
+        assertFalse(productService.applyStockOperation(request));
+        verify(productRepository, never()).decrementStock(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should reject a release whose reservation was never applied")
+    void applyStockOperation_shouldRejectReleaseOfUnknownReservation() {
+        StockOperationRequest request = StockOperationRequest.builder()
+                .operationId("op-2")
+                .type(StockOperationType.RELEASE)
+                .reservationId("op-1")
+                .lines(List.of(new StockReservationRequest.Line(1L, 2)))
+                .build();
+
+        given(stockOperationRepository.existsById("op-2")).willReturn(false);
+        given(stockOperationRepository.existsByOperationIdAndType("op-1", StockOperationType.RESERVE)).willReturn(false);
+
+        assertThrows(IllegalStateException.class, () -> productService.applyStockOperation(request));
+        verify(productRepository, never()).incrementStock(any(), anyInt());
+        verify(stockOperationRepository, never()).save(any());
     }
 }
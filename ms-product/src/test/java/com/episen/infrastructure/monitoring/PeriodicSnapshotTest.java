@@ -0,0 +1,157 @@
+package com.episen.infrastructure.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Periodic Snapshot Tests")
+class PeriodicSnapshotTest {
+
+    private static final Duration MAX_AGE = Duration.ofSeconds(60);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-15T10:00:00Z"));
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicBoolean failing = new AtomicBoolean();
+
+    private PeriodicSnapshot<Integer> snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = new PeriodicSnapshot<>("products", () -> {
+            if (failing.get()) {
+                throw new IllegalStateException("base indisponible");
+            }
+            return loads.incrementAndGet();
+        }, MAX_AGE, meterRegistry, clock);
+    }
+
+    @Test
+    @DisplayName("Should report UNKNOWN and NaN gauges before the first refresh")
+    void describe_shouldBeUnknownBeforeFirstRefresh() {
+        Health.Builder builder = Health.up();
+
+        assertFalse(snapshot.describe(builder));
+
+        assertEquals(Status.UNKNOWN, builder.build().getStatus());
+        assertTrue(snapshot.current().isEmpty());
+        assertTrue(Double.isNaN(snapshot.ageSeconds()));
+        assertTrue(Double.isNaN(snapshot.gaugeValue(Integer::doubleValue)));
+        assertTrue(Double.isNaN(ageGauge()));
+    }
+
+    @Test
+    @DisplayName("Should stay UP within the maximum age and report the age gauge")
+    void describe_shouldBeUsableWhileFresh() {
+        snapshot.refresh();
+        clock.advance(Duration.ofSeconds(30));
+        Health.Builder builder = Health.up();
+
+        assertTrue(snapshot.describe(builder));
+
+        assertEquals(Status.UP, builder.build().getStatus());
+        assertEquals(30.0, ageGauge());
+        assertEquals(1.0, snapshot.gaugeValue(Integer::doubleValue));
+    }
+
+    @Test
+    @DisplayName("Should report DOWN once the snapshot is older than the maximum age")
+    void describe_shouldBeDownWhenStale() {
+        snapshot.refresh();
+        clock.advance(MAX_AGE.plusSeconds(1));
+        Health.Builder builder = Health.up();
+
+        assertFalse(snapshot.describe(builder));
+
+        Health health = builder.build();
+        assertEquals(Status.DOWN, health.getStatus());
+        assertEquals("Snapshot older than 60s", health.getDetails().get("error"));
+    }
+
+    @Test
+    @DisplayName("Should report DOWN after a failed refresh while keeping the previous value")
+    void describe_shouldBeDownAfterFailedRefresh() {
+        snapshot.refresh();
+        failing.set(true);
+        clock.advance(Duration.ofSeconds(10));
+        snapshot.refresh();
+        Health.Builder builder = Health.up();
+
+        assertFalse(snapshot.describe(builder));
+
+        Health health = builder.build();
+        assertEquals(Status.DOWN, health.getStatus());
+        assertEquals("base indisponible", health.getDetails().get("error"));
+        assertEquals(1, snapshot.current().orElseThrow());
+        assertEquals(10.0, ageGauge());
+
+        // Rafraichissement suivant reussi : de nouveau exploitable
+        failing.set(false);
+        snapshot.refresh();
+        assertTrue(snapshot.describe(Health.up()));
+        assertEquals(0.0, ageGauge());
+    }
+
+    @Test
+    @DisplayName("Should report DOWN when the first refresh fails")
+    void describe_shouldBeDownWhenFirstRefreshFails() {
+        failing.set(true);
+        snapshot.refresh();
+        Health.Builder builder = Health.up();
+
+        assertFalse(snapshot.describe(builder));
+
+        assertEquals(Status.DOWN, builder.build().getStatus());
+        assertTrue(Double.isNaN(ageGauge()));
+    }
+
+    private double ageGauge() {
+        return meterRegistry.get("monitoring.snapshot.age.seconds").tag("snapshot", "products").gauge().value();
+    }
+
+    /**
+     * Horloge avancee a la main par les tests.
+     */
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}